@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import vaultWeb.security.EncryptionUtil;
+import vaultWeb.security.MessagePayloadCodec;
 
 @Configuration
 public class EncryptionConfig {
@@ -11,8 +12,19 @@ public class EncryptionConfig {
   @Value("${encryption.master-key}")
   private String masterKey;
 
+  @Value("${chat.compression.enabled:true}")
+  private boolean compressionEnabled;
+
+  @Value("${chat.compression.threshold-bytes:256}")
+  private int compressionThresholdBytes;
+
   @Bean
   public EncryptionUtil encryptionUtil() {
     return new EncryptionUtil(masterKey);
   }
+
+  @Bean
+  public MessagePayloadCodec messagePayloadCodec() {
+    return new MessagePayloadCodec(compressionEnabled, compressionThresholdBytes);
+  }
 }
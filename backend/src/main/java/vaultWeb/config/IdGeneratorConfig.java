@@ -0,0 +1,23 @@
+package vaultWeb.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import vaultWeb.models.ids.SnowflakeIdGenerator;
+
+/**
+ * Configures the node id of the process-wide {@link SnowflakeIdGenerator}.
+ *
+ * <p>Every backend instance writing to the same database needs its own {@code ids.node-id}.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+  @Value("${ids.node-id:0}")
+  private long nodeId;
+
+  @PostConstruct
+  public void configureIdGenerator() {
+    SnowflakeIdGenerator.configureShared(nodeId);
+  }
+}
@@ -9,7 +9,12 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import vaultWeb.dtos.ChatMessageDto;
+import vaultWeb.exceptions.notfound.PrivateChatNotFoundException;
+import vaultWeb.exceptions.notfound.UserNotFoundException;
 import vaultWeb.models.ChatMessage;
+import vaultWeb.services.ChatReferenceResolver;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+import vaultWeb.services.ChatReferenceResolver.SenderRef;
 import vaultWeb.services.ChatService;
 
 /**
@@ -25,42 +30,47 @@ public class ChatController {
 
   private final SimpMessagingTemplate messagingTemplate;
   private final ChatService chatService;
+  private final ChatReferenceResolver referenceResolver;
 
   /**
    * Handles incoming group chat messages from clients and broadcasts them to all subscribers of the
    * specified group topic.
    *
+   * <p>The broadcast is a {@link ChatMessageDto}, the same shape private messages are delivered in:
+   * {@code id}, the plaintext {@code content}, {@code timestamp}, {@code senderId}, {@code
+   * senderUsername} and {@code groupId}. Until the sender and group came from the reference cache,
+   * the saved {@link ChatMessage} entity itself was broadcast; subscribers reading its {@code
+   * cipherText}, {@code iv} or nested {@code sender} and {@code group} objects must read the flat
+   * fields instead.
+   *
    * @param messageDto DTO containing message content, sender information, and target group
    */
   @MessageMapping("/chat.send")
   public void sendMessage(@Payload ChatMessageDto messageDto) {
     ChatMessage savedMessage = chatService.saveMessage(messageDto);
+    ChatMessageDto responseDto = toResponseDto(savedMessage, messageDto);
 
-    messagingTemplate.convertAndSend(
-        "/topic/group/" + savedMessage.getGroup().getId(), savedMessage);
+    messagingTemplate.convertAndSend("/topic/group/" + responseDto.getGroupId(), responseDto);
   }
 
   /**
    * Handles incoming private chat messages from clients and sends them to both users of the private
-   * chat. The message content is decrypted before delivery.
+   * chat. The plaintext content of the incoming message is delivered, so the stored ciphertext does
+   * not have to be decrypted again.
    *
    * @param messageDto DTO containing message content, sender information, and private chat ID
    */
   @MessageMapping("/chat.private.send")
   public void sendPrivateMessage(@Valid @Payload ChatMessageDto messageDto) {
     ChatMessage savedMessage = chatService.saveMessage(messageDto);
+    ChatMessageDto responseDto = toResponseDto(savedMessage, messageDto);
 
-    String decryptedContent =
-        chatService.decrypt(savedMessage.getCipherText(), savedMessage.getIv());
-
-    ChatMessageDto responseDto = new ChatMessageDto();
-    responseDto.setContent(decryptedContent);
-    responseDto.setTimestamp(savedMessage.getTimestamp().toString());
-    responseDto.setSenderUsername(savedMessage.getSender().getUsername());
-    responseDto.setPrivateChatId(savedMessage.getPrivateChat().getId());
-
-    String user1 = savedMessage.getPrivateChat().getUser1().getUsername();
-    String user2 = savedMessage.getPrivateChat().getUser2().getUsername();
+    PrivateChatRef privateChat =
+        referenceResolver
+            .findPrivateChat(responseDto.getPrivateChatId())
+            .orElseThrow(() -> new PrivateChatNotFoundException("PrivateChat not found"));
+    String user1 = privateChat.user1Username();
+    String user2 = privateChat.user2Username();
 
     messagingTemplate.convertAndSendToUser(user1, "/queue/private", responseDto);
     Set<String> recipients = Set.of(user1, user2);
@@ -73,4 +83,28 @@ public class ChatController {
         responseDto.getSenderUsername(),
         responseDto.getPrivateChatId());
   }
+
+  /**
+   * Builds the broadcast payload from the saved message and the cached sender reference. The
+   * message's associations are lazy references, so only their ids are read here.
+   */
+  private ChatMessageDto toResponseDto(ChatMessage savedMessage, ChatMessageDto incoming) {
+    SenderRef sender =
+        referenceResolver
+            .findSenderById(savedMessage.getSender().getId())
+            .orElseThrow(() -> new UserNotFoundException("Sender not found by ID"));
+
+    ChatMessageDto responseDto = new ChatMessageDto();
+    responseDto.setId(savedMessage.getId());
+    responseDto.setContent(incoming.getContent());
+    responseDto.setTimestamp(savedMessage.getTimestamp().toString());
+    responseDto.setSenderId(sender.id());
+    responseDto.setSenderUsername(sender.username());
+    if (savedMessage.getGroup() != null) {
+      responseDto.setGroupId(savedMessage.getGroup().getId());
+    } else {
+      responseDto.setPrivateChatId(savedMessage.getPrivateChat().getId());
+    }
+    return responseDto;
+  }
 }
@@ -1,40 +1,64 @@
 package vaultWeb.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import vaultWeb.dtos.dashboard.DashboardSection;
 import vaultWeb.dtos.dashboard.UserDashboardDto;
+import vaultWeb.exceptions.InvalidDashboardSectionException;
 import vaultWeb.exceptions.UnauthorizedException;
 import vaultWeb.exceptions.notfound.UserNotFoundException;
 import vaultWeb.models.User;
 import vaultWeb.repositories.UserRepository;
-import vaultWeb.services.DashboardService;
+import vaultWeb.services.DashboardCache;
 import vaultWeb.services.auth.AuthService;
 
-/** Provides aggregated user-centric data to power the dashboard UI. */
+/**
+ * Provides aggregated user-centric data to power the dashboard UI. Dashboards are served from the
+ * per-user {@link DashboardCache}.
+ */
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
 @Tag(name = "Dashboard Controller", description = "Aggregated view of user related data")
 public class DashboardController {
 
-  private final DashboardService dashboardService;
+  private final DashboardCache dashboardCache;
   private final AuthService authService;
   private final UserRepository userRepository;
 
   @GetMapping("/me")
-  @Operation(summary = "Get dashboard data for the authenticated user")
-  public ResponseEntity<UserDashboardDto> getCurrentUserDashboard() {
+  @Operation(
+      summary = "Get dashboard data for the authenticated user",
+      description =
+          """
+                    'sections' selects the parts to return, as a comma-separated list of profile,
+                    groups, private_chats, polls and recent_messages; all of them by default.
+                    Sections that are not requested are null. A requested section that could not
+                    be loaded in time is null as well, while the others are still returned.
+                    """)
+  @ApiResponse(responseCode = "200", description = "Dashboard retrieved successfully.")
+  @ApiResponse(responseCode = "400", description = "Unknown section.")
+  public ResponseEntity<UserDashboardDto> getCurrentUserDashboard(
+      @RequestParam(required = false) String sections) {
     User currentUser = authService.getCurrentUser();
     if (currentUser == null) {
       throw new UnauthorizedException("User is not authenticated");
     }
-    return ResponseEntity.ok(dashboardService.buildDashboard(currentUser));
+    if (sections == null) {
+      return ResponseEntity.ok(dashboardCache.getDashboard(currentUser));
+    }
+    return ResponseEntity.ok(dashboardCache.getDashboard(currentUser, parseSections(sections)));
   }
 
   @GetMapping("/{username}")
@@ -46,6 +70,19 @@ public class DashboardController {
         userRepository
             .findByUsername(username)
             .orElseThrow(() -> new UserNotFoundException("User not found: " + username));
-    return ResponseEntity.ok(dashboardService.buildDashboard(targetUser));
+    return ResponseEntity.ok(dashboardCache.getDashboard(targetUser));
+  }
+
+  private static Set<DashboardSection> parseSections(String sections) {
+    Set<DashboardSection> parsed = EnumSet.noneOf(DashboardSection.class);
+    for (String name : sections.split(",")) {
+      String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+      try {
+        parsed.add(DashboardSection.valueOf(normalized));
+      } catch (IllegalArgumentException e) {
+        throw new InvalidDashboardSectionException("Unknown section '" + name.trim() + "'");
+      }
+    }
+    return parsed;
   }
 }
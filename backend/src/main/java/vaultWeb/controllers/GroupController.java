@@ -7,10 +7,16 @@ import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import vaultWeb.dtos.CompactMessagePageDto;
 import vaultWeb.dtos.GroupDto;
+import vaultWeb.dtos.KeyRotationDto;
+import vaultWeb.dtos.MessagePageDto;
 import vaultWeb.models.Group;
+import vaultWeb.models.KeyRotationJob;
 import vaultWeb.models.User;
 import vaultWeb.security.annotations.AdminOnly;
+import vaultWeb.services.ChatHistoryService;
+import vaultWeb.services.ChatKeyRotationService;
 import vaultWeb.services.GroupService;
 import vaultWeb.services.auth.AuthService;
 
@@ -28,6 +34,8 @@ public class GroupController {
 
   private final GroupService groupService;
   private final AuthService authService;
+  private final ChatHistoryService chatHistoryService;
+  private final ChatKeyRotationService keyRotationService;
 
   /**
    * Retrieves all public groups.
@@ -82,6 +90,115 @@ public class GroupController {
     return ResponseEntity.ok(members);
   }
 
+  /**
+   * Retrieves one page of a group's message history. Only members of the group may read it.
+   *
+   * @param id the ID of the group
+   * @param before cursor to load the messages older than; optional
+   * @param after cursor to load the messages newer than; optional
+   * @param limit page size, capped by the server; optional
+   * @return the page of decrypted messages in chronological order, with cursors for the adjacent
+   *     pages
+   */
+  @GetMapping("/{id}/messages")
+  @Operation(
+      summary = "Retrieves a page of a group's message history",
+      description =
+          """
+                    Uses keyset pagination. Without a cursor the latest messages are returned;
+                    'before' pages towards older and 'after' towards newer messages.
+                    """)
+  @ApiResponse(responseCode = "200", description = "Messages retrieved successfully")
+  @ApiResponse(responseCode = "400", description = "Malformed cursor.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  @ApiResponse(responseCode = "403", description = "Current user is not a member of the group.")
+  @ApiResponse(responseCode = "404", description = "Group was not found.")
+  public ResponseEntity<MessagePageDto> getGroupMessages(
+      @PathVariable Long id,
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer limit) {
+    User currentUser = authService.getCurrentUser();
+    return ResponseEntity.ok(
+        chatHistoryService.getGroupPage(id, currentUser.getId(), before, after, limit));
+  }
+
+  /**
+   * Retrieves one page of a group's message history in the compact sender-dictionary format. Only
+   * members of the group may read it.
+   *
+   * @param id the ID of the group
+   * @param before cursor to load the messages older than; optional
+   * @param after cursor to load the messages newer than; optional
+   * @param limit page size, capped by the server; optional
+   * @return the page, with each sender listed once and referenced by index from the messages
+   */
+  @GetMapping("/{id}/messages/compact")
+  @Operation(summary = "Retrieves a page of a group's message history in compact form")
+  @ApiResponse(responseCode = "200", description = "Messages retrieved successfully")
+  @ApiResponse(responseCode = "400", description = "Malformed cursor.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  @ApiResponse(responseCode = "403", description = "Current user is not a member of the group.")
+  @ApiResponse(responseCode = "404", description = "Group was not found.")
+  public ResponseEntity<CompactMessagePageDto> getCompactGroupMessages(
+      @PathVariable Long id,
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer limit) {
+    User currentUser = authService.getCurrentUser();
+    return ResponseEntity.ok(
+        chatHistoryService.getCompactGroupPage(id, currentUser.getId(), before, after, limit));
+  }
+
+  /**
+   * Rotates the group's message encryption key. Admin privileges required.
+   *
+   * <p>New messages use the new key immediately; existing messages are re-encrypted in the
+   * background. If the previous rotation failed, it is restarted instead.
+   *
+   * @param id the ID of the group
+   * @return the state of the started rotation
+   */
+  @AdminOnly
+  @PostMapping("/{id}/rotate-key")
+  @Operation(summary = "Rotates the group's encryption key. Admin privileges required")
+  @ApiResponse(responseCode = "202", description = "Rotation started")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  @ApiResponse(
+      responseCode = "403",
+      description = "Unauthorized request. You must have admin privileges.")
+  public ResponseEntity<KeyRotationDto> rotateGroupKey(@PathVariable Long id) {
+    KeyRotationJob job = keyRotationService.rotateGroupKey(id);
+    return ResponseEntity.accepted().body(KeyRotationDto.from(job));
+  }
+
+  /**
+   * Reports the progress of the group's latest key rotation. Admin privileges required.
+   *
+   * @param id the ID of the group
+   * @return the state of the latest rotation
+   */
+  @AdminOnly
+  @GetMapping("/{id}/rotate-key")
+  @Operation(summary = "Gets the group's latest key rotation. Admin privileges required")
+  @ApiResponse(responseCode = "200", description = "Rotation retrieved successfully")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  @ApiResponse(
+      responseCode = "403",
+      description = "Unauthorized request. You must have admin privileges.")
+  @ApiResponse(responseCode = "404", description = "The group's key was never rotated")
+  public ResponseEntity<KeyRotationDto> getGroupKeyRotation(@PathVariable Long id) {
+    return ResponseEntity.ok(KeyRotationDto.from(keyRotationService.getGroupRotation(id)));
+  }
+
   /**
    * Creates a new group.
    *
@@ -3,17 +3,25 @@ package vaultWeb.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
-import java.util.List;
+import java.util.Locale;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import vaultWeb.dtos.PollBallotDto;
+import vaultWeb.dtos.PollBatchVoteRequestDto;
+import vaultWeb.dtos.PollBatchVoteResultDto;
+import vaultWeb.dtos.PollPageDto;
 import vaultWeb.dtos.PollRequestDto;
 import vaultWeb.dtos.PollResponseDto;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.dtos.PollVoterPageDto;
+import vaultWeb.exceptions.InvalidPollStatusException;
 import vaultWeb.exceptions.notfound.GroupNotFoundException;
 import vaultWeb.models.Group;
 import vaultWeb.models.Poll;
 import vaultWeb.models.User;
+import vaultWeb.models.enums.PollStatus;
 import vaultWeb.services.GroupService;
 import vaultWeb.services.PollService;
 import vaultWeb.services.auth.AuthService;
@@ -67,30 +75,36 @@ public class PollController {
   }
 
   /**
-   * Retrieves all polls of a given group.
+   * Retrieves the polls of a given group, one page at a time.
    *
    * @param groupId the ID of the group
-   * @return list of PollResponseDto objects
+   * @param status only polls with this status, 'open' or 'closed' (optional)
+   * @param before the {@code nextBefore} of the previous page (optional)
+   * @param limit the page size (optional)
+   * @return one page of poll summaries, newest first
    */
   @GetMapping("")
   @Operation(
-      summary = "Retrieves all polls of a given group",
+      summary = "Retrieves the polls of a given group",
       description =
           """
-      This endpoint returns every poll within a specific group.
-      - 'groupId': the ID of the group to retrieve all polls from
+      This endpoint returns the polls of a group newest first, with vote counts but no voters.
+      - 'status': 'open' or 'closed' to only list polls that do or no longer accept votes
+      - 'before': the 'nextBefore' value of the previous page, omitted for the first page
+      - 'limit': the page size, 20 by default and at most 100
       """)
   @ApiResponse(responseCode = "200", description = "Polls retrieved successfully.")
   @ApiResponse(
       responseCode = "401",
       description = "Unauthorized request. You must provide an authentication token.")
-  public ResponseEntity<List<PollResponseDto>> getPolls(@PathVariable Long groupId) {
+  public ResponseEntity<PollPageDto> getPolls(
+      @PathVariable Long groupId,
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) Long before,
+      @RequestParam(required = false) Integer limit) {
     User currentUser = authService.getCurrentUser();
-    List<PollResponseDto> polls =
-        pollService.getPollsByGroup(groupId, currentUser).stream()
-            .map(pollService::toResponseDto)
-            .toList();
-    return ResponseEntity.ok(polls);
+    return ResponseEntity.ok(
+        pollService.getPollPage(groupId, parseStatus(status), before, limit, currentUser));
   }
 
   /**
@@ -122,6 +136,184 @@ public class PollController {
     return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
   }
 
+  /**
+   * Casts a ballot in a poll: one option in a single choice poll, several in a multiple choice
+   * poll, or options in order of preference in a ranked choice poll.
+   *
+   * @param groupId the ID of the group
+   * @param pollId the ID of the poll
+   * @param ballot the options picked
+   * @return HTTP 204 No Content
+   */
+  @PostMapping("/{pollId}/ballot")
+  @Operation(
+      summary = "Casts a ballot in a poll",
+      description =
+          """
+      This endpoint casts the current user's ballot in a poll of the group. Single choice polls
+      take exactly one option, multiple choice polls up to one per option, and ranked choice
+      polls the options in order of preference, most preferred first.
+      """)
+  @ApiResponse(responseCode = "204", description = "Ballot cast successfully.")
+  @ApiResponse(
+      responseCode = "400",
+      description = "The ballot picks an option twice, or several in a single choice poll.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public ResponseEntity<Void> castBallot(
+      @PathVariable Long groupId,
+      @PathVariable Long pollId,
+      @RequestBody @Valid PollBallotDto ballot) {
+    User currentUser = authService.getCurrentUser();
+    pollService.castBallot(groupId, pollId, ballot.optionIds(), currentUser);
+    return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+  }
+
+  /**
+   * Replaces the current user's ballot in a poll.
+   *
+   * @param groupId the ID of the group
+   * @param pollId the ID of the poll
+   * @param ballot the options of the new ballot
+   * @return HTTP 204 No Content
+   */
+  @PutMapping("/{pollId}/ballot")
+  @Operation(
+      summary = "Changes the ballot in a poll",
+      description =
+          """
+      This endpoint moves the current user's vote to other options of a poll that is still open,
+      as one atomic change. The new ballot follows the same rules as when casting one.
+      """)
+  @ApiResponse(responseCode = "204", description = "Ballot changed successfully.")
+  @ApiResponse(responseCode = "404", description = "The user has not voted in the poll.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public ResponseEntity<Void> changeBallot(
+      @PathVariable Long groupId,
+      @PathVariable Long pollId,
+      @RequestBody @Valid PollBallotDto ballot) {
+    User currentUser = authService.getCurrentUser();
+    pollService.changeBallot(groupId, pollId, ballot.optionIds(), currentUser);
+    return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+  }
+
+  /**
+   * Retracts the current user's ballot in a poll.
+   *
+   * @param groupId the ID of the group
+   * @param pollId the ID of the poll
+   * @return HTTP 204 No Content
+   */
+  @DeleteMapping("/{pollId}/ballot")
+  @Operation(
+      summary = "Retracts the ballot in a poll",
+      description =
+          """
+      This endpoint withdraws the current user's vote from a poll that is still open, so the
+      user can vote again.
+      """)
+  @ApiResponse(responseCode = "204", description = "Ballot retracted successfully.")
+  @ApiResponse(responseCode = "404", description = "The user has not voted in the poll.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public ResponseEntity<Void> retractBallot(@PathVariable Long groupId, @PathVariable Long pollId) {
+    User currentUser = authService.getCurrentUser();
+    pollService.retractBallot(groupId, pollId, currentUser);
+    return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+  }
+
+  /**
+   * Casts votes in several polls of a group at once.
+   *
+   * @param groupId the ID of the group
+   * @param request the votes to cast
+   * @return the polls whose votes were stored and those the user had already voted in
+   */
+  @PostMapping("/votes")
+  @Operation(
+      summary = "Casts votes in several polls at once",
+      description =
+          """
+      This endpoint casts up to 100 votes of the current user in polls of one group, in one
+      transaction. If any poll or option is invalid, no vote is cast. Votes in polls the user
+      has already voted in are skipped and reported.
+      """)
+  @ApiResponse(responseCode = "200", description = "Votes processed successfully.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public ResponseEntity<PollBatchVoteResultDto> voteBatch(
+      @PathVariable Long groupId, @RequestBody @Valid PollBatchVoteRequestDto request) {
+    User currentUser = authService.getCurrentUser();
+    return ResponseEntity.ok(pollService.voteBatch(groupId, request.votes(), currentUser));
+  }
+
+  /**
+   * Returns the results of a poll.
+   *
+   * @param groupId the ID of the group
+   * @param pollId the ID of the poll
+   * @return the live counts of an open poll, or the final results of a closed one
+   */
+  @GetMapping("/{pollId}/results")
+  @Operation(
+      summary = "Returns the results of a poll",
+      description =
+          """
+      This endpoint returns the vote count of every option of a poll. Once the poll has been
+      closed at its deadline, the final results frozen at closing are returned with 'closedAt'.
+      Ranked choice polls also return their instant-runoff rounds in 'runoff'.
+      """)
+  @ApiResponse(responseCode = "200", description = "Results retrieved successfully.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public ResponseEntity<PollResultsDto> getResults(
+      @PathVariable Long groupId, @PathVariable Long pollId) {
+    User currentUser = authService.getCurrentUser();
+    return ResponseEntity.ok(pollService.getResults(groupId, pollId, currentUser));
+  }
+
+  /**
+   * Lists the voters of a non-anonymous poll, one page at a time.
+   *
+   * @param groupId the ID of the group
+   * @param pollId the ID of the poll
+   * @param optionId only list voters of this option (optional)
+   * @param after the {@code nextAfter} of the previous page (optional)
+   * @param limit the page size (optional)
+   * @return one page of voters
+   */
+  @GetMapping("/{pollId}/voters")
+  @Operation(
+      summary = "Lists the voters of a poll",
+      description =
+          """
+      This endpoint returns the voters of a non-anonymous poll in the order the votes were cast.
+      - 'optionId': only list the voters of this option
+      - 'after': the 'nextAfter' value of the previous page, omitted for the first page
+      - 'limit': the page size, 50 by default and at most 200
+      """)
+  @ApiResponse(responseCode = "200", description = "Voters retrieved successfully.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  @ApiResponse(responseCode = "403", description = "The poll is anonymous.")
+  public ResponseEntity<PollVoterPageDto> getVoters(
+      @PathVariable Long groupId,
+      @PathVariable Long pollId,
+      @RequestParam(required = false) Long optionId,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    User currentUser = authService.getCurrentUser();
+    return ResponseEntity.ok(
+        pollService.getVoters(groupId, pollId, optionId, after, limit, currentUser));
+  }
+
   /**
    * Updates an existing poll.
    *
@@ -177,4 +369,15 @@ public class PollController {
     pollService.deletePoll(groupId, pollId, currentUser);
     return ResponseEntity.noContent().build();
   }
+
+  private static PollStatus parseStatus(String status) {
+    if (status == null) {
+      return null;
+    }
+    try {
+      return PollStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidPollStatusException("Unknown status '" + status.trim() + "'");
+    }
+  }
 }
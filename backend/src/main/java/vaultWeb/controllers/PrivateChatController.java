@@ -6,18 +6,21 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import vaultWeb.dtos.BatchOperationDto;
 import vaultWeb.dtos.ChatMessageDto;
 import vaultWeb.dtos.ClearChatRequestDto;
+import vaultWeb.dtos.CompactMessagePageDto;
 import vaultWeb.dtos.CreateGroupFromChatsRequest;
+import vaultWeb.dtos.KeyRotationDto;
+import vaultWeb.dtos.MessagePageDto;
 import vaultWeb.dtos.PrivateChatDto;
-import vaultWeb.exceptions.DecryptionFailedException;
-import vaultWeb.models.ChatMessage;
+import vaultWeb.models.KeyRotationJob;
 import vaultWeb.models.PrivateChat;
-import vaultWeb.repositories.ChatMessageRepository;
-import vaultWeb.security.EncryptionUtil;
+import vaultWeb.services.ChatHistoryService;
+import vaultWeb.services.ChatKeyRotationService;
 import vaultWeb.services.PrivateChatService;
 
 @RestController
@@ -30,8 +33,8 @@ import vaultWeb.services.PrivateChatService;
 public class PrivateChatController {
 
   private final PrivateChatService privateChatService;
-  private final ChatMessageRepository chatMessageRepository;
-  private final EncryptionUtil encryptionUtil;
+  private final ChatHistoryService chatHistoryService;
+  private final ChatKeyRotationService keyRotationService;
 
   @GetMapping("/between")
   @Operation(
@@ -65,6 +68,7 @@ public class PrivateChatController {
                     - Messages are ordered chronologically by timestamp.
                     - The message content is decrypted before being sent to the client.
                     - Returns a list of ChatMessageDto containing decrypted content, sender info, timestamp, and chat ID.
+                    - For long chats prefer /{privateChatId}/messages, which returns the history in pages.
                     """)
   @ApiResponse(
       responseCode = "200",
@@ -72,46 +76,109 @@ public class PrivateChatController {
   @ApiResponse(
       responseCode = "401",
       description = "Unauthorized request. You must provide an authentication token.")
-  public List<ChatMessageDto> getPrivateChatMessages(@RequestParam Long privateChatId) {
-    List<ChatMessage> messages =
-        chatMessageRepository.findByPrivateChatIdOrderByTimestampAsc(privateChatId);
+  public List<ChatMessageDto> getPrivateChatMessages(
+      @RequestParam Long privateChatId, Authentication authentication) {
+    return chatHistoryService.getPrivateChatHistory(privateChatId, authentication.getName());
+  }
+
+  @GetMapping("/{privateChatId}/messages")
+  @Operation(
+      summary = "Get a page of messages of a private chat",
+      description =
+          """
+                    Retrieves one page of a private chat's history using keyset pagination.
+                    - Without a cursor the latest messages are returned.
+                    - 'before' loads the page preceding the given cursor (older messages).
+                    - 'after' loads the page following the given cursor (newer messages).
+                    - 'limit' is the page size; it is capped by the server.
+                    - Messages in a page are ordered chronologically; the cursors for the adjacent pages are returned with it.
+                    """)
+  @ApiResponse(responseCode = "200", description = "Page retrieved successfully.")
+  @ApiResponse(responseCode = "400", description = "Malformed cursor.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public MessagePageDto getPrivateChatMessagePage(
+      @PathVariable Long privateChatId,
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer limit,
+      Authentication authentication) {
+    return chatHistoryService.getPrivateChatPage(
+        privateChatId, authentication.getName(), before, after, limit);
+  }
 
-    return messages.stream()
-        .map(
-            message -> {
-              try {
-                String decryptedContent =
-                    encryptionUtil.decrypt(message.getCipherText(), message.getIv());
-                return new ChatMessageDto(
-                    decryptedContent,
-                    message.getTimestamp().toString(),
-                    null,
-                    privateChatId,
-                    message.getSender().getId(),
-                    message.getSender().getUsername());
-              } catch (Exception e) {
-                throw new DecryptionFailedException("Decryption failed", e);
-              }
-            })
-        .toList();
+  @GetMapping("/{privateChatId}/messages/compact")
+  @Operation(
+      summary = "Get a page of messages of a private chat in compact form",
+      description =
+          """
+                    Same paging as /{privateChatId}/messages, but each sender is listed once in 'senders'
+                    and messages refer to it by index. Preferred for loading large histories.
+                    """)
+  @ApiResponse(responseCode = "200", description = "Page retrieved successfully.")
+  @ApiResponse(responseCode = "400", description = "Malformed cursor.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public CompactMessagePageDto getCompactPrivateChatMessagePage(
+      @PathVariable Long privateChatId,
+      @RequestParam(required = false) String before,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) Integer limit,
+      Authentication authentication) {
+    return chatHistoryService.getCompactPrivateChatPage(
+        privateChatId, authentication.getName(), before, after, limit);
+  }
+
+  @PostMapping("/{privateChatId}/rotate-key")
+  @Operation(
+      summary = "Rotate the encryption key of a private chat",
+      description =
+          """
+                    Gives the private chat a new encryption key. Only participants of the chat may do this.
+                    - New messages use the new key immediately.
+                    - Existing messages are re-encrypted in the background; the response reports the job's progress at the time of the request.
+                    - If the previous rotation FAILED, it is restarted instead of creating another key.
+                    """)
+  @ApiResponse(responseCode = "202", description = "Rotation started.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  public ResponseEntity<KeyRotationDto> rotatePrivateChatKey(
+      @PathVariable Long privateChatId, Authentication authentication) {
+    KeyRotationJob job =
+        keyRotationService.rotatePrivateChatKey(privateChatId, authentication.getName());
+    return ResponseEntity.accepted().body(KeyRotationDto.from(job));
+  }
+
+  @GetMapping("/{privateChatId}/rotate-key")
+  @Operation(
+      summary = "Get the latest key rotation of a private chat",
+      description =
+          """
+                    Reports the progress of the private chat's latest key rotation. Only participants of the chat may do this.
+                    - A FAILED rotation is restarted by rotating the key again.
+                    """)
+  @ApiResponse(responseCode = "200", description = "Rotation retrieved successfully.")
+  @ApiResponse(
+      responseCode = "401",
+      description = "Unauthorized request. You must provide an authentication token.")
+  @ApiResponse(responseCode = "404", description = "The chat's key was never rotated.")
+  public KeyRotationDto getPrivateChatKeyRotation(
+      @PathVariable Long privateChatId, Authentication authentication) {
+    return KeyRotationDto.from(
+        keyRotationService.getPrivateChatRotation(privateChatId, authentication.getName()));
   }
 
   @GetMapping("/user-chats")
   @Operation(
       summary = "Get all private chats for the current user",
-      description = "Retrieves all private chats where the current user is a participant")
+      description =
+          "Retrieves all private chats where the current user is a participant, with their last"
+              + " message id, last activity and message count, most recently active first")
   public List<PrivateChatDto> getUserChats(Authentication authentication) {
-    String username = authentication.getName();
-    List<PrivateChat> privateChats = privateChatService.getUserPrivateChats(username);
-
-    List<PrivateChatDto> privateChatDtos =
-        privateChats.stream()
-            .map(
-                chat ->
-                    new PrivateChatDto(
-                        chat.getId(), chat.getUser1().getUsername(), chat.getUser2().getUsername()))
-            .toList();
-    return privateChatDtos;
+    return privateChatService.getUserPrivateChatOverviews(authentication.getName());
   }
 
   @PostMapping("/clear-multiple")
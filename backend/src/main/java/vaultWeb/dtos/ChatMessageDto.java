@@ -15,4 +15,7 @@ public class ChatMessageDto {
   private Long privateChatId;
   private Long senderId;
   private String senderUsername;
+
+  /** Id of the stored message; set on messages sent by the server, ignored on incoming ones. */
+  private Long id;
 }
@@ -0,0 +1,38 @@
+package vaultWeb.dtos;
+
+import java.util.List;
+
+/**
+ * Compact form of a history page for large histories.
+ *
+ * <p>Instead of repeating sender id and username on every message, each distinct sender is listed
+ * once in {@code senders} and the messages refer to it by its index in that list. Ordering and
+ * cursor semantics are the same as in {@link MessagePageDto}.
+ *
+ * @param senders the distinct senders of the page, in order of first appearance
+ * @param messages the decrypted messages, oldest first
+ * @param olderCursor cursor for loading the page before this one
+ * @param newerCursor cursor for loading the page after this one
+ * @param hasOlder whether older messages exist
+ * @param hasNewer whether newer messages exist at the time of the request
+ */
+public record CompactMessagePageDto(
+    List<Sender> senders,
+    List<Message> messages,
+    String olderCursor,
+    String newerCursor,
+    boolean hasOlder,
+    boolean hasNewer) {
+
+  public record Sender(Long id, String username) {}
+
+  /**
+   * A message of the page.
+   *
+   * @param id the message id
+   * @param sender index of the sender in {@link CompactMessagePageDto#senders()}
+   * @param content the decrypted content, or {@code null} if the message could not be decrypted
+   * @param timestamp the ISO-8601 timestamp
+   */
+  public record Message(Long id, int sender, String content, String timestamp) {}
+}
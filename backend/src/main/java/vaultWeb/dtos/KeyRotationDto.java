@@ -0,0 +1,20 @@
+package vaultWeb.dtos;
+
+import vaultWeb.models.KeyRotationJob;
+
+/**
+ * State of a conversation key rotation.
+ *
+ * @param jobId the rotation job id
+ * @param keyId id of the new data key that messages are re-encrypted with
+ * @param status {@code RUNNING} while messages are being re-encrypted, {@code DONE} afterwards,
+ *     {@code FAILED} if a batch kept failing; rotating again restarts a failed job
+ * @param reencrypted number of messages re-encrypted so far
+ */
+public record KeyRotationDto(Long jobId, Long keyId, String status, long reencrypted) {
+
+  public static KeyRotationDto from(KeyRotationJob job) {
+    return new KeyRotationDto(
+        job.getId(), job.getTargetKeyId(), job.getStatus().name(), job.getReencrypted());
+  }
+}
@@ -0,0 +1,24 @@
+package vaultWeb.dtos;
+
+import java.util.List;
+
+/**
+ * One page of a conversation's history.
+ *
+ * <p>{@code messages} are always in chronological order. {@code olderCursor} points at the first
+ * message of the page and {@code newerCursor} at the last one; pass them as {@code before} or
+ * {@code after} to load the adjacent page. Both are {@code null} if the page is empty.
+ *
+ * @param messages the decrypted messages, oldest first; a message that could not be decrypted has
+ *     {@code null} content
+ * @param olderCursor cursor for loading the page before this one
+ * @param newerCursor cursor for loading the page after this one
+ * @param hasOlder whether older messages exist
+ * @param hasNewer whether newer messages exist at the time of the request
+ */
+public record MessagePageDto(
+    List<ChatMessageDto> messages,
+    String olderCursor,
+    String newerCursor,
+    boolean hasOlder,
+    boolean hasNewer) {}
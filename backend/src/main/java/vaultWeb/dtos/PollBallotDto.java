@@ -0,0 +1,17 @@
+package vaultWeb.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * A ballot of the current user in one poll.
+ *
+ * @param optionIds the options picked; exactly one in a single choice poll, in order of preference
+ *     in a ranked choice poll
+ */
+public record PollBallotDto(
+    @NotEmpty(message = "A ballot must pick at least one option")
+        @Size(max = 50, message = "A ballot can pick at most 50 options")
+        List<@NotNull(message = "Option id must not be null") Long> optionIds) {}
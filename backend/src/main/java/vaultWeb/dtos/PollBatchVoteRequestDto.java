@@ -0,0 +1,28 @@
+package vaultWeb.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Votes of the current user in several polls of one group, submitted together.
+ *
+ * @param votes the votes, at most one per poll
+ */
+public record PollBatchVoteRequestDto(
+    @NotEmpty(message = "Votes must not be empty")
+        @Size(max = 100, message = "At most 100 votes can be cast at once")
+        List<@Valid Vote> votes) {
+
+  /**
+   * A vote for one option of a poll.
+   *
+   * @param pollId the poll
+   * @param optionId the option voted for
+   */
+  public record Vote(
+      @NotNull(message = "Poll id must not be null") Long pollId,
+      @NotNull(message = "Option id must not be null") Long optionId) {}
+}
@@ -0,0 +1,11 @@
+package vaultWeb.dtos;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch of votes.
+ *
+ * @param acceptedPollIds the polls whose vote was stored
+ * @param alreadyVotedPollIds the polls the user had already voted in; their votes were ignored
+ */
+public record PollBatchVoteResultDto(List<Long> acceptedPollIds, List<Long> alreadyVotedPollIds) {}
@@ -0,0 +1,51 @@
+package vaultWeb.dtos;
+
+import java.time.Instant;
+import java.util.List;
+import vaultWeb.models.enums.PollType;
+
+/**
+ * One page of a group's polls, newest first. Polls carry their options' vote counts but no voters;
+ * those are listed per poll by the voters endpoint.
+ *
+ * @param polls the polls on this page
+ * @param nextBefore pass as {@code before} to load the next page; {@code null} if this is the last
+ *     page
+ */
+public record PollPageDto(List<PollSummary> polls, Long nextBefore) {
+
+  /**
+   * A poll as shown in listings.
+   *
+   * @param id the poll
+   * @param question the question asked
+   * @param anonymous whether the voters are hidden
+   * @param type how the poll is voted on
+   * @param author the username of the poll's author
+   * @param createdAt when the poll was created
+   * @param deadline when voting ends, or {@code null} if it never does
+   * @param closed whether the poll no longer accepts votes
+   * @param options the options with their vote counts
+   * @param totalVotes the number of ballots; for single choice polls the sum of the option counts
+   */
+  public record PollSummary(
+      Long id,
+      String question,
+      boolean anonymous,
+      PollType type,
+      String author,
+      Instant createdAt,
+      Instant deadline,
+      boolean closed,
+      List<OptionSummary> options,
+      long totalVotes) {}
+
+  /**
+   * An option with its vote count.
+   *
+   * @param id the option
+   * @param text the option's text
+   * @param voteCount the number of votes for the option
+   */
+  public record OptionSummary(Long id, String text, long voteCount) {}
+}
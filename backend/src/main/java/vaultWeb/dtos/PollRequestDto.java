@@ -7,6 +7,7 @@ import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vaultWeb.models.enums.PollType;
 
 @Data
 @AllArgsConstructor
@@ -18,6 +19,9 @@ public class PollRequestDto {
   private Date deadline;
   private boolean isAnonymous;
 
+  /** How the poll is voted on; {@code null} for a single choice poll. */
+  private PollType type;
+
   @NotNull(message = "Options must not be null")
   @Size(min = 2, message = "A poll must have at least two options")
   private List<String> options;
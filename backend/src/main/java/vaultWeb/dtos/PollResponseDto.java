@@ -4,6 +4,7 @@ import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vaultWeb.models.enums.PollType;
 
 @Data
 @AllArgsConstructor
@@ -12,15 +13,16 @@ public class PollResponseDto {
   private Long id;
   private String question;
   private boolean isAnonymous;
+  private PollType type;
   private List<OptionResultDto> options;
 
+  /** An option with its vote count. Voters are listed by the paged voters endpoint. */
   @Data
   @AllArgsConstructor
   @NoArgsConstructor
   public static class OptionResultDto {
     private Long id;
     private String text;
-    private int voteCount;
-    private List<String> voters;
+    private long voteCount;
   }
 }
@@ -0,0 +1,47 @@
+package vaultWeb.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The tally of a poll: the live counts of an open poll, as pushed on {@code
+ * /topic/group/{groupId}/polls} when votes change, or the final results of a closed poll.
+ *
+ * @param pollId the poll
+ * @param options the vote count of every option
+ * @param totalVotes the number of ballots; for single choice polls the sum of the option counts
+ * @param closedAt when the results were frozen, or {@code null} while the poll is open
+ * @param runoff the instant-runoff rounds of a ranked choice poll, {@code null} for other polls and
+ *     in pushed updates
+ */
+public record PollResultsDto(
+    Long pollId, List<OptionTally> options, long totalVotes, Instant closedAt, Runoff runoff) {
+
+  /**
+   * The vote count of one option.
+   *
+   * @param optionId the option
+   * @param voteCount the number of votes for the option
+   */
+  public record OptionTally(Long optionId, long voteCount) {}
+
+  /**
+   * The instant-runoff count of a ranked choice poll. Option counts of the poll are first
+   * preferences.
+   *
+   * @param rounds the rounds in order; empty while no ballot was cast
+   * @param winnerOptionId the option holding a majority of the continuing ballots in the last
+   *     round, or {@code null} if there is none
+   */
+  public record Runoff(List<Round> rounds, Long winnerOptionId) {}
+
+  /**
+   * One instant-runoff round.
+   *
+   * @param options the votes of every option still in the count, each ballot counting for its
+   *     highest ranked such option
+   * @param eliminatedOptionId the option with the fewest votes, eliminated after this round; {@code
+   *     null} in the last round
+   */
+  public record Round(List<OptionTally> options, Long eliminatedOptionId) {}
+}
@@ -0,0 +1,21 @@
+package vaultWeb.dtos;
+
+import java.util.List;
+
+/**
+ * One page of the voters of a poll, in the order the votes were cast.
+ *
+ * @param voters the voters on this page
+ * @param nextAfter pass as {@code after} to load the next page; {@code null} if this is the last
+ *     page
+ */
+public record PollVoterPageDto(List<Voter> voters, Long nextAfter) {
+
+  /**
+   * A user and the option they voted for.
+   *
+   * @param optionId the option the user voted for
+   * @param username the voter
+   */
+  public record Voter(Long optionId, String username) {}
+}
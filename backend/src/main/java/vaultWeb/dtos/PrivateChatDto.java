@@ -1,3 +1,20 @@
 package vaultWeb.dtos;
 
-public record PrivateChatDto(Long id, String username1, String username2) {}
+import java.time.Instant;
+
+/**
+ * A private chat and its participants. Chat lists also carry the latest activity from the
+ * conversation summary; elsewhere those fields are empty.
+ */
+public record PrivateChatDto(
+    Long id,
+    String username1,
+    String username2,
+    Long lastMessageId,
+    Instant lastActivityAt,
+    long messageCount) {
+
+  public PrivateChatDto(Long id, String username1, String username2) {
+    this(id, username1, username2, null, null, 0);
+  }
+}
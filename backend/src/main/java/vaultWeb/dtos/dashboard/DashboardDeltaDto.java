@@ -0,0 +1,44 @@
+package vaultWeb.dtos.dashboard;
+
+import java.time.Instant;
+import java.util.List;
+import vaultWeb.dtos.dashboard.UserDashboardDto.PollSummary;
+
+/**
+ * Incremental dashboard update pushed to {@code /user/queue/dashboard}. It collects all changes
+ * that affected the user during one push window; empty lists mean nothing of that kind changed.
+ *
+ * @param conversations new messages in the user's groups and private chats
+ * @param memberCounts groups whose member count changed
+ * @param polls polls that were created or updated, with their current totals
+ * @param voteTotals polls that received votes
+ * @param removedPollIds polls that were deleted
+ * @param resync {@code true} if something changed that cannot be expressed as a delta (a group was
+ *     joined, left, renamed or deleted, or a private chat was created or cleared); the client
+ *     should fetch the full dashboard again
+ */
+public record DashboardDeltaDto(
+    List<ConversationActivity> conversations,
+    List<MemberCount> memberCounts,
+    List<PollSummary> polls,
+    List<VoteTotal> voteTotals,
+    List<Long> removedPollIds,
+    boolean resync) {
+
+  /**
+   * New messages in one conversation. Exactly one of {@code groupId} and {@code privateChatId} is
+   * set.
+   *
+   * @param newMessages number of messages since the previous update, to add to the message count
+   */
+  public record ConversationActivity(
+      Long groupId,
+      Long privateChatId,
+      Long lastMessageId,
+      Instant lastActivityAt,
+      int newMessages) {}
+
+  public record MemberCount(Long groupId, int memberCount) {}
+
+  public record VoteTotal(Long pollId, int totalVotes) {}
+}
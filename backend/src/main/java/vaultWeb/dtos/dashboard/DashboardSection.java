@@ -0,0 +1,10 @@
+package vaultWeb.dtos.dashboard;
+
+/** The independently built and cached parts of a {@link UserDashboardDto}. */
+public enum DashboardSection {
+  PROFILE,
+  GROUPS,
+  PRIVATE_CHATS,
+  POLLS,
+  RECENT_MESSAGES
+}
@@ -25,10 +25,16 @@ public record UserDashboardDto(
       boolean isPublic,
       int memberCount,
       Instant createdAt,
-      int pollCount) {}
+      int pollCount,
+      long messageCount,
+      Instant lastActivityAt) {}
 
   public record PrivateChatSummary(
-      Long id, String participant, String lastMessagePreview, Instant lastMessageAt) {}
+      Long id,
+      String participant,
+      String lastMessagePreview,
+      Instant lastMessageAt,
+      long messageCount) {}
 
   public record PollSummary(
       Long id,
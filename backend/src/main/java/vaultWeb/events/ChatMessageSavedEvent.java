@@ -0,0 +1,47 @@
+package vaultWeb.events;
+
+import java.time.Instant;
+import vaultWeb.models.ChatMessage;
+
+/**
+ * Published once a chat message has been persisted, either inline or by the write-behind flusher.
+ * Exactly one of {@code groupId} and {@code privateChatId} is set.
+ *
+ * @param messageId id of the new message
+ * @param senderId id of the sender, or {@code null} if it is not known
+ * @param groupId the group the message was sent to, or {@code null}
+ * @param privateChatId the private chat the message was sent to, or {@code null}
+ * @param timestamp when the message was sent
+ * @param content the plaintext of the message if the publisher still has it, otherwise {@code null}
+ */
+public record ChatMessageSavedEvent(
+    Long messageId,
+    Long senderId,
+    Long groupId,
+    Long privateChatId,
+    Instant timestamp,
+    String content) {
+
+  /** Describes a persisted message whose plaintext is no longer at hand. */
+  public static ChatMessageSavedEvent of(ChatMessage message) {
+    return of(message, null);
+  }
+
+  /** Describes a persisted message together with the plaintext it was encrypted from. */
+  public static ChatMessageSavedEvent of(ChatMessage message, String content) {
+    return new ChatMessageSavedEvent(
+        message.getId(),
+        message.getSender() != null ? message.getSender().getId() : null,
+        message.getGroup() != null ? message.getGroup().getId() : null,
+        message.getPrivateChat() != null ? message.getPrivateChat().getId() : null,
+        message.getTimestamp(),
+        content);
+  }
+
+  /** Leaves the plaintext out, so the event can be logged safely. */
+  @Override
+  public String toString() {
+    return "ChatMessageSavedEvent[messageId=%s, senderId=%s, groupId=%s, privateChatId=%s, at=%s]"
+        .formatted(messageId, senderId, groupId, privateChatId, timestamp);
+  }
+}
@@ -0,0 +1,12 @@
+package vaultWeb.events;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published when chat messages have been deleted, e.g. because a private chat was cleared.
+ *
+ * @param deletedBySender number of deleted messages per sender id
+ * @param messageIds ids of the deleted messages
+ */
+public record ChatMessagesDeletedEvent(Map<Long, Long> deletedBySender, List<Long> messageIds) {}
@@ -0,0 +1,10 @@
+package vaultWeb.events;
+
+/**
+ * Published when a group or one of its memberships changed.
+ *
+ * @param groupId the group
+ * @param memberId the user who joined or left the group, or {@code null} if the group itself was
+ *     updated or deleted
+ */
+public record GroupChangedEvent(Long groupId, Long memberId) {}
@@ -0,0 +1,19 @@
+package vaultWeb.events;
+
+/**
+ * Published when a poll was created, updated or deleted, or when a vote was cast.
+ *
+ * @param groupId the group the poll belongs to
+ * @param pollId the poll
+ * @param change what happened to the poll
+ */
+public record PollChangedEvent(Long groupId, Long pollId, Change change) {
+
+  /** Kind of poll change. */
+  public enum Change {
+    CREATED,
+    UPDATED,
+    DELETED,
+    VOTED
+  }
+}
@@ -0,0 +1,10 @@
+package vaultWeb.events;
+
+/**
+ * Published when a private chat was created or its messages were cleared.
+ *
+ * @param privateChatId the private chat
+ * @param user1Id id of the first participant
+ * @param user2Id id of the second participant
+ */
+public record PrivateChatChangedEvent(Long privateChatId, Long user1Id, Long user2Id) {}
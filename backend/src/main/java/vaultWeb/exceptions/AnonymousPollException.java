@@ -0,0 +1,18 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Thrown when the voters of an anonymous poll are requested. */
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class AnonymousPollException extends RuntimeException {
+
+  /**
+   * Constructs a new AnonymousPollException for a specific poll.
+   *
+   * @param pollId the ID of the anonymous poll
+   */
+  public AnonymousPollException(Long pollId) {
+    super("the voters of anonymous pollId: " + pollId + " are not listed");
+  }
+}
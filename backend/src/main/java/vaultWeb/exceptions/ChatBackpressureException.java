@@ -0,0 +1,18 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Thrown when the chat write-behind queue is full or shutting down and rejects a message. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ChatBackpressureException extends RuntimeException {
+
+  /**
+   * Constructs a new ChatBackpressureException with a custom message.
+   *
+   * @param message the detail message explaining why the message was rejected
+   */
+  public ChatBackpressureException(String message) {
+    super(message);
+  }
+}
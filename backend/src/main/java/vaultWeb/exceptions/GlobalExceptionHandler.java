@@ -88,6 +88,12 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Poll error: " + ex.getMessage());
   }
 
+  /** Handles NotVotedException and returns 404 Not Found. */
+  @ExceptionHandler(NotVotedException.class)
+  public ResponseEntity<String> handleNotVoted(NotVotedException ex) {
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Poll error: " + ex.getMessage());
+  }
+
   /** Handles DecryptionFailedException and returns 500 Internal Server Error. */
   @ExceptionHandler(DecryptionFailedException.class)
   public ResponseEntity<String> handleDecryptionFailed(DecryptionFailedException ex) {
@@ -115,6 +121,43 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Poll error: " + ex.getMessage());
   }
 
+  /** Handles AnonymousPollException and returns 403 Forbidden. */
+  @ExceptionHandler(AnonymousPollException.class)
+  public ResponseEntity<String> handleAnonymousPoll(AnonymousPollException ex) {
+    return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Poll error: " + ex.getMessage());
+  }
+
+  /** Handles PollClosedException and returns 409 Conflict. */
+  @ExceptionHandler(PollClosedException.class)
+  public ResponseEntity<String> handlePollClosed(PollClosedException ex) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body("Poll error: " + ex.getMessage());
+  }
+
+  /** Handles InvalidBallotException and returns 400 Bad Request. */
+  @ExceptionHandler(InvalidBallotException.class)
+  public ResponseEntity<String> handleInvalidBallot(InvalidBallotException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Poll error: " + ex.getMessage());
+  }
+
+  /** Handles InvalidPollStatusException and returns 400 Bad Request. */
+  @ExceptionHandler(InvalidPollStatusException.class)
+  public ResponseEntity<String> handleInvalidPollStatus(InvalidPollStatusException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Poll error: " + ex.getMessage());
+  }
+
+  /** Handles InvalidCursorException and returns 400 Bad Request. */
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<String> handleInvalidCursor(InvalidCursorException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Paging error: " + ex.getMessage());
+  }
+
+  /** Handles InvalidDashboardSectionException and returns 400 Bad Request. */
+  @ExceptionHandler(InvalidDashboardSectionException.class)
+  public ResponseEntity<String> handleInvalidDashboardSection(InvalidDashboardSectionException ex) {
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+        .body("Dashboard error: " + ex.getMessage());
+  }
+
   /** Handles RateLimitExceededException and returns 429 Limit Exceeded. */
   @ExceptionHandler(RateLimitExceededException.class)
   public ResponseEntity<String> handleRateLimitExceededException(RateLimitExceededException ex) {
@@ -0,0 +1,22 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a ballot does not fit its poll, e.g. it names an option twice or picks several
+ * options in a single choice poll.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBallotException extends RuntimeException {
+
+  /**
+   * Constructs a new InvalidBallotException.
+   *
+   * @param pollId the ID of the poll voted in
+   * @param reason what is wrong with the ballot
+   */
+  public InvalidBallotException(Long pollId, String reason) {
+    super("invalid ballot for pollId: " + pollId + ": " + reason);
+  }
+}
@@ -0,0 +1,18 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Thrown when a paging cursor sent by a client cannot be decoded. */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+  /**
+   * Constructs a new InvalidCursorException with a custom message.
+   *
+   * @param message the detail message explaining why the cursor was rejected
+   */
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,18 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Thrown when a client asks for a dashboard section that does not exist. */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidDashboardSectionException extends RuntimeException {
+
+  /**
+   * Constructs a new InvalidDashboardSectionException with a custom message.
+   *
+   * @param message the detail message naming the unknown section
+   */
+  public InvalidDashboardSectionException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,18 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Thrown when a client filters polls by a status that does not exist. */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPollStatusException extends RuntimeException {
+
+  /**
+   * Constructs a new InvalidPollStatusException with a custom message.
+   *
+   * @param message the detail message naming the unknown status
+   */
+  public InvalidPollStatusException(String message) {
+    super(message);
+  }
+}
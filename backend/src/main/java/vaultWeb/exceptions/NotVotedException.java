@@ -0,0 +1,19 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Thrown when a user tries to change or retract a vote in a poll they have not voted in. */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class NotVotedException extends RuntimeException {
+
+  /**
+   * Constructs a new NotVotedException for a specific user and poll.
+   *
+   * @param pollId the ID of the poll
+   * @param userId the ID of the user who has not voted in it
+   */
+  public NotVotedException(Long pollId, Long userId) {
+    super("userId: " + userId + " has not voted in pollId: " + pollId);
+  }
+}
@@ -0,0 +1,18 @@
+package vaultWeb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Thrown when a poll is voted in or edited after its deadline. */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PollClosedException extends RuntimeException {
+
+  /**
+   * Constructs a new PollClosedException for a specific poll.
+   *
+   * @param pollId the ID of the closed poll
+   */
+  public PollClosedException(Long pollId) {
+    super("pollId: " + pollId + " is closed");
+  }
+}
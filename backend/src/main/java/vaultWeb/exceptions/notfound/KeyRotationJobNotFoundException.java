@@ -0,0 +1,11 @@
+package vaultWeb.exceptions.notfound;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class KeyRotationJobNotFoundException extends RuntimeException {
+  public KeyRotationJobNotFoundException(String message) {
+    super(message);
+  }
+}
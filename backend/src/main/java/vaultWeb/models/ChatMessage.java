@@ -3,6 +3,7 @@ package vaultWeb.models;
 import jakarta.persistence.*;
 import java.time.Instant;
 import lombok.*;
+import vaultWeb.models.ids.SnowflakeIdGenerator;
 
 @Entity
 @Getter
@@ -10,16 +11,52 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(
+    indexes = {
+      @Index(
+          name = "idx_chat_message_private_chat_ts",
+          columnList = "private_chat_id, timestamp, id"),
+      @Index(name = "idx_chat_message_group_ts", columnList = "group_id, timestamp, id")
+    })
 public class ChatMessage {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
-  private Long id;
+  /**
+   * Time-ordered id from {@link SnowflakeIdGenerator}. It is assigned in memory (either by the
+   * caller or on persist) so inserts can be JDBC-batched.
+   */
+  @Id private Long id;
 
-  @Column(nullable = false, columnDefinition = "TEXT")
+  /** AES-GCM ciphertext including the tag. Written for all new messages. */
+  @Column(name = "cipher_bytes", columnDefinition = "bytea")
+  private byte[] cipherBytes;
+
+  /** IV belonging to {@link #cipherBytes}. */
+  @Column(name = "iv_bytes", length = 12)
+  private byte[] ivBytes;
+
+  /**
+   * {@link ConversationKey} that {@link #cipherBytes} is encrypted with, or {@code null} for
+   * messages encrypted directly with the master key.
+   */
+  @Column(name = "key_id")
+  private Long keyId;
+
+  /**
+   * Format of the plaintext inside {@link #cipherBytes}: {@code null} for plain UTF-8, otherwise
+   * the {@code MessagePayloadCodec} version, whose payloads may be compressed.
+   */
+  @Column(name = "payload_version")
+  private Short payloadVersion;
+
+  /**
+   * Legacy Base64 form of the ciphertext. Only set on rows that {@code
+   * ChatCiphertextMigrationService} has not converted to {@link #cipherBytes} yet.
+   */
+  @Column(columnDefinition = "TEXT")
   private String cipherText;
 
-  @Column(nullable = false, length = 32)
+  /** Legacy Base64 form of the IV, see {@link #cipherText}. */
+  @Column(length = 32)
   private String iv;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -35,4 +72,11 @@ public class ChatMessage {
   private PrivateChat privateChat;
 
   private Instant timestamp;
+
+  @PrePersist
+  protected void assignId() {
+    if (id == null) {
+      id = SnowflakeIdGenerator.next();
+    }
+  }
 }
@@ -0,0 +1,59 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * Data key of one group or private chat, stored wrapped (encrypted) with the master key.
+ *
+ * <p>Exactly one of {@link #groupId} and {@link #privateChatId} is set. A conversation gets a new
+ * version on every rotation; only the newest one is {@link #active} and used for new messages,
+ * older versions are kept so messages that were not re-encrypted yet stay readable.
+ */
+@Entity
+@Data
+@Table(
+    uniqueConstraints = {
+      @UniqueConstraint(
+          name = "uk_conversation_key_group_version",
+          columnNames = {"group_id", "version"}),
+      @UniqueConstraint(
+          name = "uk_conversation_key_private_chat_version",
+          columnNames = {"private_chat_id", "version"})
+    })
+public class ConversationKey {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "group_id")
+  private Long groupId;
+
+  @Column(name = "private_chat_id")
+  private Long privateChatId;
+
+  @Column(nullable = false)
+  private int version;
+
+  /** AES-256 data key, encrypted with the master key. */
+  @Column(nullable = false, columnDefinition = "bytea")
+  private byte[] wrappedKey;
+
+  /** IV belonging to {@link #wrappedKey}. */
+  @Column(nullable = false, length = 12)
+  private byte[] wrapIv;
+
+  private boolean active;
+
+  @Column(nullable = false, updatable = false)
+  private Instant createdAt;
+
+  private Instant retiredAt;
+
+  @PrePersist
+  protected void onCreate() {
+    this.createdAt = Instant.now();
+  }
+}
@@ -0,0 +1,42 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Data;
+
+/**
+ * Read model with the latest activity of one group or private chat, kept up to date whenever
+ * messages are written or cleared, so chat lists and the dashboard do not have to scan {@code
+ * chat_message}.
+ *
+ * <p>Exactly one of {@link #groupId} and {@link #privateChatId} is set.
+ */
+@Entity
+@Data
+@Table(
+    uniqueConstraints = {
+      @UniqueConstraint(name = "uk_conversation_summary_group", columnNames = "group_id"),
+      @UniqueConstraint(
+          name = "uk_conversation_summary_private_chat",
+          columnNames = "private_chat_id")
+    })
+public class ConversationSummary {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "group_id")
+  private Long groupId;
+
+  @Column(name = "private_chat_id")
+  private Long privateChatId;
+
+  /** Id of the newest message, or {@code null} if the conversation has none. */
+  private Long lastMessageId;
+
+  /** Timestamp of the newest message. */
+  private Instant lastActivityAt;
+
+  private long messageCount;
+}
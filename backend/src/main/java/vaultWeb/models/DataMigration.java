@@ -0,0 +1,24 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Record of a one-off data migration that has completed, so startup backfills run once per database
+ * rather than on every start.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class DataMigration {
+
+  /** Name of the migration. */
+  @Id
+  @Column(length = 64)
+  private String name;
+
+  @Column(nullable = false)
+  private Instant completedAt;
+}
@@ -0,0 +1,60 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Data;
+import vaultWeb.models.enums.KeyRotationStatus;
+
+/**
+ * Progress of re-encrypting one conversation's messages with a new data key.
+ *
+ * <p>{@link #lastMessageId} is the checkpoint: every message up to it has been visited, so an
+ * interrupted job continues right after it. The job is worked on by one instance at a time, the
+ * {@link #owner} of a lease that is renewed with every batch; once the lease runs out, any instance
+ * may claim the job.
+ */
+@Entity
+@Data
+public class KeyRotationJob {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  private Long groupId;
+
+  private Long privateChatId;
+
+  /** The {@link ConversationKey} the messages are re-encrypted with. */
+  @Column(nullable = false)
+  private Long targetKeyId;
+
+  @Column(nullable = false)
+  private long lastMessageId;
+
+  private long reencrypted;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private KeyRotationStatus status;
+
+  @Column(nullable = false, updatable = false)
+  private Instant startedAt;
+
+  private Instant updatedAt;
+
+  /** The instance working on the job. */
+  @Column(length = 128)
+  private String owner;
+
+  /** The owner's claim holds until then; afterwards another instance may take the job over. */
+  private Instant leaseUntil;
+
+  private Instant finishedAt;
+
+  @PrePersist
+  protected void onCreate() {
+    this.startedAt = Instant.now();
+    this.updatedAt = startedAt;
+  }
+}
@@ -8,13 +8,20 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import vaultWeb.models.enums.PollType;
 
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "polls")
+@Table(
+    name = "polls",
+    indexes = {
+      @Index(name = "idx_polls_open_deadline", columnList = "closed_at, deadline"),
+      @Index(name = "idx_polls_group", columnList = "group_id, id")
+    })
 public class Poll {
 
   @Id
@@ -39,6 +46,18 @@ public class Poll {
 
   private boolean isAnonymous;
 
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  @ColumnDefault("'SINGLE_CHOICE'")
+  @Builder.Default
+  private PollType type = PollType.SINGLE_CHOICE;
+
+  /**
+   * When the poll was closed at its deadline and its {@link PollResultSnapshot} written; {@code
+   * null} while the poll is open.
+   */
+  private Instant closedAt;
+
   @OneToMany(mappedBy = "poll", cascade = CascadeType.ALL, orphanRemoval = true)
   @JsonManagedReference
   private List<PollOption> options;
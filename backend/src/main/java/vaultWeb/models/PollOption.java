@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
@@ -28,7 +29,21 @@ public class PollOption {
 
   private String text;
 
-  @OneToMany(mappedBy = "option", cascade = CascadeType.ALL, orphanRemoval = true)
+  /**
+   * Number of votes for this option, maintained by atomic updates whenever a vote is stored, so
+   * results can be shown without loading the votes.
+   */
+  @Column(nullable = false)
+  @ColumnDefault("0")
+  @Builder.Default
+  private long voteCount = 0;
+
+  /**
+   * Not cascaded: votes are only ever deleted in bulk, see {@link
+   * vaultWeb.repositories.PollVoteRepository#deleteByPollId}, since cascading would load every
+   * vote.
+   */
+  @OneToMany(mappedBy = "option")
   @JsonManagedReference
   private List<PollVote> votes;
 }
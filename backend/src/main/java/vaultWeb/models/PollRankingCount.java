@@ -0,0 +1,34 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of ballots of a ranked choice poll that share the same ranking. Instant-runoff rounds are
+ * computed from these rows, which are usually far fewer than the ballots.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(
+    name = "poll_ranking_counts",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_poll_ranking_counts",
+            columnNames = {"poll_id", "ranking"}))
+public class PollRankingCount {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "poll_id", nullable = false)
+  private Long pollId;
+
+  /** Option ids in order of preference, comma-separated. */
+  @Column(nullable = false, length = 1000)
+  private String ranking;
+
+  private long ballots;
+}
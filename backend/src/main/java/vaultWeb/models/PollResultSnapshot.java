@@ -0,0 +1,55 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Final results of a poll, written once when the poll closes at its deadline and never changed
+ * afterwards. Reads of a closed poll's results are served from here. Written by {@link
+ * vaultWeb.services.PollCloseService}.
+ */
+@Entity
+@Immutable
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "poll_result_snapshots")
+public class PollResultSnapshot {
+
+  /** Id of the poll; not a foreign key, the snapshot is deleted together with the poll. */
+  @Id private Long pollId;
+
+  @Column(nullable = false)
+  private Instant closedAt;
+
+  private long totalVotes;
+
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(
+      name = "poll_result_snapshot_options",
+      joinColumns = @JoinColumn(name = "poll_id"))
+  @OrderColumn(name = "position")
+  private List<OptionResult> options;
+
+  /** The final vote count of one option. */
+  @Embeddable
+  @Getter
+  @NoArgsConstructor(access = AccessLevel.PROTECTED)
+  @AllArgsConstructor
+  public static class OptionResult {
+
+    private Long optionId;
+
+    private String text;
+
+    private long voteCount;
+  }
+}
@@ -0,0 +1,59 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running tally of a multiple or ranked choice poll, maintained by {@link
+ * vaultWeb.services.PollTallyService} in the same transaction as every ballot change.
+ *
+ * <p>{@link #version} grows with every ballot change. The instant-runoff rounds of a ranked poll
+ * are stored with the version they were computed for, so they are only recomputed after ballots
+ * changed and survive restarts.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "poll_tallies")
+public class PollTally {
+
+  /** Id of the poll; not a foreign key, the tally is deleted together with the poll. */
+  @Id private Long pollId;
+
+  /** Number of ballots cast, as opposed to the number of options picked on them. */
+  private long ballots;
+
+  private long version;
+
+  /** The {@link #version} {@link #rounds} and {@link #winnerOptionId} were computed for. */
+  private long computedVersion;
+
+  private Long winnerOptionId;
+
+  @ElementCollection
+  @CollectionTable(name = "poll_tally_rounds", joinColumns = @JoinColumn(name = "poll_id"))
+  @OrderColumn(name = "position")
+  private List<RoundCount> rounds = new ArrayList<>();
+
+  /** The votes of one option in one instant-runoff round. */
+  @Embeddable
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class RoundCount {
+
+    private int round;
+
+    private Long optionId;
+
+    private long votes;
+
+    /** Whether the option was eliminated at the end of this round. */
+    private boolean eliminated;
+  }
+}
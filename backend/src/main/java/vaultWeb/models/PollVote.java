@@ -1,23 +1,30 @@
 package vaultWeb.models;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import vaultWeb.models.ids.SnowflakeIdGenerator;
 
 @Entity
-@Table(name = "poll_votes")
+@Table(
+    name = "poll_votes",
+    indexes = {@Index(name = "idx_poll_votes_option", columnList = "poll_option_id, id")},
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_poll_votes_poll_user",
+            columnNames = {"poll_id", "user_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class PollVote {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
-  private Long id;
+  /** Time-ordered id from {@link SnowflakeIdGenerator}, assigned on persist. */
+  @Id private Long id;
 
   @ManyToOne(optional = false)
   @JoinColumn(name = "poll_option_id")
@@ -27,4 +34,27 @@ public class PollVote {
   @ManyToOne(optional = false)
   @JoinColumn(name = "user_id")
   private User user;
+
+  /**
+   * The poll of {@link #option}, repeated here so the database allows one vote per user and poll.
+   * Nullable only for votes stored before the column existed, until they are backfilled.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "poll_id")
+  @JsonIgnore
+  private Poll poll;
+
+  /**
+   * The option ids of a multiple or ranked choice ballot, comma-separated in the order given, with
+   * {@link #option} being the first. {@code null} for single choice votes.
+   */
+  @Column(length = 1000)
+  private String choices;
+
+  @PrePersist
+  protected void assignId() {
+    if (id == null) {
+      id = SnowflakeIdGenerator.next();
+    }
+  }
 }
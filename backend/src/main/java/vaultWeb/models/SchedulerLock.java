@@ -0,0 +1,29 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lease on a scheduled job, so a job that must not run concurrently runs on one instance only.
+ * Taken by {@link vaultWeb.services.SchedulerLockService}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class SchedulerLock {
+
+  /** Name of the job. */
+  @Id
+  @Column(length = 64)
+  private String name;
+
+  /** The lease is held until then; afterwards any instance may take it. */
+  @Column(nullable = false)
+  private Instant lockedUntil;
+
+  /** The instance holding the lease, for diagnosis only. */
+  @Column(length = 128)
+  private String lockedBy;
+}
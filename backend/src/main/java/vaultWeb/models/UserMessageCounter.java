@@ -0,0 +1,22 @@
+package vaultWeb.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Durable number of chat messages a user has sent, so profile counts do not have to scan {@code
+ * chat_message}. Maintained by {@link vaultWeb.services.MessageCounterService}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserMessageCounter {
+
+  /** Id of the user; not a foreign key, so users can be deleted before their counters. */
+  @Id private Long userId;
+
+  private long messagesSent;
+}
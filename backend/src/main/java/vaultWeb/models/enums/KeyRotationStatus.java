@@ -0,0 +1,8 @@
+package vaultWeb.models.enums;
+
+public enum KeyRotationStatus {
+  RUNNING,
+  DONE,
+  /** A batch kept failing; rotating the conversation again restarts the job. */
+  FAILED
+}
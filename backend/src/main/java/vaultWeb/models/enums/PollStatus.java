@@ -0,0 +1,7 @@
+package vaultWeb.models.enums;
+
+/** Whether a poll still accepts votes; used to filter poll listings. */
+public enum PollStatus {
+  OPEN,
+  CLOSED
+}
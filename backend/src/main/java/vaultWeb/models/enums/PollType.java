@@ -0,0 +1,11 @@
+package vaultWeb.models.enums;
+
+/** How a poll is voted on and counted. */
+public enum PollType {
+  /** Every voter picks one option. */
+  SINGLE_CHOICE,
+  /** Every voter picks one or more options; each picked option gets a vote. */
+  MULTIPLE_CHOICE,
+  /** Every voter ranks one or more options; the winner is found by instant runoff. */
+  RANKED_CHOICE
+}
@@ -1,7 +1,11 @@
 package vaultWeb.repositories;
 
+import java.time.Instant;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vaultWeb.models.ChatMessage;
 import vaultWeb.models.PrivateChat;
@@ -9,13 +13,142 @@ import vaultWeb.models.User;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-  List<ChatMessage> findByPrivateChatIdOrderByTimestampAsc(Long privateChatId);
+  List<ChatMessage> findTop10BySenderOrderByTimestampDesc(User sender);
 
-  long countBySender(User sender);
+  int deleteByPrivateChat(PrivateChat privateChat);
 
-  List<ChatMessage> findTop10BySenderOrderByTimestampDesc(User sender);
+  /** Returns the ids of all messages of a private chat. */
+  @Query("select m.id from ChatMessage m where m.privateChat.id = :privateChatId")
+  List<Long> findIdsByPrivateChatId(@Param("privateChatId") Long privateChatId);
 
-  ChatMessage findTop1ByPrivateChatOrderByTimestampDesc(PrivateChat privateChat);
+  /** Counts the messages of a private chat per sender. */
+  @Query(
+      """
+      select new vaultWeb.repositories.IdCount(m.sender.id, count(m))
+      from ChatMessage m
+      where m.privateChat.id = :privateChatId
+      group by m.sender.id
+      """)
+  List<IdCount> countByPrivateChatGroupedBySender(@Param("privateChatId") Long privateChatId);
 
-  int deleteByPrivateChat(PrivateChat privateChat);
+  /** Returns all messages of a private chat with their senders, oldest first. */
+  @Query(
+      """
+      select m from ChatMessage m join fetch m.sender
+      where m.privateChat.id = :privateChatId
+      order by m.timestamp, m.id
+      """)
+  List<ChatMessage> findAllInPrivateChat(@Param("privateChatId") Long privateChatId);
+
+  /**
+   * Returns the newest messages of a private chat, newest first.
+   *
+   * <p>This and the keyset queries below walk the {@code (private_chat_id, timestamp, id)} and
+   * {@code (group_id, timestamp, id)} indexes, so their cost depends on the page size only, not on
+   * the length of the conversation.
+   */
+  @Query(
+      """
+      select m from ChatMessage m join fetch m.sender
+      where m.privateChat.id = :privateChatId
+      order by m.timestamp desc, m.id desc
+      """)
+  List<ChatMessage> findLatestInPrivateChat(
+      @Param("privateChatId") Long privateChatId, Limit limit);
+
+  /** Returns the messages of a private chat strictly older than the given key, newest first. */
+  @Query(
+      """
+      select m from ChatMessage m join fetch m.sender
+      where m.privateChat.id = :privateChatId
+        and (m.timestamp < :timestamp or (m.timestamp = :timestamp and m.id < :id))
+      order by m.timestamp desc, m.id desc
+      """)
+  List<ChatMessage> findInPrivateChatBefore(
+      @Param("privateChatId") Long privateChatId,
+      @Param("timestamp") Instant timestamp,
+      @Param("id") Long id,
+      Limit limit);
+
+  /** Returns the messages of a private chat strictly newer than the given key, oldest first. */
+  @Query(
+      """
+      select m from ChatMessage m join fetch m.sender
+      where m.privateChat.id = :privateChatId
+        and (m.timestamp > :timestamp or (m.timestamp = :timestamp and m.id > :id))
+      order by m.timestamp asc, m.id asc
+      """)
+  List<ChatMessage> findInPrivateChatAfter(
+      @Param("privateChatId") Long privateChatId,
+      @Param("timestamp") Instant timestamp,
+      @Param("id") Long id,
+      Limit limit);
+
+  /** Returns the newest messages of a group, newest first. */
+  @Query(
+      """
+      select m from ChatMessage m join fetch m.sender
+      where m.group.id = :groupId
+      order by m.timestamp desc, m.id desc
+      """)
+  List<ChatMessage> findLatestInGroup(@Param("groupId") Long groupId, Limit limit);
+
+  /** Returns the messages of a group strictly older than the given key, newest first. */
+  @Query(
+      """
+      select m from ChatMessage m join fetch m.sender
+      where m.group.id = :groupId
+        and (m.timestamp < :timestamp or (m.timestamp = :timestamp and m.id < :id))
+      order by m.timestamp desc, m.id desc
+      """)
+  List<ChatMessage> findInGroupBefore(
+      @Param("groupId") Long groupId,
+      @Param("timestamp") Instant timestamp,
+      @Param("id") Long id,
+      Limit limit);
+
+  /** Returns the messages of a group strictly newer than the given key, oldest first. */
+  @Query(
+      """
+      select m from ChatMessage m join fetch m.sender
+      where m.group.id = :groupId
+        and (m.timestamp > :timestamp or (m.timestamp = :timestamp and m.id > :id))
+      order by m.timestamp asc, m.id asc
+      """)
+  List<ChatMessage> findInGroupAfter(
+      @Param("groupId") Long groupId,
+      @Param("timestamp") Instant timestamp,
+      @Param("id") Long id,
+      Limit limit);
+
+  /**
+   * Returns the next messages of a group, in id order after {@code afterId}, that are not yet
+   * encrypted with the given data key. Used by the key rotation job.
+   */
+  @Query(
+      """
+      select m from ChatMessage m
+      where m.group.id = :groupId and m.id > :afterId
+        and (m.keyId is null or m.keyId <> :keyId)
+      order by m.id asc
+      """)
+  List<ChatMessage> findGroupMessagesToRekey(
+      @Param("groupId") Long groupId,
+      @Param("keyId") Long keyId,
+      @Param("afterId") long afterId,
+      Limit limit);
+
+  /** Private chat counterpart of {@link #findGroupMessagesToRekey}. */
+  @Query(
+      """
+      select m from ChatMessage m
+      where m.privateChat.id = :privateChatId and m.id > :afterId
+        and (m.keyId is null or m.keyId <> :keyId)
+      order by m.id asc
+      """)
+  List<ChatMessage> findPrivateChatMessagesToRekey(
+      @Param("privateChatId") Long privateChatId,
+      @Param("keyId") Long keyId,
+      @Param("afterId") long afterId,
+      Limit limit);
 }
@@ -0,0 +1,16 @@
+package vaultWeb.repositories;
+
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import vaultWeb.models.ConversationKey;
+
+public interface ConversationKeyRepository extends JpaRepository<ConversationKey, Long> {
+  Optional<ConversationKey> findFirstByGroupIdAndActiveTrueOrderByVersionDesc(Long groupId);
+
+  Optional<ConversationKey> findFirstByPrivateChatIdAndActiveTrueOrderByVersionDesc(
+      Long privateChatId);
+
+  Optional<ConversationKey> findFirstByGroupIdOrderByVersionDesc(Long groupId);
+
+  Optional<ConversationKey> findFirstByPrivateChatIdOrderByVersionDesc(Long privateChatId);
+}
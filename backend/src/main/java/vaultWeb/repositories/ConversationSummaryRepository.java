@@ -0,0 +1,155 @@
+package vaultWeb.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vaultWeb.models.ConversationSummary;
+
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+  List<ConversationSummary> findByPrivateChatIdIn(Collection<Long> privateChatIds);
+
+  /**
+   * Loads the summaries of the given groups and private chats together with their last messages.
+   * Conversations without a summary have no messages and are left out.
+   */
+  @Query(
+      """
+      select new vaultWeb.repositories.SummaryWithLastMessage(s, m)
+      from ConversationSummary s
+      left join ChatMessage m on m.id = s.lastMessageId
+      where s.groupId in :groupIds or s.privateChatId in :privateChatIds
+      """)
+  List<SummaryWithLastMessage> findWithLastMessages(
+      @Param("groupIds") Collection<Long> groupIds,
+      @Param("privateChatIds") Collection<Long> privateChatIds);
+
+  /**
+   * Adds messages to a group's summary in a single atomic statement, so concurrent writers never
+   * lose an increment. The last message only moves forward.
+   *
+   * @return the number of updated rows, 0 if the group has no summary yet
+   */
+  @Modifying
+  @Query(
+      """
+      update ConversationSummary s
+      set s.messageCount = s.messageCount + :count,
+          s.lastMessageId = case when s.lastActivityAt is null or s.lastActivityAt <= :timestamp
+                                 then :messageId else s.lastMessageId end,
+          s.lastActivityAt = case when s.lastActivityAt is null or s.lastActivityAt <= :timestamp
+                                  then :timestamp else s.lastActivityAt end
+      where s.groupId = :groupId
+      """)
+  int addGroupMessages(
+      @Param("groupId") Long groupId,
+      @Param("count") long count,
+      @Param("messageId") Long messageId,
+      @Param("timestamp") Instant timestamp);
+
+  /** Private chat counterpart of {@link #addGroupMessages}. */
+  @Modifying
+  @Query(
+      """
+      update ConversationSummary s
+      set s.messageCount = s.messageCount + :count,
+          s.lastMessageId = case when s.lastActivityAt is null or s.lastActivityAt <= :timestamp
+                                 then :messageId else s.lastMessageId end,
+          s.lastActivityAt = case when s.lastActivityAt is null or s.lastActivityAt <= :timestamp
+                                  then :timestamp else s.lastActivityAt end
+      where s.privateChatId = :privateChatId
+      """)
+  int addPrivateChatMessages(
+      @Param("privateChatId") Long privateChatId,
+      @Param("count") long count,
+      @Param("messageId") Long messageId,
+      @Param("timestamp") Instant timestamp);
+
+  /** Creates an empty summary for a group unless one exists. */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into conversation_summary (group_id, message_count) values (:groupId, 0)
+          on conflict do nothing
+          """)
+  void insertEmptyForGroup(@Param("groupId") Long groupId);
+
+  /** Creates an empty summary for a private chat unless one exists. */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into conversation_summary (private_chat_id, message_count)
+          values (:privateChatId, 0)
+          on conflict do nothing
+          """)
+  void insertEmptyForPrivateChat(@Param("privateChatId") Long privateChatId);
+
+  /** Resets a private chat's summary after its messages were deleted. */
+  @Modifying
+  @Query(
+      """
+      update ConversationSummary s
+      set s.messageCount = 0, s.lastMessageId = null, s.lastActivityAt = null
+      where s.privateChatId = :privateChatId
+      """)
+  int clearPrivateChat(@Param("privateChatId") Long privateChatId);
+
+  /**
+   * Creates the summaries of all groups that have messages but no summary yet, from the messages
+   * themselves. Used once to backfill conversations written before summaries existed.
+   *
+   * @return the number of created summaries
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into conversation_summary
+            (group_id, message_count, last_message_id, last_activity_at)
+          select ranked.group_id, ranked.message_count, ranked.id, ranked.timestamp
+          from (
+            select m.group_id, m.id, m.timestamp,
+                   count(*) over (partition by m.group_id) as message_count,
+                   row_number() over (
+                     partition by m.group_id order by m.timestamp desc, m.id desc) as rn
+            from chat_message m
+            where m.group_id is not null
+              and not exists (select 1 from conversation_summary s where s.group_id = m.group_id)
+          ) ranked
+          where ranked.rn = 1
+          on conflict do nothing
+          """)
+  int backfillGroups();
+
+  /** Private chat counterpart of {@link #backfillGroups()}. */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into conversation_summary
+            (private_chat_id, message_count, last_message_id, last_activity_at)
+          select ranked.private_chat_id, ranked.message_count, ranked.id, ranked.timestamp
+          from (
+            select m.private_chat_id, m.id, m.timestamp,
+                   count(*) over (partition by m.private_chat_id) as message_count,
+                   row_number() over (
+                     partition by m.private_chat_id order by m.timestamp desc, m.id desc) as rn
+            from chat_message m
+            where m.private_chat_id is not null
+              and not exists (
+                select 1 from conversation_summary s where s.private_chat_id = m.private_chat_id)
+          ) ranked
+          where ranked.rn = 1
+          on conflict do nothing
+          """)
+  int backfillPrivateChats();
+}
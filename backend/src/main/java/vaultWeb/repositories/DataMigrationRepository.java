@@ -0,0 +1,29 @@
+package vaultWeb.repositories;
+
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vaultWeb.models.DataMigration;
+
+@Repository
+public interface DataMigrationRepository extends JpaRepository<DataMigration, String> {
+
+  /**
+   * Records a migration as completed unless it already is. Run in the migration's transaction, so
+   * the record is rolled back with a failed migration, and a concurrent instance waits for it.
+   *
+   * @return 1 if the migration still has to run, 0 if it has run before
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into data_migration (name, completed_at) values (:name, :completedAt)
+          on conflict do nothing
+          """)
+  int markCompleted(@Param("name") String name, @Param("completedAt") Instant completedAt);
+}
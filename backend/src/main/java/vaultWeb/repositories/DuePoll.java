@@ -0,0 +1,4 @@
+package vaultWeb.repositories;
+
+/** An open poll whose deadline has passed, with its group. */
+public record DuePoll(Long pollId, Long groupId) {}
@@ -1,8 +1,13 @@
 package vaultWeb.repositories;
 
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vaultWeb.models.Group;
 import vaultWeb.models.GroupMember;
@@ -15,6 +20,18 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
 
   Optional<GroupMember> findByGroupIdAndUserId(Long groupId, Long userId);
 
+  boolean existsByGroupIdAndUserId(Long groupId, Long userId);
+
+  /**
+   * Checks that a user is a member of a group and holds a shared lock on the membership until the
+   * end of the transaction, so removing the member waits for the transaction to finish.
+   *
+   * @return the membership id, or empty if the user is not a member
+   */
+  @Lock(LockModeType.PESSIMISTIC_READ)
+  @Query("select m.id from GroupMember m where m.group.id = :groupId and m.user.id = :userId")
+  Optional<Long> lockMembership(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
   List<GroupMember> findAllByGroup(Group group);
 
   List<GroupMember> findAllByUser(User user);
@@ -24,4 +41,31 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
   long countByGroupAndRole(Group group, Role role);
 
   long countByGroup(Group group);
+
+  /** Returns the memberships of a user with their groups, in a single query. */
+  @Query(
+      """
+      select m from GroupMember m
+      join fetch m.group g left join fetch g.createdBy join fetch m.user
+      where m.user = :user
+      """)
+  List<GroupMember> findAllWithGroupByUser(@Param("user") User user);
+
+  /** Counts the members of each of the given groups. Groups without members are left out. */
+  @Query(
+      """
+      select new vaultWeb.repositories.IdCount(m.group.id, count(m))
+      from GroupMember m
+      where m.group.id in :groupIds
+      group by m.group.id
+      """)
+  List<IdCount> countMembersByGroupIds(@Param("groupIds") Collection<Long> groupIds);
+
+  /** Returns the user ids of the members of a group. */
+  @Query("select m.user.id from GroupMember m where m.group.id = :groupId")
+  List<Long> findUserIdsByGroupId(@Param("groupId") Long groupId);
+
+  /** Returns the usernames of the members of a group. */
+  @Query("select m.user.username from GroupMember m where m.group.id = :groupId")
+  List<String> findUsernamesByGroupId(@Param("groupId") Long groupId);
 }
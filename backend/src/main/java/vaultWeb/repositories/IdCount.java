@@ -0,0 +1,9 @@
+package vaultWeb.repositories;
+
+/**
+ * Row of a grouped count query: a count per entity id.
+ *
+ * @param id the id the rows were grouped by
+ * @param count number of rows for that id
+ */
+public record IdCount(Long id, Long count) {}
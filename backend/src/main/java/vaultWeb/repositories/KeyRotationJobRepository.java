@@ -0,0 +1,65 @@
+package vaultWeb.repositories;
+
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vaultWeb.models.KeyRotationJob;
+import vaultWeb.models.enums.KeyRotationStatus;
+
+public interface KeyRotationJobRepository extends JpaRepository<KeyRotationJob, Long> {
+  List<KeyRotationJob> findByStatus(KeyRotationStatus status);
+
+  Optional<KeyRotationJob> findFirstByGroupIdOrderByIdDesc(Long groupId);
+
+  Optional<KeyRotationJob> findFirstByPrivateChatIdOrderByIdDesc(Long privateChatId);
+
+  /**
+   * Loads a job and locks it until the end of the transaction, so two instances never work on the
+   * same batch.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select j from KeyRotationJob j where j.id = :id")
+  Optional<KeyRotationJob> findForUpdate(@Param("id") Long id);
+
+  /**
+   * Claims a running job for an instance if nobody holds it, its lease has run out, or the instance
+   * holds it already. The condition is checked by the update itself, so of several instances only
+   * one succeeds.
+   *
+   * @return 1 if the job was claimed, 0 if another instance holds it or it is no longer running
+   */
+  @Modifying
+  @Query(
+      """
+      update KeyRotationJob j set j.owner = :owner, j.leaseUntil = :until
+      where j.id = :id and j.status = vaultWeb.models.enums.KeyRotationStatus.RUNNING
+        and (j.leaseUntil is null or j.leaseUntil <= :now or j.owner = :owner)
+      """)
+  int claim(
+      @Param("id") Long id,
+      @Param("owner") String owner,
+      @Param("now") Instant now,
+      @Param("until") Instant until);
+
+  /**
+   * Gives up on a running job held by an instance.
+   *
+   * @return 1 if the job was marked failed, 0 if it finished or was taken over meanwhile
+   */
+  @Modifying
+  @Query(
+      """
+      update KeyRotationJob j
+      set j.status = vaultWeb.models.enums.KeyRotationStatus.FAILED, j.finishedAt = :now,
+        j.updatedAt = :now, j.leaseUntil = null
+      where j.id = :id and j.status = vaultWeb.models.enums.KeyRotationStatus.RUNNING
+        and j.owner = :owner
+      """)
+  int markFailed(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now);
+}
@@ -0,0 +1,10 @@
+package vaultWeb.repositories;
+
+/**
+ * Option and vote totals of one poll.
+ *
+ * @param pollId the poll id
+ * @param optionCount number of options
+ * @param voteCount number of votes over all options
+ */
+public record PollCounts(Long pollId, Long optionCount, Long voteCount) {}
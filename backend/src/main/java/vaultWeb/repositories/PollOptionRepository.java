@@ -0,0 +1,75 @@
+package vaultWeb.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vaultWeb.models.PollOption;
+
+@Repository
+public interface PollOptionRepository extends JpaRepository<PollOption, Long> {
+
+  List<PollOption> findByPollIdOrderById(Long pollId);
+
+  /**
+   * Adds to an option's vote count in a single atomic update, so concurrent votes never overwrite
+   * each other's increments.
+   *
+   * @return the number of updated options, 0 if the option no longer exists
+   */
+  @Modifying
+  @Query("update PollOption o set o.voteCount = o.voteCount + :delta where o.id = :optionId")
+  int addVotes(@Param("optionId") Long optionId, @Param("delta") long delta);
+
+  /**
+   * Sets the vote count of single choice options to the number of their votes where the two differ.
+   * Used to backfill options created before vote counts were maintained, and counts that still
+   * included duplicate legacy votes. Multiple and ranked choice polls are counted from the start.
+   *
+   * @return the number of updated options
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          update poll_options o
+          set vote_count = (select count(*) from poll_votes v where v.poll_option_id = o.id)
+          where o.vote_count <> (select count(*) from poll_votes v where v.poll_option_id = o.id)
+            and exists (select 1 from polls p where p.id = o.poll_id and p.type = 'SINGLE_CHOICE')
+          """)
+  int backfillVoteCounts();
+
+  /**
+   * Loads the vote counts of every option of the given polls with one query.
+   *
+   * @param pollIds the polls
+   * @return one row per option, ordered by poll and option
+   */
+  @Query(
+      """
+      select new vaultWeb.repositories.PollOptionTally(o.poll.id, o.id, o.voteCount)
+      from PollOption o
+      where o.poll.id in :pollIds
+      order by o.poll.id, o.id
+      """)
+  List<PollOptionTally> findTallies(@Param("pollIds") Collection<Long> pollIds);
+
+  /**
+   * Loads the options of the given polls with their vote counts, without loading the polls.
+   *
+   * @param pollIds the polls
+   * @return one row per option, ordered by poll and option
+   */
+  @Query(
+      """
+      select new vaultWeb.repositories.PollOptionRow(o.poll.id, o.id, o.text, o.voteCount)
+      from PollOption o
+      where o.poll.id in :pollIds
+      order by o.poll.id, o.id
+      """)
+  List<PollOptionRow> findRows(@Param("pollIds") Collection<Long> pollIds);
+}
@@ -0,0 +1,4 @@
+package vaultWeb.repositories;
+
+/** An option of a poll with its text and vote count. */
+public record PollOptionRow(Long pollId, Long optionId, String text, long voteCount) {}
@@ -0,0 +1,4 @@
+package vaultWeb.repositories;
+
+/** The vote count of one poll option. */
+public record PollOptionTally(Long pollId, Long optionId, long voteCount) {}
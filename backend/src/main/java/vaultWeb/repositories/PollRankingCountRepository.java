@@ -0,0 +1,45 @@
+package vaultWeb.repositories;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vaultWeb.models.PollRankingCount;
+
+@Repository
+public interface PollRankingCountRepository extends JpaRepository<PollRankingCount, Long> {
+
+  /** Returns the rankings of a poll that are held by at least one ballot. */
+  List<PollRankingCount> findByPollIdAndBallotsGreaterThan(Long pollId, long ballots);
+
+  /**
+   * Adds to the number of ballots with a ranking atomically; {@code delta} may be negative.
+   *
+   * @return the number of updated rows, 0 if no ballot had this ranking yet
+   */
+  @Modifying
+  @Query(
+      """
+      update PollRankingCount r set r.ballots = r.ballots + :delta
+      where r.pollId = :pollId and r.ranking = :ranking
+      """)
+  int addBallots(
+      @Param("pollId") Long pollId, @Param("ranking") String ranking, @Param("delta") long delta);
+
+  /** Creates an empty count for a ranking unless one exists. */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into poll_ranking_counts (poll_id, ranking, ballots) values (:pollId, :ranking, 0)
+          on conflict do nothing
+          """)
+  void insertEmpty(@Param("pollId") Long pollId, @Param("ranking") String ranking);
+
+  @Modifying
+  @Query("delete from PollRankingCount r where r.pollId = :pollId")
+  void deleteByPollId(@Param("pollId") Long pollId);
+}
@@ -1,11 +1,145 @@
 package vaultWeb.repositories;
 
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import vaultWeb.models.Poll;
 
 public interface PollRepository extends JpaRepository<Poll, Long> {
-  List<Poll> findByGroupId(Long groupId);
+  /** Returns a poll with its options, in a single query. */
+  @Query("select p from Poll p left join fetch p.options where p.id = :pollId")
+  Optional<Poll> findWithOptionsById(@Param("pollId") Long pollId);
 
-  List<Poll> findByGroupIdIn(List<Long> groupIds);
+  /**
+   * Loads a poll and locks it until the end of the transaction. Waits for the votes holding {@link
+   * #lockOpen}, and votes that come after it wait until the transaction ends.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select p from Poll p where p.id = :pollId")
+  Optional<Poll> findForUpdate(@Param("pollId") Long pollId);
+
+  /** Returns the polls of the given groups with their group and author, in a single query. */
+  @Query(
+      """
+      select p from Poll p
+      join fetch p.group g left join fetch g.createdBy join fetch p.author
+      where g.id in :groupIds
+      """)
+  List<Poll> findAllWithGroupByGroupIds(@Param("groupIds") Collection<Long> groupIds);
+
+  /** Returns the given polls with their group and author, in a single query. */
+  @Query(
+      """
+      select p from Poll p
+      join fetch p.group g left join fetch g.createdBy join fetch p.author
+      where p.id in :pollIds
+      """)
+  List<Poll> findAllWithGroupByIds(@Param("pollIds") Collection<Long> pollIds);
+
+  /**
+   * Counts the options and votes of each of the given polls, from the options' vote counts. Polls
+   * without options are left out.
+   */
+  @Query(
+      """
+      select new vaultWeb.repositories.PollCounts(p.id, count(o.id), sum(o.voteCount))
+      from Poll p join p.options o
+      where p.id in :pollIds
+      group by p.id
+      """)
+  List<PollCounts> countOptionsAndVotes(@Param("pollIds") Collection<Long> pollIds);
+
+  /**
+   * Returns the open polls whose deadline is at or before {@code cutoff}, earliest deadline first.
+   * Served by the {@code (closed_at, deadline)} index.
+   */
+  @Query(
+      """
+      select new vaultWeb.repositories.DuePoll(p.id, p.group.id) from Poll p
+      where p.closedAt is null and p.deadline <= :cutoff
+      order by p.deadline
+      """)
+  List<DuePoll> findDueForClosing(@Param("cutoff") Instant cutoff, Limit limit);
+
+  /**
+   * Checks that a poll still takes votes and holds a shared lock on it until the end of the
+   * transaction. Votes of one poll do not wait for each other, but {@link #markClosed} waits for
+   * every vote holding the lock, and votes that come after it find the poll closed, so the results
+   * frozen on closing include exactly the votes accepted before.
+   *
+   * @return the poll id, or empty if the poll is closed, past its deadline or deleted
+   */
+  @Lock(LockModeType.PESSIMISTIC_READ)
+  @Query(
+      """
+      select p.id from Poll p
+      where p.id = :pollId and p.closedAt is null and (p.deadline is null or p.deadline > :now)
+      """)
+  Optional<Long> lockOpen(@Param("pollId") Long pollId, @Param("now") Instant now);
+
+  /**
+   * Marks a poll as closed unless it already is, so of several instances closing the same poll
+   * exactly one succeeds.
+   *
+   * @return 1 if the poll was closed by this call, 0 otherwise
+   */
+  @Modifying
+  @Query("update Poll p set p.closedAt = :closedAt where p.id = :pollId and p.closedAt is null")
+  int markClosed(@Param("pollId") Long pollId, @Param("closedAt") Instant closedAt);
+
+  /**
+   * Returns a page of a group's polls, newest first, starting before the poll {@code beforeId}.
+   * Walks the {@code (group_id, id)} index and reads no options, so a page costs the same however
+   * many polls the group has.
+   */
+  @Query(
+      """
+      select new vaultWeb.repositories.PollSummaryRow(
+        p.id, p.question, p.isAnonymous, p.type, a.username, p.createdAt, p.deadline, p.closedAt)
+      from Poll p join p.author a
+      where p.group.id = :groupId and p.id < :beforeId
+      order by p.id desc
+      """)
+  List<PollSummaryRow> findPage(
+      @Param("groupId") Long groupId, @Param("beforeId") long beforeId, Limit limit);
+
+  /** Like {@link #findPage}, but only polls that still accept votes at {@code now}. */
+  @Query(
+      """
+      select new vaultWeb.repositories.PollSummaryRow(
+        p.id, p.question, p.isAnonymous, p.type, a.username, p.createdAt, p.deadline, p.closedAt)
+      from Poll p join p.author a
+      where p.group.id = :groupId and p.id < :beforeId
+        and p.closedAt is null and (p.deadline is null or p.deadline > :now)
+      order by p.id desc
+      """)
+  List<PollSummaryRow> findOpenPage(
+      @Param("groupId") Long groupId,
+      @Param("beforeId") long beforeId,
+      @Param("now") Instant now,
+      Limit limit);
+
+  /** Like {@link #findPage}, but only polls that no longer accept votes at {@code now}. */
+  @Query(
+      """
+      select new vaultWeb.repositories.PollSummaryRow(
+        p.id, p.question, p.isAnonymous, p.type, a.username, p.createdAt, p.deadline, p.closedAt)
+      from Poll p join p.author a
+      where p.group.id = :groupId and p.id < :beforeId
+        and (p.closedAt is not null or p.deadline <= :now)
+      order by p.id desc
+      """)
+  List<PollSummaryRow> findClosedPage(
+      @Param("groupId") Long groupId,
+      @Param("beforeId") long beforeId,
+      @Param("now") Instant now,
+      Limit limit);
 }
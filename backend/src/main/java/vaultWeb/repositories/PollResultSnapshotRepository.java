@@ -0,0 +1,8 @@
+package vaultWeb.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import vaultWeb.models.PollResultSnapshot;
+
+@Repository
+public interface PollResultSnapshotRepository extends JpaRepository<PollResultSnapshot, Long> {}
@@ -0,0 +1,15 @@
+package vaultWeb.repositories;
+
+import java.time.Instant;
+import vaultWeb.models.enums.PollType;
+
+/** The columns of a poll shown in poll listings, without options or votes. */
+public record PollSummaryRow(
+    Long id,
+    String question,
+    boolean anonymous,
+    PollType type,
+    String authorUsername,
+    Instant createdAt,
+    Instant deadline,
+    Instant closedAt) {}
@@ -0,0 +1,60 @@
+package vaultWeb.repositories;
+
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vaultWeb.models.PollTally;
+
+@Repository
+public interface PollTallyRepository extends JpaRepository<PollTally, Long> {
+
+  /**
+   * Adds to a poll's ballot count and advances its version in one atomic update; {@code delta} may
+   * be negative.
+   *
+   * @return the number of updated tallies, 0 if the poll has none
+   */
+  @Modifying
+  @Query(
+      """
+      update PollTally t set t.ballots = t.ballots + :delta, t.version = t.version + 1
+      where t.pollId = :pollId
+      """)
+  int addBallots(@Param("pollId") Long pollId, @Param("delta") long delta);
+
+  /**
+   * Loads a tally and locks it until the end of the transaction, so its ballots cannot change while
+   * its runoff is recomputed.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select t from PollTally t where t.pollId = :pollId")
+  Optional<PollTally> findForUpdate(@Param("pollId") Long pollId);
+
+  /** Creates an empty tally for a poll unless one exists. */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into poll_tallies (poll_id, ballots, version, computed_version)
+          values (:pollId, 0, 0, 0)
+          on conflict do nothing
+          """)
+  void insertEmpty(@Param("pollId") Long pollId);
+
+  /** Returns the ballot counts of those of the given polls that have a tally. */
+  @Query(
+      """
+      select new vaultWeb.repositories.IdCount(t.pollId, t.ballots)
+      from PollTally t
+      where t.pollId in :pollIds
+      """)
+  List<IdCount> findBallots(@Param("pollIds") Collection<Long> pollIds);
+}
@@ -1,10 +1,117 @@
 package vaultWeb.repositories;
 
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import vaultWeb.models.Poll;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import vaultWeb.models.PollVote;
-import vaultWeb.models.User;
 
 public interface PollVoteRepository extends JpaRepository<PollVote, Long> {
-  boolean existsByOption_PollAndUser(Poll poll, User user);
+
+  /**
+   * Stores a vote unless the user has already voted in the poll. The unique {@code (poll_id,
+   * user_id)} constraint decides, so of two concurrent votes by one user exactly one is stored.
+   *
+   * @param optionId the option voted for, the first choice of a multiple or ranked choice ballot
+   * @param choices all choices of a multiple or ranked choice ballot, {@code null} for a single
+   *     choice vote
+   * @return 1 if the vote was stored, 0 if the user had already voted in the poll
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into poll_votes (id, poll_id, poll_option_id, user_id, choices)
+          values (:id, :pollId, :optionId, :userId, :choices)
+          on conflict do nothing
+          """)
+  int insertIfAbsent(
+      @Param("id") long id,
+      @Param("pollId") Long pollId,
+      @Param("optionId") Long optionId,
+      @Param("userId") Long userId,
+      @Param("choices") String choices);
+
+  /**
+   * Loads a user's vote in a poll and locks it until the end of the transaction, so concurrent
+   * changes or retractions of the same vote are applied one after the other.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select v from PollVote v where v.poll.id = :pollId and v.user.id = :userId")
+  Optional<PollVote> findForUpdate(@Param("pollId") Long pollId, @Param("userId") Long userId);
+
+  /**
+   * Deletes all votes of a poll in one statement, without loading them.
+   *
+   * @return the number of deleted votes
+   */
+  @Modifying
+  @Query("delete from PollVote v where v.poll.id = :pollId")
+  int deleteByPollId(@Param("pollId") Long pollId);
+
+  /**
+   * Deletes the votes a user cast in a poll after their first one, from the time before the unique
+   * {@code (poll_id, user_id)} constraint. Only the first vote counts, so the others must neither
+   * block {@link #backfillPollIds()} nor be counted by the vote count backfill.
+   *
+   * @return the number of deleted votes
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          delete from poll_votes v
+          where v.poll_id is null
+            and exists (
+              select 1 from poll_votes d
+              join poll_options od on od.id = d.poll_option_id
+              join poll_options ov on ov.id = v.poll_option_id
+              where d.user_id = v.user_id and od.poll_id = ov.poll_id and d.id < v.id)
+          """)
+  int deleteDuplicateLegacyVotes();
+
+  /**
+   * Sets the poll of votes stored before votes carried it. Run after {@link
+   * #deleteDuplicateLegacyVotes()}, so no two votes of a user end up in the same poll.
+   *
+   * @return the number of updated votes
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          update poll_votes v
+          set poll_id = (select o.poll_id from poll_options o where o.id = v.poll_option_id)
+          where v.poll_id is null
+          """)
+  int backfillPollIds();
+
+  /**
+   * Returns the voters of a poll in vote order, starting after the vote {@code afterVoteId}. With
+   * an {@code optionId}, walks the {@code (poll_option_id, id)} index, so a page costs the same on
+   * any poll size. Without one, the votes of all options are merged by id, which grows with the
+   * votes of the poll.
+   *
+   * @param optionId only voters of this option, or {@code null} for all options
+   */
+  @Query(
+      """
+      select new vaultWeb.repositories.PollVoterRow(v.id, o.id, u.username)
+      from PollVote v join v.option o join v.user u
+      where o.poll.id = :pollId and (:optionId is null or o.id = :optionId) and v.id > :afterVoteId
+      order by v.id
+      """)
+  List<PollVoterRow> findVoters(
+      @Param("pollId") Long pollId,
+      @Param("optionId") Long optionId,
+      @Param("afterVoteId") long afterVoteId,
+      Limit limit);
 }
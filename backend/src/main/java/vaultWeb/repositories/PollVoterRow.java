@@ -0,0 +1,4 @@
+package vaultWeb.repositories;
+
+/** A vote with the option it was cast for and the voter's name. */
+public record PollVoterRow(Long voteId, Long optionId, String username) {}
@@ -3,6 +3,8 @@ package vaultWeb.repositories;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import vaultWeb.models.PrivateChat;
 import vaultWeb.models.User;
 
@@ -12,4 +14,12 @@ public interface PrivateChatRepository extends JpaRepository<PrivateChat, Long>
   Optional<PrivateChat> findByUser2AndUser1(User user1, User user2);
 
   List<PrivateChat> findByUser1OrUser2(User user1, User user2);
+
+  /** Returns the private chats of a user with both participants, in a single query. */
+  @Query(
+      """
+      select c from PrivateChat c join fetch c.user1 join fetch c.user2
+      where c.user1 = :user or c.user2 = :user
+      """)
+  List<PrivateChat> findAllWithParticipantsByUser(@Param("user") User user);
 }
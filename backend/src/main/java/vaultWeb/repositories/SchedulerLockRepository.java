@@ -0,0 +1,42 @@
+package vaultWeb.repositories;
+
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vaultWeb.models.SchedulerLock;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+  /** Creates the lock row of a job, already expired, unless it exists. */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into scheduler_lock (name, locked_until) values (:name, :expired)
+          on conflict do nothing
+          """)
+  void insertIfAbsent(@Param("name") String name, @Param("expired") Instant expired);
+
+  /**
+   * Takes the lease of a job if it has expired. The condition is checked by the update itself, so
+   * of several instances only one succeeds.
+   *
+   * @return 1 if the lease was taken, 0 if another instance holds it
+   */
+  @Modifying
+  @Query(
+      """
+      update SchedulerLock l set l.lockedUntil = :until, l.lockedBy = :owner
+      where l.name = :name and l.lockedUntil <= :now
+      """)
+  int acquire(
+      @Param("name") String name,
+      @Param("now") Instant now,
+      @Param("until") Instant until,
+      @Param("owner") String owner);
+}
@@ -0,0 +1,12 @@
+package vaultWeb.repositories;
+
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.ConversationSummary;
+
+/**
+ * A conversation summary together with its last message, loaded in one query.
+ *
+ * @param summary the summary
+ * @param lastMessage the newest message of the conversation, or {@code null} if it has none
+ */
+public record SummaryWithLastMessage(ConversationSummary summary, ChatMessage lastMessage) {}
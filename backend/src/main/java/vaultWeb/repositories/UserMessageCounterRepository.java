@@ -0,0 +1,75 @@
+package vaultWeb.repositories;
+
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vaultWeb.models.UserMessageCounter;
+
+@Repository
+public interface UserMessageCounterRepository extends JpaRepository<UserMessageCounter, Long> {
+
+  /** Returns the stored number of messages a user has sent, if the user has a counter. */
+  @Query("select c.messagesSent from UserMessageCounter c where c.userId = :userId")
+  Optional<Long> findMessagesSent(@Param("userId") Long userId);
+
+  /** Adds to a user's counter atomically; {@code delta} may be negative. */
+  @Modifying
+  @Query(
+      """
+      update UserMessageCounter c set c.messagesSent = c.messagesSent + :delta
+      where c.userId = :userId
+      """)
+  int addMessages(@Param("userId") Long userId, @Param("delta") long delta);
+
+  /** Creates an empty counter for a user unless one exists. */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into user_message_counter (user_id, messages_sent) values (:userId, 0)
+          on conflict do nothing
+          """)
+  void insertEmpty(@Param("userId") Long userId);
+
+  /**
+   * Creates the counters of all users that have sent messages but have no counter yet. Used once to
+   * backfill users who wrote messages before counters existed.
+   *
+   * @return the number of created counters
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          insert into user_message_counter (user_id, messages_sent)
+          select m.sender_id, count(*)
+          from chat_message m
+          where not exists (select 1 from user_message_counter c where c.user_id = m.sender_id)
+          group by m.sender_id
+          on conflict do nothing
+          """)
+  int backfill();
+
+  /**
+   * Sets every counter that differs from the messages stored in {@code chat_message} to the stored
+   * count, in one statement. Counters of the excluded users are left alone.
+   *
+   * @param excluded users whose counters are not touched, may be empty
+   * @return the number of corrected counters
+   */
+  @Modifying
+  @Query(
+      """
+      update UserMessageCounter c
+      set c.messagesSent = (select count(m) from ChatMessage m where m.sender.id = c.userId)
+      where c.messagesSent <> (select count(m) from ChatMessage m where m.sender.id = c.userId)
+        and c.userId not in :excluded
+      """)
+  int reconcile(@Param("excluded") Collection<Long> excluded);
+}
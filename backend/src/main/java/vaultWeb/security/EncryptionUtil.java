@@ -1,5 +1,8 @@
 package vaultWeb.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 import javax.crypto.Cipher;
@@ -12,11 +15,21 @@ import javax.crypto.spec.SecretKeySpec;
  *
  * <p>Provides methods to encrypt plaintext into a Base64-encoded ciphertext along with a randomly
  * generated initialization vector (IV), and to decrypt it back to the original text. Uses AES
- * encryption with Galois/Counter Mode (GCM) for authenticated encryption.
+ * encryption with Galois/Counter Mode (GCM) for authenticated encryption. Text is always encoded as
+ * UTF-8.
  *
  * <p>The constructor accepts a Base64-encoded secret key used as the master key for encryption and
  * decryption.
  *
+ * <p>This class sits on the hot path of every chat message, so it avoids per-call setup: each
+ * thread keeps its own {@link Cipher} (which is not thread-safe and expensive to look up) and its
+ * own DRBG {@link SecureRandom} for IVs, so concurrent callers never contend on a shared lock. The
+ * {@code byte[]} overloads skip the Base64 and String conversions entirely.
+ *
+ * <p>The {@link SecretKey} overloads encrypt with a caller-supplied key instead of the master key.
+ * Chat messages use them with per-conversation data keys, while the master key only wraps those
+ * data keys (see {@code ConversationKeyService}).
+ *
  * <p>Example usage:
  *
  * <pre>{@code
@@ -31,7 +44,11 @@ public class EncryptionUtil {
   private static final String AES_GCM = "AES/GCM/NoPadding";
   private static final int GCM_TAG_LENGTH = 128;
   private static final int IV_LENGTH_BYTES = 12;
-  private static final SecureRandom secureRandom = new SecureRandom();
+
+  private static final ThreadLocal<Cipher> CIPHERS =
+      ThreadLocal.withInitial(EncryptionUtil::newCipher);
+  private static final ThreadLocal<SecureRandom> RANDOMS =
+      ThreadLocal.withInitial(EncryptionUtil::newRandom);
 
   private final SecretKey masterKey;
 
@@ -53,16 +70,10 @@ public class EncryptionUtil {
    * @throws Exception if encryption fails
    */
   public EncryptResult encrypt(String plaintext) throws Exception {
-    byte[] iv = new byte[IV_LENGTH_BYTES];
-    secureRandom.nextBytes(iv);
-
-    Cipher cipher = Cipher.getInstance(AES_GCM);
-    GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-    cipher.init(Cipher.ENCRYPT_MODE, masterKey, spec);
-
-    byte[] cipherText = cipher.doFinal(plaintext.getBytes());
+    EncryptedBytes encrypted = encrypt(plaintext.getBytes(StandardCharsets.UTF_8));
     return new EncryptResult(
-        Base64.getEncoder().encodeToString(cipherText), Base64.getEncoder().encodeToString(iv));
+        Base64.getEncoder().encodeToString(encrypted.cipherText()),
+        Base64.getEncoder().encodeToString(encrypted.iv()));
   }
 
   /**
@@ -74,15 +85,92 @@ public class EncryptionUtil {
    * @throws Exception if decryption fails
    */
   public String decrypt(String base64CipherText, String base64Iv) throws Exception {
-    byte[] cipherText = Base64.getDecoder().decode(base64CipherText);
-    byte[] iv = Base64.getDecoder().decode(base64Iv);
+    byte[] plaintext =
+        decrypt(Base64.getDecoder().decode(base64CipherText), Base64.getDecoder().decode(base64Iv));
+    return new String(plaintext, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Encrypts raw bytes using AES-GCM with a randomly generated IV.
+   *
+   * @param plaintext the bytes to encrypt
+   * @return the ciphertext (including the GCM tag) and the IV
+   * @throws GeneralSecurityException if encryption fails
+   */
+  public EncryptedBytes encrypt(byte[] plaintext) throws GeneralSecurityException {
+    return encrypt(masterKey, plaintext);
+  }
+
+  /**
+   * Encrypts raw bytes with the given key instead of the master key, e.g. a per-conversation data
+   * key.
+   *
+   * @param key the AES key to encrypt with
+   * @param plaintext the bytes to encrypt
+   * @return the ciphertext (including the GCM tag) and the IV
+   * @throws GeneralSecurityException if encryption fails
+   */
+  public EncryptedBytes encrypt(SecretKey key, byte[] plaintext) throws GeneralSecurityException {
+    byte[] iv = new byte[IV_LENGTH_BYTES];
+    RANDOMS.get().nextBytes(iv);
+
+    Cipher cipher = CIPHERS.get();
+    cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+    return new EncryptedBytes(cipher.doFinal(plaintext), iv);
+  }
+
+  /**
+   * Decrypts raw ciphertext bytes.
+   *
+   * @param cipherText the ciphertext, including the GCM tag
+   * @param iv the IV used during encryption
+   * @return the plaintext bytes
+   * @throws GeneralSecurityException if decryption or tag verification fails
+   */
+  public byte[] decrypt(byte[] cipherText, byte[] iv) throws GeneralSecurityException {
+    return decrypt(masterKey, cipherText, iv);
+  }
+
+  /**
+   * Decrypts raw ciphertext bytes that were encrypted with the given key.
+   *
+   * @param key the AES key used during encryption
+   * @param cipherText the ciphertext, including the GCM tag
+   * @param iv the IV used during encryption
+   * @return the plaintext bytes
+   * @throws GeneralSecurityException if decryption or tag verification fails
+   */
+  public byte[] decrypt(SecretKey key, byte[] cipherText, byte[] iv)
+      throws GeneralSecurityException {
+    Cipher cipher = CIPHERS.get();
+    cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+    return cipher.doFinal(cipherText);
+  }
 
-    Cipher cipher = Cipher.getInstance(AES_GCM);
-    cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+  private static Cipher newCipher() {
+    try {
+      return Cipher.getInstance(AES_GCM);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("AES-GCM is not available", e);
+    }
+  }
 
-    return new String(cipher.doFinal(cipherText));
+  private static SecureRandom newRandom() {
+    try {
+      return SecureRandom.getInstance("DRBG");
+    } catch (NoSuchAlgorithmException e) {
+      return new SecureRandom();
+    }
   }
 
+  /**
+   * Result of a {@code byte[]} encryption.
+   *
+   * @param cipherText the ciphertext, including the GCM tag
+   * @param iv the randomly generated IV
+   */
+  public record EncryptedBytes(byte[] cipherText, byte[] iv) {}
+
   /**
    * Result object for the encryption operation.
    *
@@ -0,0 +1,162 @@
+package vaultWeb.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Turns message text into the plaintext bytes that get encrypted, compressing long messages.
+ *
+ * <p>Compression has to happen before encryption, since ciphertext does not compress. Every encoded
+ * payload starts with a flag byte:
+ *
+ * <ul>
+ *   <li>{@link #RAW}: the rest is the UTF-8 text.
+ *   <li>{@link #DEFLATE}: a 4-byte big-endian length of the UTF-8 text, followed by the text
+ *       compressed with raw DEFLATE.
+ * </ul>
+ *
+ * <p>Text shorter than the threshold is never compressed, since the DEFLATE framing costs more than
+ * it saves on short chat lines, and a compressed result that is not smaller than the input is
+ * discarded. Rows written before this format existed carry no flag byte; they are told apart by the
+ * message's {@code payloadVersion} and read with {@link #decodeLegacy(byte[])}.
+ *
+ * <p>As with {@link EncryptionUtil}, each thread reuses its own {@link Deflater} and {@link
+ * Inflater}.
+ */
+public class MessagePayloadCodec {
+
+  /** Payload format version written by {@link #encode(String)}. */
+  public static final short VERSION = 1;
+
+  static final byte RAW = 0;
+  static final byte DEFLATE = 1;
+
+  /** Upper bound for the declared length of a compressed payload, against corrupt rows. */
+  private static final int MAX_DECODED_BYTES = 16 * 1024 * 1024;
+
+  private static final ThreadLocal<Deflater> DEFLATERS =
+      ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+  private static final ThreadLocal<Inflater> INFLATERS =
+      ThreadLocal.withInitial(() -> new Inflater(true));
+
+  private final boolean enabled;
+  private final int thresholdBytes;
+
+  /**
+   * Creates a codec.
+   *
+   * @param enabled whether to compress at all; if not, every payload is written as {@link #RAW}
+   * @param thresholdBytes minimum UTF-8 size of a text before compression is attempted
+   */
+  public MessagePayloadCodec(boolean enabled, int thresholdBytes) {
+    this.enabled = enabled;
+    this.thresholdBytes = thresholdBytes;
+  }
+
+  /**
+   * Encodes message text into a flagged payload.
+   *
+   * @param text the message text
+   * @return the payload to encrypt
+   */
+  public byte[] encode(String text) {
+    byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+    if (enabled && utf8.length >= thresholdBytes) {
+      byte[] compressed = deflate(utf8);
+      if (compressed != null) {
+        return compressed;
+      }
+    }
+    byte[] payload = new byte[utf8.length + 1];
+    payload[0] = RAW;
+    System.arraycopy(utf8, 0, payload, 1, utf8.length);
+    return payload;
+  }
+
+  /**
+   * Decodes a payload written by {@link #encode(String)}.
+   *
+   * @param payload the decrypted payload
+   * @return the message text
+   * @throws IllegalArgumentException if the payload is malformed
+   */
+  public String decode(byte[] payload) {
+    if (payload.length == 0) {
+      throw new IllegalArgumentException("Empty message payload");
+    }
+    return switch (payload[0]) {
+      case RAW -> new String(payload, 1, payload.length - 1, StandardCharsets.UTF_8);
+      case DEFLATE -> new String(inflate(payload), StandardCharsets.UTF_8);
+      default -> throw new IllegalArgumentException("Unknown payload flag " + payload[0]);
+    };
+  }
+
+  /**
+   * Decodes a payload of a message written before the flagged format, which is plain UTF-8.
+   *
+   * @param payload the decrypted payload
+   * @return the message text
+   */
+  public String decodeLegacy(byte[] payload) {
+    return new String(payload, StandardCharsets.UTF_8);
+  }
+
+  /** Returns the flagged, compressed payload, or {@code null} if compression does not pay off. */
+  private static byte[] deflate(byte[] utf8) {
+    if (utf8.length <= 5) {
+      return null;
+    }
+    Deflater deflater = DEFLATERS.get();
+    deflater.reset();
+    deflater.setInput(utf8);
+    deflater.finish();
+
+    // anything at or above the raw size is useless, so never grow past it
+    byte[] buffer = new byte[utf8.length];
+    int offset = 5;
+    while (!deflater.finished()) {
+      if (offset == buffer.length) {
+        return null;
+      }
+      offset += deflater.deflate(buffer, offset, buffer.length - offset);
+    }
+    buffer[0] = DEFLATE;
+    ByteBuffer.wrap(buffer, 1, 4).putInt(utf8.length);
+    byte[] payload = new byte[offset];
+    System.arraycopy(buffer, 0, payload, 0, offset);
+    return payload;
+  }
+
+  private static byte[] inflate(byte[] payload) {
+    if (payload.length < 5) {
+      throw new IllegalArgumentException("Truncated compressed payload");
+    }
+    int length = ByteBuffer.wrap(payload, 1, 4).getInt();
+    if (length < 0 || length > MAX_DECODED_BYTES) {
+      throw new IllegalArgumentException("Invalid decoded length " + length);
+    }
+    Inflater inflater = INFLATERS.get();
+    inflater.reset();
+    inflater.setInput(payload, 5, payload.length - 5);
+    byte[] text = new byte[length];
+    try {
+      int read = 0;
+      while (read < length) {
+        int n = inflater.inflate(text, read, length - read);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          break;
+        }
+        read += n;
+      }
+      if (read != length) {
+        throw new IllegalArgumentException("Compressed payload does not match its length");
+      }
+      return text;
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupt compressed payload", e);
+    }
+  }
+}
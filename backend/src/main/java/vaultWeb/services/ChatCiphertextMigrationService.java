@@ -0,0 +1,173 @@
+package vaultWeb.services;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Base64;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Converts chat messages from the legacy Base64 {@code TEXT} columns to the binary {@code
+ * cipher_bytes}/{@code iv_bytes} columns.
+ *
+ * <p>On startup the legacy columns are made nullable, since new messages no longer write them. Once
+ * the application is ready, a background thread walks the unconverted rows in primary key order,
+ * {@code chat.binary-migration.batch-size} rows per transaction, decodes them and updates them in
+ * place with a JDBC batch, clearing the Base64 columns. Only rows that still lack {@code
+ * cipher_bytes} are selected, so the migration can be interrupted at any point and simply picks up
+ * the remaining rows on the next start. Until then, readers fall back to the Base64 columns (see
+ * {@link ChatService#decrypt(vaultWeb.models.ChatMessage)}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // the schema update must have added the binary columns
+public class ChatCiphertextMigrationService {
+
+  private static final String SELECT_BATCH =
+      """
+      select id, cipher_text, iv from chat_message
+      where cipher_bytes is null and cipher_text is not null and id > ?
+      order by id
+      limit ?
+      """;
+
+  private static final String UPDATE_ROW =
+      """
+      update chat_message
+      set cipher_bytes = ?, iv_bytes = ?, cipher_text = null, iv = null
+      where id = ?
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${chat.binary-migration.enabled:true}")
+  private boolean enabled;
+
+  @Value("${chat.binary-migration.batch-size:1000}")
+  private int batchSize;
+
+  /** Pause between batches, to leave I/O for regular traffic. */
+  @Value("${chat.binary-migration.pause-ms:50}")
+  private long pauseMs;
+
+  private record LegacyRow(long id, String cipherText, String iv) {}
+
+  private record ConvertedRow(long id, byte[] cipherBytes, byte[] ivBytes) {
+
+    boolean isConverted() {
+      return cipherBytes != null;
+    }
+  }
+
+  /** Drops the NOT NULL constraints the legacy columns had before the binary columns existed. */
+  @PostConstruct
+  public void relaxLegacyColumns() {
+    for (String column : List.of("cipher_text", "iv")) {
+      try {
+        jdbcTemplate.execute("alter table chat_message alter column " + column + " drop not null");
+      } catch (DataAccessException e) {
+        log.warn("Could not drop NOT NULL from chat_message.{}: {}", column, e.getMessage());
+      }
+    }
+  }
+
+  /** Starts the background conversion once the application is up. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void startInBackground() {
+    if (!enabled) {
+      return;
+    }
+    Thread worker = new Thread(this::runSafely, "chat-binary-migration");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * Converts all remaining legacy rows.
+   *
+   * @return the number of rows converted
+   * @throws InterruptedException if interrupted while pausing between batches
+   */
+  public long migrateAll() throws InterruptedException {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    long lastId = Long.MIN_VALUE;
+    long migrated = 0;
+    while (true) {
+      long after = lastId;
+      List<ConvertedRow> batch =
+          transactionTemplate.execute(
+              status -> {
+                List<LegacyRow> rows =
+                    jdbcTemplate.query(
+                        SELECT_BATCH,
+                        (rs, i) ->
+                            new LegacyRow(
+                                rs.getLong("id"), rs.getString("cipher_text"), rs.getString("iv")),
+                        after,
+                        batchSize);
+                List<ConvertedRow> converted = rows.stream().map(this::convert).toList();
+                jdbcTemplate.batchUpdate(
+                    UPDATE_ROW,
+                    converted.stream().filter(ConvertedRow::isConverted).toList(),
+                    batchSize,
+                    (ps, row) -> {
+                      ps.setBytes(1, row.cipherBytes());
+                      ps.setBytes(2, row.ivBytes());
+                      ps.setLong(3, row.id());
+                    });
+                return converted;
+              });
+      if (batch == null || batch.isEmpty()) {
+        return migrated;
+      }
+      // malformed rows are skipped over but not counted
+      migrated += batch.stream().filter(ConvertedRow::isConverted).count();
+      lastId = batch.getLast().id();
+      log.info("Converted {} chat messages to binary ciphertext so far", migrated);
+      if (batch.size() < batchSize) {
+        return migrated;
+      }
+      Thread.sleep(pauseMs);
+    }
+  }
+
+  /** Decodes a legacy row; rows that are not valid Base64 are left untouched and logged. */
+  private ConvertedRow convert(LegacyRow row) {
+    if (row.iv() != null) {
+      try {
+        return new ConvertedRow(
+            row.id(),
+            Base64.getDecoder().decode(row.cipherText()),
+            Base64.getDecoder().decode(row.iv()));
+      } catch (IllegalArgumentException e) {
+        // fall through
+      }
+    }
+    log.warn("Skipping chat message {} with malformed legacy ciphertext", row.id());
+    return new ConvertedRow(row.id(), null, null);
+  }
+
+  private void runSafely() {
+    try {
+      long migrated = migrateAll();
+      if (migrated > 0) {
+        log.info("Binary ciphertext migration finished, {} chat messages converted", migrated);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      log.error("Binary ciphertext migration failed, it will resume on the next start", e);
+    }
+  }
+}
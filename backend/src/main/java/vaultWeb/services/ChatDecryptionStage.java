@@ -0,0 +1,154 @@
+package vaultWeb.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import vaultWeb.exceptions.DecryptionFailedException;
+import vaultWeb.models.ChatMessage;
+
+/**
+ * Bulk decryption of chat messages on a small, bounded worker pool, used by every path that reads
+ * more than one message at a time (history pages, dashboard previews).
+ *
+ * <p>AES-GCM decryption is CPU-bound, so a batch is split into one contiguous chunk per worker and
+ * the chunks are decrypted in parallel on platform threads; more threads than cores would not make
+ * it any faster. Batches smaller than {@code chat.history.parallel-decrypt-threshold} are decrypted
+ * on the calling thread, where the hand-off would cost more than it saves. Messages found in the
+ * {@link ChatPlaintextCache} are not decrypted at all.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatDecryptionStage {
+
+  private final ChatService chatService;
+  private final ChatPlaintextCache plaintextCache;
+  private final ConversationKeyService conversationKeyService;
+
+  /** Number of worker threads; 0 means one per available processor. */
+  @Value("${chat.history.decrypt-parallelism:0}")
+  private int parallelism;
+
+  @Value("${chat.history.parallel-decrypt-threshold:32}")
+  private int parallelThreshold;
+
+  private int workers;
+  private ExecutorService executor;
+
+  /** Starts the worker pool. */
+  @PostConstruct
+  public void start() {
+    workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    executor =
+        Executors.newFixedThreadPool(
+            workers, Thread.ofPlatform().name("chat-decrypt-", 0).daemon().factory());
+  }
+
+  /** Stops the worker pool. */
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Result of decrypting one message.
+   *
+   * @param plaintext the decrypted content, or {@code null} if decryption failed
+   * @param failure why decryption failed, or {@code null} on success
+   */
+  public record Decrypted(String plaintext, RuntimeException failure) {
+
+    /**
+     * Returns whether the message was decrypted.
+     *
+     * @return {@code true} if {@link #plaintext()} holds the content
+     */
+    public boolean succeeded() {
+      return failure == null;
+    }
+  }
+
+  /**
+   * Decrypts a batch of messages.
+   *
+   * <p>A message that cannot be decrypted does not abort the batch; its result carries the failure
+   * instead, and the failure is logged with the message id.
+   *
+   * @param messages the messages to decrypt
+   * @return one result per message, in the same order as {@code messages}
+   */
+  public List<Decrypted> decryptAll(List<ChatMessage> messages) {
+    // fetch the data keys of all conversations in the batch at once instead of one by one
+    conversationKeyService.preload(
+        messages.stream().map(ChatMessage::getKeyId).filter(Objects::nonNull).toList());
+
+    int count = messages.size();
+    Decrypted[] results = new Decrypted[count];
+    if (count < parallelThreshold || workers < 2) {
+      for (int i = 0; i < count; i++) {
+        results[i] = decryptOne(messages.get(i));
+      }
+      return Arrays.asList(results);
+    }
+
+    int chunkSize = (count + workers - 1) / workers;
+    List<Future<?>> chunks = new ArrayList<>(workers);
+    for (int from = 0; from < count; from += chunkSize) {
+      int start = from;
+      int end = Math.min(count, from + chunkSize);
+      chunks.add(
+          executor.submit(
+              () -> {
+                for (int i = start; i < end; i++) {
+                  results[i] = decryptOne(messages.get(i));
+                }
+              }));
+    }
+    await(chunks);
+    return Arrays.asList(results);
+  }
+
+  private Decrypted decryptOne(ChatMessage message) {
+    String cached = plaintextCache.get(message.getId());
+    if (cached != null) {
+      return new Decrypted(cached, null);
+    }
+    try {
+      String plaintext = chatService.decrypt(message);
+      plaintextCache.put(message.getId(), plaintext);
+      return new Decrypted(plaintext, null);
+    } catch (RuntimeException e) {
+      log.warn("Could not decrypt chat message {}: {}", message.getId(), e.getMessage());
+      return new Decrypted(null, e);
+    }
+  }
+
+  private static void await(List<Future<?>> chunks) {
+    try {
+      for (Future<?> chunk : chunks) {
+        chunk.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      chunks.forEach(chunk -> chunk.cancel(true));
+      throw new DecryptionFailedException("Interrupted while decrypting messages", e);
+    } catch (ExecutionException e) {
+      // per-message failures are captured in the results, so this is something unexpected
+      chunks.forEach(chunk -> chunk.cancel(true));
+      throw new DecryptionFailedException("Decryption failed", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,296 @@
+package vaultWeb.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vaultWeb.dtos.ChatMessageDto;
+import vaultWeb.dtos.CompactMessagePageDto;
+import vaultWeb.dtos.MessagePageDto;
+import vaultWeb.exceptions.InvalidCursorException;
+import vaultWeb.exceptions.notfound.GroupNotFoundException;
+import vaultWeb.exceptions.notfound.NotMemberException;
+import vaultWeb.exceptions.notfound.PrivateChatNotFoundException;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.User;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.services.ChatDecryptionStage.Decrypted;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+
+/**
+ * Serves conversation history in bounded, keyset-paginated pages.
+ *
+ * <p>Pages are addressed by {@link MessageCursor}s on {@code (timestamp, id)} instead of offsets,
+ * so loading any page costs one index range scan of {@code limit + 1} rows, no matter how long the
+ * conversation is or how far back the client has scrolled. Without a cursor the latest page is
+ * returned. Page sizes are capped at {@code chat.history.max-page-size}. The unpaged history of a
+ * private chat is kept for the legacy {@code /private} endpoint.
+ *
+ * <p>Senders are join-fetched together with the messages, so a page costs a single query. Each page
+ * is decrypted by {@link ChatDecryptionStage}, which spreads larger pages over several cores; a
+ * message that cannot be decrypted is returned with {@code null} content instead of failing the
+ * whole page. Pages are available as a plain list of {@link ChatMessageDto}s or as a {@link
+ * CompactMessagePageDto} that lists every sender only once.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatHistoryService {
+
+  private final ChatMessageRepository chatMessageRepository;
+  private final ChatReferenceResolver referenceResolver;
+  private final GroupMemberRepository groupMemberRepository;
+  private final ChatDecryptionStage decryptionStage;
+
+  @Value("${chat.history.default-page-size:50}")
+  private int defaultPageSize;
+
+  @Value("${chat.history.max-page-size:200}")
+  private int maxPageSize;
+
+  /**
+   * Loads one page of a private chat's history.
+   *
+   * @param privateChatId the private chat id
+   * @param username the requesting user, who must be a participant of the chat
+   * @param before load the messages older than this cursor; may be {@code null}
+   * @param after load the messages newer than this cursor; may be {@code null}
+   * @param limit requested page size, or {@code null} for the default
+   * @return the page, with messages in chronological order
+   * @throws PrivateChatNotFoundException if the chat does not exist
+   * @throws AccessDeniedException if the user is not a participant of the chat
+   * @throws InvalidCursorException if a cursor is malformed or both cursors are given
+   */
+  @Transactional(readOnly = true)
+  public MessagePageDto getPrivateChatPage(
+      Long privateChatId, String username, String before, String after, Integer limit) {
+    return toMessagePage(
+        loadPage(privateChatQueries(privateChatId, username), before, after, limit));
+  }
+
+  /**
+   * Loads the whole history of a private chat in one response. Its cost grows with the length of
+   * the chat; clients that can page should use {@link #getPrivateChatPage} instead.
+   *
+   * @param privateChatId the private chat id
+   * @param username the requesting user, who must be a participant of the chat
+   * @return all messages of the chat in chronological order
+   * @throws PrivateChatNotFoundException if the chat does not exist
+   * @throws AccessDeniedException if the user is not a participant of the chat
+   */
+  @Transactional(readOnly = true)
+  public List<ChatMessageDto> getPrivateChatHistory(Long privateChatId, String username) {
+    checkParticipant(privateChatId, username);
+    List<ChatMessage> rows = chatMessageRepository.findAllInPrivateChat(privateChatId);
+    List<Decrypted> decrypted = decryptionStage.decryptAll(rows);
+    List<ChatMessageDto> messages = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      messages.add(toDto(rows.get(i), decrypted.get(i).plaintext()));
+    }
+    return messages;
+  }
+
+  /**
+   * Same as {@link #getPrivateChatPage}, but returns the compact sender-dictionary format.
+   *
+   * @see CompactMessagePageDto
+   */
+  @Transactional(readOnly = true)
+  public CompactMessagePageDto getCompactPrivateChatPage(
+      Long privateChatId, String username, String before, String after, Integer limit) {
+    return toCompactPage(
+        loadPage(privateChatQueries(privateChatId, username), before, after, limit));
+  }
+
+  /**
+   * Loads one page of a group's history.
+   *
+   * @param groupId the group id
+   * @param userId the requesting user, who must be a member of the group
+   * @param before load the messages older than this cursor; may be {@code null}
+   * @param after load the messages newer than this cursor; may be {@code null}
+   * @param limit requested page size, or {@code null} for the default
+   * @return the page, with messages in chronological order
+   * @throws GroupNotFoundException if the group does not exist
+   * @throws NotMemberException if the user is not a member of the group
+   * @throws InvalidCursorException if a cursor is malformed or both cursors are given
+   */
+  @Transactional(readOnly = true)
+  public MessagePageDto getGroupPage(
+      Long groupId, Long userId, String before, String after, Integer limit) {
+    return toMessagePage(loadPage(groupQueries(groupId, userId), before, after, limit));
+  }
+
+  /**
+   * Same as {@link #getGroupPage}, but returns the compact sender-dictionary format.
+   *
+   * @see CompactMessagePageDto
+   */
+  @Transactional(readOnly = true)
+  public CompactMessagePageDto getCompactGroupPage(
+      Long groupId, Long userId, String before, String after, Integer limit) {
+    return toCompactPage(loadPage(groupQueries(groupId, userId), before, after, limit));
+  }
+
+  private KeysetQueries privateChatQueries(Long privateChatId, String username) {
+    checkParticipant(privateChatId, username);
+    return new KeysetQueries(
+        page -> chatMessageRepository.findLatestInPrivateChat(privateChatId, page),
+        (ts, id, page) ->
+            chatMessageRepository.findInPrivateChatBefore(privateChatId, ts, id, page),
+        (ts, id, page) ->
+            chatMessageRepository.findInPrivateChatAfter(privateChatId, ts, id, page));
+  }
+
+  private void checkParticipant(Long privateChatId, String username) {
+    PrivateChatRef chat =
+        referenceResolver
+            .findPrivateChat(privateChatId)
+            .orElseThrow(
+                () ->
+                    new PrivateChatNotFoundException(
+                        "No private chat with this id " + privateChatId));
+    if (!chat.hasParticipant(username)) {
+      throw new AccessDeniedException(
+          "You are not allowed to read the private chat with this id " + privateChatId);
+    }
+  }
+
+  private KeysetQueries groupQueries(Long groupId, Long userId) {
+    referenceResolver
+        .findGroup(groupId)
+        .orElseThrow(() -> new GroupNotFoundException("Group with id " + groupId + " not found"));
+    if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, userId)) {
+      throw new NotMemberException(groupId, userId);
+    }
+    return new KeysetQueries(
+        page -> chatMessageRepository.findLatestInGroup(groupId, page),
+        (ts, id, page) -> chatMessageRepository.findInGroupBefore(groupId, ts, id, page),
+        (ts, id, page) -> chatMessageRepository.findInGroupAfter(groupId, ts, id, page));
+  }
+
+  private LoadedPage loadPage(KeysetQueries queries, String before, String after, Integer limit) {
+    if (before != null && after != null) {
+      throw new InvalidCursorException("Only one of 'before' and 'after' may be given");
+    }
+    int pageSize = resolvePageSize(limit);
+    // fetch one extra row to learn whether there is more in the paging direction
+    Limit fetch = Limit.of(pageSize + 1);
+
+    List<ChatMessage> rows;
+    boolean hasOlder;
+    boolean hasNewer;
+    if (after != null) {
+      MessageCursor cursor = MessageCursor.decode(after);
+      rows = new ArrayList<>(queries.after().find(cursor.timestamp(), cursor.id(), fetch));
+      hasNewer = trim(rows, pageSize);
+      hasOlder = true;
+    } else {
+      if (before != null) {
+        MessageCursor cursor = MessageCursor.decode(before);
+        rows = new ArrayList<>(queries.before().find(cursor.timestamp(), cursor.id(), fetch));
+      } else {
+        rows = new ArrayList<>(queries.latest().apply(fetch));
+      }
+      hasOlder = trim(rows, pageSize);
+      hasNewer = before != null;
+      Collections.reverse(rows);
+    }
+
+    List<String> plaintexts =
+        decryptionStage.decryptAll(rows).stream().map(Decrypted::plaintext).toList();
+    String olderCursor = rows.isEmpty() ? null : MessageCursor.of(rows.getFirst()).encode();
+    String newerCursor = rows.isEmpty() ? null : MessageCursor.of(rows.getLast()).encode();
+    return new LoadedPage(rows, plaintexts, olderCursor, newerCursor, hasOlder, hasNewer);
+  }
+
+  private MessagePageDto toMessagePage(LoadedPage page) {
+    List<ChatMessageDto> messages = new ArrayList<>(page.rows().size());
+    for (int i = 0; i < page.rows().size(); i++) {
+      messages.add(toDto(page.rows().get(i), page.plaintexts().get(i)));
+    }
+    return new MessagePageDto(
+        messages, page.olderCursor(), page.newerCursor(), page.hasOlder(), page.hasNewer());
+  }
+
+  private CompactMessagePageDto toCompactPage(LoadedPage page) {
+    List<CompactMessagePageDto.Sender> senders = new ArrayList<>();
+    Map<Long, Integer> senderIndex = new HashMap<>();
+    List<CompactMessagePageDto.Message> messages = new ArrayList<>(page.rows().size());
+    for (int i = 0; i < page.rows().size(); i++) {
+      ChatMessage message = page.rows().get(i);
+      User sender = message.getSender();
+      int index =
+          senderIndex.computeIfAbsent(
+              sender.getId(),
+              id -> {
+                senders.add(new CompactMessagePageDto.Sender(id, sender.getUsername()));
+                return senders.size() - 1;
+              });
+      messages.add(
+          new CompactMessagePageDto.Message(
+              message.getId(), index, page.plaintexts().get(i), message.getTimestamp().toString()));
+    }
+    return new CompactMessagePageDto(
+        senders,
+        messages,
+        page.olderCursor(),
+        page.newerCursor(),
+        page.hasOlder(),
+        page.hasNewer());
+  }
+
+  private int resolvePageSize(Integer limit) {
+    if (limit == null || limit < 1) {
+      return defaultPageSize;
+    }
+    return Math.min(limit, maxPageSize);
+  }
+
+  /** Drops the look-ahead row, if present, and reports whether it was there. */
+  private static boolean trim(List<ChatMessage> rows, int pageSize) {
+    if (rows.size() <= pageSize) {
+      return false;
+    }
+    rows.subList(pageSize, rows.size()).clear();
+    return true;
+  }
+
+  private ChatMessageDto toDto(ChatMessage message, String plaintext) {
+    return new ChatMessageDto(
+        plaintext,
+        message.getTimestamp().toString(),
+        message.getGroup() != null ? message.getGroup().getId() : null,
+        message.getPrivateChat() != null ? message.getPrivateChat().getId() : null,
+        message.getSender().getId(),
+        message.getSender().getUsername(),
+        message.getId());
+  }
+
+  @FunctionalInterface
+  private interface KeysetQuery {
+    List<ChatMessage> find(Instant timestamp, Long id, Limit limit);
+  }
+
+  /** A loaded and decrypted page, before it is mapped to one of the response formats. */
+  private record LoadedPage(
+      List<ChatMessage> rows,
+      List<String> plaintexts,
+      String olderCursor,
+      String newerCursor,
+      boolean hasOlder,
+      boolean hasNewer) {}
+
+  /** The three keyset queries of one conversation. */
+  private record KeysetQueries(
+      Function<Limit, List<ChatMessage>> latest, KeysetQuery before, KeysetQuery after) {}
+}
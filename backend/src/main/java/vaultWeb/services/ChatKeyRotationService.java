@@ -0,0 +1,401 @@
+package vaultWeb.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.crypto.SecretKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.exceptions.DecryptionFailedException;
+import vaultWeb.exceptions.EncryptionFailedException;
+import vaultWeb.exceptions.notfound.GroupNotFoundException;
+import vaultWeb.exceptions.notfound.KeyRotationJobNotFoundException;
+import vaultWeb.exceptions.notfound.PrivateChatNotFoundException;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.KeyRotationJob;
+import vaultWeb.models.enums.KeyRotationStatus;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.KeyRotationJobRepository;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+import vaultWeb.services.ConversationKeyService.Conversation;
+import vaultWeb.services.ConversationKeyService.DataKey;
+
+/**
+ * Rotates the data key of a conversation while the conversation stays in use.
+ *
+ * <p>{@link #startRotation} switches the conversation to a new key right away, so every message
+ * sent from then on uses it. The existing messages are then re-encrypted in the background by a
+ * single worker thread: it walks the conversation's messages in primary key order, {@code
+ * chat.key-rotation.batch-size} at a time, and each batch is one short transaction that rewrites
+ * the batch and advances the job's checkpoint (see {@link KeyRotationJob}). Between batches the
+ * worker pauses for {@code chat.key-rotation.pause-ms}, so no long-held locks or bursts of I/O get
+ * in the way of live traffic. Messages that still use an older key stay readable throughout.
+ *
+ * <p>Each job is worked on by one instance, which claims it with a lease on the job row and renews
+ * the lease with every batch. Jobs that were interrupted by a shutdown, or whose instance stopped
+ * renewing its lease, are claimed and resumed from their checkpoint by the next instance that looks
+ * for unfinished jobs.
+ *
+ * <p>A failing batch is retried with exponential backoff, up to {@code
+ * chat.key-rotation.max-attempts} times in a row. After that the job is marked {@link
+ * KeyRotationStatus#FAILED}; rotating the conversation again restarts it from its checkpoint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatKeyRotationService {
+
+  private final ConversationKeyService conversationKeyService;
+  private final KeyRotationJobRepository jobRepository;
+  private final ChatMessageRepository chatMessageRepository;
+  private final ChatService chatService;
+  private final ChatReferenceResolver referenceResolver;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${chat.key-rotation.batch-size:500}")
+  private int batchSize;
+
+  /** Pause between batches, to leave I/O for regular traffic. */
+  @Value("${chat.key-rotation.pause-ms:100}")
+  private long pauseMs;
+
+  /** How long a claim on a job holds without a finished batch; far longer than a batch takes. */
+  @Value("${chat.key-rotation.lease:PT5M}")
+  private Duration lease;
+
+  /** Failed attempts of a batch before the job is given up. */
+  @Value("${chat.key-rotation.max-attempts:5}")
+  private int maxAttempts;
+
+  /** Wait before retrying a failed batch, doubled with every further failure. */
+  @Value("${chat.key-rotation.retry-backoff-ms:1000}")
+  private long retryBackoffMs;
+
+  /** Jobs queued or running on this instance. */
+  private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+  /**
+   * How long after a rotation messages may still be encrypted with the previous key: until the
+   * active key cached by every instance has expired, plus a margin for messages encrypted just
+   * before that and not yet stored.
+   */
+  static final Duration SETTLE = ConversationKeyService.ACTIVE_KEY_TTL.plusSeconds(5);
+
+  /** Pause between looks for stragglers while a job settles. */
+  private static final long SETTLE_POLL_MS = 1000;
+
+  /** How a job goes on after a batch. */
+  enum Progress {
+    /** A full batch was processed; the next one follows after the pause. */
+    MORE,
+    /** Caught up, but waiting out {@link ChatKeyRotationService#SETTLE} for stragglers. */
+    SETTLING,
+    /** The job is finished, failed, or taken over by another instance. */
+    STOPPED
+  }
+
+  private ExecutorService worker;
+  private TransactionTemplate transactionTemplate;
+
+  @PostConstruct
+  public void start() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    worker =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "chat-key-rotation");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    worker.shutdownNow();
+  }
+
+  /**
+   * Rotates the data key of a group. Callers are responsible for checking admin rights.
+   *
+   * @param groupId the group id
+   * @return the newly created job
+   * @throws GroupNotFoundException if the group does not exist
+   */
+  public KeyRotationJob rotateGroupKey(Long groupId) {
+    referenceResolver
+        .findGroup(groupId)
+        .orElseThrow(() -> new GroupNotFoundException("Group with id " + groupId + " not found"));
+    return startRotation(Conversation.group(groupId));
+  }
+
+  /**
+   * Rotates the data key of a private chat on behalf of one of its participants.
+   *
+   * @param privateChatId the private chat id
+   * @param username the requesting user, who must be a participant of the chat
+   * @return the newly created job
+   * @throws PrivateChatNotFoundException if the chat does not exist
+   * @throws AccessDeniedException if the user is not a participant of the chat
+   */
+  public KeyRotationJob rotatePrivateChatKey(Long privateChatId, String username) {
+    checkParticipant(privateChatId, username);
+    return startRotation(Conversation.privateChat(privateChatId));
+  }
+
+  /**
+   * Returns the latest key rotation of a group. Callers are responsible for checking admin rights.
+   *
+   * @param groupId the group id
+   * @return the latest job
+   * @throws KeyRotationJobNotFoundException if the group's key was never rotated
+   */
+  public KeyRotationJob getGroupRotation(Long groupId) {
+    return latestJob(Conversation.group(groupId))
+        .orElseThrow(
+            () -> new KeyRotationJobNotFoundException("No key rotation for group " + groupId));
+  }
+
+  /**
+   * Returns the latest key rotation of a private chat on behalf of one of its participants.
+   *
+   * @param privateChatId the private chat id
+   * @param username the requesting user, who must be a participant of the chat
+   * @return the latest job
+   * @throws PrivateChatNotFoundException if the chat does not exist
+   * @throws AccessDeniedException if the user is not a participant of the chat
+   * @throws KeyRotationJobNotFoundException if the chat's key was never rotated
+   */
+  public KeyRotationJob getPrivateChatRotation(Long privateChatId, String username) {
+    checkParticipant(privateChatId, username);
+    return latestJob(Conversation.privateChat(privateChatId))
+        .orElseThrow(
+            () ->
+                new KeyRotationJobNotFoundException(
+                    "No key rotation for private chat " + privateChatId));
+  }
+
+  private void checkParticipant(Long privateChatId, String username) {
+    PrivateChatRef chat =
+        referenceResolver
+            .findPrivateChat(privateChatId)
+            .orElseThrow(
+                () ->
+                    new PrivateChatNotFoundException(
+                        "No private chat with this id " + privateChatId));
+    if (!chat.hasParticipant(username)) {
+      throw new AccessDeniedException(
+          "You are not allowed to rotate the key of the private chat with this id "
+              + privateChatId);
+    }
+  }
+
+  private Optional<KeyRotationJob> latestJob(Conversation conversation) {
+    return conversation.groupId() != null
+        ? jobRepository.findFirstByGroupIdOrderByIdDesc(conversation.groupId())
+        : jobRepository.findFirstByPrivateChatIdOrderByIdDesc(conversation.privateChatId());
+  }
+
+  /**
+   * Gives a conversation a new data key and schedules the re-encryption of its existing messages.
+   * If the conversation's latest rotation failed, that rotation is restarted from its checkpoint
+   * instead, since its key is still the active one.
+   *
+   * @param conversation the conversation to rotate
+   * @return the newly created or restarted job
+   * @throws EncryptionFailedException if the new key cannot be created
+   */
+  public KeyRotationJob startRotation(Conversation conversation) {
+    Optional<KeyRotationJob> failed =
+        latestJob(conversation).filter(job -> job.getStatus() == KeyRotationStatus.FAILED);
+    if (failed.isPresent()) {
+      return restart(failed.get());
+    }
+
+    DataKey newKey = conversationKeyService.rotate(conversation);
+
+    KeyRotationJob job = new KeyRotationJob();
+    job.setGroupId(conversation.groupId());
+    job.setPrivateChatId(conversation.privateChatId());
+    job.setTargetKeyId(newKey.id());
+    job.setStatus(KeyRotationStatus.RUNNING);
+    job.setOwner(SchedulerLockService.OWNER);
+    job.setLeaseUntil(Instant.now().plus(lease));
+    job = jobRepository.save(job);
+
+    schedule(job.getId());
+    return job;
+  }
+
+  private KeyRotationJob restart(KeyRotationJob job) {
+    log.info(
+        "Restarting failed key rotation job {} after message {}",
+        job.getId(),
+        job.getLastMessageId());
+    job.setStatus(KeyRotationStatus.RUNNING);
+    job.setFinishedAt(null);
+    job.setOwner(SchedulerLockService.OWNER);
+    job.setLeaseUntil(Instant.now().plus(lease));
+    job = jobRepository.save(job);
+
+    schedule(job.getId());
+    return job;
+  }
+
+  /**
+   * Picks up jobs that were still running when the application was last stopped, or whose instance
+   * has stopped renewing its lease. Jobs another instance is working on are left to it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${chat.key-rotation.resume-interval-ms:60000}")
+  public void resumeUnfinished() {
+    for (KeyRotationJob job : jobRepository.findByStatus(KeyRotationStatus.RUNNING)) {
+      if (scheduled.contains(job.getId()) || !claim(job.getId())) {
+        continue;
+      }
+      log.info(
+          "Resuming key rotation job {} after message {}", job.getId(), job.getLastMessageId());
+      schedule(job.getId());
+    }
+  }
+
+  private boolean claim(Long jobId) {
+    Instant now = Instant.now();
+    Integer claimed =
+        transactionTemplate.execute(
+            status -> jobRepository.claim(jobId, SchedulerLockService.OWNER, now, now.plus(lease)));
+    return claimed != null && claimed == 1;
+  }
+
+  private void schedule(Long jobId) {
+    if (scheduled.add(jobId)) {
+      worker.execute(() -> run(jobId));
+    }
+  }
+
+  private void run(Long jobId) {
+    try {
+      int failures = 0;
+      while (true) {
+        try {
+          Progress progress = transactionTemplate.execute(status -> processBatch(jobId));
+          if (progress != Progress.MORE && progress != Progress.SETTLING) {
+            return;
+          }
+          failures = 0;
+          Thread.sleep(progress == Progress.SETTLING ? Math.max(pauseMs, SETTLE_POLL_MS) : pauseMs);
+        } catch (RuntimeException e) {
+          // e.g. a message of the batch was deleted meanwhile; the retry reads the batch again
+          failures++;
+          if (failures >= maxAttempts) {
+            log.error("Key rotation job {} failed {} times, giving up", jobId, failures, e);
+            markFailed(jobId);
+            return;
+          }
+          long backoff = retryBackoffMs << (failures - 1);
+          log.warn(
+              "Key rotation job {} failed, retrying in {} ms: {}", jobId, backoff, e.toString());
+          Thread.sleep(backoff);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      scheduled.remove(jobId);
+    }
+  }
+
+  private void markFailed(Long jobId) {
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> jobRepository.markFailed(jobId, SchedulerLockService.OWNER, Instant.now()));
+    } catch (RuntimeException e) {
+      // still RUNNING; another instance takes it over once the lease runs out
+      log.error("Could not mark key rotation job {} as failed", jobId, e);
+    }
+  }
+
+  /**
+   * Re-encrypts the next batch of a job and advances its checkpoint. Must run inside a transaction;
+   * the rewritten messages and the checkpoint are flushed together on commit, and the job row stays
+   * locked until then.
+   *
+   * @param jobId the job id
+   * @return how the job goes on
+   */
+  Progress processBatch(Long jobId) {
+    KeyRotationJob job = jobRepository.findForUpdate(jobId).orElse(null);
+    if (job == null || job.getStatus() != KeyRotationStatus.RUNNING) {
+      return Progress.STOPPED;
+    }
+    if (!SchedulerLockService.OWNER.equals(job.getOwner())) {
+      // our lease ran out and another instance took the job over
+      log.info("Key rotation job {} was taken over by {}", jobId, job.getOwner());
+      return Progress.STOPPED;
+    }
+
+    Limit limit = Limit.of(batchSize);
+    List<ChatMessage> batch =
+        job.getGroupId() != null
+            ? chatMessageRepository.findGroupMessagesToRekey(
+                job.getGroupId(), job.getTargetKeyId(), job.getLastMessageId(), limit)
+            : chatMessageRepository.findPrivateChatMessagesToRekey(
+                job.getPrivateChatId(), job.getTargetKeyId(), job.getLastMessageId(), limit);
+
+    SecretKey target = conversationKeyService.key(job.getTargetKeyId());
+    int reencrypted = 0;
+    for (ChatMessage message : batch) {
+      if (reencrypt(message, target, job.getTargetKeyId())) {
+        reencrypted++;
+      }
+    }
+
+    Instant now = Instant.now();
+    job.setUpdatedAt(now);
+    job.setLeaseUntil(now.plus(lease));
+    job.setReencrypted(job.getReencrypted() + reencrypted);
+    if (!batch.isEmpty()) {
+      job.setLastMessageId(batch.getLast().getId());
+    }
+    if (batch.size() == batchSize) {
+      return Progress.MORE;
+    }
+    if (now.isBefore(job.getStartedAt().plus(SETTLE))) {
+      // other instances may still send with the previous key; keep picking up their messages
+      return Progress.SETTLING;
+    }
+    job.setStatus(KeyRotationStatus.DONE);
+    job.setFinishedAt(now);
+    log.info("Key rotation job {} finished, {} messages", jobId, job.getReencrypted());
+    return Progress.STOPPED;
+  }
+
+  /** Re-encrypts one message in place; returns {@code false} if it had to be skipped. */
+  private boolean reencrypt(ChatMessage message, SecretKey target, Long targetKeyId) {
+    String plaintext;
+    try {
+      plaintext = chatService.decrypt(message);
+    } catch (DecryptionFailedException e) {
+      // leave it as it is, it is unreadable either way
+      log.warn("Skipping chat message {} that cannot be decrypted", message.getId(), e);
+      return false;
+    }
+    chatService.encryptInto(message, targetKeyId, target, plaintext);
+    return true;
+  }
+}
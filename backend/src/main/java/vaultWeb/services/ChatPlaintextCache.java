@@ -0,0 +1,151 @@
+package vaultWeb.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.ChatMessagesDeletedEvent;
+
+/**
+ * Optional in-memory cache of decrypted chat messages, keyed by message id.
+ *
+ * <p>Recent messages of busy conversations are read far more often than they are written: every
+ * history open and every dashboard load decrypts them again. With {@code
+ * chat.plaintext-cache.enabled} set, plaintexts are kept here once a sent message has been stored
+ * or when a message is first decrypted, so later reads skip the AES work.
+ *
+ * <p>The cache is bounded by the UTF-8 size of the cached plaintexts ({@code
+ * chat.plaintext-cache.max-bytes}) and entries expire {@code chat.plaintext-cache.ttl-seconds}
+ * after they were written. Plaintexts are held as byte arrays that are overwritten with zeros as
+ * soon as an entry leaves the cache, for whatever reason, including the deletion of its message.
+ * Hit and miss counts are published as the Micrometer cache metrics of {@code chat.plaintext}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatPlaintextCache {
+
+  /** Rough per-entry cost of the key, the holder and the cache node, added to the weight. */
+  private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${chat.plaintext-cache.enabled:false}")
+  private boolean enabled;
+
+  @Value("${chat.plaintext-cache.max-bytes:67108864}")
+  private long maxBytes;
+
+  @Value("${chat.plaintext-cache.ttl-seconds:600}")
+  private long ttlSeconds;
+
+  private Cache<Long, Entry> cache;
+
+  /** Builds the cache if it is enabled. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Long id, Entry entry) -> entry.weight())
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .removalListener((Long id, Entry entry, RemovalCause cause) -> entry.wipe())
+            .executor(Runnable::run) // wipe right away instead of on the common pool
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.plaintext");
+  }
+
+  /**
+   * Returns the cached plaintext of a message.
+   *
+   * @param messageId the message id
+   * @return the plaintext, or {@code null} if it is not cached or the cache is disabled
+   */
+  public String get(Long messageId) {
+    if (cache == null || messageId == null) {
+      return null;
+    }
+    Entry entry = cache.getIfPresent(messageId);
+    return entry == null ? null : entry.read();
+  }
+
+  /**
+   * Caches the plaintext of a message. Does nothing if the cache is disabled.
+   *
+   * @param messageId the message id
+   * @param plaintext the decrypted content
+   */
+  public void put(Long messageId, String plaintext) {
+    if (cache == null || messageId == null || plaintext == null) {
+      return;
+    }
+    cache.put(messageId, new Entry(plaintext.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Removes and wipes a cached plaintext, e.g. after the message was deleted.
+   *
+   * @param messageId the message id
+   */
+  public void invalidate(Long messageId) {
+    if (cache != null && messageId != null) {
+      cache.invalidate(messageId);
+    }
+  }
+
+  /**
+   * Caches the plaintext of a message sent through this instance once its insert has committed, as
+   * it is most likely read again soon. Messages saved by the write-behind flusher carry no
+   * plaintext and are cached on their first read instead.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChatMessageSaved(ChatMessageSavedEvent event) {
+    put(event.messageId(), event.content());
+  }
+
+  /** Drops the plaintexts of deleted messages once the deletion has committed. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChatMessagesDeleted(ChatMessagesDeletedEvent event) {
+    if (cache != null) {
+      cache.invalidateAll(event.messageIds());
+    }
+  }
+
+  /** Holds one plaintext and zeroes it when it leaves the cache. */
+  private static final class Entry {
+
+    private final byte[] utf8;
+    private boolean wiped;
+
+    Entry(byte[] utf8) {
+      this.utf8 = utf8;
+    }
+
+    int weight() {
+      return utf8.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    // reads and wipes are serialized, so a reader never decodes a half-zeroed array
+    synchronized String read() {
+      return wiped ? null : new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    synchronized void wipe() {
+      wiped = true;
+      Arrays.fill(utf8, (byte) 0);
+    }
+  }
+}
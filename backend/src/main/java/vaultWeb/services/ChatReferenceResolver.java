@@ -0,0 +1,146 @@
+package vaultWeb.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import vaultWeb.models.PrivateChat;
+import vaultWeb.models.User;
+import vaultWeb.repositories.GroupRepository;
+import vaultWeb.repositories.PrivateChatRepository;
+import vaultWeb.repositories.UserRepository;
+
+/**
+ * Resolves the ids used on the chat send path into small, immutable references and caches them.
+ *
+ * <p>Sending a message only needs to know that the sender and the target conversation exist, plus a
+ * few usernames for the broadcast. Instead of loading full entities for every message, the first
+ * lookup is cached here and later sends of the same conversation cost no SELECT at all. The
+ * entities themselves are then attached as Hibernate proxies via {@code getReferenceById}.
+ *
+ * <p>Only successful lookups are cached, and entries expire after a period of inactivity. Groups
+ * are evicted by {@link GroupService} when they are updated or deleted. Users and private chats
+ * need no eviction: neither is ever deleted, and a reference only holds ids and usernames, which
+ * never change.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatReferenceResolver {
+
+  private final UserRepository userRepository;
+  private final GroupRepository groupRepository;
+  private final PrivateChatRepository privateChatRepository;
+
+  private final Cache<Long, SenderRef> sendersById = newCache();
+  private final Cache<String, SenderRef> sendersByUsername = newCache();
+  private final Cache<Long, GroupRef> groups = newCache();
+  private final Cache<Long, PrivateChatRef> privateChats = newCache();
+
+  private static <K, V> Cache<K, V> newCache() {
+    return Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(30)) // drop conversations that went quiet
+        .maximumSize(10_000) // safety cap
+        .build();
+  }
+
+  /** Minimal view of a message sender. */
+  public record SenderRef(Long id, String username) {}
+
+  /** Minimal view of a group chat. */
+  public record GroupRef(Long id) {}
+
+  /** Minimal view of a private chat and its two participants. */
+  public record PrivateChatRef(
+      Long id, Long user1Id, String user1Username, Long user2Id, String user2Username) {
+
+    /** Returns whether the given user is one of the two participants. */
+    public boolean hasParticipant(String username) {
+      return username.equals(user1Username) || username.equals(user2Username);
+    }
+  }
+
+  /**
+   * Looks up a sender by id.
+   *
+   * @param userId the user id
+   * @return the sender reference, or empty if no such user exists
+   */
+  public Optional<SenderRef> findSenderById(Long userId) {
+    return Optional.ofNullable(
+        sendersById.get(
+            userId,
+            id -> {
+              SenderRef ref = userRepository.findById(id).map(this::toRef).orElse(null);
+              if (ref != null) {
+                sendersByUsername.put(ref.username(), ref);
+              }
+              return ref;
+            }));
+  }
+
+  /**
+   * Looks up a sender by username.
+   *
+   * @param username the username
+   * @return the sender reference, or empty if no such user exists
+   */
+  public Optional<SenderRef> findSenderByUsername(String username) {
+    return Optional.ofNullable(
+        sendersByUsername.get(
+            username,
+            name -> {
+              SenderRef ref = userRepository.findByUsername(name).map(this::toRef).orElse(null);
+              if (ref != null) {
+                sendersById.put(ref.id(), ref);
+              }
+              return ref;
+            }));
+  }
+
+  /**
+   * Looks up a group chat by id.
+   *
+   * @param groupId the group id
+   * @return the group reference, or empty if no such group exists
+   */
+  public Optional<GroupRef> findGroup(Long groupId) {
+    return Optional.ofNullable(
+        groups.get(groupId, id -> groupRepository.existsById(id) ? new GroupRef(id) : null));
+  }
+
+  /**
+   * Looks up a private chat by id.
+   *
+   * @param privateChatId the private chat id
+   * @return the private chat reference, or empty if no such chat exists
+   */
+  public Optional<PrivateChatRef> findPrivateChat(Long privateChatId) {
+    return Optional.ofNullable(
+        privateChats.get(
+            privateChatId, id -> privateChatRepository.findById(id).map(this::toRef).orElse(null)));
+  }
+
+  /**
+   * Evicts a cached group, e.g. after it was updated or deleted.
+   *
+   * @param groupId the group id
+   */
+  public void evictGroup(Long groupId) {
+    groups.invalidate(groupId);
+  }
+
+  private SenderRef toRef(User user) {
+    return new SenderRef(user.getId(), user.getUsername());
+  }
+
+  private PrivateChatRef toRef(PrivateChat chat) {
+    return new PrivateChatRef(
+        chat.getId(),
+        chat.getUser1().getId(),
+        chat.getUser1().getUsername(),
+        chat.getUser2().getId(),
+        chat.getUser2().getUsername());
+  }
+}
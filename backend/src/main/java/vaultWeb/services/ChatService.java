@@ -1,22 +1,32 @@
 package vaultWeb.services;
 
 import java.time.Instant;
+import java.util.List;
+import javax.crypto.SecretKey;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import vaultWeb.dtos.ChatMessageDto;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.exceptions.ChatBackpressureException;
 import vaultWeb.exceptions.DecryptionFailedException;
 import vaultWeb.exceptions.EncryptionFailedException;
 import vaultWeb.exceptions.notfound.GroupNotFoundException;
 import vaultWeb.exceptions.notfound.UserNotFoundException;
 import vaultWeb.models.ChatMessage;
-import vaultWeb.models.Group;
-import vaultWeb.models.PrivateChat;
-import vaultWeb.models.User;
+import vaultWeb.models.ids.SnowflakeIdGenerator;
 import vaultWeb.repositories.ChatMessageRepository;
 import vaultWeb.repositories.GroupRepository;
 import vaultWeb.repositories.PrivateChatRepository;
 import vaultWeb.repositories.UserRepository;
 import vaultWeb.security.EncryptionUtil;
+import vaultWeb.security.MessagePayloadCodec;
+import vaultWeb.services.ChatReferenceResolver.GroupRef;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+import vaultWeb.services.ChatReferenceResolver.SenderRef;
+import vaultWeb.services.ConversationKeyService.Conversation;
+import vaultWeb.services.ConversationKeyService.DataKey;
 
 /**
  * Service responsible for handling chat-related operations.
@@ -26,6 +36,14 @@ import vaultWeb.security.EncryptionUtil;
  * confidentiality. The service supports identifying the sender either by ID or username and can
  * handle automatic timestamping if none is provided.
  *
+ * <p>Senders and conversations are resolved through {@link ChatReferenceResolver}, so a message to
+ * an already known conversation is stored without loading the sender, group or private chat rows;
+ * the associations are set as lazy references instead.
+ *
+ * <p>Messages are encrypted with the data key of their conversation (see {@link
+ * ConversationKeyService}) rather than with the master key directly. Long messages are compressed
+ * before encryption (see {@link MessagePayloadCodec}).
+ *
  * <p>Main responsibilities:
  *
  * <ul>
@@ -45,6 +63,12 @@ public class ChatService {
   private final GroupRepository groupRepository;
   private final PrivateChatRepository privateChatRepository;
   private final EncryptionUtil encryptionUtil;
+  private final ChatReferenceResolver referenceResolver;
+  private final ChatWriteBehindPipeline writeBehindPipeline;
+  private final ConversationKeyService conversationKeyService;
+  private final MessagePayloadCodec payloadCodec;
+  private final ConversationSummaryService summaryService;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Saves a chat message to a group or private chat.
@@ -53,42 +77,42 @@ public class ChatService {
    * ID or username. If a timestamp is not provided, the current time is used. The message must
    * belong to either a group or a private chat.
    *
+   * <p>If write-behind mode is enabled (see {@link ChatWriteBehindPipeline}), the validated and
+   * encrypted message gets its id assigned, is queued for a batched insert and is returned
+   * immediately, before its row exists, so callers can fan it out without waiting for the database.
+   * Otherwise the message is inserted and the conversation's {@link ConversationSummaryService
+   * summary} updated in one transaction.
+   *
    * @param dto DTO containing the message content, sender information, timestamp, and either a
    *     groupId or privateChatId.
-   * @return The persisted ChatMessage entity with encrypted content.
+   * @return The persisted (or, in write-behind mode, accepted) ChatMessage entity with encrypted
+   *     content.
    * @throws UserNotFoundException if the sender cannot be found by ID or username.
    * @throws GroupNotFoundException if neither groupId nor privateChatId is provided, or if the
    *     specified group/private chat does not exist.
    * @throws EncryptionFailedException if encryption fails.
+   * @throws ChatBackpressureException if write-behind mode is enabled and the queue is full.
    */
+  @Transactional
   public ChatMessage saveMessage(ChatMessageDto dto) {
-    User sender;
+    SenderRef sender;
 
     if (dto.getSenderId() != null) {
       sender =
-          userRepository
-              .findById(dto.getSenderId())
+          referenceResolver
+              .findSenderById(dto.getSenderId())
               .orElseThrow(() -> new UserNotFoundException("Sender not found by ID"));
     } else if (dto.getSenderUsername() != null) {
       sender =
-          userRepository
-              .findByUsername(dto.getSenderUsername())
+          referenceResolver
+              .findSenderByUsername(dto.getSenderUsername())
               .orElseThrow(() -> new UserNotFoundException("Sender not found by username"));
     } else {
       throw new UserNotFoundException("Sender information missing");
     }
 
-    EncryptionUtil.EncryptResult encrypted;
-    try {
-      encrypted = encryptionUtil.encrypt(dto.getContent());
-    } catch (Exception e) {
-      throw new EncryptionFailedException("Encryption failed", e);
-    }
-
     ChatMessage message = new ChatMessage();
-    message.setCipherText(encrypted.cipherTextBase64);
-    message.setIv(encrypted.ivBase64);
-    message.setSender(sender);
+    message.setSender(userRepository.getReferenceById(sender.id()));
 
     if (dto.getTimestamp() != null) {
       message.setTimestamp(Instant.parse(dto.getTimestamp()));
@@ -96,26 +120,98 @@ public class ChatService {
       message.setTimestamp(Instant.now());
     }
 
+    Conversation conversation;
     if (dto.getGroupId() != null) {
-      Group group =
-          groupRepository
-              .findById(dto.getGroupId())
+      GroupRef group =
+          referenceResolver
+              .findGroup(dto.getGroupId())
               .orElseThrow(
                   () ->
                       new GroupNotFoundException(
                           "Group with id " + dto.getGroupId() + " not found"));
-      message.setGroup(group);
+      message.setGroup(groupRepository.getReferenceById(group.id()));
+      conversation = Conversation.group(group.id());
     } else if (dto.getPrivateChatId() != null) {
-      PrivateChat privateChat =
-          privateChatRepository
-              .findById(dto.getPrivateChatId())
+      PrivateChatRef privateChat =
+          referenceResolver
+              .findPrivateChat(dto.getPrivateChatId())
               .orElseThrow(() -> new GroupNotFoundException("PrivateChat not found"));
-      message.setPrivateChat(privateChat);
+      message.setPrivateChat(privateChatRepository.getReferenceById(privateChat.id()));
+      conversation = Conversation.privateChat(privateChat.id());
     } else {
       throw new GroupNotFoundException("Either groupId or privateChatId must be provided");
     }
 
-    return chatMessageRepository.save(message);
+    DataKey dataKey = conversationKeyService.activeKey(conversation);
+    encryptInto(message, dataKey.id(), dataKey.key(), dto.getContent());
+
+    if (writeBehindPipeline.isEnabled()) {
+      message.setId(SnowflakeIdGenerator.next());
+      writeBehindPipeline.enqueue(message);
+    } else {
+      message = chatMessageRepository.save(message);
+      summaryService.recordMessages(List.of(message));
+      // the plaintext cache picks the content up once the insert has committed
+      eventPublisher.publishEvent(ChatMessageSavedEvent.of(message, dto.getContent()));
+    }
+    return message;
+  }
+
+  /**
+   * Encodes and encrypts message text into the ciphertext columns of a message, replacing whatever
+   * they held before.
+   *
+   * @param message the message to update
+   * @param keyId id of the data key, stored with the message
+   * @param key the data key to encrypt with
+   * @param content the message text
+   * @throws EncryptionFailedException if encryption fails.
+   */
+  public void encryptInto(ChatMessage message, Long keyId, SecretKey key, String content) {
+    EncryptionUtil.EncryptedBytes encrypted;
+    try {
+      encrypted = encryptionUtil.encrypt(key, payloadCodec.encode(content));
+    } catch (Exception e) {
+      throw new EncryptionFailedException("Encryption failed", e);
+    }
+    message.setCipherBytes(encrypted.cipherText());
+    message.setIvBytes(encrypted.iv());
+    message.setKeyId(keyId);
+    message.setPayloadVersion(MessagePayloadCodec.VERSION);
+    message.setCipherText(null);
+    message.setIv(null);
+  }
+
+  /**
+   * Decrypts a stored chat message.
+   *
+   * <p>Reads the binary ciphertext columns with the message's conversation data key, or with the
+   * master key for messages written before data keys existed, and decodes the payload according to
+   * its {@link ChatMessage#getPayloadVersion() payload version}. Falls back to the legacy Base64
+   * columns for rows that have not been migrated yet.
+   *
+   * @param message the stored message
+   * @return The decrypted plain text message.
+   * @throws DecryptionFailedException if decryption fails.
+   */
+  public String decrypt(ChatMessage message) {
+    if (message.getCipherBytes() == null) {
+      return decrypt(message.getCipherText(), message.getIv());
+    }
+    try {
+      byte[] plaintext =
+          message.getKeyId() == null
+              ? encryptionUtil.decrypt(message.getCipherBytes(), message.getIvBytes())
+              : encryptionUtil.decrypt(
+                  conversationKeyService.key(message.getKeyId()),
+                  message.getCipherBytes(),
+                  message.getIvBytes());
+      return message.getPayloadVersion() == null
+          ? payloadCodec.decodeLegacy(plaintext)
+          : payloadCodec.decode(plaintext);
+    } catch (Exception e) {
+      throw new DecryptionFailedException("Decryption failed", e);
+    }
   }
 
   /**
@@ -0,0 +1,230 @@
+package vaultWeb.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.exceptions.ChatBackpressureException;
+import vaultWeb.models.ChatMessage;
+
+/**
+ * Optional write-behind stage for chat messages.
+ *
+ * <p>When {@code chat.write-behind.enabled} is set, {@link ChatService} hands encrypted messages to
+ * this pipeline instead of inserting them itself, so the controller can broadcast right away. A
+ * single background flusher drains the bounded queue and inserts the messages in batches of up to
+ * {@code chat.write-behind.batch-size}, or whatever has accumulated once {@code
+ * chat.write-behind.flush-interval-ms} has passed since the first message of the batch. Messages
+ * arrive with their id already assigned, so each batch is persisted in one transaction and sent to
+ * the database as JDBC insert batches. The conversation summaries of a batch are updated in the
+ * same transaction (see {@link ConversationSummaryService}), and a {@link ChatMessageSavedEvent} is
+ * published for every message once the batch is committed.
+ *
+ * <p>Backpressure: when the queue is full, {@link #enqueue(ChatMessage)} waits up to {@code
+ * chat.write-behind.offer-timeout-ms} for space and then rejects the message with a {@link
+ * ChatBackpressureException}. On shutdown the pipeline stops accepting messages and the flusher
+ * drains everything that is still queued before the application context closes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatWriteBehindPipeline {
+
+  private final PlatformTransactionManager transactionManager;
+  private final ConversationSummaryService summaryService;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Value("${chat.write-behind.enabled:false}")
+  private boolean enabled;
+
+  @Value("${chat.write-behind.batch-size:200}")
+  private int batchSize;
+
+  @Value("${chat.write-behind.flush-interval-ms:50}")
+  private long flushIntervalMs;
+
+  @Value("${chat.write-behind.queue-capacity:10000}")
+  private int queueCapacity;
+
+  @Value("${chat.write-behind.offer-timeout-ms:100}")
+  private long offerTimeoutMs;
+
+  @Value("${chat.write-behind.shutdown-timeout-ms:10000}")
+  private long shutdownTimeoutMs;
+
+  private BlockingQueue<ChatMessage> queue;
+  private TransactionTemplate transactionTemplate;
+  private Thread flusher;
+  private volatile boolean accepting;
+
+  /** Starts the background flusher if write-behind mode is enabled. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    queue = new ArrayBlockingQueue<>(queueCapacity);
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    accepting = true;
+    flusher = new Thread(this::runFlusher, "chat-write-behind");
+    flusher.setDaemon(true);
+    flusher.start();
+    log.info(
+        "Chat write-behind enabled (batchSize={}, flushIntervalMs={}, queueCapacity={})",
+        batchSize,
+        flushIntervalMs,
+        queueCapacity);
+  }
+
+  /**
+   * Returns whether messages should be handed to this pipeline instead of being saved inline.
+   *
+   * @return {@code true} if write-behind mode is enabled
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Queues a fully prepared message for a later batched insert.
+   *
+   * @param message the encrypted message entity to persist
+   * @throws ChatBackpressureException if the queue stays full for longer than the offer timeout, or
+   *     if the pipeline is shutting down
+   */
+  public void enqueue(ChatMessage message) {
+    if (!accepting) {
+      throw new ChatBackpressureException("Chat persistence is shutting down");
+    }
+    boolean offered;
+    try {
+      offered = queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ChatBackpressureException("Interrupted while waiting for chat queue capacity");
+    }
+    if (!offered) {
+      throw new ChatBackpressureException("Chat queue is full, message rejected");
+    }
+  }
+
+  /**
+   * Returns the number of messages accepted but not yet handed to the database.
+   *
+   * @return current queue depth, or 0 if write-behind mode is disabled
+   */
+  public int pendingCount() {
+    return queue == null ? 0 : queue.size();
+  }
+
+  /** Stops accepting messages and waits for the flusher to drain the queue. */
+  @PreDestroy
+  public void shutdown() {
+    if (flusher == null) {
+      return;
+    }
+    accepting = false;
+    try {
+      flusher.join(shutdownTimeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (flusher.isAlive() || !queue.isEmpty()) {
+      log.error(
+          "Chat write-behind did not drain within {} ms, {} messages were not persisted",
+          shutdownTimeoutMs,
+          queue.size());
+    }
+  }
+
+  private void runFlusher() {
+    List<ChatMessage> batch = new ArrayList<>(batchSize);
+    while (accepting || !queue.isEmpty()) {
+      try {
+        ChatMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        fillBatch(batch);
+        flush(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Unexpected error in chat write-behind flusher", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void fillBatch(List<ChatMessage> batch) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+    while (batch.size() < batchSize) {
+      queue.drainTo(batch, batchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= batchSize || remaining <= 0 || !accepting) {
+        return;
+      }
+      ChatMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void flush(List<ChatMessage> batch) {
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            batch.forEach(entityManager::persist);
+            summaryService.recordMessages(batch);
+          });
+      // only after the commit, so a listener can never roll back a batch that was stored
+      batch.forEach(this::publishSaved);
+      return;
+    } catch (RuntimeException e) {
+      log.warn("Batched insert of {} chat messages failed, retrying one by one", batch.size(), e);
+    }
+
+    for (ChatMessage message : batch) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              entityManager.persist(message);
+              summaryService.recordMessages(List.of(message));
+            });
+      } catch (RuntimeException e) {
+        log.error(
+            "Dropping chat message sent at {} after a failed insert", message.getTimestamp(), e);
+        continue;
+      }
+      publishSaved(message);
+    }
+  }
+
+  private void publishSaved(ChatMessage message) {
+    try {
+      eventPublisher.publishEvent(ChatMessageSavedEvent.of(message));
+    } catch (RuntimeException e) {
+      log.warn("Could not publish saved event of chat message {}", message.getId(), e);
+    }
+  }
+}
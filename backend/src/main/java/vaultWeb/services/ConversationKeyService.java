@@ -0,0 +1,259 @@
+package vaultWeb.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.exceptions.DecryptionFailedException;
+import vaultWeb.exceptions.EncryptionFailedException;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.ConversationKey;
+import vaultWeb.repositories.ConversationKeyRepository;
+import vaultWeb.security.EncryptionUtil;
+
+/**
+ * Manages the per-conversation data keys used for envelope encryption of chat messages.
+ *
+ * <p>Every group and private chat gets its own AES-256 data key the first time a message is sent to
+ * it. The data key is stored wrapped with the master key (see {@link ConversationKey}), so rotating
+ * the master key only means re-wrapping these few rows, and rotating a conversation key (see {@link
+ * ChatKeyRotationService}) only touches that conversation's messages.
+ *
+ * <p>Unwrapped keys are cached by id, so the send and read paths do not pay for an unwrap per
+ * message. The lookup of a conversation's active key is cached only for {@link #ACTIVE_KEY_TTL}, so
+ * a rotation done by another instance is picked up within a minute. Messages written with the
+ * previous key in the meantime stay readable, since retired keys are never deleted, and are
+ * re-encrypted by the rotation job, which does not finish before that time has passed.
+ */
+@Service
+@RequiredArgsConstructor
+public class ConversationKeyService {
+
+  private static final int DATA_KEY_BITS = 256;
+
+  /** How long an instance keeps using a conversation's active key without looking it up. */
+  static final Duration ACTIVE_KEY_TTL = Duration.ofMinutes(1);
+
+  private final ConversationKeyRepository keyRepository;
+  private final EncryptionUtil encryptionUtil;
+  private final PlatformTransactionManager transactionManager;
+
+  private final Cache<Conversation, DataKey> activeKeys =
+      Caffeine.newBuilder()
+          .expireAfterWrite(ACTIVE_KEY_TTL) // pick up rotations done elsewhere
+          .maximumSize(10_000)
+          .build();
+
+  private final Cache<Long, DataKey> keysById =
+      Caffeine.newBuilder()
+          .expireAfterAccess(Duration.ofMinutes(30)) // drop keys of conversations that went quiet
+          .maximumSize(10_000) // safety cap
+          .build();
+
+  /** Identifies a conversation; exactly one of the two ids is set. */
+  public record Conversation(Long groupId, Long privateChatId) {
+
+    public static Conversation group(Long groupId) {
+      return new Conversation(groupId, null);
+    }
+
+    public static Conversation privateChat(Long privateChatId) {
+      return new Conversation(null, privateChatId);
+    }
+
+    /** Returns the conversation a stored message belongs to. */
+    public static Conversation of(ChatMessage message) {
+      return message.getGroup() != null
+          ? group(message.getGroup().getId())
+          : privateChat(message.getPrivateChat().getId());
+    }
+  }
+
+  /** An unwrapped data key together with the id of its {@link ConversationKey} row. */
+  public record DataKey(Long id, int version, SecretKey key) {}
+
+  /**
+   * Returns the key new messages of a conversation are encrypted with, creating the conversation's
+   * first key if it has none yet.
+   *
+   * @param conversation the conversation
+   * @return the active data key
+   * @throws EncryptionFailedException if a new key cannot be generated or wrapped
+   */
+  public DataKey activeKey(Conversation conversation) {
+    return activeKeys.get(conversation, this::loadOrCreateActiveKey);
+  }
+
+  /**
+   * Returns a data key by id, regardless of whether it is still active.
+   *
+   * @param keyId the {@link ConversationKey} id
+   * @return the unwrapped key
+   * @throws DecryptionFailedException if the key does not exist or cannot be unwrapped
+   */
+  public SecretKey key(Long keyId) {
+    return keysById
+        .get(
+            keyId,
+            id ->
+                unwrapStored(
+                    keyRepository
+                        .findById(id)
+                        .orElseThrow(
+                            () -> new DecryptionFailedException("Unknown data key " + id, null))))
+        .key();
+  }
+
+  /**
+   * Loads and unwraps all of the given keys that are not cached yet with a single query, so a batch
+   * of messages from many conversations does not look up its keys one by one. Keys that cannot be
+   * unwrapped are skipped here; decrypting their messages reports the failure.
+   *
+   * @param keyIds {@link ConversationKey} ids, may contain duplicates
+   */
+  public void preload(Collection<Long> keyIds) {
+    List<Long> missing =
+        keyIds.stream().distinct().filter(id -> keysById.getIfPresent(id) == null).toList();
+    if (missing.isEmpty()) {
+      return;
+    }
+    for (ConversationKey stored : keyRepository.findAllById(missing)) {
+      try {
+        keysById.put(stored.getId(), unwrapStored(stored));
+      } catch (DecryptionFailedException e) {
+        // reported per message when decrypting
+      }
+    }
+  }
+
+  /**
+   * Creates a new key version for a conversation and makes it the active one. The previous key is
+   * retired but kept, so messages that still use it remain readable.
+   *
+   * @param conversation the conversation
+   * @return the new active key
+   * @throws EncryptionFailedException if the new key cannot be generated or wrapped
+   * @throws DataIntegrityViolationException if the conversation is rotated concurrently
+   */
+  public DataKey rotate(Conversation conversation) {
+    ConversationKey created =
+        new TransactionTemplate(transactionManager)
+            .execute(
+                status -> {
+                  findActive(conversation)
+                      .ifPresent(
+                          current -> {
+                            current.setActive(false);
+                            current.setRetiredAt(Instant.now());
+                            keyRepository.save(current);
+                          });
+                  return keyRepository.save(newKey(conversation, nextVersion(conversation)));
+                });
+    activeKeys.invalidate(conversation);
+    return unwrap(created);
+  }
+
+  private DataKey loadOrCreateActiveKey(Conversation conversation) {
+    Optional<ConversationKey> active = findActive(conversation);
+    if (active.isPresent()) {
+      return unwrap(active.get());
+    }
+    // in its own transaction, so a lost race does not roll back the caller's transaction
+    TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    try {
+      return unwrap(
+          requiresNew.execute(status -> keyRepository.saveAndFlush(newKey(conversation, 1))));
+    } catch (DataIntegrityViolationException e) {
+      // another instance created the first key at the same time, use that one
+      return findActive(conversation).map(this::unwrap).orElseThrow(() -> e);
+    }
+  }
+
+  private Optional<ConversationKey> findActive(Conversation conversation) {
+    return conversation.groupId() != null
+        ? keyRepository.findFirstByGroupIdAndActiveTrueOrderByVersionDesc(conversation.groupId())
+        : keyRepository.findFirstByPrivateChatIdAndActiveTrueOrderByVersionDesc(
+            conversation.privateChatId());
+  }
+
+  private int nextVersion(Conversation conversation) {
+    Optional<ConversationKey> latest =
+        conversation.groupId() != null
+            ? keyRepository.findFirstByGroupIdOrderByVersionDesc(conversation.groupId())
+            : keyRepository.findFirstByPrivateChatIdOrderByVersionDesc(
+                conversation.privateChatId());
+    return latest.map(key -> key.getVersion() + 1).orElse(1);
+  }
+
+  private ConversationKey newKey(Conversation conversation, int version) {
+    byte[] raw = null;
+    try {
+      KeyGenerator generator = KeyGenerator.getInstance("AES");
+      generator.init(DATA_KEY_BITS);
+      raw = generator.generateKey().getEncoded();
+      EncryptionUtil.EncryptedBytes wrapped = encryptionUtil.encrypt(raw);
+
+      ConversationKey key = new ConversationKey();
+      key.setGroupId(conversation.groupId());
+      key.setPrivateChatId(conversation.privateChatId());
+      key.setVersion(version);
+      key.setWrappedKey(wrapped.cipherText());
+      key.setWrapIv(wrapped.iv());
+      key.setActive(true);
+      return key;
+    } catch (NoSuchAlgorithmException e) {
+      throw new EncryptionFailedException("Could not generate data key", e);
+    } catch (GeneralSecurityException e) {
+      throw new EncryptionFailedException("Could not wrap data key", e);
+    } finally {
+      if (raw != null) {
+        Arrays.fill(raw, (byte) 0);
+      }
+    }
+  }
+
+  /** Returns the unwrapped key of a stored row, from the cache or by unwrapping and caching it. */
+  private DataKey unwrap(ConversationKey stored) {
+    DataKey cached = keysById.getIfPresent(stored.getId());
+    if (cached != null) {
+      return cached;
+    }
+    DataKey key = unwrapStored(stored);
+    keysById.put(key.id(), key);
+    return key;
+  }
+
+  /**
+   * Unwraps a stored row without touching the cache, so it can serve as the loader of {@link
+   * #keysById} itself.
+   */
+  private DataKey unwrapStored(ConversationKey stored) {
+    byte[] raw = null;
+    try {
+      raw = encryptionUtil.decrypt(stored.getWrappedKey(), stored.getWrapIv());
+      return new DataKey(stored.getId(), stored.getVersion(), new SecretKeySpec(raw, "AES"));
+    } catch (GeneralSecurityException e) {
+      throw new DecryptionFailedException("Could not unwrap data key " + stored.getId(), e);
+    } finally {
+      if (raw != null) {
+        Arrays.fill(raw, (byte) 0);
+      }
+    }
+  }
+}
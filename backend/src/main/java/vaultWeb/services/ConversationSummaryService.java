@@ -0,0 +1,139 @@
+package vaultWeb.services;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.ConversationSummary;
+import vaultWeb.repositories.ConversationSummaryRepository;
+import vaultWeb.services.ConversationKeyService.Conversation;
+
+/**
+ * Maintains the {@link ConversationSummary} read model.
+ *
+ * <p>Every write path calls into this service inside the transaction that inserts or deletes the
+ * messages: {@link ChatService} for inline saves, {@link ChatWriteBehindPipeline} for each flushed
+ * batch and {@link PrivateChatService} when chats are cleared. A summary is updated with a single
+ * atomic {@code update} per conversation and batch, so concurrent writers neither lose increments
+ * nor move the last message backwards. Summaries are created on first use.
+ *
+ * <p>Conversations that already had messages before summaries existed are backfilled once on
+ * startup with one set-based insert per conversation type, before the application takes traffic.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // the schema update must have created the table
+public class ConversationSummaryService {
+
+  /** Lock summaries in a fixed order, so two batches touching the same rows cannot deadlock. */
+  private static final Comparator<Conversation> LOCK_ORDER =
+      Comparator.comparing(Conversation::groupId, Comparator.nullsFirst(Comparator.naturalOrder()))
+          .thenComparing(
+              Conversation::privateChatId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final ConversationSummaryRepository summaryRepository;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${chat.summary.backfill-on-startup:true}")
+  private boolean backfillOnStartup;
+
+  /** Creates the summaries of conversations written before summaries existed. */
+  @PostConstruct
+  public void backfill() {
+    if (!backfillOnStartup) {
+      return;
+    }
+    Integer created =
+        new TransactionTemplate(transactionManager)
+            .execute(
+                status ->
+                    summaryRepository.backfillGroups() + summaryRepository.backfillPrivateChats());
+    if (created != null && created > 0) {
+      log.info("Backfilled {} conversation summaries", created);
+    }
+  }
+
+  /**
+   * Adds newly persisted messages to the summaries of their conversations. Must be called in the
+   * transaction that inserts the messages.
+   *
+   * @param messages the inserted messages, of any number of conversations
+   */
+  @Transactional
+  public void recordMessages(Collection<ChatMessage> messages) {
+    Map<Conversation, List<ChatMessage>> byConversation =
+        messages.stream()
+            .collect(
+                Collectors.groupingBy(Conversation::of, LinkedHashMap::new, Collectors.toList()));
+    byConversation.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey(LOCK_ORDER))
+        .forEach(entry -> record(entry.getKey(), entry.getValue()));
+  }
+
+  /**
+   * Resets the summary of a private chat whose messages were all deleted. Must be called in the
+   * transaction that deletes the messages.
+   *
+   * @param privateChatId the cleared private chat
+   */
+  @Transactional
+  public void clearPrivateChat(Long privateChatId) {
+    summaryRepository.clearPrivateChat(privateChatId);
+  }
+
+  /**
+   * Returns the summaries of the given private chats.
+   *
+   * @param privateChatIds the private chat ids
+   * @return the summaries by private chat id; chats without messages may be missing
+   */
+  @Transactional(readOnly = true)
+  public Map<Long, ConversationSummary> findPrivateChatSummaries(Collection<Long> privateChatIds) {
+    if (privateChatIds.isEmpty()) {
+      return Map.of();
+    }
+    return summaryRepository.findByPrivateChatIdIn(privateChatIds).stream()
+        .collect(Collectors.toMap(ConversationSummary::getPrivateChatId, Function.identity()));
+  }
+
+  private void record(Conversation conversation, List<ChatMessage> messages) {
+    ChatMessage newest =
+        messages.stream()
+            .max(
+                Comparator.comparing(ChatMessage::getTimestamp)
+                    .thenComparing(ChatMessage::getId, Comparator.nullsFirst(Long::compare)))
+            .orElseThrow();
+    long count = messages.size();
+    Long messageId = newest.getId();
+    Instant timestamp = newest.getTimestamp();
+
+    if (conversation.groupId() != null) {
+      Long groupId = conversation.groupId();
+      if (summaryRepository.addGroupMessages(groupId, count, messageId, timestamp) == 0) {
+        summaryRepository.insertEmptyForGroup(groupId);
+        summaryRepository.addGroupMessages(groupId, count, messageId, timestamp);
+      }
+    } else {
+      Long chatId = conversation.privateChatId();
+      if (summaryRepository.addPrivateChatMessages(chatId, count, messageId, timestamp) == 0) {
+        summaryRepository.insertEmptyForPrivateChat(chatId);
+        summaryRepository.addPrivateChatMessages(chatId, count, messageId, timestamp);
+      }
+    }
+  }
+}
@@ -0,0 +1,383 @@
+package vaultWeb.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vaultWeb.dtos.dashboard.DashboardSection;
+import vaultWeb.dtos.dashboard.UserDashboardDto;
+import vaultWeb.dtos.dashboard.UserDashboardDto.GroupSummary;
+import vaultWeb.dtos.dashboard.UserDashboardDto.PollSummary;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.GroupChangedEvent;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.events.PrivateChatChangedEvent;
+import vaultWeb.models.User;
+import vaultWeb.repositories.GroupMemberRepository;
+
+/**
+ * Per-user cache in front of {@link DashboardService}, so clients that poll the dashboard are
+ * served from memory.
+ *
+ * <p>Entries are bounded by {@code dashboard.cache.max-users} and expire {@code
+ * dashboard.cache.ttl-seconds} after they were first built; patching sections does not extend that,
+ * so no section is ever older than the TTL. Each entry is a future, so concurrent requests for the
+ * same user wait for one build instead of starting their own.
+ *
+ * <p>Sections a request does not ask for are not built; they stay empty in the entry until a
+ * request needs them. Sections that could not be built in time are left empty as well, so the next
+ * request retries them.
+ *
+ * <p>Domain events published after chat, membership, poll and vote changes drop only the affected
+ * {@link DashboardSection sections} of the affected users; the next request rebuilds just those
+ * sections and merges them into the cached dashboard. An event for a user whose dashboard is still
+ * being built drops the whole entry, so a build that may have missed the change is never cached.
+ * Group and poll events reach the group's members, kept in a cache of recently active groups that
+ * group events refresh, so chat messages and votes do not query the members; through an index of
+ * the groups shown in cached dashboards they also reach the users who just left the group or whose
+ * group was deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardCache {
+
+  private static final Set<DashboardSection> ALL = EnumSet.allOf(DashboardSection.class);
+
+  private final DashboardService dashboardService;
+  private final ChatReferenceResolver referenceResolver;
+  private final GroupMemberRepository groupMemberRepository;
+
+  @Value("${dashboard.cache.enabled:true}")
+  private boolean enabled;
+
+  @Value("${dashboard.cache.max-users:10000}")
+  private long maxUsers;
+
+  @Value("${dashboard.cache.ttl-seconds:60}")
+  private long ttlSeconds;
+
+  private Cache<Long, CompletableFuture<UserDashboardDto>> dashboards;
+
+  /**
+   * User ids whose cached dashboard lists a group or one of its polls, by group id. May contain
+   * stale user ids.
+   */
+  private final ConcurrentMap<Long, Set<Long>> usersByGroup = new ConcurrentHashMap<>();
+
+  /** User ids of the members of recently active groups. */
+  private final Cache<Long, List<Long>> memberIdsByGroup =
+      Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(10)).maximumSize(10_000).build();
+
+  /** Builds the cache. */
+  @PostConstruct
+  public void init() {
+    dashboards =
+        Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .expireAfter(new BuiltAtExpiry(Duration.ofSeconds(ttlSeconds)))
+            .<Long, CompletableFuture<UserDashboardDto>>removalListener(
+                (userId, future, cause) -> {
+                  if (cause != RemovalCause.REPLACED) {
+                    unindex(userId, future);
+                  }
+                })
+            .build();
+  }
+
+  /**
+   * Returns a user's dashboard, from the cache where possible.
+   *
+   * @param user the user
+   * @return the full dashboard
+   */
+  public UserDashboardDto getDashboard(User user) {
+    if (!enabled) {
+      return dashboardService.buildDashboard(user);
+    }
+    return getDashboard(user, ALL);
+  }
+
+  /**
+   * Returns some sections of a user's dashboard, from the cache where possible. Only requested
+   * sections that are not cached are built, so a client that renders a single panel never pays for
+   * the others.
+   *
+   * @param user the user
+   * @param sections the sections to return
+   * @return the dashboard with only the requested sections filled in
+   */
+  public UserDashboardDto getDashboard(User user, Set<DashboardSection> sections) {
+    if (!enabled) {
+      return dashboardService.buildDashboard(user, sections);
+    }
+    Long userId = user.getId();
+    ConcurrentMap<Long, CompletableFuture<UserDashboardDto>> map = dashboards.asMap();
+    while (true) {
+      CompletableFuture<UserDashboardDto> current = map.get(userId);
+      if (current == null) {
+        CompletableFuture<UserDashboardDto> created = new CompletableFuture<>();
+        if (map.putIfAbsent(userId, created) == null) {
+          return build(userId, created, () -> dashboardService.buildDashboard(user, sections));
+        }
+        continue;
+      }
+
+      UserDashboardDto cached = await(current);
+      Set<DashboardSection> missing = missingSections(cached);
+      missing.retainAll(sections);
+      if (missing.isEmpty()) {
+        return only(cached, sections);
+      }
+      CompletableFuture<UserDashboardDto> patched = new CompletableFuture<>();
+      if (map.replace(userId, current, patched)) {
+        UserDashboardDto merged =
+            build(
+                userId,
+                patched,
+                () -> merge(cached, dashboardService.buildDashboard(user, missing)));
+        return only(merged, sections);
+      }
+      // another request is already patching or rebuilding the entry, wait for that one
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChatMessageSaved(ChatMessageSavedEvent event) {
+    if (event.senderId() != null) {
+      invalidate(
+          List.of(event.senderId()),
+          EnumSet.of(DashboardSection.PROFILE, DashboardSection.RECENT_MESSAGES));
+    }
+    if (event.groupId() != null) {
+      invalidate(membersOf(event.groupId()), EnumSet.of(DashboardSection.GROUPS));
+    } else {
+      referenceResolver
+          .findPrivateChat(event.privateChatId())
+          .ifPresent(
+              chat ->
+                  invalidate(
+                      List.of(chat.user1Id(), chat.user2Id()),
+                      EnumSet.of(DashboardSection.PRIVATE_CHATS)));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPrivateChatChanged(PrivateChatChangedEvent event) {
+    invalidate(
+        List.of(event.user1Id(), event.user2Id()),
+        EnumSet.of(
+            DashboardSection.PROFILE,
+            DashboardSection.PRIVATE_CHATS,
+            DashboardSection.RECENT_MESSAGES));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGroupChanged(GroupChangedEvent event) {
+    // cached members from before the change, so a deleted group still reaches its former members
+    Collection<Long> before = membersOf(event.groupId());
+    memberIdsByGroup.invalidate(event.groupId());
+    if (event.memberId() == null) {
+      // renamed or deleted: every member shows the group in several sections
+      invalidate(
+          before,
+          EnumSet.of(DashboardSection.PROFILE, DashboardSection.GROUPS, DashboardSection.POLLS));
+      return;
+    }
+    invalidate(
+        List.of(event.memberId()),
+        EnumSet.of(DashboardSection.PROFILE, DashboardSection.GROUPS, DashboardSection.POLLS));
+    // the other members only see a different member count
+    Set<Long> others = new HashSet<>(before);
+    others.addAll(membersOf(event.groupId()));
+    invalidate(others, EnumSet.of(DashboardSection.GROUPS));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPollChanged(PollChangedEvent event) {
+    Set<DashboardSection> sections =
+        event.change() == PollChangedEvent.Change.VOTED
+            ? EnumSet.of(DashboardSection.POLLS)
+            : EnumSet.of(DashboardSection.GROUPS, DashboardSection.POLLS);
+    invalidate(membersOf(event.groupId()), sections);
+  }
+
+  private UserDashboardDto build(
+      Long userId, CompletableFuture<UserDashboardDto> future, Supplier<UserDashboardDto> builder) {
+    UserDashboardDto dashboard;
+    try {
+      dashboard = builder.get();
+    } catch (RuntimeException e) {
+      dashboards.asMap().remove(userId, future);
+      future.completeExceptionally(e);
+      throw e;
+    }
+    future.complete(dashboard);
+    index(userId, dashboard);
+    return dashboard;
+  }
+
+  private void invalidate(Collection<Long> userIds, Set<DashboardSection> sections) {
+    if (!enabled) {
+      return;
+    }
+    for (Long userId : userIds) {
+      dashboards
+          .asMap()
+          .computeIfPresent(
+              userId,
+              (id, future) ->
+                  future.isDone() && !future.isCompletedExceptionally()
+                      ? CompletableFuture.completedFuture(without(future.join(), sections))
+                      : null);
+    }
+  }
+
+  /**
+   * Returns the users whose cached dashboard may show the group: its current members, whatever
+   * sections their entries hold, and the users whose cached sections still list it.
+   */
+  private Collection<Long> membersOf(Long groupId) {
+    Set<Long> indexed = usersByGroup.getOrDefault(groupId, Set.of());
+    if (dashboards.estimatedSize() == 0) {
+      return indexed;
+    }
+    Set<Long> members =
+        new HashSet<>(memberIdsByGroup.get(groupId, groupMemberRepository::findUserIdsByGroupId));
+    members.addAll(indexed);
+    return members;
+  }
+
+  private void index(Long userId, UserDashboardDto dashboard) {
+    for (Long groupId : groupIds(dashboard)) {
+      usersByGroup.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+  }
+
+  private void unindex(Long userId, CompletableFuture<UserDashboardDto> future) {
+    if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+      return;
+    }
+    for (Long groupId : groupIds(future.join())) {
+      usersByGroup.computeIfPresent(
+          groupId,
+          (id, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+          });
+    }
+  }
+
+  /** The groups a dashboard shows, either as groups or as the groups of its polls. */
+  private static Set<Long> groupIds(UserDashboardDto dashboard) {
+    Set<Long> groupIds = new HashSet<>();
+    if (dashboard.groups() != null) {
+      dashboard.groups().stream().map(GroupSummary::id).forEach(groupIds::add);
+    }
+    if (dashboard.polls() != null) {
+      dashboard.polls().stream().map(PollSummary::groupId).forEach(groupIds::add);
+    }
+    return groupIds;
+  }
+
+  private static UserDashboardDto await(CompletableFuture<UserDashboardDto> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static Set<DashboardSection> missingSections(UserDashboardDto dashboard) {
+    Map<DashboardSection, Object> sections = new EnumMap<>(DashboardSection.class);
+    sections.put(DashboardSection.PROFILE, dashboard.profile());
+    sections.put(DashboardSection.GROUPS, dashboard.groups());
+    sections.put(DashboardSection.PRIVATE_CHATS, dashboard.privateChats());
+    sections.put(DashboardSection.POLLS, dashboard.polls());
+    sections.put(DashboardSection.RECENT_MESSAGES, dashboard.recentMessages());
+
+    Set<DashboardSection> missing = EnumSet.noneOf(DashboardSection.class);
+    sections.forEach(
+        (section, value) -> {
+          if (value == null) {
+            missing.add(section);
+          }
+        });
+    return missing;
+  }
+
+  private static UserDashboardDto without(
+      UserDashboardDto dashboard, Set<DashboardSection> sections) {
+    return new UserDashboardDto(
+        sections.contains(DashboardSection.PROFILE) ? null : dashboard.profile(),
+        sections.contains(DashboardSection.GROUPS) ? null : dashboard.groups(),
+        sections.contains(DashboardSection.PRIVATE_CHATS) ? null : dashboard.privateChats(),
+        sections.contains(DashboardSection.POLLS) ? null : dashboard.polls(),
+        sections.contains(DashboardSection.RECENT_MESSAGES) ? null : dashboard.recentMessages());
+  }
+
+  private static UserDashboardDto only(UserDashboardDto dashboard, Set<DashboardSection> sections) {
+    Set<DashboardSection> dropped = EnumSet.allOf(DashboardSection.class);
+    dropped.removeAll(sections);
+    return dropped.isEmpty() ? dashboard : without(dashboard, dropped);
+  }
+
+  /** Fills the missing sections of {@code cached} from {@code fresh}. */
+  private static UserDashboardDto merge(UserDashboardDto cached, UserDashboardDto fresh) {
+    return new UserDashboardDto(
+        cached.profile() != null ? cached.profile() : fresh.profile(),
+        cached.groups() != null ? cached.groups() : fresh.groups(),
+        cached.privateChats() != null ? cached.privateChats() : fresh.privateChats(),
+        cached.polls() != null ? cached.polls() : fresh.polls(),
+        cached.recentMessages() != null ? cached.recentMessages() : fresh.recentMessages());
+  }
+
+  /** Expires an entry a fixed time after it was created; replacing the value keeps the deadline. */
+  private record BuiltAtExpiry(Duration ttl)
+      implements Expiry<Long, CompletableFuture<UserDashboardDto>> {
+
+    @Override
+    public long expireAfterCreate(
+        Long userId, CompletableFuture<UserDashboardDto> dashboard, long currentTime) {
+      return ttl.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        Long userId,
+        CompletableFuture<UserDashboardDto> dashboard,
+        long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(
+        Long userId,
+        CompletableFuture<UserDashboardDto> dashboard,
+        long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
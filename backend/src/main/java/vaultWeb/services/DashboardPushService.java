@@ -0,0 +1,292 @@
+package vaultWeb.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto.ConversationActivity;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto.MemberCount;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto.VoteTotal;
+import vaultWeb.dtos.dashboard.UserDashboardDto.PollSummary;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.GroupChangedEvent;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.events.PrivateChatChangedEvent;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.IdCount;
+import vaultWeb.repositories.PollCounts;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.services.ChatReferenceResolver.SenderRef;
+
+/**
+ * Pushes small dashboard deltas to connected users on {@code /user/queue/dashboard}, so clients can
+ * keep a dashboard they loaded once up to date instead of polling it.
+ *
+ * <p>The same domain events that invalidate the {@link DashboardCache} are turned into pending
+ * changes for every affected user that currently has a STOMP session; users without one cost
+ * nothing. Every {@code dashboard.push.window-ms} the pending changes are sent as one {@link
+ * DashboardDeltaDto} per user, so a busy group produces one push per window rather than one per
+ * message. Member counts, vote totals and poll summaries are only marked as changed by the events
+ * and loaded once per window for all users, with one query each.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardPushService {
+
+  static final String DESTINATION = "/queue/dashboard";
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final SimpUserRegistry userRegistry;
+  private final ChatReferenceResolver referenceResolver;
+  private final GroupMemberRepository groupMemberRepository;
+  private final PollRepository pollRepository;
+  private final DashboardService dashboardService;
+
+  @Value("${dashboard.push.enabled:true}")
+  private boolean enabled;
+
+  private final ConcurrentMap<String, PendingDelta> pending = new ConcurrentHashMap<>();
+
+  /** Usernames of the members of recently active groups. */
+  private final Cache<Long, List<String>> membersByGroup =
+      Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(10)).maximumSize(10_000).build();
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChatMessageSaved(ChatMessageSavedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    List<String> recipients;
+    if (event.groupId() != null) {
+      recipients = members(event.groupId());
+    } else {
+      recipients =
+          referenceResolver
+              .findPrivateChat(event.privateChatId())
+              .map(chat -> List.of(chat.user1Username(), chat.user2Username()))
+              .orElse(List.of());
+    }
+    update(recipients, delta -> delta.addMessage(event));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPrivateChatChanged(PrivateChatChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    update(usernames(List.of(event.user1Id(), event.user2Id())), PendingDelta::requestResync);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGroupChanged(GroupChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    // cached members from before the change, so a deleted group still reaches its former members
+    List<String> before = members(event.groupId());
+    membersByGroup.invalidate(event.groupId());
+    if (event.memberId() == null) {
+      update(before, PendingDelta::requestResync);
+      return;
+    }
+    List<String> member = usernames(List.of(event.memberId()));
+    update(member, PendingDelta::requestResync);
+
+    Set<String> recipients = new HashSet<>(before);
+    recipients.addAll(members(event.groupId()));
+    member.forEach(recipients::remove);
+    update(recipients, delta -> delta.memberCountGroupIds.add(event.groupId()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPollChanged(PollChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    Long pollId = event.pollId();
+    update(
+        members(event.groupId()),
+        delta -> {
+          switch (event.change()) {
+            case CREATED, UPDATED -> delta.changedPollIds.add(pollId);
+            case VOTED -> delta.votedPollIds.add(pollId);
+            case DELETED -> {
+              delta.removedPollIds.add(pollId);
+              delta.changedPollIds.remove(pollId);
+              delta.votedPollIds.remove(pollId);
+            }
+          }
+        });
+  }
+
+  /** Sends the changes collected since the previous window. */
+  @Scheduled(fixedDelayString = "${dashboard.push.window-ms:250}")
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Map<String, PendingDelta> batch = new LinkedHashMap<>();
+    for (String username : pending.keySet()) {
+      PendingDelta delta = pending.remove(username);
+      if (delta != null) {
+        batch.put(username, delta);
+      }
+    }
+
+    Map<Long, Integer> memberCounts = loadMemberCounts(batch.values());
+    Map<Long, PollSummary> polls = loadPolls(batch.values());
+    Map<Long, Integer> voteTotals = loadVoteTotals(batch.values());
+
+    batch.forEach(
+        (username, delta) -> {
+          try {
+            messagingTemplate.convertAndSendToUser(
+                username, DESTINATION, delta.toDto(memberCounts, polls, voteTotals));
+          } catch (MessagingException e) {
+            log.warn("Could not push dashboard update to {}: {}", username, e.getMessage());
+          }
+        });
+  }
+
+  /** Applies a change to the pending delta of every recipient that is currently connected. */
+  private void update(Collection<String> recipients, Consumer<PendingDelta> change) {
+    for (String username : recipients) {
+      if (userRegistry.getUser(username) == null) {
+        continue;
+      }
+      pending.compute(
+          username,
+          (name, delta) -> {
+            PendingDelta target = delta != null ? delta : new PendingDelta();
+            change.accept(target);
+            return target;
+          });
+    }
+  }
+
+  private List<String> members(Long groupId) {
+    return membersByGroup.get(groupId, groupMemberRepository::findUsernamesByGroupId);
+  }
+
+  private List<String> usernames(List<Long> userIds) {
+    return userIds.stream()
+        .map(referenceResolver::findSenderById)
+        .flatMap(sender -> sender.map(SenderRef::username).stream())
+        .toList();
+  }
+
+  private Map<Long, Integer> loadMemberCounts(Collection<PendingDelta> deltas) {
+    Set<Long> groupIds = collect(deltas, delta -> delta.memberCountGroupIds);
+    if (groupIds.isEmpty()) {
+      return Map.of();
+    }
+    return groupMemberRepository.countMembersByGroupIds(groupIds).stream()
+        .collect(Collectors.toMap(IdCount::id, count -> Math.toIntExact(count.count())));
+  }
+
+  private Map<Long, PollSummary> loadPolls(Collection<PendingDelta> deltas) {
+    Set<Long> pollIds = collect(deltas, delta -> delta.changedPollIds);
+    return dashboardService.buildPollSummaries(pollIds).stream()
+        .collect(Collectors.toMap(PollSummary::id, poll -> poll));
+  }
+
+  private Map<Long, Integer> loadVoteTotals(Collection<PendingDelta> deltas) {
+    Set<Long> pollIds = collect(deltas, delta -> delta.votedPollIds);
+    if (pollIds.isEmpty()) {
+      return Map.of();
+    }
+    return pollRepository.countOptionsAndVotes(pollIds).stream()
+        .collect(
+            Collectors.toMap(PollCounts::pollId, counts -> Math.toIntExact(counts.voteCount())));
+  }
+
+  private static Set<Long> collect(
+      Collection<PendingDelta> deltas, Function<PendingDelta, Set<Long>> ids) {
+    Set<Long> all = new HashSet<>();
+    deltas.forEach(delta -> all.addAll(ids.apply(delta)));
+    return all;
+  }
+
+  /**
+   * Changes collected for one user during the current window. Only mutated inside {@code
+   * pending.compute}, so access is serialized per user.
+   */
+  static final class PendingDelta {
+
+    private final Map<String, ConversationActivity> conversations = new LinkedHashMap<>();
+    private final Set<Long> memberCountGroupIds = new HashSet<>();
+    private final Set<Long> changedPollIds = new HashSet<>();
+    private final Set<Long> votedPollIds = new HashSet<>();
+    private final Set<Long> removedPollIds = new HashSet<>();
+    private boolean resync;
+
+    void addMessage(ChatMessageSavedEvent event) {
+      String key = event.groupId() != null ? "g" + event.groupId() : "p" + event.privateChatId();
+      conversations.merge(
+          key,
+          new ConversationActivity(
+              event.groupId(), event.privateChatId(), event.messageId(), event.timestamp(), 1),
+          (previous, next) -> {
+            boolean newer = !next.lastActivityAt().isBefore(previous.lastActivityAt());
+            ConversationActivity latest = newer ? next : previous;
+            return new ConversationActivity(
+                latest.groupId(),
+                latest.privateChatId(),
+                latest.lastMessageId(),
+                latest.lastActivityAt(),
+                previous.newMessages() + next.newMessages());
+          });
+    }
+
+    void requestResync() {
+      resync = true;
+    }
+
+    DashboardDeltaDto toDto(
+        Map<Long, Integer> memberCounts,
+        Map<Long, PollSummary> polls,
+        Map<Long, Integer> voteTotals) {
+      List<MemberCount> counts = new ArrayList<>();
+      for (Long groupId : memberCountGroupIds) {
+        counts.add(new MemberCount(groupId, memberCounts.getOrDefault(groupId, 0)));
+      }
+      List<PollSummary> changedPolls =
+          changedPollIds.stream().map(polls::get).filter(poll -> poll != null).toList();
+      List<VoteTotal> votes = new ArrayList<>();
+      for (Long pollId : votedPollIds) {
+        if (!changedPollIds.contains(pollId) && voteTotals.containsKey(pollId)) {
+          votes.add(new VoteTotal(pollId, voteTotals.get(pollId)));
+        }
+      }
+      return new DashboardDeltaDto(
+          List.copyOf(conversations.values()),
+          counts,
+          changedPolls,
+          votes,
+          List.copyOf(removedPollIds),
+          resync);
+    }
+  }
+}
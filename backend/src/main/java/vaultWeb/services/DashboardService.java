@@ -1,38 +1,71 @@
 package vaultWeb.services;
 
-import java.time.Instant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.dtos.dashboard.DashboardSection;
 import vaultWeb.dtos.dashboard.UserDashboardDto;
 import vaultWeb.dtos.dashboard.UserDashboardDto.GroupSummary;
 import vaultWeb.dtos.dashboard.UserDashboardDto.MessagePreview;
 import vaultWeb.dtos.dashboard.UserDashboardDto.PollSummary;
 import vaultWeb.dtos.dashboard.UserDashboardDto.PrivateChatSummary;
 import vaultWeb.dtos.dashboard.UserDashboardDto.ProfileSummary;
-import vaultWeb.exceptions.DecryptionFailedException;
 import vaultWeb.exceptions.UnauthorizedException;
 import vaultWeb.models.ChatMessage;
+import vaultWeb.models.ConversationSummary;
 import vaultWeb.models.Group;
 import vaultWeb.models.GroupMember;
 import vaultWeb.models.Poll;
 import vaultWeb.models.PrivateChat;
 import vaultWeb.models.User;
 import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.ConversationSummaryRepository;
 import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.IdCount;
+import vaultWeb.repositories.PollCounts;
 import vaultWeb.repositories.PollRepository;
 import vaultWeb.repositories.PrivateChatRepository;
-import vaultWeb.security.EncryptionUtil;
+import vaultWeb.repositories.SummaryWithLastMessage;
+import vaultWeb.services.ChatDecryptionStage.Decrypted;
 
 /**
  * Aggregates all pieces of information a dashboard needs about a user so the frontend can render it
  * with a single API call.
+ *
+ * <p>The dashboard is built from a fixed number of queries, no matter how many groups, chats or
+ * polls the user has: associations are join-fetched, member and vote counts come from grouped
+ * aggregate queries, and message counts and last messages are read from the conversation summaries
+ * (see {@link ConversationSummaryService}) together with the last messages themselves. The number
+ * of messages the user has sent comes from their {@link MessageCounterService counter}.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
@@ -41,7 +74,34 @@ public class DashboardService {
   private final PrivateChatRepository privateChatRepository;
   private final PollRepository pollRepository;
   private final ChatMessageRepository chatMessageRepository;
-  private final EncryptionUtil encryptionUtil;
+  private final ConversationSummaryRepository summaryRepository;
+  private final ChatDecryptionStage decryptionStage;
+  private final MessageCounterService messageCounterService;
+  private final PlatformTransactionManager transactionManager;
+
+  /** Sections not finished this long after the request started are left out; 0 waits for all. */
+  @Value("${dashboard.sections.timeout-ms:2000}")
+  private long sectionTimeoutMs;
+
+  private ExecutorService sectionExecutor;
+  private TransactionTemplate readOnlyTransaction;
+
+  /** Starts the executor the sections are built on. */
+  @PostConstruct
+  public void start() {
+    sectionExecutor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dashboard-", 0).factory());
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+  }
+
+  /** Stops the executor, cancelling sections that are still being built. */
+  @PreDestroy
+  public void shutdown() {
+    if (sectionExecutor != null) {
+      sectionExecutor.shutdownNow();
+    }
+  }
 
   /**
    * Builds the full dashboard payload for a given user.
@@ -50,56 +110,189 @@ public class DashboardService {
    * @return aggregated dashboard data
    */
   public UserDashboardDto buildDashboard(User user) {
+    return buildDashboard(user, EnumSet.allOf(DashboardSection.class));
+  }
+
+  /**
+   * Builds only the given sections of a user's dashboard. Sections that are not requested are
+   * {@code null} in the result, and the queries only they need are skipped.
+   *
+   * <p>The queries run concurrently on virtual threads, each in its own read-only transaction, and
+   * a step waits only for the steps whose results it needs; the dashboard is therefore ready when
+   * its slowest chain of queries is, not after all of them. A section that fails or is not ready
+   * within {@code dashboard.sections.timeout-ms} is logged and left {@code null}, so the caller
+   * gets the other sections instead of an error.
+   *
+   * @param user the authenticated user
+   * @param sections the sections to build
+   * @return dashboard data with the requested sections filled in, unless they failed or timed out
+   */
+  public UserDashboardDto buildDashboard(User user, Set<DashboardSection> sections) {
     if (user == null) {
       throw new UnauthorizedException("No authenticated user found");
     }
+    boolean profile = sections.contains(DashboardSection.PROFILE);
+    boolean groups = sections.contains(DashboardSection.GROUPS);
+    boolean privateChatsWanted = sections.contains(DashboardSection.PRIVATE_CHATS);
+    boolean pollsWanted = sections.contains(DashboardSection.POLLS);
+    boolean recent = sections.contains(DashboardSection.RECENT_MESSAGES);
+
+    try (SectionScope scope = new SectionScope(sectionExecutor, sectionTimeoutMs)) {
+      Future<List<GroupMember>> memberships =
+          profile || groups || pollsWanted
+              ? scope.fork(() -> read(() -> loadMemberships(user)))
+              : done(List.of());
+      Future<List<PrivateChat>> privateChats =
+          profile || privateChatsWanted
+              ? scope.fork(
+                  () -> read(() -> privateChatRepository.findAllWithParticipantsByUser(user)))
+              : done(List.of());
+      Future<Long> messagesSent =
+          profile
+              ? scope.fork(() -> messageCounterService.getMessagesSent(user.getId()))
+              : done(0L);
+      Future<List<Poll>> polls =
+          groups || pollsWanted ? scope.fork(() -> loadPolls(memberships.get())) : done(List.of());
+      Future<Map<Long, Long>> memberCounts =
+          groups ? scope.fork(() -> countMembers(memberships.get())) : done(Map.of());
+      // conversation activity is only shown in the group and private chat sections
+      Future<List<SummaryWithLastMessage>> activity =
+          groups || privateChatsWanted
+              ? scope.fork(
+                  () ->
+                      loadActivity(
+                          groups ? memberships.get() : List.of(),
+                          privateChatsWanted ? privateChats.get() : List.of()))
+              : done(List.of());
 
+      Future<ProfileSummary> profileSummary =
+          profile
+              ? scope.fork(
+                  () ->
+                      new ProfileSummary(
+                          user.getId(),
+                          user.getUsername(),
+                          memberships.get().size(),
+                          privateChats.get().size(),
+                          messagesSent.get()))
+              : done(null);
+      Future<List<GroupSummary>> groupSummaries =
+          groups
+              ? scope.fork(
+                  () ->
+                      buildGroupSummaries(
+                          memberships.get(),
+                          polls.get(),
+                          memberCounts.get(),
+                          groupActivity(activity.get())))
+              : done(null);
+      Future<List<PrivateChatSummary>> privateChatSummaries =
+          privateChatsWanted
+              ? scope.fork(
+                  () ->
+                      buildPrivateChatSummaries(
+                          privateChats.get(), user, privateChatActivity(activity.get())))
+              : done(null);
+      Future<List<PollSummary>> pollSummaries =
+          pollsWanted ? scope.fork(() -> buildPollSummaries(polls.get())) : done(null);
+      Future<List<MessagePreview>> recentMessages =
+          recent ? scope.fork(() -> buildRecentMessages(user)) : done(null);
+
+      return new UserDashboardDto(
+          scope.result(DashboardSection.PROFILE, profileSummary),
+          scope.result(DashboardSection.GROUPS, groupSummaries),
+          scope.result(DashboardSection.PRIVATE_CHATS, privateChatSummaries),
+          scope.result(DashboardSection.POLLS, pollSummaries),
+          scope.result(DashboardSection.RECENT_MESSAGES, recentMessages));
+    }
+  }
+
+  private <T> T read(Supplier<T> query) {
+    return readOnlyTransaction.execute(status -> query.get());
+  }
+
+  private static <T> Future<T> done(T value) {
+    return CompletableFuture.completedFuture(value);
+  }
+
+  /** Loads the user's memberships with their groups, one per group. */
+  private List<GroupMember> loadMemberships(User user) {
     Map<Long, GroupMember> membershipByGroup =
-        groupMemberRepository.findAllByUser(user).stream()
+        groupMemberRepository.findAllWithGroupByUser(user).stream()
             .collect(
                 Collectors.toMap(
                     membership -> membership.getGroup().getId(),
                     membership -> membership,
                     (existing, duplicate) -> existing,
                     LinkedHashMap::new));
+    return new ArrayList<>(membershipByGroup.values());
+  }
 
-    List<GroupMember> memberships = new ArrayList<>(membershipByGroup.values());
-    List<PrivateChat> privateChats = privateChatRepository.findByUser1OrUser2(user, user);
-
-    List<Long> groupIds =
-        memberships.stream().map(membership -> membership.getGroup().getId()).distinct().toList();
+  private List<Poll> loadPolls(List<GroupMember> memberships) {
+    List<Long> groupIds = groupIds(memberships);
+    return groupIds.isEmpty()
+        ? List.of()
+        : read(() -> pollRepository.findAllWithGroupByGroupIds(groupIds));
+  }
 
-    List<Poll> polls = groupIds.isEmpty() ? List.of() : pollRepository.findByGroupIdIn(groupIds);
-    Map<Long, List<Poll>> pollsByGroup =
-        polls.stream().collect(Collectors.groupingBy(poll -> poll.getGroup().getId()));
+  private Map<Long, Long> countMembers(List<GroupMember> memberships) {
+    List<Long> groupIds = groupIds(memberships);
+    return groupIds.isEmpty()
+        ? Map.of()
+        : toMap(read(() -> groupMemberRepository.countMembersByGroupIds(groupIds)));
+  }
 
-    long messageCount = chatMessageRepository.countBySender(user);
-    List<MessagePreview> recentMessages = buildRecentMessages(user);
+  /** Loads the summaries of the given groups and private chats together, with one query. */
+  private List<SummaryWithLastMessage> loadActivity(
+      List<GroupMember> memberships, List<PrivateChat> privateChats) {
+    List<Long> groupIds = groupIds(memberships);
+    List<Long> privateChatIds = privateChats.stream().map(PrivateChat::getId).toList();
+    return groupIds.isEmpty() && privateChatIds.isEmpty()
+        ? List.of()
+        : read(() -> summaryRepository.findWithLastMessages(groupIds, privateChatIds));
+  }
 
-    List<GroupSummary> groupSummaries = buildGroupSummaries(memberships, pollsByGroup);
-    List<PrivateChatSummary> privateChatSummaries = buildPrivateChatSummaries(privateChats, user);
-    List<PollSummary> pollSummaries = buildPollSummaries(polls);
+  private static List<Long> groupIds(List<GroupMember> memberships) {
+    return memberships.stream().map(membership -> membership.getGroup().getId()).toList();
+  }
 
-    ProfileSummary profileSummary =
-        new ProfileSummary(
-            user.getId(),
-            user.getUsername(),
-            groupSummaries.size(),
-            privateChatSummaries.size(),
-            messageCount);
+  private static Map<Long, ConversationSummary> groupActivity(List<SummaryWithLastMessage> rows) {
+    Map<Long, ConversationSummary> activity = new HashMap<>();
+    for (SummaryWithLastMessage row : rows) {
+      if (row.summary().getGroupId() != null) {
+        activity.put(row.summary().getGroupId(), row.summary());
+      }
+    }
+    return activity;
+  }
 
-    return new UserDashboardDto(
-        profileSummary, groupSummaries, privateChatSummaries, pollSummaries, recentMessages);
+  private static Map<Long, SummaryWithLastMessage> privateChatActivity(
+      List<SummaryWithLastMessage> rows) {
+    Map<Long, SummaryWithLastMessage> activity = new HashMap<>();
+    for (SummaryWithLastMessage row : rows) {
+      if (row.summary().getPrivateChatId() != null) {
+        activity.put(row.summary().getPrivateChatId(), row);
+      }
+    }
+    return activity;
   }
 
   private List<GroupSummary> buildGroupSummaries(
-      List<GroupMember> memberships, Map<Long, List<Poll>> pollsByGroup) {
+      List<GroupMember> memberships,
+      List<Poll> polls,
+      Map<Long, Long> memberCounts,
+      Map<Long, ConversationSummary> activity) {
+    Map<Long, Long> pollCounts =
+        polls.stream()
+            .collect(Collectors.groupingBy(poll -> poll.getGroup().getId(), Collectors.counting()));
+
     return memberships.stream()
         .map(
             membership -> {
               Group group = membership.getGroup();
-              long memberCount = groupMemberRepository.countByGroup(group);
-              int pollCount = pollsByGroup.getOrDefault(group.getId(), List.of()).size();
+              long memberCount = memberCounts.getOrDefault(group.getId(), 0L);
+              long pollCount = pollCounts.getOrDefault(group.getId(), 0L);
+              ConversationSummary summary = activity.get(group.getId());
               return new GroupSummary(
                   group.getId(),
                   group.getName(),
@@ -108,22 +301,42 @@ public class DashboardService {
                   Boolean.TRUE.equals(group.getIsPublic()),
                   Math.toIntExact(memberCount),
                   group.getCreatedAt(),
-                  pollCount);
+                  Math.toIntExact(pollCount),
+                  summary != null ? summary.getMessageCount() : 0,
+                  summary != null ? summary.getLastActivityAt() : null);
             })
         .toList();
   }
 
   private List<PrivateChatSummary> buildPrivateChatSummaries(
-      List<PrivateChat> privateChats, User currentUser) {
+      List<PrivateChat> privateChats,
+      User currentUser,
+      Map<Long, SummaryWithLastMessage> activity) {
+    if (privateChats.isEmpty()) {
+      return List.of();
+    }
+    List<ChatMessage> lastMessages =
+        activity.values().stream()
+            .map(SummaryWithLastMessage::lastMessage)
+            .filter(Objects::nonNull)
+            .toList();
+    Map<ChatMessage, String> previews = decryptAll(lastMessages);
+
     return privateChats.stream()
         .map(
             chat -> {
               String participant = resolveParticipantName(chat, currentUser);
-              ChatMessage lastMessage =
-                  chatMessageRepository.findTop1ByPrivateChatOrderByTimestampDesc(chat);
-              Instant lastTimestamp = lastMessage != null ? lastMessage.getTimestamp() : null;
-              String preview = decryptMessageSafely(lastMessage);
-              return new PrivateChatSummary(chat.getId(), participant, preview, lastTimestamp);
+              SummaryWithLastMessage row = activity.get(chat.getId());
+              if (row == null) {
+                return new PrivateChatSummary(chat.getId(), participant, null, null, 0);
+              }
+              ChatMessage lastMessage = row.lastMessage();
+              return new PrivateChatSummary(
+                  chat.getId(),
+                  participant,
+                  lastMessage != null ? previews.get(lastMessage) : null,
+                  row.summary().getLastActivityAt(),
+                  row.summary().getMessageCount());
             })
         .sorted(
             Comparator.comparing(
@@ -131,18 +344,32 @@ public class DashboardService {
         .toList();
   }
 
+  /**
+   * Builds the dashboard summaries of the given polls, e.g. for live updates of single polls.
+   *
+   * @param pollIds the polls; ids of deleted polls are skipped
+   * @return the poll summaries, ordered by deadline
+   */
+  @Transactional(readOnly = true)
+  public List<PollSummary> buildPollSummaries(Collection<Long> pollIds) {
+    return pollIds.isEmpty()
+        ? List.of()
+        : buildPollSummaries(pollRepository.findAllWithGroupByIds(pollIds));
+  }
+
   private List<PollSummary> buildPollSummaries(List<Poll> polls) {
+    if (polls.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, PollCounts> countsByPoll =
+        read(() -> pollRepository.countOptionsAndVotes(polls.stream().map(Poll::getId).toList()))
+            .stream()
+            .collect(Collectors.toMap(PollCounts::pollId, counts -> counts));
+
     return polls.stream()
         .map(
             poll -> {
-              int optionCount = poll.getOptions() == null ? 0 : poll.getOptions().size();
-              int totalVotes =
-                  poll.getOptions() == null
-                      ? 0
-                      : poll.getOptions().stream()
-                          .mapToInt(
-                              option -> option.getVotes() == null ? 0 : option.getVotes().size())
-                          .sum();
+              PollCounts counts = countsByPoll.get(poll.getId());
               return new PollSummary(
                   poll.getId(),
                   poll.getQuestion(),
@@ -150,8 +377,8 @@ public class DashboardService {
                   poll.getGroup().getName(),
                   poll.isAnonymous(),
                   poll.getDeadline(),
-                  optionCount,
-                  totalVotes);
+                  counts == null ? 0 : Math.toIntExact(counts.optionCount()),
+                  counts == null ? 0 : Math.toIntExact(counts.voteCount()));
             })
         .sorted(
             Comparator.comparing(
@@ -160,12 +387,15 @@ public class DashboardService {
   }
 
   private List<MessagePreview> buildRecentMessages(User user) {
-    return chatMessageRepository.findTop10BySenderOrderByTimestampDesc(user).stream()
+    List<ChatMessage> messages =
+        read(() -> chatMessageRepository.findTop10BySenderOrderByTimestampDesc(user));
+    Map<ChatMessage, String> contents = decryptAll(messages);
+    return messages.stream()
         .map(
             message ->
                 new MessagePreview(
                     message.getId(),
-                    decryptMessageSafely(message),
+                    contents.get(message),
                     message.getTimestamp(),
                     message.getGroup() != null ? message.getGroup().getId() : null,
                     message.getPrivateChat() != null ? message.getPrivateChat().getId() : null))
@@ -184,15 +414,64 @@ public class DashboardService {
     return chat.getUser1() != null ? chat.getUser1().getUsername() : currentUser.getUsername();
   }
 
-  private String decryptMessageSafely(ChatMessage message) {
-    if (message == null) {
+  private static Map<Long, Long> toMap(List<IdCount> counts) {
+    return counts.stream().collect(Collectors.toMap(IdCount::id, IdCount::count));
+  }
+
+  /**
+   * Decrypts the given messages in one batch. Messages that cannot be decrypted map to {@code
+   * null}, so a single broken message does not break the whole dashboard.
+   */
+  private Map<ChatMessage, String> decryptAll(List<ChatMessage> messages) {
+    List<Decrypted> results = decryptionStage.decryptAll(messages);
+    Map<ChatMessage, String> plaintexts = new IdentityHashMap<>();
+    for (int i = 0; i < messages.size(); i++) {
+      plaintexts.put(messages.get(i), results.get(i).plaintext());
+    }
+    return plaintexts;
+  }
+
+  /**
+   * The subtasks of one dashboard build. Subtasks may wait for each other's results; closing the
+   * scope cancels whatever is still running, so no subtask outlives the request that forked it.
+   */
+  private static final class SectionScope implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final long deadline;
+    private final List<Future<?>> forked = new ArrayList<>();
+
+    SectionScope(ExecutorService executor, long timeoutMs) {
+      this.executor = executor;
+      this.deadline = timeoutMs > 0 ? System.nanoTime() + timeoutMs * 1_000_000 : 0;
+    }
+
+    <T> Future<T> fork(Callable<T> task) {
+      Future<T> future = executor.submit(task);
+      forked.add(future);
+      return future;
+    }
+
+    /** Waits for a section until the deadline; returns {@code null} if it failed or timed out. */
+    <T> T result(DashboardSection section, Future<T> future) {
+      try {
+        if (deadline == 0) {
+          return future.get();
+        }
+        return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        log.warn("Dashboard section {} timed out and was left out", section);
+      } catch (ExecutionException e) {
+        log.warn("Dashboard section {} failed and was left out", section, e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
       return null;
     }
 
-    try {
-      return encryptionUtil.decrypt(message.getCipherText(), message.getIv());
-    } catch (Exception e) {
-      throw new DecryptionFailedException("Failed to decrypt message", e);
+    @Override
+    public void close() {
+      forked.forEach(future -> future.cancel(true));
     }
   }
 }
@@ -3,8 +3,10 @@ package vaultWeb.services;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import vaultWeb.dtos.GroupDto;
+import vaultWeb.events.GroupChangedEvent;
 import vaultWeb.exceptions.AlreadyMemberException;
 import vaultWeb.exceptions.LastAdminException;
 import vaultWeb.exceptions.notfound.GroupNotFoundException;
@@ -29,6 +31,8 @@ public class GroupService {
   private final GroupRepository groupRepository;
   private final GroupMemberRepository groupMemberRepository;
   private final UserRepository userRepository;
+  private final ChatReferenceResolver chatReferenceResolver;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Retrieves all public groups.
@@ -63,6 +67,7 @@ public class GroupService {
 
     group = groupRepository.save(group);
     groupMemberRepository.save(new GroupMember(group, creator, Role.ADMIN));
+    eventPublisher.publishEvent(new GroupChangedEvent(group.getId(), creator.getId()));
     return group;
   }
 
@@ -82,7 +87,10 @@ public class GroupService {
               existing.setName(updatedGroup.getName());
               existing.setDescription(updatedGroup.getDescription());
               existing.setIsPublic(updatedGroup.getIsPublic());
-              return groupRepository.save(existing);
+              Group saved = groupRepository.save(existing);
+              chatReferenceResolver.evictGroup(id);
+              eventPublisher.publishEvent(new GroupChangedEvent(id, null));
+              return saved;
             })
         .orElseThrow(() -> new GroupNotFoundException("Group not found with id: " + id));
   }
@@ -94,6 +102,8 @@ public class GroupService {
    */
   public void deleteGroup(Long id) {
     groupRepository.deleteById(id);
+    chatReferenceResolver.evictGroup(id);
+    eventPublisher.publishEvent(new GroupChangedEvent(id, null));
   }
 
   /**
@@ -118,6 +128,7 @@ public class GroupService {
     }
 
     groupMemberRepository.save(new GroupMember(group, currentUser, Role.USER));
+    eventPublisher.publishEvent(new GroupChangedEvent(groupId, currentUser.getId()));
     return group;
   }
 
@@ -142,6 +153,7 @@ public class GroupService {
             .orElseThrow(() -> new NotMemberException(groupId, currentUser.getId()));
 
     groupMemberRepository.delete(member);
+    eventPublisher.publishEvent(new GroupChangedEvent(groupId, currentUser.getId()));
     return group;
   }
 
@@ -200,6 +212,7 @@ public class GroupService {
     }
 
     groupMemberRepository.delete(memberToRemove);
+    eventPublisher.publishEvent(new GroupChangedEvent(groupId, userId));
     return group;
   }
 }
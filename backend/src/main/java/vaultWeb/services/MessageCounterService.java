@@ -0,0 +1,183 @@
+package vaultWeb.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.ChatMessagesDeletedEvent;
+import vaultWeb.models.UserMessageCounter;
+import vaultWeb.repositories.UserMessageCounterRepository;
+
+/**
+ * Maintains the {@link UserMessageCounter per-user message counts}, so reading how many messages a
+ * user has sent costs one primary-key lookup regardless of how many there are.
+ *
+ * <p>Saved and deleted messages are counted once their transaction has committed, in a {@link
+ * LongAdder} per user; concurrent senders therefore never contend on a database row. Every {@code
+ * chat.counters.flush-ms} the accumulated deltas are written with one atomic {@code update} per
+ * user, and reads add the deltas that are not written yet, so counts are current on this instance.
+ * A delta that could not be written stays in memory for the next flush.
+ *
+ * <p>Deltas that never reach the database (a crash between commit and flush) or that are counted
+ * twice cause drift, which the nightly reconciliation corrects from {@code chat_message}. Per
+ * conversation counts need none of this; they are kept exact in the write transaction by {@link
+ * ConversationSummaryService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // the schema update must have created the table
+public class MessageCounterService {
+
+  private static final String RECONCILE_JOB = "message-counter-reconcile";
+
+  private final UserMessageCounterRepository counterRepository;
+  private final SchedulerLockService schedulerLockService;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${chat.counters.backfill-on-startup:true}")
+  private boolean backfillOnStartup;
+
+  /** How long other instances skip the reconciliation after one instance started it. */
+  @Value("${chat.counters.reconcile-lease:PT1H}")
+  private Duration reconcileLease;
+
+  /** Deltas not yet written to the database, by user id. Entries are kept once created. */
+  private final ConcurrentMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+  /** Creates the counters of users who sent messages before counters existed. */
+  @PostConstruct
+  public void backfill() {
+    if (!backfillOnStartup) {
+      return;
+    }
+    Integer created =
+        new TransactionTemplate(transactionManager).execute(status -> counterRepository.backfill());
+    if (created != null && created > 0) {
+      log.info("Backfilled {} user message counters", created);
+    }
+  }
+
+  /** Writes the remaining deltas on shutdown. */
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  /**
+   * Returns how many messages a user has sent.
+   *
+   * @param userId the user
+   * @return the stored count plus the deltas not yet written
+   */
+  public long getMessagesSent(Long userId) {
+    long stored = counterRepository.findMessagesSent(userId).orElse(0L);
+    LongAdder delta = pending.get(userId);
+    return delta != null ? stored + delta.sum() : stored;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChatMessageSaved(ChatMessageSavedEvent event) {
+    if (event.senderId() != null) {
+      add(event.senderId(), 1);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChatMessagesDeleted(ChatMessagesDeletedEvent event) {
+    event.deletedBySender().forEach((userId, count) -> add(userId, -count));
+  }
+
+  /** Writes the accumulated deltas to the database in one transaction. One flush at a time. */
+  @Scheduled(
+      fixedDelayString = "${chat.counters.flush-ms:1000}",
+      initialDelayString = "${chat.counters.flush-ms:1000}")
+  public synchronized void flush() {
+    Map<Long, Long> deltas = new LinkedHashMap<>();
+    pending.forEach(
+        (userId, adder) -> {
+          long delta = adder.sum();
+          if (delta != 0) {
+            deltas.put(userId, delta);
+          }
+        });
+    if (deltas.isEmpty()) {
+      return;
+    }
+    try {
+      new TransactionTemplate(transactionManager)
+          .executeWithoutResult(
+              status ->
+                  deltas.forEach(
+                      (userId, delta) -> {
+                        if (counterRepository.addMessages(userId, delta) == 0) {
+                          counterRepository.insertEmpty(userId);
+                          counterRepository.addMessages(userId, delta);
+                        }
+                      }));
+    } catch (RuntimeException e) {
+      // the deltas stay pending for the next flush
+      log.warn("Could not write message counters of {} users: {}", deltas.size(), e.getMessage());
+      return;
+    }
+    // only now, so reads never miss a delta that is being written
+    deltas.forEach((userId, delta) -> add(userId, -delta));
+  }
+
+  /**
+   * Sets every counter that drifted to the number of messages actually stored, in one statement.
+   * Runs nightly by default, and on one instance only.
+   *
+   * <p>The repair holds the flush monitor, so no delta is being written meanwhile, and skips users
+   * with deltas still pending on this instance: their messages are already stored but their deltas
+   * would be added once more. Those users are corrected by the next run.
+   */
+  @Scheduled(cron = "${chat.counters.reconcile-cron:0 30 3 * * *}")
+  public void reconcile() {
+    if (!schedulerLockService.tryLock(RECONCILE_JOB, reconcileLease)) {
+      return;
+    }
+    Integer corrected;
+    synchronized (this) {
+      flush();
+      Set<Long> unwritten = new HashSet<>();
+      pending.forEach(
+          (userId, adder) -> {
+            if (adder.sum() != 0) {
+              unwritten.add(userId);
+            }
+          });
+      corrected =
+          new TransactionTemplate(transactionManager)
+              .execute(
+                  status -> {
+                    // users who have messages but no counter yet
+                    counterRepository.backfill();
+                    return counterRepository.reconcile(unwritten);
+                  });
+    }
+    if (corrected != null && corrected > 0) {
+      log.info("Corrected the message counters of {} users", corrected);
+    }
+  }
+
+  private void add(Long userId, long delta) {
+    pending.computeIfAbsent(userId, id -> new LongAdder()).add(delta);
+  }
+}
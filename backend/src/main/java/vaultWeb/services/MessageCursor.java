@@ -0,0 +1,65 @@
+package vaultWeb.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import vaultWeb.exceptions.InvalidCursorException;
+import vaultWeb.models.ChatMessage;
+
+/**
+ * Position of a message in a conversation, used as an opaque keyset paging cursor.
+ *
+ * <p>Messages are ordered by {@code (timestamp, id)}; the id breaks ties between messages sent in
+ * the same instant. On the wire the cursor is the URL-safe Base64 form of {@code
+ * <epochSeconds>:<nanos>:<id>}, which clients should treat as opaque.
+ *
+ * @param timestamp the message timestamp
+ * @param id the message id
+ */
+public record MessageCursor(Instant timestamp, Long id) {
+
+  /**
+   * Creates the cursor pointing at the given message.
+   *
+   * @param message a stored message
+   * @return its cursor
+   */
+  public static MessageCursor of(ChatMessage message) {
+    return new MessageCursor(message.getTimestamp(), message.getId());
+  }
+
+  /**
+   * Encodes this cursor for use in a URL.
+   *
+   * @return the opaque cursor string
+   */
+  public String encode() {
+    String raw = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Decodes a cursor previously produced by {@link #encode()}.
+   *
+   * @param value the opaque cursor string
+   * @return the decoded cursor
+   * @throws InvalidCursorException if the value is not a valid cursor
+   */
+  public static MessageCursor decode(String value) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.US_ASCII);
+      String[] parts = raw.split(":");
+      if (parts.length != 3) {
+        throw new InvalidCursorException("Malformed cursor");
+      }
+      Instant timestamp =
+          Instant.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+      return new MessageCursor(timestamp, Long.parseLong(parts[2]));
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new InvalidCursorException("Malformed cursor");
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package vaultWeb.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vaultWeb.events.GroupChangedEvent;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.models.Poll;
+import vaultWeb.models.PollOption;
+import vaultWeb.models.enums.PollType;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.PollRepository;
+
+/**
+ * Caches what the vote path needs to know about a poll and about group memberships, so a vote on a
+ * busy poll never loads the poll or its options, and a vote after the deadline touches no table.
+ *
+ * <p>Poll metadata is dropped when the poll is edited or deleted, memberships when the group
+ * reports a change for the member or for the whole group. Those events only reach this instance, so
+ * both kinds of entries also expire after a minute. A cached answer is never the last word on a
+ * vote, though: the vote transaction locks the poll and the membership before it writes (see {@link
+ * PollService}), and a vote that finds either gone fails and evicts the stale entry.
+ */
+@Service
+@RequiredArgsConstructor
+public class PollAccessCache {
+
+  private final PollRepository pollRepository;
+  private final GroupMemberRepository groupMemberRepository;
+
+  private final Cache<Long, PollMeta> polls =
+      Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(1)).maximumSize(10_000).build();
+
+  private final Cache<Membership, Boolean> memberships =
+      Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(1)).maximumSize(100_000).build();
+
+  /**
+   * The parts of a poll that decide whether a vote is valid.
+   *
+   * @param id the poll
+   * @param groupId the group the poll belongs to
+   * @param optionIds the ids of the poll's options
+   * @param deadline when voting ends, or {@code null} if it never does
+   * @param anonymous whether the voters are hidden
+   * @param closedAt when the poll's results were frozen, or {@code null} if they are not yet
+   * @param type how many options a ballot picks and whether their order counts
+   */
+  public record PollMeta(
+      Long id,
+      Long groupId,
+      Set<Long> optionIds,
+      Instant deadline,
+      boolean anonymous,
+      Instant closedAt,
+      PollType type) {
+
+    /** Returns whether votes are no longer accepted at the given time. */
+    public boolean isClosed(Instant now) {
+      return closedAt != null || (deadline != null && !now.isBefore(deadline));
+    }
+  }
+
+  private record Membership(Long groupId, Long userId) {}
+
+  /**
+   * Looks up a poll.
+   *
+   * @param pollId the poll id
+   * @return the poll's metadata, or empty if no such poll exists
+   */
+  public Optional<PollMeta> findPoll(Long pollId) {
+    return Optional.ofNullable(
+        polls.get(
+            pollId, id -> pollRepository.findWithOptionsById(id).map(this::toMeta).orElse(null)));
+  }
+
+  /** Drops the cached metadata of a poll, e.g. after it turned out to be stale. */
+  public void evictPoll(Long pollId) {
+    polls.invalidate(pollId);
+  }
+
+  /** Drops the cached membership of a user, e.g. after it turned out to be stale. */
+  public void evictMembership(Long groupId, Long userId) {
+    memberships.invalidate(new Membership(groupId, userId));
+  }
+
+  /** Returns whether the user is a member of the group. */
+  public boolean isMember(Long groupId, Long userId) {
+    return memberships.get(
+        new Membership(groupId, userId),
+        key -> groupMemberRepository.existsByGroupIdAndUserId(groupId, userId));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPollChanged(PollChangedEvent event) {
+    if (event.change() != PollChangedEvent.Change.VOTED) {
+      polls.invalidate(event.pollId());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGroupChanged(GroupChangedEvent event) {
+    if (event.memberId() != null) {
+      memberships.invalidate(new Membership(event.groupId(), event.memberId()));
+    } else {
+      memberships.asMap().keySet().removeIf(key -> key.groupId().equals(event.groupId()));
+    }
+  }
+
+  private PollMeta toMeta(Poll poll) {
+    Set<Long> optionIds =
+        poll.getOptions().stream().map(PollOption::getId).collect(Collectors.toUnmodifiableSet());
+    return new PollMeta(
+        poll.getId(),
+        poll.getGroup().getId(),
+        optionIds,
+        poll.getDeadline(),
+        poll.isAnonymous(),
+        poll.getClosedAt(),
+        poll.getType());
+  }
+}
@@ -0,0 +1,140 @@
+package vaultWeb.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.models.PollOption;
+import vaultWeb.models.PollResultSnapshot;
+import vaultWeb.repositories.DuePoll;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PollResultSnapshotRepository;
+
+/**
+ * Closes polls at their deadline and freezes their results into a {@link PollResultSnapshot}.
+ *
+ * <p>The queue of polls to close is the {@code polls} table itself: every {@code
+ * poll.close.interval-ms} the open polls whose deadline has passed are read through the {@code
+ * (closed_at, deadline)} index, so nothing is lost on a restart and polls that fell due while the
+ * application was down are closed on the next run. Each poll is closed in its own transaction that
+ * marks it closed (a conditional update, so concurrent instances never close a poll twice) and
+ * writes the snapshot from the options' vote counts. The instant-runoff rounds of ranked choice
+ * polls need no snapshot: their tally no longer changes, so the rounds stored with it are final.
+ *
+ * <p>Votes hold a shared lock on their poll that marking it closed waits for, and check in the same
+ * statement that it is still open (see {@link PollRepository#lockOpen}). So the snapshot, taken
+ * after the poll is marked closed, includes every vote that was accepted, and no vote changes the
+ * counts afterwards.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PollCloseService {
+
+  private final PollRepository pollRepository;
+  private final PollOptionRepository pollOptionRepository;
+  private final PollResultSnapshotRepository snapshotRepository;
+  private final PollTallyService pollTallyService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${poll.close.batch-size:100}")
+  private int batchSize;
+
+  /** Snapshots never change, so they are kept until their poll is deleted or they are evicted. */
+  private final Cache<Long, PollResultSnapshot> snapshots =
+      Caffeine.newBuilder().maximumSize(10_000).build();
+
+  /** Closes the polls whose deadline has passed, {@code poll.close.batch-size} per run. */
+  @Scheduled(fixedDelayString = "${poll.close.interval-ms:5000}")
+  public void closeDuePolls() {
+    List<DuePoll> due = pollRepository.findDueForClosing(Instant.now(), Limit.of(batchSize));
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    int closed = 0;
+    for (DuePoll poll : due) {
+      try {
+        if (Boolean.TRUE.equals(transactionTemplate.execute(status -> close(poll)))) {
+          closed++;
+        }
+      } catch (RuntimeException e) {
+        // stays open and is retried on the next run
+        log.warn("Could not close poll {}: {}", poll.pollId(), e.getMessage());
+      }
+    }
+    if (closed > 0) {
+      log.info("Closed {} polls", closed);
+    }
+  }
+
+  /**
+   * Returns the final results of a closed poll.
+   *
+   * @param pollId the poll
+   * @return the snapshot, or empty if the poll is still open
+   */
+  public Optional<PollResultSnapshot> findSnapshot(Long pollId) {
+    return Optional.ofNullable(
+        snapshots.get(pollId, id -> snapshotRepository.findById(id).orElse(null)));
+  }
+
+  /** Deletes the snapshot of a poll that is being deleted. Runs in the caller's transaction. */
+  public void deleteSnapshot(Long pollId) {
+    if (snapshotRepository.existsById(pollId)) {
+      snapshotRepository.deleteById(pollId);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPollChanged(PollChangedEvent event) {
+    if (event.change() == PollChangedEvent.Change.DELETED) {
+      snapshots.invalidate(event.pollId());
+    }
+  }
+
+  private boolean close(DuePoll poll) {
+    Long pollId = poll.pollId();
+    Instant closedAt = Instant.now();
+    // waits for votes still holding the poll's lock, so their counts are in the snapshot
+    if (pollRepository.markClosed(pollId, closedAt) == 0) {
+      return false;
+    }
+    List<PollOption> options = pollOptionRepository.findByPollIdOrderById(pollId);
+    // multiple and ranked choice polls count ballots rather than picked options
+    long totalVotes =
+        pollTallyService
+            .findBallots(List.of(pollId))
+            .getOrDefault(pollId, options.stream().mapToLong(PollOption::getVoteCount).sum());
+    PollResultSnapshot snapshot =
+        PollResultSnapshot.builder()
+            .pollId(pollId)
+            .closedAt(closedAt)
+            .totalVotes(totalVotes)
+            .options(
+                options.stream()
+                    .map(
+                        option ->
+                            new PollResultSnapshot.OptionResult(
+                                option.getId(), option.getText(), option.getVoteCount()))
+                    .toList())
+            .build();
+    snapshotRepository.save(snapshot);
+
+    // cached poll metadata and dashboards pick up the closed state
+    eventPublisher.publishEvent(
+        new PollChangedEvent(poll.groupId(), pollId, PollChangedEvent.Change.UPDATED));
+    return true;
+  }
+}
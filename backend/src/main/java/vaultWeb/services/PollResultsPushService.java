@@ -0,0 +1,104 @@
+package vaultWeb.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.dtos.PollResultsDto.OptionTally;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionTally;
+
+/**
+ * Streams poll results to the members of a group on {@code /topic/group/{groupId}/polls}, so
+ * clients can show live tallies without re-fetching the group's polls.
+ *
+ * <p>A committed vote only marks its poll as changed. Every {@code poll.results.tick-ms} the
+ * current counts of all changed polls are loaded with two queries and one {@link PollResultsDto} is
+ * sent per poll, so a burst of votes on a busy poll produces one update per tick rather than one
+ * per vote. Since the counts are read when the update is sent, every update carries the complete
+ * tally and a client that missed one is corrected by the next.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PollResultsPushService {
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final PollOptionRepository pollOptionRepository;
+  private final PollTallyService pollTallyService;
+
+  @Value("${poll.results.push.enabled:true}")
+  private boolean enabled;
+
+  /** Group id by id of the polls voted on since the previous tick. */
+  private final ConcurrentMap<Long, Long> changed = new ConcurrentHashMap<>();
+
+  static String destination(Long groupId) {
+    return "/topic/group/" + groupId + "/polls";
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPollChanged(PollChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    switch (event.change()) {
+      case VOTED -> changed.put(event.pollId(), event.groupId());
+      case DELETED -> changed.remove(event.pollId());
+      default -> {
+        // clients reload a created or edited poll through the REST API
+      }
+    }
+  }
+
+  /** Sends the tallies of the polls voted on since the previous tick. */
+  @Scheduled(fixedDelayString = "${poll.results.tick-ms:500}")
+  public void flush() {
+    if (changed.isEmpty()) {
+      return;
+    }
+    Map<Long, Long> batch = new HashMap<>();
+    for (Long pollId : changed.keySet()) {
+      Long groupId = changed.remove(pollId);
+      if (groupId != null) {
+        batch.put(pollId, groupId);
+      }
+    }
+
+    Map<Long, List<OptionTally>> tallies = new HashMap<>();
+    for (PollOptionTally tally : pollOptionRepository.findTallies(batch.keySet())) {
+      tallies
+          .computeIfAbsent(tally.pollId(), id -> new ArrayList<>())
+          .add(new OptionTally(tally.optionId(), tally.voteCount()));
+    }
+    // multiple and ranked choice polls count ballots rather than picked options
+    Map<Long, Long> ballots = pollTallyService.findBallots(batch.keySet());
+
+    tallies.forEach(
+        (pollId, options) -> {
+          long total =
+              ballots.getOrDefault(
+                  pollId, options.stream().mapToLong(OptionTally::voteCount).sum());
+          Long groupId = batch.get(pollId);
+          try {
+            // runoff rounds are left to the results endpoint, which recounts them on demand
+            messagingTemplate.convertAndSend(
+                destination(groupId), new PollResultsDto(pollId, options, total, null, null));
+          } catch (MessagingException e) {
+            log.warn("Could not push results of poll {}: {}", pollId, e.getMessage());
+          }
+        });
+  }
+}
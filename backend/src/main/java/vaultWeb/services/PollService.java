@@ -1,25 +1,56 @@
 package vaultWeb.services;
 
+import jakarta.annotation.PostConstruct;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.dtos.PollBatchVoteRequestDto;
+import vaultWeb.dtos.PollBatchVoteResultDto;
+import vaultWeb.dtos.PollPageDto;
 import vaultWeb.dtos.PollRequestDto;
 import vaultWeb.dtos.PollResponseDto;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.dtos.PollVoterPageDto;
+import vaultWeb.events.PollChangedEvent;
 import vaultWeb.exceptions.AlreadyVotedException;
+import vaultWeb.exceptions.AnonymousPollException;
+import vaultWeb.exceptions.InvalidBallotException;
+import vaultWeb.exceptions.NotVotedException;
+import vaultWeb.exceptions.PollClosedException;
 import vaultWeb.exceptions.PollDoesNotBelongToGroupException;
 import vaultWeb.exceptions.PollOptionNotFoundException;
 import vaultWeb.exceptions.UnauthorizedException;
-import vaultWeb.exceptions.notfound.GroupNotFoundException;
 import vaultWeb.exceptions.notfound.NotMemberException;
 import vaultWeb.exceptions.notfound.PollNotFoundException;
 import vaultWeb.models.*;
+import vaultWeb.models.enums.PollStatus;
+import vaultWeb.models.enums.PollType;
+import vaultWeb.models.ids.SnowflakeIdGenerator;
+import vaultWeb.repositories.DataMigrationRepository;
 import vaultWeb.repositories.GroupMemberRepository;
-import vaultWeb.repositories.GroupRepository;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionRow;
 import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PollSummaryRow;
 import vaultWeb.repositories.PollVoteRepository;
+import vaultWeb.repositories.PollVoterRow;
+import vaultWeb.services.PollAccessCache.PollMeta;
 
 /**
  * Service class responsible for managing polls within groups.
@@ -27,14 +58,60 @@ import vaultWeb.repositories.PollVoteRepository;
  * <p>Provides functionalities to create, update, delete, retrieve, and vote on polls. It also
  * converts Poll entities to PollResponseDto objects for API responses.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // the schema update must have added the backfilled columns
 public class PollService {
 
+  static final int DEFAULT_POLL_PAGE_SIZE = 20;
+  static final int MAX_POLL_PAGE_SIZE = 100;
+  static final int DEFAULT_VOTER_PAGE_SIZE = 50;
+  static final int MAX_VOTER_PAGE_SIZE = 200;
+  static final String VOTE_BACKFILL = "poll-vote-backfill";
+
   private final PollRepository pollRepository;
-  private final GroupRepository groupRepository;
   private final GroupMemberRepository groupMemberRepository;
   private final PollVoteRepository pollVoteRepository;
+  private final PollOptionRepository pollOptionRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PlatformTransactionManager transactionManager;
+  private final DataMigrationRepository dataMigrationRepository;
+
+  private final PollAccessCache pollAccessCache;
+  private final PollCloseService pollCloseService;
+  private final PollTallyService pollTallyService;
+
+  @Value("${poll.votes.backfill-on-startup:true}")
+  private boolean backfillOnStartup;
+
+  /**
+   * Completes votes and options stored before votes carried their poll and options their vote
+   * count. Runs once per database; votes and options written since carry both.
+   */
+  @PostConstruct
+  public void backfill() {
+    if (!backfillOnStartup) {
+      return;
+    }
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(
+            status -> {
+              if (dataMigrationRepository.markCompleted(VOTE_BACKFILL, Instant.now()) == 0) {
+                return;
+              }
+              // before the counts, so a user's repeated legacy votes are not counted
+              int duplicates = pollVoteRepository.deleteDuplicateLegacyVotes();
+              int votes = pollVoteRepository.backfillPollIds();
+              int options = pollOptionRepository.backfillVoteCounts();
+              if (duplicates > 0) {
+                log.info("Deleted {} repeated legacy poll votes", duplicates);
+              }
+              if (votes > 0 || options > 0) {
+                log.info("Backfilled {} poll votes and {} poll options", votes, options);
+              }
+            });
+  }
 
   /**
    * Creates a new poll in the specified group by the given author.
@@ -45,6 +122,7 @@ public class PollService {
    * @return the created Poll entity
    * @throws NotMemberException if the author is not a member of the group
    */
+  @Transactional
   public Poll createPoll(Group group, User author, PollRequestDto pollDto) {
     if (groupMemberRepository.findByGroupAndUser(group, author).isEmpty()) {
       throw new NotMemberException(group.getId(), author.getId());
@@ -60,6 +138,7 @@ public class PollService {
             .question(pollDto.getQuestion())
             .deadline(deadlineInstant)
             .isAnonymous(pollDto.isAnonymous())
+            .type(typeOf(pollDto))
             .build();
 
     List<PollOption> options =
@@ -69,33 +148,100 @@ public class PollService {
 
     poll.setOptions(options);
 
-    return pollRepository.save(poll);
+    Poll saved = pollRepository.save(poll);
+    pollTallyService.create(saved.getId(), saved.getType());
+    eventPublisher.publishEvent(
+        new PollChangedEvent(group.getId(), saved.getId(), PollChangedEvent.Change.CREATED));
+    return saved;
+  }
+
+  private static PollType typeOf(PollRequestDto pollDto) {
+    return pollDto.getType() != null ? pollDto.getType() : PollType.SINGLE_CHOICE;
   }
 
   /**
-   * Retrieves all polls for a given group.
+   * Returns one page of a group's polls, newest first, as summaries with vote counts and without
+   * voters. Costs two queries per page regardless of how many polls the group has, and a third if
+   * the page has multiple or ranked choice polls.
    *
    * @param groupId the ID of the group
+   * @param status only polls with this status, or {@code null} for all polls
+   * @param before the {@code nextBefore} of the previous page, or {@code null} for the first page
+   * @param limit requested page size, or {@code null} for the default; capped at {@value
+   *     #MAX_POLL_PAGE_SIZE}
    * @param currentUser the current user requesting the polls
-   * @return a list of polls in the group
-   * @throws GroupNotFoundException if the group does not exist
+   * @return the page of polls
    * @throws NotMemberException if the user is not a member of the group
    */
-  public List<Poll> getPollsByGroup(Long groupId, User currentUser) {
-    Group group =
-        groupRepository
-            .findById(groupId)
-            .orElseThrow(
-                () -> new GroupNotFoundException("Group with id " + groupId + " not found"));
-    if (groupMemberRepository.findByGroupAndUser(group, currentUser).isEmpty()) {
-      throw new NotMemberException(group.getId(), currentUser.getId());
+  @Transactional(readOnly = true)
+  public PollPageDto getPollPage(
+      Long groupId, PollStatus status, Long before, Integer limit, User currentUser) {
+    checkMember(groupId, currentUser);
+
+    int pageSize =
+        limit == null || limit < 1 ? DEFAULT_POLL_PAGE_SIZE : Math.min(limit, MAX_POLL_PAGE_SIZE);
+    long beforeId = before != null ? before : Long.MAX_VALUE;
+    Limit fetch = Limit.of(pageSize + 1);
+    Instant now = Instant.now();
+    List<PollSummaryRow> rows =
+        status == null
+            ? pollRepository.findPage(groupId, beforeId, fetch)
+            : switch (status) {
+              case OPEN -> pollRepository.findOpenPage(groupId, beforeId, now, fetch);
+              case CLOSED -> pollRepository.findClosedPage(groupId, beforeId, now, fetch);
+            };
+    boolean hasMore = rows.size() > pageSize;
+    List<PollSummaryRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+    if (page.isEmpty()) {
+      return new PollPageDto(List.of(), null);
     }
 
-    return pollRepository.findByGroupId(groupId);
+    Map<Long, List<PollPageDto.OptionSummary>> options = new HashMap<>();
+    for (PollOptionRow row :
+        pollOptionRepository.findRows(page.stream().map(PollSummaryRow::id).toList())) {
+      options
+          .computeIfAbsent(row.pollId(), id -> new ArrayList<>())
+          .add(new PollPageDto.OptionSummary(row.optionId(), row.text(), row.voteCount()));
+    }
+    List<Long> talliedIds =
+        page.stream()
+            .filter(row -> row.type() != PollType.SINGLE_CHOICE)
+            .map(PollSummaryRow::id)
+            .toList();
+    Map<Long, Long> ballots =
+        talliedIds.isEmpty() ? Map.of() : pollTallyService.findBallots(talliedIds);
+    List<PollPageDto.PollSummary> polls =
+        page.stream()
+            .map(
+                row ->
+                    toSummary(
+                        row, options.getOrDefault(row.id(), List.of()), ballots.get(row.id()), now))
+            .toList();
+    return new PollPageDto(polls, hasMore ? page.getLast().id() : null);
+  }
+
+  private static PollPageDto.PollSummary toSummary(
+      PollSummaryRow row, List<PollPageDto.OptionSummary> options, Long ballots, Instant now) {
+    boolean closed =
+        row.closedAt() != null || (row.deadline() != null && !now.isBefore(row.deadline()));
+    return new PollPageDto.PollSummary(
+        row.id(),
+        row.question(),
+        row.anonymous(),
+        row.type(),
+        row.authorUsername(),
+        row.createdAt(),
+        row.deadline(),
+        closed,
+        options,
+        ballots != null
+            ? ballots
+            : options.stream().mapToLong(PollPageDto.OptionSummary::voteCount).sum());
   }
 
   /**
-   * Converts a Poll entity to a PollResponseDto suitable for API responses.
+   * Converts a Poll entity to a PollResponseDto suitable for API responses. Vote counts come from
+   * the options themselves, so no votes are loaded.
    *
    * @param poll the Poll entity to convert
    * @return a PollResponseDto representing the poll and its options
@@ -104,80 +250,369 @@ public class PollService {
     List<PollResponseDto.OptionResultDto> options =
         poll.getOptions().stream()
             .map(
-                option -> {
-                  List<String> voters =
-                      poll.isAnonymous()
-                          ? List.of()
-                          : option.getVotes() == null
-                              ? List.of()
-                              : option.getVotes().stream()
-                                  .map(vote -> vote.getUser().getUsername())
-                                  .collect(Collectors.toList());
-
-                  int voteCount = option.getVotes() != null ? option.getVotes().size() : 0;
-
-                  return new PollResponseDto.OptionResultDto(
-                      option.getId(), option.getText(), voteCount, voters);
-                })
+                option ->
+                    new PollResponseDto.OptionResultDto(
+                        option.getId(), option.getText(), option.getVoteCount()))
             .collect(Collectors.toList());
 
-    return new PollResponseDto(poll.getId(), poll.getQuestion(), poll.isAnonymous(), options);
+    return new PollResponseDto(
+        poll.getId(), poll.getQuestion(), poll.isAnonymous(), poll.getType(), options);
+  }
+
+  /**
+   * Returns the results of a poll: the final snapshot once the poll is closed, the live counts
+   * before. Ranked choice polls also get their instant-runoff rounds, which are only recounted
+   * after ballots changed.
+   *
+   * @param groupId the ID of the group containing the poll
+   * @param pollId the ID of the poll
+   * @param user the user requesting the results
+   * @return the poll's results
+   * @throws NotMemberException if the user is not a member of the group
+   * @throws PollNotFoundException if the poll does not exist
+   * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
+   */
+  public PollResultsDto getResults(Long groupId, Long pollId, User user) {
+    checkMember(groupId, user);
+    PollMeta poll = checkPoll(groupId, pollId);
+    PollResultsDto.Runoff runoff =
+        poll.type() == PollType.RANKED_CHOICE ? pollTallyService.getRunoff(pollId) : null;
+    if (poll.closedAt() != null) {
+      Optional<PollResultSnapshot> snapshot = pollCloseService.findSnapshot(pollId);
+      if (snapshot.isPresent()) {
+        return toResultsDto(snapshot.get(), runoff);
+      }
+    }
+    List<PollResultsDto.OptionTally> options =
+        pollOptionRepository.findTallies(List.of(pollId)).stream()
+            .map(tally -> new PollResultsDto.OptionTally(tally.optionId(), tally.voteCount()))
+            .toList();
+    long total =
+        poll.type() == PollType.SINGLE_CHOICE
+            ? options.stream().mapToLong(PollResultsDto.OptionTally::voteCount).sum()
+            : pollTallyService.findBallots(List.of(pollId)).getOrDefault(pollId, 0L);
+    return new PollResultsDto(pollId, options, total, null, runoff);
+  }
+
+  private static PollResultsDto toResultsDto(
+      PollResultSnapshot snapshot, PollResultsDto.Runoff runoff) {
+    return new PollResultsDto(
+        snapshot.getPollId(),
+        snapshot.getOptions().stream()
+            .map(
+                option ->
+                    new PollResultsDto.OptionTally(option.getOptionId(), option.getVoteCount()))
+            .toList(),
+        snapshot.getTotalVotes(),
+        snapshot.getClosedAt(),
+        runoff);
+  }
+
+  /**
+   * Returns one page of the voters of a non-anonymous poll, in the order the votes were cast.
+   * Voters of multiple and ranked choice polls are listed with their first choice.
+   *
+   * @param groupId the ID of the group containing the poll
+   * @param pollId the ID of the poll
+   * @param optionId only list voters of this option, or {@code null} for all options
+   * @param after the {@code nextAfter} of the previous page, or {@code null} for the first page
+   * @param limit requested page size, or {@code null} for the default; capped at {@value
+   *     #MAX_VOTER_PAGE_SIZE}
+   * @param user the user requesting the voters
+   * @return the page of voters
+   * @throws NotMemberException if the user is not a member of the group
+   * @throws PollNotFoundException if the poll does not exist
+   * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
+   * @throws AnonymousPollException if the poll is anonymous
+   */
+  @Transactional(readOnly = true)
+  public PollVoterPageDto getVoters(
+      Long groupId, Long pollId, Long optionId, Long after, Integer limit, User user) {
+    checkMember(groupId, user);
+    if (checkPoll(groupId, pollId).anonymous()) {
+      throw new AnonymousPollException(pollId);
+    }
+
+    int pageSize =
+        limit == null || limit < 1 ? DEFAULT_VOTER_PAGE_SIZE : Math.min(limit, MAX_VOTER_PAGE_SIZE);
+    List<PollVoterRow> rows =
+        pollVoteRepository.findVoters(
+            pollId, optionId, after != null ? after : Long.MIN_VALUE, Limit.of(pageSize + 1));
+    boolean hasMore = rows.size() > pageSize;
+    List<PollVoterRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+    return new PollVoterPageDto(
+        page.stream()
+            .map(row -> new PollVoterPageDto.Voter(row.optionId(), row.username()))
+            .toList(),
+        hasMore ? page.getLast().voteId() : null);
   }
 
   /**
    * Allows a user to vote for a specific option in a poll within a group.
    *
+   * <p>Membership and poll are checked against the {@link PollAccessCache}; the vote itself is an
+   * insert that the unique {@code (poll, user)} constraint rejects if the user has already voted,
+   * so concurrent votes by the same user cannot both be counted.
+   *
    * @param groupId the ID of the group containing the poll
    * @param pollId the ID of the poll
    * @param optionId the ID of the option to vote for
    * @param user the user casting the vote
-   * @throws GroupNotFoundException if the group does not exist
    * @throws NotMemberException if the user is not a member of the group
    * @throws PollNotFoundException if the poll does not exist
    * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
    * @throws PollOptionNotFoundException if the poll option invalid
-   * @throws AlreadyVotedException if the user has already voted
+   * @throws PollClosedException if the poll's deadline has passed
+   * @throws AlreadyVotedException if the user has already voted; see {@link #changeBallot} and
+   *     {@link #retractBallot}
    */
+  @Transactional
   public void vote(Long groupId, Long pollId, Long optionId, User user) {
-    Group group =
-        groupRepository
-            .findById(groupId)
-            .orElseThrow(
-                () -> new GroupNotFoundException("Group with id " + groupId + " not found"));
+    castBallot(groupId, pollId, List.of(optionId), user);
+  }
 
-    if (groupMemberRepository.findByGroupAndUser(group, user).isEmpty()) {
-      throw new NotMemberException(group.getId(), user.getId());
+  /**
+   * Casts a ballot of a user in a poll: one option in a single choice poll, one or more options in
+   * a multiple choice poll, or options in order of preference in a ranked choice poll. Counts are
+   * updated incrementally in the same transaction, see {@link PollTallyService}.
+   *
+   * @param groupId the ID of the group containing the poll
+   * @param pollId the ID of the poll
+   * @param optionIds the options picked
+   * @param user the user casting the ballot
+   * @throws NotMemberException if the user is not a member of the group
+   * @throws PollNotFoundException if the poll does not exist
+   * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
+   * @throws PollOptionNotFoundException if an option is invalid
+   * @throws InvalidBallotException if an option is picked twice, or several in a single choice poll
+   * @throws PollClosedException if the poll's deadline has passed
+   * @throws AlreadyVotedException if the user has already voted
+   */
+  @Transactional
+  public void castBallot(Long groupId, Long pollId, List<Long> optionIds, User user) {
+    checkMember(groupId, user);
+    PollMeta poll = checkBallot(groupId, pollId, optionIds);
+    lockMember(groupId, user);
+    lockOpen(pollId);
+
+    if (!insertVote(poll, optionIds, user)) {
+      throw new AlreadyVotedException(pollId, user.getId());
     }
+    eventPublisher.publishEvent(
+        new PollChangedEvent(groupId, pollId, PollChangedEvent.Change.VOTED));
+  }
 
-    Poll poll =
-        pollRepository.findById(pollId).orElseThrow(() -> new PollNotFoundException(pollId));
+  /**
+   * Replaces a user's ballot in a poll. The vote is locked while it is changed, and only the
+   * counters of options that gain or lose the vote are adjusted, each with an atomic update, so
+   * concurrent changes never leave counts that differ from the stored ballots.
+   *
+   * @param groupId the ID of the group containing the poll
+   * @param pollId the ID of the poll
+   * @param optionIds the options of the new ballot
+   * @param user the user changing their ballot
+   * @throws NotMemberException if the user is not a member of the group
+   * @throws PollNotFoundException if the poll does not exist
+   * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
+   * @throws PollOptionNotFoundException if an option is invalid
+   * @throws InvalidBallotException if an option is picked twice, or several in a single choice poll
+   * @throws PollClosedException if the poll's deadline has passed
+   * @throws NotVotedException if the user has not voted in the poll
+   */
+  @Transactional
+  public void changeBallot(Long groupId, Long pollId, List<Long> optionIds, User user) {
+    checkMember(groupId, user);
+    PollMeta poll = checkBallot(groupId, pollId, optionIds);
+    lockMember(groupId, user);
+    lockOpen(pollId);
+
+    PollVote vote =
+        pollVoteRepository
+            .findForUpdate(pollId, user.getId())
+            .orElseThrow(() -> new NotVotedException(pollId, user.getId()));
+    List<Long> oldChoices = choicesOf(vote);
+    if (oldChoices.equals(optionIds)) {
+      return;
+    }
+    vote.setOption(pollOptionRepository.getReferenceById(optionIds.getFirst()));
+    vote.setChoices(
+        poll.type() == PollType.SINGLE_CHOICE ? null : PollTallyService.encode(optionIds));
+    pollTallyService.move(pollId, poll.type(), oldChoices, optionIds);
+    eventPublisher.publishEvent(
+        new PollChangedEvent(groupId, pollId, PollChangedEvent.Change.VOTED));
+  }
 
-    if (!poll.getGroup().getId().equals(groupId)) {
+  /**
+   * Withdraws a user's ballot in a poll, so they can vote again. The vote is locked while it is
+   * deleted, so a ballot retracted concurrently is only uncounted once.
+   *
+   * @param groupId the ID of the group containing the poll
+   * @param pollId the ID of the poll
+   * @param user the user retracting their ballot
+   * @throws NotMemberException if the user is not a member of the group
+   * @throws PollNotFoundException if the poll does not exist
+   * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
+   * @throws PollClosedException if the poll's deadline has passed
+   * @throws NotVotedException if the user has not voted in the poll
+   */
+  @Transactional
+  public void retractBallot(Long groupId, Long pollId, User user) {
+    checkMember(groupId, user);
+    PollMeta poll = checkPoll(groupId, pollId);
+    if (poll.isClosed(Instant.now())) {
+      throw new PollClosedException(pollId);
+    }
+    lockMember(groupId, user);
+    lockOpen(pollId);
+
+    PollVote vote =
+        pollVoteRepository
+            .findForUpdate(pollId, user.getId())
+            .orElseThrow(() -> new NotVotedException(pollId, user.getId()));
+    pollVoteRepository.delete(vote);
+    pollTallyService.record(pollId, poll.type(), choicesOf(vote), -1);
+    eventPublisher.publishEvent(
+        new PollChangedEvent(groupId, pollId, PollChangedEvent.Change.VOTED));
+  }
+
+  private static List<Long> choicesOf(PollVote vote) {
+    return vote.getChoices() != null
+        ? PollTallyService.decode(vote.getChoices())
+        : List.of(vote.getOption().getId());
+  }
+
+  /**
+   * Casts votes of one user in several polls of a group in a single transaction. All votes are
+   * checked before any is stored; votes in polls the user has already voted in are skipped.
+   *
+   * @param groupId the ID of the group containing the polls
+   * @param votes the votes to cast
+   * @param user the user casting the votes
+   * @return which votes were stored and which were skipped
+   * @throws NotMemberException if the user is not a member of the group
+   * @throws PollNotFoundException if a poll does not exist
+   * @throws PollDoesNotBelongToGroupException if a poll doesn't belong to the group
+   * @throws PollOptionNotFoundException if an option is invalid
+   * @throws PollClosedException if a poll's deadline has passed
+   */
+  @Transactional
+  public PollBatchVoteResultDto voteBatch(
+      Long groupId, List<PollBatchVoteRequestDto.Vote> votes, User user) {
+    checkMember(groupId, user);
+    List<PollMeta> polls = new ArrayList<>();
+    for (PollBatchVoteRequestDto.Vote vote : votes) {
+      polls.add(checkBallot(groupId, vote.pollId(), List.of(vote.optionId())));
+    }
+    lockMember(groupId, user);
+    polls.stream().map(PollMeta::id).distinct().forEach(this::lockOpen);
+
+    List<Long> accepted = new ArrayList<>();
+    List<Long> alreadyVoted = new ArrayList<>();
+    for (int i = 0; i < votes.size(); i++) {
+      PollBatchVoteRequestDto.Vote vote = votes.get(i);
+      if (insertVote(polls.get(i), List.of(vote.optionId()), user)) {
+        accepted.add(vote.pollId());
+      } else {
+        alreadyVoted.add(vote.pollId());
+      }
+    }
+    accepted.forEach(
+        pollId ->
+            eventPublisher.publishEvent(
+                new PollChangedEvent(groupId, pollId, PollChangedEvent.Change.VOTED)));
+    return new PollBatchVoteResultDto(accepted, alreadyVoted);
+  }
+
+  private void checkMember(Long groupId, User user) {
+    if (!pollAccessCache.isMember(groupId, user.getId())) {
+      throw new NotMemberException(groupId, user.getId());
+    }
+  }
+
+  private PollMeta checkPoll(Long groupId, Long pollId) {
+    PollMeta poll =
+        pollAccessCache.findPoll(pollId).orElseThrow(() -> new PollNotFoundException(pollId));
+    if (!poll.groupId().equals(groupId)) {
       throw new PollDoesNotBelongToGroupException(
           "pollId: " + pollId + " does not belong to groupId: " + groupId);
     }
+    return poll;
+  }
 
-    PollOption option =
-        poll.getOptions().stream()
-            .filter(o -> o.getId().equals(optionId))
-            .findFirst()
-            .orElseThrow(
-                () ->
-                    new PollOptionNotFoundException(
-                        "optionId: " + optionId + " not found in pollId: " + pollId));
-
-    if (pollVoteRepository.existsByOption_PollAndUser(poll, user)) {
-      throw new AlreadyVotedException(pollId, user.getId());
+  private PollMeta checkBallot(Long groupId, Long pollId, List<Long> optionIds) {
+    PollMeta poll = checkPoll(groupId, pollId);
+    for (Long optionId : optionIds) {
+      if (!poll.optionIds().contains(optionId)) {
+        throw new PollOptionNotFoundException(
+            "optionId: " + optionId + " not found in pollId: " + pollId);
+      }
+    }
+    if (new HashSet<>(optionIds).size() != optionIds.size()) {
+      throw new InvalidBallotException(pollId, "an option is picked more than once");
+    }
+    if (poll.type() == PollType.SINGLE_CHOICE && optionIds.size() != 1) {
+      throw new InvalidBallotException(pollId, "a single choice poll takes exactly one option");
+    }
+    if (poll.isClosed(Instant.now())) {
+      throw new PollClosedException(pollId);
     }
+    return poll;
+  }
 
-    PollVote vote = PollVote.builder().option(option).user(user).build();
+  /**
+   * Keeps a member from being removed until the vote's transaction ends, see {@link
+   * GroupMemberRepository#lockMembership}. {@link #checkMember} may answer from a cache that other
+   * instances do not evict; this rejects votes of members removed meanwhile.
+   *
+   * @throws NotMemberException if the user is no longer a member of the group
+   */
+  private void lockMember(Long groupId, User user) {
+    if (groupMemberRepository.lockMembership(groupId, user.getId()).isEmpty()) {
+      pollAccessCache.evictMembership(groupId, user.getId());
+      throw new NotMemberException(groupId, user.getId());
+    }
+  }
 
-    if (option.getVotes() == null) {
-      option.setVotes(new ArrayList<>());
+  /**
+   * Keeps a poll from being closed until the vote's transaction ends, see {@link
+   * PollRepository#lockOpen}. The cached metadata only rejects votes after the deadline; this also
+   * rejects votes that lost the race against closing, so they never change frozen results.
+   *
+   * @throws PollClosedException if the poll was closed meanwhile
+   */
+  private void lockOpen(Long pollId) {
+    if (pollRepository.lockOpen(pollId, Instant.now()).isEmpty()) {
+      pollAccessCache.evictPoll(pollId);
+      throw new PollClosedException(pollId);
     }
-    option.getVotes().add(vote);
+  }
 
-    pollVoteRepository.save(vote);
+  /**
+   * Stores a ballot and counts it, unless the user has already voted in the poll.
+   *
+   * @throws PollOptionNotFoundException if the poll or the option was deleted after its metadata
+   *     was cached
+   */
+  private boolean insertVote(PollMeta poll, List<Long> optionIds, User user) {
+    long voteId = SnowflakeIdGenerator.next();
+    String choices =
+        poll.type() == PollType.SINGLE_CHOICE ? null : PollTallyService.encode(optionIds);
+    int inserted;
+    try {
+      inserted =
+          pollVoteRepository.insertIfAbsent(
+              voteId, poll.id(), optionIds.getFirst(), user.getId(), choices);
+    } catch (DataIntegrityViolationException e) {
+      // deleted or edited on another instance; the next request sees the current poll
+      pollAccessCache.evictPoll(poll.id());
+      throw new PollOptionNotFoundException(
+          "optionId: " + optionIds.getFirst() + " no longer exists in pollId: " + poll.id());
+    }
+    if (inserted == 0) {
+      return false;
+    }
+    pollTallyService.record(poll.id(), poll.type(), optionIds, 1);
+    return true;
   }
 
   /**
@@ -191,10 +626,13 @@ public class PollService {
    * @throws PollNotFoundException if the poll does not exist
    * @throws UnauthorizedException if the user is not the author
    * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
+   * @throws PollClosedException if the poll has been closed
    */
+  @Transactional
   public Poll updatePoll(Long groupId, Long pollId, User user, PollRequestDto pollDto) {
+    // locked, so no vote for an option about to be replaced commits in between
     Poll poll =
-        pollRepository.findById(pollId).orElseThrow(() -> new PollNotFoundException(pollId));
+        pollRepository.findForUpdate(pollId).orElseThrow(() -> new PollNotFoundException(pollId));
 
     if (!poll.getGroup().getId().equals(groupId)) {
       throw new PollDoesNotBelongToGroupException(
@@ -205,13 +643,20 @@ public class PollService {
       throw new UnauthorizedException("Only the author can edit the poll");
     }
 
+    if (poll.getClosedAt() != null) {
+      throw new PollClosedException(pollId);
+    }
+
     Instant deadlineInstant =
         pollDto.getDeadline() != null ? pollDto.getDeadline().toInstant() : null;
 
     poll.setQuestion(pollDto.getQuestion());
     poll.setDeadline(deadlineInstant);
     poll.setAnonymous(pollDto.isAnonymous());
+    poll.setType(typeOf(pollDto));
 
+    // replacing the options discards their votes, so counting starts over at zero
+    pollVoteRepository.deleteByPollId(pollId);
     poll.getOptions().clear();
 
     List<PollOption> newOptions =
@@ -221,7 +666,11 @@ public class PollService {
 
     poll.getOptions().addAll(newOptions);
 
-    return pollRepository.save(poll);
+    Poll saved = pollRepository.save(poll);
+    pollTallyService.reset(pollId, saved.getType());
+    eventPublisher.publishEvent(
+        new PollChangedEvent(groupId, pollId, PollChangedEvent.Change.UPDATED));
+    return saved;
   }
 
   /**
@@ -234,9 +683,10 @@ public class PollService {
    * @throws UnauthorizedException if the user is not the author
    * @throws PollDoesNotBelongToGroupException if the poll doesn't belong to the group
    */
+  @Transactional
   public void deletePoll(Long groupId, Long pollId, User user) {
     Poll poll =
-        pollRepository.findById(pollId).orElseThrow(() -> new PollNotFoundException(pollId));
+        pollRepository.findForUpdate(pollId).orElseThrow(() -> new PollNotFoundException(pollId));
 
     if (!poll.getGroup().getId().equals(groupId)) {
       throw new PollDoesNotBelongToGroupException(
@@ -247,6 +697,11 @@ public class PollService {
       throw new UnauthorizedException("Only the author can delete the poll");
     }
 
+    pollCloseService.deleteSnapshot(pollId);
+    pollTallyService.delete(pollId);
+    pollVoteRepository.deleteByPollId(pollId);
     pollRepository.delete(poll);
+    eventPublisher.publishEvent(
+        new PollChangedEvent(groupId, pollId, PollChangedEvent.Change.DELETED));
   }
 }
@@ -0,0 +1,342 @@
+package vaultWeb.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.dtos.PollResultsDto.OptionTally;
+import vaultWeb.models.PollRankingCount;
+import vaultWeb.models.PollTally;
+import vaultWeb.models.enums.PollType;
+import vaultWeb.repositories.IdCount;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionTally;
+import vaultWeb.repositories.PollRankingCountRepository;
+import vaultWeb.repositories.PollTallyRepository;
+
+/**
+ * Keeps the running tally of polls up to date as ballots are cast, so results are never computed by
+ * recounting ballots.
+ *
+ * <p>Every ballot change adjusts counters with atomic updates in the transaction that stores the
+ * ballot: the vote count of every picked option (of the first choice in a ranked choice poll), the
+ * ballot count of the poll's {@link PollTally}, and for ranked choice polls the number of ballots
+ * sharing the ballot's ranking in {@link PollRankingCount}. A changed ballot is recorded as one
+ * move that only touches the counters it changes. Counters are always updated option rows first, in
+ * id order, then the tally, then the rankings, so concurrent ballots lock rows in the same order.
+ *
+ * <p>Instant-runoff rounds are computed from the ranking counts, which are bounded by the number of
+ * distinct rankings rather than the number of ballots, and stored on the tally with the version
+ * they were computed for. They are recomputed on the first read after ballots changed, and
+ * otherwise served as stored, including after a restart and forever once the poll is closed.
+ */
+@Service
+@RequiredArgsConstructor
+public class PollTallyService {
+
+  private final PollOptionRepository pollOptionRepository;
+  private final PollTallyRepository tallyRepository;
+  private final PollRankingCountRepository rankingRepository;
+  private final PlatformTransactionManager transactionManager;
+
+  /** Encodes the choices of a ballot as stored in votes and ranking counts. */
+  static String encode(List<Long> choices) {
+    return choices.stream().map(String::valueOf).collect(Collectors.joining(","));
+  }
+
+  static List<Long> decode(String choices) {
+    return Arrays.stream(choices.split(",")).map(Long::valueOf).toList();
+  }
+
+  /** Starts the tally of a new poll. Single choice polls need none. */
+  @Transactional
+  public void create(Long pollId, PollType type) {
+    if (type != PollType.SINGLE_CHOICE) {
+      tallyRepository.insertEmpty(pollId);
+    }
+  }
+
+  /**
+   * Records a ballot being cast or withdrawn. Runs in the caller's transaction, which must be the
+   * one storing or deleting the ballot.
+   *
+   * @param pollId the poll
+   * @param type the poll's type
+   * @param choices the options picked, in order of preference
+   * @param delta 1 for a cast ballot, -1 for a withdrawn one
+   */
+  @Transactional
+  public void record(Long pollId, PollType type, List<Long> choices, long delta) {
+    if (delta > 0) {
+      apply(pollId, type, List.of(), choices);
+    } else {
+      apply(pollId, type, choices, List.of());
+    }
+  }
+
+  /**
+   * Records a ballot being replaced by another ballot of the same voter. Only counters that change
+   * are updated, each by a single atomic update, so moving a vote costs at most two option updates
+   * and never reads a count. Runs in the caller's transaction, which must be the one changing the
+   * ballot.
+   *
+   * @param pollId the poll
+   * @param type the poll's type
+   * @param oldChoices the options of the replaced ballot
+   * @param newChoices the options of the new ballot
+   */
+  @Transactional
+  public void move(Long pollId, PollType type, List<Long> oldChoices, List<Long> newChoices) {
+    apply(pollId, type, oldChoices, newChoices);
+  }
+
+  /** Withdraws one ballot and casts another; either may be empty. */
+  private void apply(Long pollId, PollType type, List<Long> removed, List<Long> added) {
+    // sorted, so concurrent ballots lock option rows in the same order
+    Map<Long, Long> optionDeltas = new TreeMap<>();
+    countedOptions(type, removed).forEach(id -> optionDeltas.merge(id, -1L, Long::sum));
+    countedOptions(type, added).forEach(id -> optionDeltas.merge(id, 1L, Long::sum));
+    optionDeltas.forEach(
+        (optionId, delta) -> {
+          if (delta != 0) {
+            pollOptionRepository.addVotes(optionId, delta);
+          }
+        });
+    if (type == PollType.SINGLE_CHOICE) {
+      return;
+    }
+
+    long ballots = (added.isEmpty() ? 0 : 1) - (removed.isEmpty() ? 0 : 1);
+    if (type == PollType.MULTIPLE_CHOICE && ballots == 0) {
+      return;
+    }
+    // also advances the version, so a ranked poll's runoff is recounted
+    addBallots(pollId, ballots);
+    if (type == PollType.RANKED_CHOICE) {
+      Map<String, Long> rankingDeltas = new TreeMap<>();
+      if (!removed.isEmpty()) {
+        rankingDeltas.merge(encode(removed), -1L, Long::sum);
+      }
+      if (!added.isEmpty()) {
+        rankingDeltas.merge(encode(added), 1L, Long::sum);
+      }
+      rankingDeltas.forEach(
+          (ranking, delta) -> {
+            if (delta != 0 && rankingRepository.addBallots(pollId, ranking, delta) == 0) {
+              rankingRepository.insertEmpty(pollId, ranking);
+              rankingRepository.addBallots(pollId, ranking, delta);
+            }
+          });
+    }
+  }
+
+  /** Returns the options a ballot adds a vote to: all picked ones, or the first choice. */
+  private static List<Long> countedOptions(PollType type, List<Long> choices) {
+    return type == PollType.RANKED_CHOICE && !choices.isEmpty()
+        ? List.of(choices.getFirst())
+        : choices;
+  }
+
+  private void addBallots(Long pollId, long delta) {
+    if (tallyRepository.addBallots(pollId, delta) == 0) {
+      // polls created before they had a type carry no tally
+      tallyRepository.insertEmpty(pollId);
+      tallyRepository.addBallots(pollId, delta);
+    }
+  }
+
+  /**
+   * Returns the number of ballots of those of the given polls that have a tally, i.e. of the
+   * multiple and ranked choice polls among them.
+   */
+  public Map<Long, Long> findBallots(Collection<Long> pollIds) {
+    return tallyRepository.findBallots(pollIds).stream()
+        .collect(Collectors.toMap(IdCount::id, IdCount::count));
+  }
+
+  /**
+   * Starts the tally of a poll whose options were replaced, which removed all of its ballots. Runs
+   * in the caller's transaction.
+   */
+  @Transactional
+  public void reset(Long pollId, PollType type) {
+    rankingRepository.deleteByPollId(pollId);
+    tallyRepository
+        .findById(pollId)
+        .ifPresentOrElse(
+            tally -> {
+              if (type == PollType.SINGLE_CHOICE) {
+                tallyRepository.delete(tally);
+              } else {
+                tally.setBallots(0);
+                tally.setVersion(tally.getVersion() + 1);
+              }
+            },
+            () -> create(pollId, type));
+  }
+
+  /** Deletes the tally of a poll that is being deleted. Runs in the caller's transaction. */
+  @Transactional
+  public void delete(Long pollId) {
+    rankingRepository.deleteByPollId(pollId);
+    if (tallyRepository.existsById(pollId)) {
+      tallyRepository.deleteById(pollId);
+    }
+  }
+
+  /**
+   * Returns the instant-runoff count of a ranked choice poll, recomputing and storing it if ballots
+   * changed since it was last computed.
+   *
+   * @param pollId the poll
+   * @return the runoff, or {@code null} if the poll has no tally
+   */
+  public PollResultsDto.Runoff getRunoff(Long pollId) {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    PollResultsDto.Runoff stored =
+        readOnly.execute(
+            status ->
+                tallyRepository
+                    .findById(pollId)
+                    .filter(tally -> tally.getComputedVersion() == tally.getVersion())
+                    .map(PollTallyService::toRunoff)
+                    .orElse(null));
+    if (stored != null) {
+      return stored;
+    }
+    return new TransactionTemplate(transactionManager).execute(status -> recompute(pollId));
+  }
+
+  private PollResultsDto.Runoff recompute(Long pollId) {
+    // the lock keeps ballots from changing, and concurrent readers from storing the same rounds
+    PollTally tally = tallyRepository.findForUpdate(pollId).orElse(null);
+    if (tally == null) {
+      return null;
+    }
+    if (tally.getComputedVersion() == tally.getVersion()) {
+      return toRunoff(tally);
+    }
+
+    List<Long> optionIds =
+        pollOptionRepository.findTallies(List.of(pollId)).stream()
+            .map(PollOptionTally::optionId)
+            .toList();
+    Map<List<Long>, Long> rankings = new LinkedHashMap<>();
+    for (PollRankingCount count : rankingRepository.findByPollIdAndBallotsGreaterThan(pollId, 0)) {
+      rankings.put(decode(count.getRanking()), count.getBallots());
+    }
+    PollResultsDto.Runoff runoff = countRunoff(optionIds, rankings);
+
+    tally.getRounds().clear();
+    for (int round = 0; round < runoff.rounds().size(); round++) {
+      PollResultsDto.Round counted = runoff.rounds().get(round);
+      for (OptionTally option : counted.options()) {
+        tally
+            .getRounds()
+            .add(
+                new PollTally.RoundCount(
+                    round,
+                    option.optionId(),
+                    option.voteCount(),
+                    option.optionId().equals(counted.eliminatedOptionId())));
+      }
+    }
+    tally.setWinnerOptionId(runoff.winnerOptionId());
+    tally.setComputedVersion(tally.getVersion());
+    return runoff;
+  }
+
+  private static PollResultsDto.Runoff toRunoff(PollTally tally) {
+    List<PollResultsDto.Round> rounds = new ArrayList<>();
+    List<OptionTally> options = new ArrayList<>();
+    Long eliminated = null;
+    int current = 0;
+    for (PollTally.RoundCount count : tally.getRounds()) {
+      if (count.getRound() != current) {
+        rounds.add(new PollResultsDto.Round(options, eliminated));
+        options = new ArrayList<>();
+        eliminated = null;
+        current = count.getRound();
+      }
+      options.add(new OptionTally(count.getOptionId(), count.getVotes()));
+      if (count.isEliminated()) {
+        eliminated = count.getOptionId();
+      }
+    }
+    if (!options.isEmpty()) {
+      rounds.add(new PollResultsDto.Round(options, eliminated));
+    }
+    return new PollResultsDto.Runoff(rounds, tally.getWinnerOptionId());
+  }
+
+  /**
+   * Counts instant-runoff rounds. Each round, every ballot counts for its highest ranked option
+   * still in the count; an option with more than half of these ballots wins, otherwise the option
+   * with the fewest votes is eliminated, of tied options the one created last.
+   *
+   * @param optionIds the poll's options in creation order
+   * @param rankings the number of ballots per ranking
+   * @return the rounds and the winner, if there is one
+   */
+  static PollResultsDto.Runoff countRunoff(List<Long> optionIds, Map<List<Long>, Long> rankings) {
+    if (rankings.isEmpty()) {
+      return new PollResultsDto.Runoff(List.of(), null);
+    }
+    Set<Long> remaining = new LinkedHashSet<>(optionIds);
+    List<PollResultsDto.Round> rounds = new ArrayList<>();
+    while (!remaining.isEmpty()) {
+      Map<Long, Long> votes = new LinkedHashMap<>();
+      remaining.forEach(optionId -> votes.put(optionId, 0L));
+      long continuing = 0;
+      for (Map.Entry<List<Long>, Long> ranking : rankings.entrySet()) {
+        for (Long choice : ranking.getKey()) {
+          if (remaining.contains(choice)) {
+            votes.merge(choice, ranking.getValue(), Long::sum);
+            continuing += ranking.getValue();
+            break;
+          }
+        }
+      }
+      List<OptionTally> options =
+          votes.entrySet().stream()
+              .map(entry -> new OptionTally(entry.getKey(), entry.getValue()))
+              .toList();
+
+      Long leader = null;
+      Long last = null;
+      for (OptionTally option : options) {
+        if (leader == null || option.voteCount() > votes.get(leader)) {
+          leader = option.optionId();
+        }
+        if (last == null || option.voteCount() <= votes.get(last)) {
+          last = option.optionId();
+        }
+      }
+      if (continuing == 0) {
+        // every remaining ballot ranks only eliminated options
+        rounds.add(new PollResultsDto.Round(options, null));
+        return new PollResultsDto.Runoff(rounds, null);
+      }
+      if (votes.get(leader) * 2 > continuing) {
+        rounds.add(new PollResultsDto.Round(options, null));
+        return new PollResultsDto.Runoff(rounds, leader);
+      }
+      rounds.add(new PollResultsDto.Round(options, last));
+      remaining.remove(last);
+    }
+    return new PollResultsDto.Runoff(rounds, null);
+  }
+}
@@ -1,17 +1,26 @@
 package vaultWeb.services;
 
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vaultWeb.dtos.PrivateChatDto;
+import vaultWeb.events.ChatMessagesDeletedEvent;
+import vaultWeb.events.GroupChangedEvent;
+import vaultWeb.events.PrivateChatChangedEvent;
 import vaultWeb.exceptions.notfound.PrivateChatNotFoundException;
 import vaultWeb.exceptions.notfound.UserNotFoundException;
+import vaultWeb.models.ConversationSummary;
 import vaultWeb.models.Group;
 import vaultWeb.models.GroupMember;
 import vaultWeb.models.PrivateChat;
@@ -20,6 +29,7 @@ import vaultWeb.models.enums.Role;
 import vaultWeb.repositories.ChatMessageRepository;
 import vaultWeb.repositories.GroupMemberRepository;
 import vaultWeb.repositories.GroupRepository;
+import vaultWeb.repositories.IdCount;
 import vaultWeb.repositories.PrivateChatRepository;
 import vaultWeb.repositories.UserRepository;
 
@@ -39,6 +49,8 @@ public class PrivateChatService {
   private final UserRepository userRepository;
   private final GroupRepository groupRepository;
   private final GroupMemberRepository groupMemberRepository;
+  private final ConversationSummaryService summaryService;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Retrieves an existing private chat between two users or creates a new one if none exists.
@@ -75,7 +87,10 @@ public class PrivateChatService {
     privateChat.setUser2(user2);
 
     // Save and return the new private chat
-    return privateChatRepository.save(privateChat);
+    privateChat = privateChatRepository.save(privateChat);
+    eventPublisher.publishEvent(
+        new PrivateChatChangedEvent(privateChat.getId(), user1.getId(), user2.getId()));
+    return privateChat;
   }
 
   @Transactional
@@ -101,7 +116,18 @@ public class PrivateChatService {
             "You are not allowed to delete a private chat with this id " + privateChatId);
       }
 
+      Map<Long, Long> deletedBySender =
+          chatMessageRepository.countByPrivateChatGroupedBySender(privateChatId).stream()
+              .collect(Collectors.toMap(IdCount::id, IdCount::count));
+      List<Long> messageIds = chatMessageRepository.findIdsByPrivateChatId(privateChatId);
       int count = chatMessageRepository.deleteByPrivateChat(chat);
+      summaryService.clearPrivateChat(privateChatId);
+      if (!messageIds.isEmpty()) {
+        eventPublisher.publishEvent(new ChatMessagesDeletedEvent(deletedBySender, messageIds));
+      }
+      eventPublisher.publishEvent(
+          new PrivateChatChangedEvent(
+              privateChatId, chat.getUser1().getId(), chat.getUser2().getId()));
       totalCount += count;
       log.info("Cleared {} messages from private chat {}", count, privateChatId);
     }
@@ -116,6 +142,43 @@ public class PrivateChatService {
     return privateChatRepository.findByUser1OrUser2(user, user);
   }
 
+  /**
+   * Returns the private chats of a user with their latest activity, most recently active first.
+   * Reads the conversation summaries instead of the messages, so the cost does not depend on how
+   * long the chats are.
+   *
+   * @param username the user
+   * @return the user's chats; chats without messages come last
+   * @throws UserNotFoundException if the user does not exist
+   */
+  @Transactional(readOnly = true)
+  public List<PrivateChatDto> getUserPrivateChatOverviews(String username) {
+    User user =
+        userRepository
+            .findByUsername(username)
+            .orElseThrow(() -> new UserNotFoundException("User not found: " + username));
+    List<PrivateChat> chats = privateChatRepository.findAllWithParticipantsByUser(user);
+    Map<Long, ConversationSummary> summaries =
+        summaryService.findPrivateChatSummaries(chats.stream().map(PrivateChat::getId).toList());
+
+    return chats.stream()
+        .map(
+            chat -> {
+              ConversationSummary summary = summaries.get(chat.getId());
+              return new PrivateChatDto(
+                  chat.getId(),
+                  chat.getUser1().getUsername(),
+                  chat.getUser2().getUsername(),
+                  summary != null ? summary.getLastMessageId() : null,
+                  summary != null ? summary.getLastActivityAt() : null,
+                  summary != null ? summary.getMessageCount() : 0);
+            })
+        .sorted(
+            Comparator.comparing(
+                PrivateChatDto::lastActivityAt, Comparator.nullsLast(Comparator.reverseOrder())))
+        .toList();
+  }
+
   @Transactional
   public Long createGroupFromChats(
       List<Long> privateChatIds, String groupName, String description, String currentUserName) {
@@ -163,6 +226,7 @@ public class PrivateChatService {
               .role((participant.equals(creator)) ? Role.ADMIN : Role.USER)
               .build();
       groupMemberRepository.save(groupMember);
+      eventPublisher.publishEvent(new GroupChangedEvent(group.getId(), participant.getId()));
     }
     return group.getId();
   }
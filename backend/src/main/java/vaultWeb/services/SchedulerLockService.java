@@ -0,0 +1,60 @@
+package vaultWeb.services;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import vaultWeb.models.SchedulerLock;
+import vaultWeb.repositories.SchedulerLockRepository;
+
+/**
+ * Lets a scheduled job run on one instance only, through a lease row per job in {@link
+ * SchedulerLock}.
+ *
+ * <p>A lease is not released when the job ends but expires on its own, so instances whose cron
+ * fires a little later do not run the job again; a crashed instance blocks the job for at most one
+ * lease.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchedulerLockService {
+
+  /** Identifies this instance in leases. */
+  static final String OWNER = ManagementFactory.getRuntimeMXBean().getName();
+
+  private final SchedulerLockRepository lockRepository;
+  private final PlatformTransactionManager transactionManager;
+
+  /**
+   * Takes the lease of a job, unless another instance holds it.
+   *
+   * @param name the job
+   * @param lease how long the lease is held; longer than the job takes and shorter than its
+   *     interval
+   * @return whether this instance may run the job
+   */
+  public boolean tryLock(String name, Duration lease) {
+    // in its own transaction, so the lease is visible to other instances right away
+    TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    try {
+      Integer acquired =
+          requiresNew.execute(
+              status -> {
+                Instant now = Instant.now();
+                lockRepository.insertIfAbsent(name, Instant.EPOCH);
+                return lockRepository.acquire(name, now, now.plus(lease), OWNER);
+              });
+      return acquired != null && acquired == 1;
+    } catch (RuntimeException e) {
+      log.warn("Could not take the lock of job {}: {}", name, e.getMessage());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package vaultWeb.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vaultWeb.security.EncryptionUtil;
+import vaultWeb.security.MessagePayloadCodec;
+
+/**
+ * Measures what compress-then-encrypt ({@link MessagePayloadCodec}) costs and saves compared to
+ * encrypting plain UTF-8, on a generated corpus of chat lines, longer prose messages and pasted
+ * logs.
+ *
+ * <p>{@link #main} first prints the storage ratio per corpus, then runs the CPU benchmarks. Not
+ * part of the test suite; run it from the IDE, or after {@code mvn test-compile} with the test
+ * classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+  private static final String KEY = "aRvdZ53Fuwf7nfoT4+VeKPYi4XOhpTSh4eshUfZIgVs=";
+
+  private static final String[] WORDS = {
+    "the",
+    "deploy",
+    "is",
+    "done",
+    "can",
+    "you",
+    "check",
+    "staging",
+    "again",
+    "meeting",
+    "at",
+    "three",
+    "thanks",
+    "looks",
+    "good",
+    "to",
+    "me",
+    "I",
+    "think",
+    "we",
+    "should",
+    "roll",
+    "back",
+    "the",
+    "migration",
+    "first",
+    "ticket",
+    "sprint",
+    "review",
+    "lunch",
+    "later",
+    "ok",
+    "sure",
+    "database",
+    "is",
+    "slow",
+    "today",
+    "customer",
+    "reported",
+    "an",
+    "error",
+    "with",
+    "login"
+  };
+
+  @Param({"chat", "prose", "log"})
+  private String corpus;
+
+  private EncryptionUtil encryptionUtil;
+  private MessagePayloadCodec codec;
+  private List<String> messages;
+  private List<byte[]> encodedPayloads;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    encryptionUtil = new EncryptionUtil(KEY);
+    codec = new MessagePayloadCodec(true, 256);
+    messages = corpus(corpus, new Random(42));
+    encodedPayloads = messages.stream().map(codec::encode).toList();
+  }
+
+  private String nextMessage() {
+    next = (next + 1) % messages.size();
+    return messages.get(next);
+  }
+
+  @Benchmark
+  public Object encryptPlain() throws Exception {
+    return encryptionUtil.encrypt(nextMessage().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  public Object compressAndEncrypt() throws Exception {
+    return encryptionUtil.encrypt(codec.encode(nextMessage()));
+  }
+
+  @Benchmark
+  public String decode() {
+    next = (next + 1) % encodedPayloads.size();
+    return codec.decode(encodedPayloads.get(next));
+  }
+
+  static List<String> corpus(String kind, Random random) {
+    List<String> messages = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      messages.add(
+          switch (kind) {
+            case "chat" -> sentence(random, 3 + random.nextInt(15));
+            case "prose" -> paragraph(random, 4 + random.nextInt(12));
+            case "log" -> stackTrace(random, 20 + random.nextInt(60));
+            default -> throw new IllegalArgumentException(kind);
+          });
+    }
+    return messages;
+  }
+
+  private static String sentence(Random random, int words) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < words; i++) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return sb.append(random.nextBoolean() ? "." : "?").toString();
+  }
+
+  private static String paragraph(Random random, int sentences) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < sentences; i++) {
+      sb.append(sentence(random, 8 + random.nextInt(12))).append(' ');
+    }
+    return sb.toString().trim();
+  }
+
+  private static String stackTrace(Random random, int frames) {
+    StringBuilder sb =
+        new StringBuilder(
+            String.format(
+                "2026-10-16 12:%02d:%02d.%03d ERROR %d --- [nio-8080-exec-%d] o.a.c.c.C.[.[.[/]"
+                    + ".[dispatcherServlet] : Servlet.service() threw exception%n",
+                random.nextInt(60),
+                random.nextInt(60),
+                random.nextInt(1000),
+                1000 + random.nextInt(9000),
+                1 + random.nextInt(10)));
+    sb.append("java.lang.IllegalStateException: Request ")
+        .append(Long.toHexString(random.nextLong()))
+        .append(" failed\n");
+    String[] packages = {"vaultWeb.services", "org.springframework.web", "org.hibernate.engine"};
+    for (int i = 0; i < frames; i++) {
+      String pkg = packages[random.nextInt(packages.length)];
+      sb.append("\tat ")
+          .append(pkg)
+          .append(".Handler")
+          .append(random.nextInt(20))
+          .append(".invoke(Handler")
+          .append(random.nextInt(20))
+          .append(".java:")
+          .append(20 + random.nextInt(400))
+          .append(")\n");
+    }
+    return sb.toString();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    MessagePayloadCodec codec = new MessagePayloadCodec(true, 256);
+    for (String kind : new String[] {"chat", "prose", "log"}) {
+      long raw = 0;
+      long encoded = 0;
+      for (String message : corpus(kind, new Random(42))) {
+        raw += message.getBytes(StandardCharsets.UTF_8).length;
+        encoded += codec.encode(message).length;
+      }
+      System.out.printf(
+          "%-5s raw %,10d bytes, encoded %,10d bytes, ratio %.2f%n",
+          kind, raw, encoded, (double) encoded / raw);
+    }
+    new Runner(new OptionsBuilder().include(CompressionBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
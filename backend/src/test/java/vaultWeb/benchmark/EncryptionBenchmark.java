@@ -0,0 +1,125 @@
+package vaultWeb.benchmark;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vaultWeb.security.EncryptionUtil;
+
+/**
+ * Compares {@link EncryptionUtil} with the previous implementation, which looked up a new {@link
+ * Cipher} per call and shared one {@link SecureRandom} across all threads.
+ *
+ * <p>Runs on all available cores ({@code @Threads(Threads.MAX)}), since the contention on the
+ * shared random and the per-call setup only show under concurrency. Not part of the test suite; run
+ * {@link #main} from the IDE, or after {@code mvn test-compile} with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class EncryptionBenchmark {
+
+  private static final String KEY = "aRvdZ53Fuwf7nfoT4+VeKPYi4XOhpTSh4eshUfZIgVs=";
+
+  /** Typical chat message sizes in characters. */
+  @Param({"64", "1024"})
+  private int length;
+
+  private EncryptionUtil current;
+  private LegacyEncryption legacy;
+  private String plaintext;
+  private EncryptionUtil.EncryptResult encrypted;
+  private EncryptionUtil.EncryptedBytes encryptedBytes;
+
+  @Setup
+  public void setUp() throws Exception {
+    current = new EncryptionUtil(KEY);
+    legacy = new LegacyEncryption(KEY);
+    plaintext = "x".repeat(length);
+    encrypted = current.encrypt(plaintext);
+    encryptedBytes = current.encrypt(plaintext.getBytes());
+  }
+
+  @Benchmark
+  public Object legacyEncrypt() throws Exception {
+    return legacy.encrypt(plaintext);
+  }
+
+  @Benchmark
+  public Object encrypt() throws Exception {
+    return current.encrypt(plaintext);
+  }
+
+  @Benchmark
+  public String legacyDecrypt() throws Exception {
+    return legacy.decrypt(encrypted.cipherTextBase64, encrypted.ivBase64);
+  }
+
+  @Benchmark
+  public String decrypt() throws Exception {
+    return current.decrypt(encrypted.cipherTextBase64, encrypted.ivBase64);
+  }
+
+  @Benchmark
+  public byte[] decryptBytes() throws Exception {
+    return current.decrypt(encryptedBytes.cipherText(), encryptedBytes.iv());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(EncryptionBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  /** The implementation before per-thread ciphers, kept here as the baseline. */
+  private static final class LegacyEncryption {
+
+    private static final SecureRandom secureRandom = new SecureRandom();
+
+    private final SecretKey key;
+
+    LegacyEncryption(String base64Key) {
+      key = new SecretKeySpec(Base64.getDecoder().decode(base64Key), "AES");
+    }
+
+    String[] encrypt(String plaintext) throws Exception {
+      byte[] iv = new byte[12];
+      secureRandom.nextBytes(iv);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+      byte[] cipherText = cipher.doFinal(plaintext.getBytes());
+      return new String[] {
+        Base64.getEncoder().encodeToString(cipherText), Base64.getEncoder().encodeToString(iv)
+      };
+    }
+
+    String decrypt(String base64CipherText, String base64Iv) throws Exception {
+      byte[] cipherText = Base64.getDecoder().decode(base64CipherText);
+      byte[] iv = Base64.getDecoder().decode(base64Iv);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, iv));
+      return new String(cipher.doFinal(cipherText));
+    }
+  }
+}
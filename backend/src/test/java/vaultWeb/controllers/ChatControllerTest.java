@@ -0,0 +1,80 @@
+package vaultWeb.controllers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import vaultWeb.dtos.ChatMessageDto;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.Group;
+import vaultWeb.models.User;
+import vaultWeb.services.ChatReferenceResolver;
+import vaultWeb.services.ChatReferenceResolver.SenderRef;
+import vaultWeb.services.ChatService;
+
+@ExtendWith(MockitoExtension.class)
+class ChatControllerTest {
+
+  @Mock private SimpMessagingTemplate messagingTemplate;
+
+  @Mock private ChatService chatService;
+
+  @Mock private ChatReferenceResolver referenceResolver;
+
+  @InjectMocks private ChatController chatController;
+
+  @Test
+  void shouldBroadcastGroupMessage_AsFlatDtoWithoutCiphertext() {
+    User sender = new User();
+    sender.setId(7L);
+    Group group = new Group();
+    group.setId(10L);
+    ChatMessage saved =
+        ChatMessage.builder()
+            .id(99L)
+            .sender(sender)
+            .group(group)
+            .cipherText("secret")
+            .iv("iv")
+            .timestamp(Instant.parse("2025-01-01T00:00:00Z"))
+            .build();
+    ChatMessageDto incoming = new ChatMessageDto();
+    incoming.setContent("hello");
+    incoming.setGroupId(10L);
+    when(chatService.saveMessage(incoming)).thenReturn(saved);
+    when(referenceResolver.findSenderById(7L)).thenReturn(Optional.of(new SenderRef(7L, "alice")));
+
+    chatController.sendMessage(incoming);
+
+    ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate).convertAndSend(eq("/topic/group/10"), payload.capture());
+    JsonNode json = new ObjectMapper().valueToTree(payload.getValue());
+    Set<String> fields = new HashSet<>();
+    json.fieldNames().forEachRemaining(fields::add);
+    assertEquals(
+        Set.of(
+            "id", "content", "timestamp", "groupId", "privateChatId", "senderId", "senderUsername"),
+        fields);
+    assertEquals(99L, json.get("id").asLong());
+    assertEquals("hello", json.get("content").asText());
+    assertEquals("2025-01-01T00:00:00Z", json.get("timestamp").asText());
+    assertEquals(7L, json.get("senderId").asLong());
+    assertEquals("alice", json.get("senderUsername").asText());
+    assertEquals(10L, json.get("groupId").asLong());
+    verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+  }
+}
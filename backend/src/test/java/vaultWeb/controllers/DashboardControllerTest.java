@@ -1,8 +1,11 @@
 package vaultWeb.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -12,16 +15,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import vaultWeb.dtos.dashboard.DashboardSection;
 import vaultWeb.dtos.dashboard.UserDashboardDto;
+import vaultWeb.exceptions.InvalidDashboardSectionException;
 import vaultWeb.models.User;
 import vaultWeb.repositories.UserRepository;
-import vaultWeb.services.DashboardService;
+import vaultWeb.services.DashboardCache;
 import vaultWeb.services.auth.AuthService;
 
 @ExtendWith(MockitoExtension.class)
 class DashboardControllerTest {
 
-  @Mock private DashboardService dashboardService;
+  @Mock private DashboardCache dashboardCache;
 
   @Mock private AuthService authService;
 
@@ -38,16 +43,42 @@ class DashboardControllerTest {
         new UserDashboardDto(null, List.of(), List.of(), List.of(), List.of());
 
     when(authService.getCurrentUser()).thenReturn(user);
-    when(dashboardService.buildDashboard(user)).thenReturn(dashboardDto);
+    when(dashboardCache.getDashboard(user)).thenReturn(dashboardDto);
 
     // Act
-    ResponseEntity<UserDashboardDto> response = dashboardController.getCurrentUserDashboard();
+    ResponseEntity<UserDashboardDto> response = dashboardController.getCurrentUserDashboard(null);
 
     // Assert
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(dashboardDto, response.getBody());
   }
 
+  @Test
+  void shouldReturnOnlyRequestedSections() {
+    User user = new User();
+    UserDashboardDto dashboardDto = new UserDashboardDto(null, null, List.of(), null, null);
+
+    when(authService.getCurrentUser()).thenReturn(user);
+    when(dashboardCache.getDashboard(
+            user, EnumSet.of(DashboardSection.PRIVATE_CHATS, DashboardSection.POLLS)))
+        .thenReturn(dashboardDto);
+
+    ResponseEntity<UserDashboardDto> response =
+        dashboardController.getCurrentUserDashboard("private_chats, Polls");
+
+    assertEquals(dashboardDto, response.getBody());
+  }
+
+  @Test
+  void shouldRejectUnknownSection() {
+    when(authService.getCurrentUser()).thenReturn(new User());
+
+    assertThrows(
+        InvalidDashboardSectionException.class,
+        () -> dashboardController.getCurrentUserDashboard("groups,friends"));
+    verifyNoInteractions(dashboardCache);
+  }
+
   @Test
   void shouldReturnDashboardForSpecificUser() {
     // Arrange
@@ -58,7 +89,7 @@ class DashboardControllerTest {
         new UserDashboardDto(null, List.of(), List.of(), List.of(), List.of());
 
     when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-    when(dashboardService.buildDashboard(user)).thenReturn(dashboardDto);
+    when(dashboardCache.getDashboard(user)).thenReturn(dashboardDto);
 
     // Act
     ResponseEntity<UserDashboardDto> response = dashboardController.getDashboardForUser(username);
@@ -19,11 +19,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import vaultWeb.dtos.GroupDto;
+import vaultWeb.dtos.KeyRotationDto;
+import vaultWeb.dtos.MessagePageDto;
 import vaultWeb.exceptions.AlreadyMemberException;
 import vaultWeb.exceptions.notfound.GroupNotFoundException;
 import vaultWeb.exceptions.notfound.NotMemberException;
 import vaultWeb.models.Group;
+import vaultWeb.models.KeyRotationJob;
 import vaultWeb.models.User;
+import vaultWeb.models.enums.KeyRotationStatus;
+import vaultWeb.services.ChatHistoryService;
+import vaultWeb.services.ChatKeyRotationService;
 import vaultWeb.services.GroupService;
 import vaultWeb.services.auth.AuthService;
 
@@ -34,6 +40,10 @@ class GroupControllerTest {
 
   @Mock private AuthService authService;
 
+  @Mock private ChatHistoryService chatHistoryService;
+
+  @Mock private ChatKeyRotationService keyRotationService;
+
   @InjectMocks private GroupController groupController;
 
   // ============================================================================
@@ -88,7 +98,7 @@ class GroupControllerTest {
   }
 
   // ============================================================================
-  // Happy Path Tests (10 tests)
+  // Happy Path Tests (12 tests)
   // ============================================================================
 
   @Test
@@ -131,6 +141,30 @@ class GroupControllerTest {
     verify(groupService, times(1)).getMembers(1L);
   }
 
+  @Test
+  void shouldGetGroupMessagesForCurrentUser() {
+    User testUser = createTestUser(1L, "User 1");
+    MessagePageDto page = new MessagePageDto(List.of(), null, null, false, false);
+    when(authService.getCurrentUser()).thenReturn(testUser);
+    when(chatHistoryService.getGroupPage(5L, 1L, "cursor", null, 20)).thenReturn(page);
+    ResponseEntity<MessagePageDto> response =
+        groupController.getGroupMessages(5L, "cursor", null, 20);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  void shouldStartGroupKeyRotation() {
+    KeyRotationJob job = new KeyRotationJob();
+    job.setId(3L);
+    job.setTargetKeyId(8L);
+    job.setStatus(KeyRotationStatus.RUNNING);
+    when(keyRotationService.rotateGroupKey(5L)).thenReturn(job);
+    ResponseEntity<KeyRotationDto> response = groupController.rotateGroupKey(5L);
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    assertEquals(new KeyRotationDto(3L, 8L, "RUNNING", 0), response.getBody());
+  }
+
   @Test
   void shouldCreateGroupSuccessfully() {
     User testUser = createTestUser(1L, "User 1");
@@ -0,0 +1,55 @@
+package vaultWeb.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import vaultWeb.dtos.PollPageDto;
+import vaultWeb.exceptions.InvalidPollStatusException;
+import vaultWeb.models.User;
+import vaultWeb.models.enums.PollStatus;
+import vaultWeb.services.GroupService;
+import vaultWeb.services.PollService;
+import vaultWeb.services.auth.AuthService;
+
+@ExtendWith(MockitoExtension.class)
+class PollControllerTest {
+
+  @Mock private GroupService groupService;
+
+  @Mock private PollService pollService;
+
+  @Mock private AuthService authService;
+
+  @InjectMocks private PollController pollController;
+
+  @Test
+  void shouldPassStatusFilterToService() {
+    User user = new User();
+    PollPageDto page = new PollPageDto(List.of(), null);
+    when(authService.getCurrentUser()).thenReturn(user);
+    when(pollService.getPollPage(10L, PollStatus.CLOSED, 99L, 5, user)).thenReturn(page);
+
+    ResponseEntity<PollPageDto> response = pollController.getPolls(10L, " Closed ", 99L, 5);
+
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  void shouldRejectUnknownStatus() {
+    when(authService.getCurrentUser()).thenReturn(new User());
+
+    assertThrows(
+        InvalidPollStatusException.class,
+        () -> pollController.getPolls(10L, "pending", null, null));
+    verifyNoInteractions(pollService);
+  }
+}
@@ -0,0 +1,86 @@
+package vaultWeb.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.User;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.security.EncryptionUtil;
+import vaultWeb.services.ChatCiphertextMigrationService;
+import vaultWeb.services.ChatService;
+
+class ChatCiphertextMigrationIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private ChatCiphertextMigrationService migrationService;
+  @Autowired private ChatMessageRepository chatMessageRepository;
+  @Autowired private ChatService chatService;
+  @Autowired private EncryptionUtil encryptionUtil;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void cleanUp() {
+    chatMessageRepository.deleteAll();
+  }
+
+  private void insertLegacyRow(long id, Long senderId, String plaintext) throws Exception {
+    EncryptionUtil.EncryptResult encrypted = encryptionUtil.encrypt(plaintext);
+    jdbcTemplate.update(
+        "insert into chat_message (id, cipher_text, iv, sender_id) values (?, ?, ?, ?)",
+        id,
+        encrypted.cipherTextBase64,
+        encrypted.ivBase64,
+        senderId);
+  }
+
+  @Test
+  void shouldConvertLegacyRowsInPlaceAcrossBatches() throws Exception {
+    User sender = new User();
+    sender.setUsername("migration-user");
+    sender.setPassword("secret");
+    sender = userRepository.save(sender);
+    for (long id = 1; id <= 5; id++) {
+      insertLegacyRow(id, sender.getId(), "message " + id);
+    }
+    jdbcTemplate.update(
+        "insert into chat_message (id, cipher_text, iv, sender_id) values (6, '!!', 'x', ?)",
+        sender.getId());
+    ReflectionTestUtils.setField(migrationService, "batchSize", 2);
+    ReflectionTestUtils.setField(migrationService, "pauseMs", 0L);
+
+    assertEquals(5, migrationService.migrateAll());
+
+    for (long id = 1; id <= 5; id++) {
+      ChatMessage message = chatMessageRepository.findById(id).orElseThrow();
+      assertNull(message.getCipherText());
+      assertNull(message.getIv());
+      assertEquals(12, message.getIvBytes().length);
+      assertEquals("message " + id, chatService.decrypt(message));
+    }
+    assertNull(chatMessageRepository.findById(6L).orElseThrow().getCipherBytes());
+    // restarting finds nothing left to do
+    assertEquals(0, migrationService.migrateAll());
+  }
+
+  @Test
+  void newMessagesShouldRoundTripThroughBinaryColumns() throws Exception {
+    EncryptionUtil.EncryptedBytes encrypted =
+        encryptionUtil.encrypt("Grüße".getBytes(StandardCharsets.UTF_8));
+    User sender = new User();
+    sender.setUsername("binary-user");
+    sender.setPassword("secret");
+    sender = userRepository.save(sender);
+    ChatMessage message = new ChatMessage();
+    message.setSender(sender);
+    message.setCipherBytes(encrypted.cipherText());
+    message.setIvBytes(encrypted.iv());
+    Long id = chatMessageRepository.save(message).getId();
+
+    assertEquals("Grüße", chatService.decrypt(chatMessageRepository.findById(id).orElseThrow()));
+  }
+}
@@ -0,0 +1,152 @@
+package vaultWeb.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import vaultWeb.dtos.ChatMessageDto;
+import vaultWeb.dtos.dashboard.UserDashboardDto;
+import vaultWeb.models.Group;
+import vaultWeb.models.GroupMember;
+import vaultWeb.models.Poll;
+import vaultWeb.models.PollOption;
+import vaultWeb.models.PollVote;
+import vaultWeb.models.PrivateChat;
+import vaultWeb.models.User;
+import vaultWeb.models.enums.Role;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.ConversationKeyRepository;
+import vaultWeb.repositories.ConversationSummaryRepository;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.GroupRepository;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PollVoteRepository;
+import vaultWeb.repositories.PrivateChatRepository;
+import vaultWeb.services.ChatService;
+import vaultWeb.services.DashboardService;
+
+class DashboardQueryCountIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private DashboardService dashboardService;
+  @Autowired private ChatService chatService;
+  @Autowired private GroupRepository groupRepository;
+  @Autowired private GroupMemberRepository groupMemberRepository;
+  @Autowired private PrivateChatRepository privateChatRepository;
+  @Autowired private ChatMessageRepository chatMessageRepository;
+  @Autowired private PollRepository pollRepository;
+  @Autowired private PollVoteRepository pollVoteRepository;
+  @Autowired private ConversationKeyRepository conversationKeyRepository;
+  @Autowired private ConversationSummaryRepository conversationSummaryRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @AfterEach
+  void cleanUp() {
+    pollVoteRepository.deleteAll();
+    pollRepository.deleteAll();
+    chatMessageRepository.deleteAll();
+    groupMemberRepository.deleteAll();
+    groupRepository.deleteAll();
+    privateChatRepository.deleteAll();
+    conversationKeyRepository.deleteAll();
+    conversationSummaryRepository.deleteAll();
+  }
+
+  private User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setPassword("secret");
+    return userRepository.save(user);
+  }
+
+  /** Gives the user the given number of chats, groups and polls, each with some activity. */
+  private User userWithActivity(String username, int conversations) {
+    User owner = user(username);
+    for (int i = 0; i < conversations; i++) {
+      User peer = user(username + "-peer-" + i);
+
+      PrivateChat chat = privateChatRepository.save(new PrivateChat(null, owner, peer));
+      for (int m = 0; m < 3; m++) {
+        chatService.saveMessage(
+            new ChatMessageDto(
+                "message " + m, null, null, chat.getId(), owner.getId(), null, null));
+      }
+
+      Group group =
+          groupRepository.save(
+              Group.builder()
+                  .name(username + "-group-" + i)
+                  .createdBy(peer)
+                  .createdAt(Instant.now())
+                  .isPublic(true)
+                  .build());
+      groupMemberRepository.save(new GroupMember(group, owner, Role.USER));
+      groupMemberRepository.save(new GroupMember(group, peer, Role.ADMIN));
+
+      Poll poll =
+          Poll.builder()
+              .group(group)
+              .question("Lunch?")
+              .author(peer)
+              .options(new ArrayList<>())
+              .build();
+      poll.getOptions().add(PollOption.builder().poll(poll).text("yes").voteCount(1).build());
+      poll.getOptions().add(PollOption.builder().poll(poll).text("no").build());
+      poll = pollRepository.save(poll);
+      pollVoteRepository.save(
+          PollVote.builder().poll(poll).option(poll.getOptions().getFirst()).user(peer).build());
+    }
+    return owner;
+  }
+
+  private long countStatements(User user) {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    UserDashboardDto dashboard = dashboardService.buildDashboard(user);
+    assertNotNull(dashboard);
+    return statistics.getPrepareStatementCount();
+  }
+
+  @Test
+  void shouldBuildDashboardWithFixedNumberOfQueries() {
+    User small = userWithActivity("small", 2);
+    User large = userWithActivity("large", 12);
+
+    // warm up caches that are not part of the dashboard itself
+    dashboardService.buildDashboard(small);
+    dashboardService.buildDashboard(large);
+
+    long smallCount = countStatements(small);
+    long largeCount = countStatements(large);
+
+    assertEquals(smallCount, largeCount);
+    assertTrue(largeCount <= 8, "dashboard used " + largeCount + " queries");
+  }
+
+  @Test
+  void shouldReportCountsAndLastMessages() {
+    User owner = userWithActivity("counts", 3);
+
+    UserDashboardDto dashboard = dashboardService.buildDashboard(owner);
+
+    assertEquals(3, dashboard.groups().size());
+    dashboard.groups().forEach(group -> assertEquals(2, group.memberCount()));
+    assertEquals(3, dashboard.polls().size());
+    dashboard
+        .polls()
+        .forEach(
+            poll -> {
+              assertEquals(2, poll.optionCount());
+              assertEquals(1, poll.totalVotes());
+            });
+    assertEquals(3, dashboard.privateChats().size());
+    dashboard.privateChats().forEach(chat -> assertEquals("message 2", chat.lastMessagePreview()));
+    dashboard.privateChats().forEach(chat -> assertEquals(3, chat.messageCount()));
+    assertEquals(9, dashboard.profile().messagesSent());
+  }
+}
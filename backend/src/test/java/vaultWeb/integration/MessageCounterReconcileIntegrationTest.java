@@ -0,0 +1,75 @@
+package vaultWeb.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import vaultWeb.models.User;
+import vaultWeb.models.UserMessageCounter;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.SchedulerLockRepository;
+import vaultWeb.repositories.UserMessageCounterRepository;
+import vaultWeb.services.MessageCounterService;
+import vaultWeb.services.SchedulerLockService;
+
+class MessageCounterReconcileIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private MessageCounterService counterService;
+  @Autowired private SchedulerLockService schedulerLockService;
+  @Autowired private UserMessageCounterRepository counterRepository;
+  @Autowired private SchedulerLockRepository schedulerLockRepository;
+  @Autowired private ChatMessageRepository chatMessageRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void cleanUp() {
+    chatMessageRepository.deleteAll();
+    counterRepository.deleteAll();
+    schedulerLockRepository.deleteAll();
+  }
+
+  private User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setPassword("secret");
+    return userRepository.save(user);
+  }
+
+  private void insertMessages(User sender, int count) {
+    for (int i = 0; i < count; i++) {
+      jdbcTemplate.update(
+          "insert into chat_message (id, cipher_text, iv, sender_id) values (?, 'c', 'i', ?)",
+          sender.getId() * 100 + i,
+          sender.getId());
+    }
+  }
+
+  @Test
+  void shouldSetDriftedCountersToStoredMessages() {
+    User drifted = user("drifted");
+    User uncounted = user("uncounted");
+    User gone = user("gone");
+    insertMessages(drifted, 3);
+    insertMessages(uncounted, 2);
+    counterRepository.save(new UserMessageCounter(drifted.getId(), 5));
+    counterRepository.save(new UserMessageCounter(gone.getId(), 1));
+
+    counterService.reconcile();
+
+    assertEquals(3, counterService.getMessagesSent(drifted.getId()));
+    assertEquals(2, counterService.getMessagesSent(uncounted.getId()));
+    assertEquals(0, counterService.getMessagesSent(gone.getId()));
+  }
+
+  @Test
+  void shouldGrantLeaseToOneCallerUntilItExpires() {
+    assertTrue(schedulerLockService.tryLock("test-job", Duration.ofHours(1)));
+    assertFalse(schedulerLockService.tryLock("test-job", Duration.ofHours(1)));
+
+    assertTrue(schedulerLockService.tryLock("expiring-job", Duration.ZERO));
+    assertTrue(schedulerLockService.tryLock("expiring-job", Duration.ZERO));
+  }
+}
@@ -0,0 +1,125 @@
+package vaultWeb.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import vaultWeb.dtos.PollRequestDto;
+import vaultWeb.models.Group;
+import vaultWeb.models.GroupMember;
+import vaultWeb.models.Poll;
+import vaultWeb.models.User;
+import vaultWeb.models.enums.Role;
+import vaultWeb.repositories.DataMigrationRepository;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.GroupRepository;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionTally;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PollVoteRepository;
+import vaultWeb.services.PollService;
+
+/** Completes votes stored before votes carried their poll, as the startup backfill does. */
+class PollVoteBackfillIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private PollService pollService;
+  @Autowired private GroupRepository groupRepository;
+  @Autowired private GroupMemberRepository groupMemberRepository;
+  @Autowired private PollRepository pollRepository;
+  @Autowired private PollOptionRepository pollOptionRepository;
+  @Autowired private PollVoteRepository pollVoteRepository;
+  @Autowired private DataMigrationRepository dataMigrationRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void cleanUp() {
+    pollVoteRepository.deleteAll();
+    pollRepository.deleteAll();
+    groupMemberRepository.deleteAll();
+    groupRepository.deleteAll();
+  }
+
+  private User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setPassword("secret");
+    return userRepository.save(user);
+  }
+
+  private void insertLegacyVote(long id, Long optionId, User user) {
+    jdbcTemplate.update(
+        "insert into poll_votes (id, poll_option_id, user_id) values (?, ?, ?)",
+        id,
+        optionId,
+        user.getId());
+  }
+
+  @Test
+  void shouldKeepOnlyFirstLegacyVoteOfAUser_AndCountIt() {
+    User alice = user("alice");
+    User bob = user("bob");
+    Group group =
+        groupRepository.save(
+            Group.builder()
+                .name("legacy")
+                .createdBy(alice)
+                .createdAt(Instant.now())
+                .isPublic(true)
+                .build());
+    groupMemberRepository.save(new GroupMember(group, alice, Role.ADMIN));
+    PollRequestDto request = new PollRequestDto();
+    request.setQuestion("Lunch?");
+    request.setOptions(List.of("pizza", "salad"));
+    Poll poll = pollService.createPoll(group, alice, request);
+    Long pizza = poll.getOptions().get(0).getId();
+    Long salad = poll.getOptions().get(1).getId();
+
+    // as on a database the startup backfill has not run on yet
+    dataMigrationRepository.deleteAll();
+    // alice voted twice before the unique constraint existed, bob once
+    insertLegacyVote(1, pizza, alice);
+    insertLegacyVote(2, salad, alice);
+    insertLegacyVote(3, salad, bob);
+
+    pollService.backfill();
+
+    assertEquals(2, pollVoteRepository.count());
+    assertFalse(pollVoteRepository.existsById(2L));
+    assertTrue(pollVoteRepository.findAll().stream().allMatch(vote -> vote.getPoll() != null));
+    Map<Long, Long> counts =
+        pollOptionRepository.findTallies(List.of(poll.getId())).stream()
+            .collect(Collectors.toMap(PollOptionTally::optionId, PollOptionTally::voteCount));
+    assertEquals(Map.of(pizza, 1L, salad, 1L), counts);
+  }
+
+  @Test
+  void shouldNotBackfillAgain_OnceItRan() {
+    User carol = user("carol");
+    Group group =
+        groupRepository.save(
+            Group.builder()
+                .name("migrated")
+                .createdBy(carol)
+                .createdAt(Instant.now())
+                .isPublic(true)
+                .build());
+    groupMemberRepository.save(new GroupMember(group, carol, Role.ADMIN));
+    PollRequestDto request = new PollRequestDto();
+    request.setQuestion("Dinner?");
+    request.setOptions(List.of("soup", "curry"));
+    Poll poll = pollService.createPoll(group, carol, request);
+    // the backfill ran on startup, so a vote without poll is no longer looked for
+    insertLegacyVote(4, poll.getOptions().getFirst().getId(), carol);
+
+    pollService.backfill();
+
+    assertNull(pollVoteRepository.findById(4L).orElseThrow().getPoll());
+    assertTrue(dataMigrationRepository.existsById("poll-vote-backfill"));
+  }
+}
@@ -0,0 +1,363 @@
+package vaultWeb.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import vaultWeb.dtos.PollRequestDto;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.exceptions.AlreadyVotedException;
+import vaultWeb.exceptions.NotVotedException;
+import vaultWeb.exceptions.PollClosedException;
+import vaultWeb.models.Group;
+import vaultWeb.models.GroupMember;
+import vaultWeb.models.Poll;
+import vaultWeb.models.PollOption;
+import vaultWeb.models.PollRankingCount;
+import vaultWeb.models.PollResultSnapshot;
+import vaultWeb.models.PollVote;
+import vaultWeb.models.User;
+import vaultWeb.models.enums.PollType;
+import vaultWeb.models.enums.Role;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.GroupRepository;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionTally;
+import vaultWeb.repositories.PollRankingCountRepository;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PollResultSnapshotRepository;
+import vaultWeb.repositories.PollTallyRepository;
+import vaultWeb.repositories.PollVoteRepository;
+import vaultWeb.services.PollCloseService;
+import vaultWeb.services.PollService;
+import vaultWeb.services.PollTallyService;
+
+/**
+ * Casts, changes and retracts ballots in one poll from many threads at once and checks that the
+ * counters maintained alongside the ballots still match the ballots stored.
+ */
+class PollVoteConcurrencyIntegrationTest extends IntegrationTestBase {
+
+  private static final int THREADS = 16;
+  private static final int OPERATIONS_PER_THREAD = 40;
+
+  @Autowired private PollService pollService;
+  @Autowired private PollTallyService pollTallyService;
+  @Autowired private GroupRepository groupRepository;
+  @Autowired private GroupMemberRepository groupMemberRepository;
+  @Autowired private PollRepository pollRepository;
+  @Autowired private PollOptionRepository pollOptionRepository;
+  @Autowired private PollVoteRepository pollVoteRepository;
+  @Autowired private PollTallyRepository pollTallyRepository;
+  @Autowired private PollRankingCountRepository pollRankingCountRepository;
+  @Autowired private PollCloseService pollCloseService;
+  @Autowired private PollResultSnapshotRepository snapshotRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @AfterEach
+  void cleanUp() {
+    snapshotRepository.deleteAll();
+    pollVoteRepository.deleteAll();
+    pollRankingCountRepository.deleteAll();
+    pollTallyRepository.deleteAll();
+    pollRepository.deleteAll();
+    groupMemberRepository.deleteAll();
+    groupRepository.deleteAll();
+  }
+
+  private User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setPassword("secret");
+    return userRepository.save(user);
+  }
+
+  private Group groupWith(List<User> members) {
+    Group group =
+        groupRepository.save(
+            Group.builder()
+                .name("voters")
+                .createdBy(members.getFirst())
+                .createdAt(Instant.now())
+                .isPublic(true)
+                .build());
+    for (User member : members) {
+      groupMemberRepository.save(new GroupMember(group, member, Role.USER));
+    }
+    return group;
+  }
+
+  private Poll poll(Group group, User author, PollType type) {
+    return poll(group, author, type, null);
+  }
+
+  private Poll poll(Group group, User author, PollType type, Instant deadline) {
+    PollRequestDto request = new PollRequestDto();
+    request.setQuestion("Where to?");
+    request.setOptions(List.of("beach", "mountains", "city", "lake"));
+    request.setType(type);
+    request.setDeadline(deadline != null ? Date.from(deadline) : null);
+    return pollService.createPoll(group, author, request);
+  }
+
+  private static List<Long> randomBallot(Random random, PollType type, List<Long> optionIds) {
+    if (type == PollType.SINGLE_CHOICE) {
+      return List.of(optionIds.get(random.nextInt(optionIds.size())));
+    }
+    List<Long> shuffled = new ArrayList<>(optionIds);
+    Collections.shuffle(shuffled, random);
+    return List.copyOf(shuffled.subList(0, 1 + random.nextInt(shuffled.size())));
+  }
+
+  private static List<Long> choicesOf(PollVote vote) {
+    return vote.getChoices() != null
+        ? Arrays.stream(vote.getChoices().split(",")).map(Long::valueOf).toList()
+        : List.of(vote.getOption().getId());
+  }
+
+  /** Runs the task on {@link #THREADS} threads released together, rethrowing any failure. */
+  private static void hammer(TaskForThread task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; thread++) {
+        int index = thread;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  task.run(index);
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @FunctionalInterface
+  private interface TaskForThread {
+    void run(int thread);
+  }
+
+  /** Asserts that every counter of the poll equals what its stored ballots add up to. */
+  private void assertCountsMatchBallots(Poll poll) {
+    List<List<Long>> ballots =
+        pollVoteRepository.findAll().stream()
+            .filter(vote -> vote.getOption().getPoll().getId().equals(poll.getId()))
+            .map(PollVoteConcurrencyIntegrationTest::choicesOf)
+            .toList();
+
+    Map<Long, Long> expected = new HashMap<>();
+    poll.getOptions().forEach(option -> expected.put(option.getId(), 0L));
+    for (List<Long> ballot : ballots) {
+      List<Long> counted =
+          poll.getType() == PollType.RANKED_CHOICE ? List.of(ballot.getFirst()) : ballot;
+      counted.forEach(optionId -> expected.merge(optionId, 1L, Long::sum));
+    }
+    Map<Long, Long> actual =
+        pollOptionRepository.findTallies(List.of(poll.getId())).stream()
+            .collect(Collectors.toMap(PollOptionTally::optionId, PollOptionTally::voteCount));
+    assertEquals(expected, actual);
+
+    if (poll.getType() != PollType.SINGLE_CHOICE) {
+      assertEquals(
+          ballots.size(), pollTallyRepository.findById(poll.getId()).orElseThrow().getBallots());
+    }
+    if (poll.getType() == PollType.RANKED_CHOICE) {
+      Map<String, Long> expectedRankings =
+          ballots.stream()
+              .collect(
+                  Collectors.groupingBy(
+                      ballot ->
+                          ballot.stream().map(String::valueOf).collect(Collectors.joining(",")),
+                      Collectors.counting()));
+      Map<String, Long> actualRankings =
+          pollRankingCountRepository.findAll().stream()
+              .filter(count -> count.getPollId().equals(poll.getId()) && count.getBallots() != 0)
+              .collect(
+                  Collectors.toMap(PollRankingCount::getRanking, PollRankingCount::getBallots));
+      assertEquals(expectedRankings, actualRankings);
+
+      // the runoff is recounted from the final rankings; its first round counts every ballot
+      PollResultsDto.Runoff runoff = pollTallyService.getRunoff(poll.getId());
+      long firstRound =
+          runoff.rounds().isEmpty()
+              ? 0
+              : runoff.rounds().getFirst().options().stream()
+                  .mapToLong(PollResultsDto.OptionTally::voteCount)
+                  .sum();
+      assertEquals(ballots.size(), firstRound);
+    }
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @EnumSource(PollType.class)
+  void shouldKeepCountsEqualToBallots_WhenManyUsersVoteChangeAndRetractAtOnce(PollType type)
+      throws Exception {
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      users.add(user("voter-" + type + "-" + i));
+    }
+    Group group = groupWith(users);
+    Poll poll = poll(group, users.getFirst(), type);
+    List<Long> optionIds = poll.getOptions().stream().map(PollOption::getId).toList();
+
+    hammer(
+        thread -> {
+          User user = users.get(thread);
+          Random random = new Random(thread);
+          for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            List<Long> ballot = randomBallot(random, type, optionIds);
+            try {
+              switch (random.nextInt(3)) {
+                case 0 -> pollService.castBallot(group.getId(), poll.getId(), ballot, user);
+                case 1 -> pollService.changeBallot(group.getId(), poll.getId(), ballot, user);
+                default -> pollService.retractBallot(group.getId(), poll.getId(), user);
+              }
+            } catch (AlreadyVotedException | NotVotedException e) {
+              // expected whenever the random walk casts twice or changes without a ballot
+            }
+          }
+        });
+
+    assertCountsMatchBallots(poll);
+  }
+
+  @Test
+  void shouldFreezeExactlyTheAcceptedVotes_WhenPollClosesWhileUsersVote() throws Exception {
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      users.add(user("closing-" + i));
+    }
+    Group group = groupWith(users);
+    Instant deadline = Instant.now().plusMillis(500);
+    Poll poll = poll(group, users.getFirst(), PollType.SINGLE_CHOICE, deadline);
+    List<Long> optionIds = poll.getOptions().stream().map(PollOption::getId).toList();
+
+    hammer(
+        thread -> {
+          if (thread == 0) {
+            // closes the poll as soon as it is due, while the others still vote
+            while (pollCloseService.findSnapshot(poll.getId()).isEmpty()) {
+              pollCloseService.closeDuePolls();
+            }
+            return;
+          }
+          User user = users.get(thread);
+          Random random = new Random(thread);
+          while (Instant.now().isBefore(deadline.plusMillis(200))) {
+            List<Long> ballot = randomBallot(random, PollType.SINGLE_CHOICE, optionIds);
+            try {
+              switch (random.nextInt(3)) {
+                case 0 -> pollService.castBallot(group.getId(), poll.getId(), ballot, user);
+                case 1 -> pollService.changeBallot(group.getId(), poll.getId(), ballot, user);
+                default -> pollService.retractBallot(group.getId(), poll.getId(), user);
+              }
+            } catch (AlreadyVotedException | NotVotedException | PollClosedException e) {
+              // expected, as above, and for every vote from the deadline on
+            }
+          }
+        });
+
+    assertCountsMatchBallots(poll);
+    Map<Long, Long> frozen =
+        snapshotRepository.findById(poll.getId()).orElseThrow().getOptions().stream()
+            .collect(
+                Collectors.toMap(
+                    PollResultSnapshot.OptionResult::getOptionId,
+                    PollResultSnapshot.OptionResult::getVoteCount));
+    Map<Long, Long> live =
+        pollOptionRepository.findTallies(List.of(poll.getId())).stream()
+            .collect(Collectors.toMap(PollOptionTally::optionId, PollOptionTally::voteCount));
+    assertEquals(live, frozen);
+  }
+
+  @Test
+  void shouldApplyConcurrentChangesOfOneBallotOneAfterAnother() throws Exception {
+    User user = user("fickle");
+    Group group = groupWith(List.of(user));
+    Poll poll = poll(group, user, PollType.SINGLE_CHOICE);
+    List<Long> optionIds = poll.getOptions().stream().map(PollOption::getId).toList();
+    pollService.castBallot(group.getId(), poll.getId(), List.of(optionIds.getFirst()), user);
+
+    hammer(
+        thread -> {
+          Random random = new Random(thread);
+          for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            pollService.changeBallot(
+                group.getId(),
+                poll.getId(),
+                randomBallot(random, PollType.SINGLE_CHOICE, optionIds),
+                user);
+          }
+        });
+
+    assertCountsMatchBallots(poll);
+    assertEquals(
+        1,
+        pollOptionRepository.findTallies(List.of(poll.getId())).stream()
+            .mapToLong(PollOptionTally::voteCount)
+            .sum());
+  }
+
+  @Test
+  void shouldDiscardAllVotesWithoutLoadingThem_WhenPollIsEdited() throws Exception {
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      users.add(user("editvoter" + i));
+    }
+    Group group = groupWith(users);
+    Poll poll = poll(group, users.getFirst(), PollType.MULTIPLE_CHOICE);
+    List<Long> optionIds = poll.getOptions().stream().map(PollOption::getId).toList();
+    hammer(
+        thread ->
+            pollService.castBallot(
+                group.getId(), poll.getId(), optionIds.subList(0, 2), users.get(thread)));
+
+    PollRequestDto edit = new PollRequestDto();
+    edit.setQuestion("Where to, really?");
+    edit.setOptions(List.of("beach", "forest"));
+    edit.setType(PollType.MULTIPLE_CHOICE);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    Poll edited = pollService.updatePoll(group.getId(), poll.getId(), users.getFirst(), edit);
+
+    assertEquals(0, statistics.getEntityStatistics(PollVote.class.getName()).getLoadCount());
+    assertEquals(0, pollVoteRepository.count());
+    List<PollOptionTally> tallies = pollOptionRepository.findTallies(List.of(poll.getId()));
+    assertEquals(2, tallies.size());
+    assertTrue(tallies.stream().allMatch(tally -> tally.voteCount() == 0));
+    assertEquals(0, pollTallyRepository.findById(poll.getId()).orElseThrow().getBallots());
+
+    Long forest = edited.getOptions().getLast().getId();
+    pollService.castBallot(group.getId(), poll.getId(), List.of(forest), users.get(1));
+    assertCountsMatchBallots(pollRepository.findWithOptionsById(poll.getId()).orElseThrow());
+  }
+}
@@ -0,0 +1,97 @@
+package vaultWeb.models.ids;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SnowflakeIdGeneratorTest {
+
+  @Test
+  void shouldGenerateStrictlyIncreasingIds() {
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+
+    long previous = generator.nextId();
+    for (int i = 0; i < 100_000; i++) {
+      long next = generator.nextId();
+      assertTrue(next > previous);
+      previous = next;
+    }
+  }
+
+  @Test
+  void shouldEncodeNodeIdAndTimestamp() {
+    AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 5_000);
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, clock::get);
+
+    long id = generator.nextId();
+
+    assertEquals(7, SnowflakeIdGenerator.nodeIdOf(id));
+    assertEquals(SnowflakeIdGenerator.EPOCH_MILLIS + 5_000, SnowflakeIdGenerator.timestampOf(id));
+  }
+
+  @Test
+  void shouldStayMonotonic_WhenClockMovesBackwards() {
+    AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 10_000);
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+    long beforeJump = generator.nextId();
+    clock.addAndGet(-5_000);
+    long afterJump = generator.nextId();
+
+    assertTrue(afterJump > beforeJump);
+  }
+
+  @Test
+  void shouldStayMonotonic_WhenSequenceIsExhausted() {
+    AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH_MILLIS + 10_000);
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+    long previous = generator.nextId();
+    for (int i = 0; i < 1_000; i++) {
+      long next = generator.nextId();
+      assertTrue(next > previous);
+      previous = next;
+    }
+  }
+
+  @Test
+  void shouldFitIntoJavaScriptSafeIntegers() {
+    long id = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID).nextId();
+
+    assertTrue(id > 0);
+    assertTrue(id < (1L << 53));
+  }
+
+  @Test
+  void shouldGenerateUniqueIdsAcrossThreads() throws Exception {
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(2);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    for (int t = 0; t < 8; t++) {
+      executor.submit(
+          () -> {
+            for (int i = 0; i < 10_000; i++) {
+              ids.add(generator.nextId());
+            }
+          });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(80_000, ids.size());
+  }
+
+  @Test
+  void shouldRejectOutOfRangeNodeId() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+  }
+}
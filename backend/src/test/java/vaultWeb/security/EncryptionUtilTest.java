@@ -0,0 +1,94 @@
+package vaultWeb.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class EncryptionUtilTest {
+
+  private static final String KEY = "aRvdZ53Fuwf7nfoT4+VeKPYi4XOhpTSh4eshUfZIgVs=";
+
+  private final EncryptionUtil encryptionUtil = new EncryptionUtil(KEY);
+
+  @Test
+  void shouldRoundTripUtf8Text() throws Exception {
+    String text = "Grüße, 世界 👋";
+
+    EncryptionUtil.EncryptResult result = encryptionUtil.encrypt(text);
+
+    assertEquals(text, encryptionUtil.decrypt(result.cipherTextBase64, result.ivBase64));
+  }
+
+  @Test
+  void shouldUseFreshIvForEveryMessage() throws Exception {
+    EncryptionUtil.EncryptResult first = encryptionUtil.encrypt("same");
+    EncryptionUtil.EncryptResult second = encryptionUtil.encrypt("same");
+
+    assertNotEquals(first.ivBase64, second.ivBase64);
+    assertNotEquals(first.cipherTextBase64, second.cipherTextBase64);
+  }
+
+  @Test
+  void byteApiShouldMatchStringApi() throws Exception {
+    byte[] plaintext = "hello".getBytes(StandardCharsets.UTF_8);
+
+    EncryptionUtil.EncryptedBytes encrypted = encryptionUtil.encrypt(plaintext);
+
+    assertArrayEquals(plaintext, encryptionUtil.decrypt(encrypted.cipherText(), encrypted.iv()));
+    assertEquals(
+        "hello",
+        encryptionUtil.decrypt(
+            Base64.getEncoder().encodeToString(encrypted.cipherText()),
+            Base64.getEncoder().encodeToString(encrypted.iv())));
+  }
+
+  @Test
+  void shouldRejectTamperedCipherText() throws Exception {
+    EncryptionUtil.EncryptedBytes encrypted = encryptionUtil.encrypt(new byte[] {1, 2, 3});
+    encrypted.cipherText()[0] ^= 1;
+
+    assertThrows(
+        GeneralSecurityException.class,
+        () -> encryptionUtil.decrypt(encrypted.cipherText(), encrypted.iv()));
+    // the thread's cipher must still be usable afterwards
+    EncryptionUtil.EncryptResult result = encryptionUtil.encrypt("still works");
+    assertEquals("still works", encryptionUtil.decrypt(result.cipherTextBase64, result.ivBase64));
+  }
+
+  @Test
+  void shouldBeSafeToUseConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int thread = t;
+        results.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 200; i++) {
+                    String text = "message " + thread + "-" + i;
+                    EncryptionUtil.EncryptResult result = encryptionUtil.encrypt(text);
+                    if (!text.equals(
+                        encryptionUtil.decrypt(result.cipherTextBase64, result.ivBase64))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
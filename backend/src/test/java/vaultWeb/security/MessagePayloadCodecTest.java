@@ -0,0 +1,67 @@
+package vaultWeb.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class MessagePayloadCodecTest {
+
+  private static final String LOG =
+      "2026-10-16 12:00:01.123 ERROR 4711 --- [nio-8080-exec-3] o.a.c.c.C.[.[.[/].[dispatcher]"
+          + " : Servlet.service() threw exception\n";
+
+  private final MessagePayloadCodec codec = new MessagePayloadCodec(true, 256);
+
+  @Test
+  void shouldStoreShortTextUncompressed() {
+    byte[] payload = codec.encode("Grüße 👋");
+
+    assertEquals(MessagePayloadCodec.RAW, payload[0]);
+    assertEquals("Grüße 👋", codec.decode(payload));
+  }
+
+  @Test
+  void shouldCompressLongRepetitiveText() {
+    String text = LOG.repeat(30);
+
+    byte[] payload = codec.encode(text);
+
+    assertEquals(MessagePayloadCodec.DEFLATE, payload[0]);
+    assertTrue(payload.length < text.length() / 10);
+    assertEquals(text, codec.decode(payload));
+  }
+
+  @Test
+  void shouldKeepRawPayloadWhenCompressionDoesNotHelp() {
+    MessagePayloadCodec alwaysTry = new MessagePayloadCodec(true, 1);
+
+    byte[] payload = alwaysTry.encode("qwertzuiop");
+
+    assertEquals(MessagePayloadCodec.RAW, payload[0]);
+    assertEquals("qwertzuiop", alwaysTry.decode(payload));
+  }
+
+  @Test
+  void shouldNotCompressWhenDisabled() {
+    MessagePayloadCodec disabled = new MessagePayloadCodec(false, 256);
+
+    assertEquals(MessagePayloadCodec.RAW, disabled.encode(LOG.repeat(30))[0]);
+  }
+
+  @Test
+  void shouldDecodeLegacyPlainUtf8() {
+    assertEquals("legacy", codec.decodeLegacy("legacy".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void shouldRejectMalformedPayloads() {
+    byte[] truncated = codec.encode(LOG.repeat(30));
+    byte[] cut = Arrays.copyOf(truncated, truncated.length / 2);
+
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(cut));
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[0]));
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[] {7, 1, 2}));
+  }
+}
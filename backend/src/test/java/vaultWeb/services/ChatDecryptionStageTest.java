@@ -0,0 +1,109 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import vaultWeb.exceptions.DecryptionFailedException;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.services.ChatDecryptionStage.Decrypted;
+
+@ExtendWith(MockitoExtension.class)
+class ChatDecryptionStageTest {
+
+  @Mock private ChatService chatService;
+
+  @Mock private ChatPlaintextCache plaintextCache;
+
+  @Mock private ConversationKeyService conversationKeyService;
+
+  private ChatDecryptionStage stage;
+
+  @BeforeEach
+  void setUp() {
+    stage = new ChatDecryptionStage(chatService, plaintextCache, conversationKeyService);
+    ReflectionTestUtils.setField(stage, "parallelism", 4);
+    ReflectionTestUtils.setField(stage, "parallelThreshold", 8);
+    stage.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    stage.shutdown();
+  }
+
+  private List<ChatMessage> messages(int count) {
+    return LongStream.range(0, count)
+        .mapToObj(i -> ChatMessage.builder().id(i).cipherText("c" + i).iv("iv").build())
+        .toList();
+  }
+
+  @Test
+  void shouldKeepOrderWhenDecryptingInParallel() {
+    when(chatService.decrypt(any(ChatMessage.class)))
+        .thenAnswer(i -> "p" + i.<ChatMessage>getArgument(0).getId());
+
+    List<Decrypted> results = stage.decryptAll(messages(50));
+
+    assertEquals(50, results.size());
+    for (int i = 0; i < 50; i++) {
+      assertEquals("p" + i, results.get(i).plaintext());
+    }
+  }
+
+  @Test
+  void shouldDecryptSmallPagesInline() {
+    when(chatService.decrypt(any(ChatMessage.class)))
+        .thenAnswer(i -> Thread.currentThread().getName());
+
+    List<Decrypted> results = stage.decryptAll(messages(3));
+
+    assertTrue(
+        results.stream()
+            .map(Decrypted::plaintext)
+            .allMatch(Thread.currentThread().getName()::equals));
+  }
+
+  @Test
+  void shouldServeCachedPlaintextsWithoutDecrypting() {
+    when(plaintextCache.get(any())).thenAnswer(i -> i.<Long>getArgument(0) == 0L ? "cached" : null);
+    when(chatService.decrypt(any(ChatMessage.class))).thenReturn("decrypted");
+
+    List<Decrypted> results = stage.decryptAll(messages(2));
+
+    assertEquals("cached", results.get(0).plaintext());
+    assertEquals("decrypted", results.get(1).plaintext());
+    verify(chatService, times(1)).decrypt(any(ChatMessage.class));
+    verify(plaintextCache).put(1L, "decrypted");
+  }
+
+  @Test
+  void shouldReportFailuresPerMessageWithoutAbortingBatch() {
+    when(chatService.decrypt(any(ChatMessage.class)))
+        .thenAnswer(
+            i -> {
+              if (i.<ChatMessage>getArgument(0).getId() == 17L) {
+                throw new DecryptionFailedException("Decryption failed", new RuntimeException());
+              }
+              return "ok";
+            });
+
+    List<Decrypted> results = stage.decryptAll(messages(40));
+
+    assertEquals(40, results.size());
+    assertFalse(results.get(17).succeeded());
+    assertNull(results.get(17).plaintext());
+    assertInstanceOf(DecryptionFailedException.class, results.get(17).failure());
+    assertEquals(39, results.stream().filter(Decrypted::succeeded).count());
+    assertEquals("ok", results.get(39).plaintext());
+  }
+}
@@ -0,0 +1,289 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import vaultWeb.dtos.ChatMessageDto;
+import vaultWeb.dtos.CompactMessagePageDto;
+import vaultWeb.dtos.MessagePageDto;
+import vaultWeb.exceptions.DecryptionFailedException;
+import vaultWeb.exceptions.InvalidCursorException;
+import vaultWeb.exceptions.notfound.NotMemberException;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.PrivateChat;
+import vaultWeb.models.User;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.services.ChatDecryptionStage.Decrypted;
+import vaultWeb.services.ChatReferenceResolver.GroupRef;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+
+@ExtendWith(MockitoExtension.class)
+class ChatHistoryServiceTest {
+
+  private static final Instant BASE = Instant.parse("2025-01-01T10:00:00Z");
+
+  @Mock private ChatMessageRepository chatMessageRepository;
+
+  @Mock private ChatReferenceResolver referenceResolver;
+
+  @Mock private GroupMemberRepository groupMemberRepository;
+
+  @Mock private ChatDecryptionStage decryptionStage;
+
+  @InjectMocks private ChatHistoryService chatHistoryService;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(chatHistoryService, "defaultPageSize", 2);
+    ReflectionTestUtils.setField(chatHistoryService, "maxPageSize", 5);
+  }
+
+  private void givenChatOf(String user1, String user2) {
+    when(referenceResolver.findPrivateChat(7L))
+        .thenReturn(Optional.of(new PrivateChatRef(7L, 1L, user1, 2L, user2)));
+  }
+
+  private void givenDecryption() {
+    when(decryptionStage.decryptAll(anyList()))
+        .thenAnswer(
+            i ->
+                i.<List<ChatMessage>>getArgument(0).stream()
+                    .map(m -> new Decrypted("plain-" + m.getCipherText(), null))
+                    .toList());
+  }
+
+  private ChatMessage message(long id, int secondsAfterBase) {
+    return message(id, secondsAfterBase, 1L, "alice");
+  }
+
+  private ChatMessage message(long id, int secondsAfterBase, long senderId, String username) {
+    User sender = new User();
+    sender.setId(senderId);
+    sender.setUsername(username);
+    PrivateChat chat = new PrivateChat();
+    chat.setId(7L);
+    ChatMessage message = new ChatMessage();
+    message.setId(id);
+    message.setTimestamp(BASE.plusSeconds(secondsAfterBase));
+    message.setCipherText("cipher" + id);
+    message.setIv("iv");
+    message.setSender(sender);
+    message.setPrivateChat(chat);
+    return message;
+  }
+
+  @Test
+  void shouldReturnLatestPageInChronologicalOrder() {
+    givenChatOf("alice", "bob");
+    when(chatMessageRepository.findLatestInPrivateChat(eq(7L), any(Limit.class)))
+        .thenReturn(List.of(message(30, 3), message(20, 2), message(10, 1)));
+    givenDecryption();
+
+    MessagePageDto page = chatHistoryService.getPrivateChatPage(7L, "alice", null, null, null);
+
+    assertEquals(2, page.messages().size());
+    assertEquals(20L, page.messages().get(0).getId());
+    assertEquals(30L, page.messages().get(1).getId());
+    assertEquals("plain-cipher20", page.messages().get(0).getContent());
+    assertTrue(page.hasOlder());
+    assertFalse(page.hasNewer());
+    assertEquals(new MessageCursor(BASE.plusSeconds(2), 20L).encode(), page.olderCursor());
+    assertEquals(new MessageCursor(BASE.plusSeconds(3), 30L).encode(), page.newerCursor());
+
+    ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+    verify(chatMessageRepository).findLatestInPrivateChat(eq(7L), limit.capture());
+    assertEquals(3, limit.getValue().max());
+  }
+
+  @Test
+  void shouldLoadOlderPageBeforeCursor() {
+    givenChatOf("alice", "bob");
+    MessageCursor cursor = new MessageCursor(BASE.plusSeconds(2), 20L);
+    when(chatMessageRepository.findInPrivateChatBefore(
+            eq(7L), eq(cursor.timestamp()), eq(20L), any(Limit.class)))
+        .thenReturn(List.of(message(10, 1)));
+    givenDecryption();
+
+    MessagePageDto page =
+        chatHistoryService.getPrivateChatPage(7L, "bob", cursor.encode(), null, null);
+
+    assertEquals(1, page.messages().size());
+    assertFalse(page.hasOlder());
+    assertTrue(page.hasNewer());
+  }
+
+  @Test
+  void shouldLoadNewerPageAfterCursor() {
+    givenChatOf("alice", "bob");
+    MessageCursor cursor = new MessageCursor(BASE.plusSeconds(1), 10L);
+    when(chatMessageRepository.findInPrivateChatAfter(
+            eq(7L), eq(cursor.timestamp()), eq(10L), any(Limit.class)))
+        .thenReturn(List.of(message(20, 2), message(30, 3), message(40, 4)));
+    givenDecryption();
+
+    MessagePageDto page =
+        chatHistoryService.getPrivateChatPage(7L, "alice", null, cursor.encode(), null);
+
+    assertEquals(List.of(20L, 30L), page.messages().stream().map(m -> m.getId()).toList());
+    assertTrue(page.hasOlder());
+    assertTrue(page.hasNewer());
+  }
+
+  @Test
+  void shouldCapRequestedPageSize() {
+    givenChatOf("alice", "bob");
+    when(chatMessageRepository.findLatestInPrivateChat(eq(7L), any(Limit.class)))
+        .thenReturn(List.of());
+
+    MessagePageDto page = chatHistoryService.getPrivateChatPage(7L, "alice", null, null, 1000);
+
+    ArgumentCaptor<Limit> limit = ArgumentCaptor.forClass(Limit.class);
+    verify(chatMessageRepository).findLatestInPrivateChat(eq(7L), limit.capture());
+    assertEquals(6, limit.getValue().max());
+    assertTrue(page.messages().isEmpty());
+    assertNull(page.olderCursor());
+    assertNull(page.newerCursor());
+  }
+
+  @Test
+  void shouldReturnWholePrivateChatHistory_Unpaged() {
+    givenChatOf("alice", "bob");
+    when(chatMessageRepository.findAllInPrivateChat(7L))
+        .thenReturn(List.of(message(10, 1), message(20, 2), message(30, 3)));
+    givenDecryption();
+
+    List<ChatMessageDto> messages = chatHistoryService.getPrivateChatHistory(7L, "bob");
+
+    assertEquals(List.of(10L, 20L, 30L), messages.stream().map(ChatMessageDto::getId).toList());
+    assertEquals("plain-cipher30", messages.get(2).getContent());
+    assertEquals(7L, messages.get(2).getPrivateChatId());
+  }
+
+  @Test
+  void shouldRejectNonParticipant_OfWholeHistory() {
+    givenChatOf("alice", "bob");
+
+    assertThrows(
+        AccessDeniedException.class, () -> chatHistoryService.getPrivateChatHistory(7L, "mallory"));
+    verifyNoInteractions(chatMessageRepository);
+  }
+
+  @Test
+  void shouldRejectNonParticipant() {
+    givenChatOf("alice", "bob");
+
+    assertThrows(
+        AccessDeniedException.class,
+        () -> chatHistoryService.getPrivateChatPage(7L, "mallory", null, null, null));
+    verifyNoInteractions(chatMessageRepository);
+  }
+
+  @Test
+  void shouldRejectMalformedOrConflictingCursors() {
+    givenChatOf("alice", "bob");
+    String cursor = new MessageCursor(BASE, 1L).encode();
+
+    assertThrows(
+        InvalidCursorException.class,
+        () -> chatHistoryService.getPrivateChatPage(7L, "alice", "not-a-cursor", null, null));
+    assertThrows(
+        InvalidCursorException.class,
+        () -> chatHistoryService.getPrivateChatPage(7L, "alice", cursor, cursor, null));
+    verifyNoInteractions(chatMessageRepository);
+  }
+
+  @Test
+  void shouldListEachSenderOnceInCompactPage() {
+    givenChatOf("alice", "bob");
+    when(chatMessageRepository.findLatestInPrivateChat(eq(7L), any(Limit.class)))
+        .thenReturn(
+            List.of(
+                message(30, 3, 1L, "alice"),
+                message(20, 2, 2L, "bob"),
+                message(10, 1, 1L, "alice")));
+    givenDecryption();
+
+    CompactMessagePageDto page =
+        chatHistoryService.getCompactPrivateChatPage(7L, "alice", null, null, 5);
+
+    assertEquals(
+        List.of(
+            new CompactMessagePageDto.Sender(1L, "alice"),
+            new CompactMessagePageDto.Sender(2L, "bob")),
+        page.senders());
+    assertEquals(
+        List.of(0, 1, 0),
+        page.messages().stream().map(CompactMessagePageDto.Message::sender).toList());
+    assertEquals("plain-cipher10", page.messages().get(0).content());
+    assertEquals(BASE.plusSeconds(1).toString(), page.messages().get(0).timestamp());
+    assertFalse(page.hasOlder());
+  }
+
+  @Test
+  void shouldKeepUndecryptableMessagesInPage() {
+    givenChatOf("alice", "bob");
+    when(chatMessageRepository.findLatestInPrivateChat(eq(7L), any(Limit.class)))
+        .thenReturn(List.of(message(20, 2), message(10, 1)));
+    when(decryptionStage.decryptAll(anyList()))
+        .thenReturn(
+            List.of(
+                new Decrypted("first", null),
+                new Decrypted(null, new DecryptionFailedException("Decryption failed", null))));
+
+    MessagePageDto page = chatHistoryService.getPrivateChatPage(7L, "alice", null, null, null);
+
+    assertEquals(2, page.messages().size());
+    assertEquals("first", page.messages().get(0).getContent());
+    assertNull(page.messages().get(1).getContent());
+    assertEquals(20L, page.messages().get(1).getId());
+  }
+
+  @Test
+  void shouldReturnGroupPageForMember() {
+    when(referenceResolver.findGroup(3L)).thenReturn(Optional.of(new GroupRef(3L)));
+    when(groupMemberRepository.existsByGroupIdAndUserId(3L, 1L)).thenReturn(true);
+    when(chatMessageRepository.findLatestInGroup(eq(3L), any(Limit.class)))
+        .thenReturn(List.of(message(20, 2), message(10, 1)));
+    givenDecryption();
+
+    MessagePageDto page = chatHistoryService.getGroupPage(3L, 1L, null, null, null);
+
+    assertEquals(List.of(10L, 20L), page.messages().stream().map(m -> m.getId()).toList());
+    assertEquals("plain-cipher10", page.messages().get(0).getContent());
+    assertFalse(page.hasOlder());
+  }
+
+  @Test
+  void shouldRejectNonMemberOfGroup() {
+    when(referenceResolver.findGroup(3L)).thenReturn(Optional.of(new GroupRef(3L)));
+    when(groupMemberRepository.existsByGroupIdAndUserId(3L, 9L)).thenReturn(false);
+
+    assertThrows(
+        NotMemberException.class, () -> chatHistoryService.getGroupPage(3L, 9L, null, null, null));
+    verifyNoInteractions(chatMessageRepository, decryptionStage);
+  }
+
+  @Test
+  void cursorShouldRoundTrip() {
+    MessageCursor cursor = new MessageCursor(Instant.parse("2025-03-04T05:06:07.123456789Z"), 42L);
+
+    assertEquals(cursor, MessageCursor.decode(cursor.encode()));
+  }
+}
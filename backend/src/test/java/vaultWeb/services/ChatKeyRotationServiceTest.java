@@ -0,0 +1,247 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.exceptions.DecryptionFailedException;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.KeyRotationJob;
+import vaultWeb.models.enums.KeyRotationStatus;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.KeyRotationJobRepository;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+import vaultWeb.services.ConversationKeyService.Conversation;
+
+@ExtendWith(MockitoExtension.class)
+class ChatKeyRotationServiceTest {
+
+  private static final SecretKey TARGET_KEY = new SecretKeySpec(new byte[32], "AES");
+
+  @Mock private ConversationKeyService conversationKeyService;
+
+  @Mock private KeyRotationJobRepository jobRepository;
+
+  @Mock private ChatMessageRepository chatMessageRepository;
+
+  @Mock private ChatService chatService;
+
+  @Mock private ChatReferenceResolver referenceResolver;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private ChatKeyRotationService rotationService;
+
+  @BeforeEach
+  void setUp() {
+    rotationService =
+        new ChatKeyRotationService(
+            conversationKeyService,
+            jobRepository,
+            chatMessageRepository,
+            chatService,
+            referenceResolver,
+            transactionManager);
+    ReflectionTestUtils.setField(rotationService, "batchSize", 2);
+    ReflectionTestUtils.setField(rotationService, "lease", Duration.ofMinutes(5));
+  }
+
+  private KeyRotationJob groupJob(long lastMessageId) {
+    KeyRotationJob job = new KeyRotationJob();
+    job.setId(1L);
+    job.setGroupId(10L);
+    job.setTargetKeyId(7L);
+    job.setLastMessageId(lastMessageId);
+    job.setStatus(KeyRotationStatus.RUNNING);
+    job.setOwner(SchedulerLockService.OWNER);
+    job.setStartedAt(Instant.now().minus(ChatKeyRotationService.SETTLE));
+    return job;
+  }
+
+  private static ChatMessage legacyMessage(long id) {
+    return ChatMessage.builder().id(id).cipherText("c" + id).iv("iv").build();
+  }
+
+  @Test
+  void shouldReencryptBatchAndAdvanceCheckpoint() {
+    KeyRotationJob job = groupJob(0L);
+    ChatMessage first = legacyMessage(100L);
+    ChatMessage second = legacyMessage(101L);
+    when(jobRepository.findForUpdate(1L)).thenReturn(Optional.of(job));
+    when(chatMessageRepository.findGroupMessagesToRekey(eq(10L), eq(7L), eq(0L), any(Limit.class)))
+        .thenReturn(List.of(first, second));
+    when(conversationKeyService.key(7L)).thenReturn(TARGET_KEY);
+    when(chatService.decrypt(any(ChatMessage.class)))
+        .thenAnswer(i -> "text " + i.<ChatMessage>getArgument(0).getId());
+
+    assertEquals(ChatKeyRotationService.Progress.MORE, rotationService.processBatch(1L));
+
+    assertEquals(101L, job.getLastMessageId());
+    assertEquals(2L, job.getReencrypted());
+    assertEquals(KeyRotationStatus.RUNNING, job.getStatus());
+    assertTrue(job.getLeaseUntil().isAfter(Instant.now()));
+    verify(chatService).encryptInto(first, 7L, TARGET_KEY, "text 100");
+    verify(chatService).encryptInto(second, 7L, TARGET_KEY, "text 101");
+  }
+
+  @Test
+  void shouldFinishJobOnShortBatch() {
+    KeyRotationJob job = groupJob(101L);
+    when(jobRepository.findForUpdate(1L)).thenReturn(Optional.of(job));
+    when(chatMessageRepository.findGroupMessagesToRekey(
+            eq(10L), eq(7L), eq(101L), any(Limit.class)))
+        .thenReturn(List.of());
+    when(conversationKeyService.key(7L)).thenReturn(TARGET_KEY);
+
+    assertEquals(ChatKeyRotationService.Progress.STOPPED, rotationService.processBatch(1L));
+
+    assertEquals(KeyRotationStatus.DONE, job.getStatus());
+    assertNotNull(job.getFinishedAt());
+    assertEquals(101L, job.getLastMessageId());
+  }
+
+  @Test
+  void shouldNotFinishJob_BeforeOtherInstancesDroppedThePreviousKey() {
+    KeyRotationJob job = groupJob(101L);
+    job.setStartedAt(Instant.now());
+    when(jobRepository.findForUpdate(1L)).thenReturn(Optional.of(job));
+    when(chatMessageRepository.findGroupMessagesToRekey(
+            eq(10L), eq(7L), eq(101L), any(Limit.class)))
+        .thenReturn(List.of());
+    when(conversationKeyService.key(7L)).thenReturn(TARGET_KEY);
+
+    assertEquals(ChatKeyRotationService.Progress.SETTLING, rotationService.processBatch(1L));
+    assertEquals(KeyRotationStatus.RUNNING, job.getStatus());
+    assertNull(job.getFinishedAt());
+  }
+
+  @Test
+  void shouldSkipUndecryptableMessages() {
+    KeyRotationJob job = groupJob(0L);
+    ChatMessage broken = legacyMessage(100L);
+    when(jobRepository.findForUpdate(1L)).thenReturn(Optional.of(job));
+    when(chatMessageRepository.findGroupMessagesToRekey(eq(10L), eq(7L), eq(0L), any(Limit.class)))
+        .thenReturn(List.of(broken));
+    when(conversationKeyService.key(7L)).thenReturn(TARGET_KEY);
+    when(chatService.decrypt(broken)).thenThrow(new DecryptionFailedException("bad", null));
+
+    rotationService.processBatch(1L);
+
+    verify(chatService, never()).encryptInto(any(), any(), any(), any());
+    assertEquals(100L, job.getLastMessageId());
+    assertEquals(0L, job.getReencrypted());
+    assertEquals(KeyRotationStatus.DONE, job.getStatus());
+  }
+
+  @Test
+  void shouldStop_WhenAnotherInstanceTookTheJobOver() {
+    KeyRotationJob job = groupJob(0L);
+    job.setOwner("other-instance");
+    when(jobRepository.findForUpdate(1L)).thenReturn(Optional.of(job));
+
+    assertEquals(ChatKeyRotationService.Progress.STOPPED, rotationService.processBatch(1L));
+
+    assertEquals(KeyRotationStatus.RUNNING, job.getStatus());
+    verifyNoInteractions(chatMessageRepository, chatService);
+  }
+
+  @Test
+  void shouldNotResumeJob_ClaimedByAnotherInstance() {
+    rotationService.start();
+    try {
+      when(jobRepository.findByStatus(KeyRotationStatus.RUNNING)).thenReturn(List.of(groupJob(0L)));
+      when(jobRepository.claim(eq(1L), eq(SchedulerLockService.OWNER), any(), any())).thenReturn(0);
+
+      rotationService.resumeUnfinished();
+
+      verify(jobRepository, never()).findForUpdate(any());
+    } finally {
+      rotationService.shutdown();
+    }
+  }
+
+  @Test
+  void shouldResumeJob_OnceClaimed() {
+    rotationService.start();
+    try {
+      when(jobRepository.findByStatus(KeyRotationStatus.RUNNING)).thenReturn(List.of(groupJob(0L)));
+      when(jobRepository.claim(eq(1L), eq(SchedulerLockService.OWNER), any(), any())).thenReturn(1);
+
+      rotationService.resumeUnfinished();
+
+      verify(jobRepository, timeout(5000)).findForUpdate(1L);
+    } finally {
+      rotationService.shutdown();
+    }
+  }
+
+  @Test
+  void shouldRetryFailingBatch_ThenMarkJobFailed() {
+    ReflectionTestUtils.setField(rotationService, "maxAttempts", 2);
+    ReflectionTestUtils.setField(rotationService, "retryBackoffMs", 1L);
+    rotationService.start();
+    try {
+      when(jobRepository.findByStatus(KeyRotationStatus.RUNNING)).thenReturn(List.of(groupJob(0L)));
+      when(jobRepository.claim(eq(1L), eq(SchedulerLockService.OWNER), any(), any())).thenReturn(1);
+      when(jobRepository.findForUpdate(1L)).thenThrow(new IllegalStateException("stale batch"));
+
+      rotationService.resumeUnfinished();
+
+      verify(jobRepository, timeout(5000))
+          .markFailed(eq(1L), eq(SchedulerLockService.OWNER), any());
+      verify(jobRepository, times(2)).findForUpdate(1L);
+    } finally {
+      rotationService.shutdown();
+    }
+  }
+
+  @Test
+  void shouldRestartFailedJob_InsteadOfRotatingAgain() {
+    KeyRotationJob failed = groupJob(100L);
+    failed.setStatus(KeyRotationStatus.FAILED);
+    failed.setOwner(null);
+    failed.setFinishedAt(Instant.now());
+    rotationService.start();
+    try {
+      when(jobRepository.findFirstByGroupIdOrderByIdDesc(10L)).thenReturn(Optional.of(failed));
+      when(jobRepository.save(failed)).thenReturn(failed);
+
+      KeyRotationJob job = rotationService.startRotation(Conversation.group(10L));
+
+      assertSame(failed, job);
+      assertEquals(KeyRotationStatus.RUNNING, job.getStatus());
+      assertEquals(SchedulerLockService.OWNER, job.getOwner());
+      assertNull(job.getFinishedAt());
+      verify(conversationKeyService, never()).rotate(any());
+    } finally {
+      rotationService.shutdown();
+    }
+  }
+
+  @Test
+  void shouldRejectPrivateChatRotationByNonParticipant() {
+    when(referenceResolver.findPrivateChat(5L))
+        .thenReturn(Optional.of(new PrivateChatRef(5L, 1L, "alice", 2L, "bob")));
+
+    assertThrows(
+        AccessDeniedException.class, () -> rotationService.rotatePrivateChatKey(5L, "mallory"));
+    verify(conversationKeyService, never()).rotate(any());
+    verify(jobRepository, never()).save(any());
+  }
+}
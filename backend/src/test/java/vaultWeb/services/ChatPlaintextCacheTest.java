@@ -0,0 +1,126 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.ChatMessagesDeletedEvent;
+
+class ChatPlaintextCacheTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ChatPlaintextCache newCache(boolean enabled, long maxBytes) {
+    ChatPlaintextCache cache = new ChatPlaintextCache(meterRegistry);
+    ReflectionTestUtils.setField(cache, "enabled", enabled);
+    ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+    ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+    cache.start();
+    return cache;
+  }
+
+  @Test
+  void shouldReturnCachedPlaintext() {
+    ChatPlaintextCache cache = newCache(true, 1_000_000);
+
+    cache.put(1L, "Grüße");
+
+    assertEquals("Grüße", cache.get(1L));
+    assertNull(cache.get(2L));
+  }
+
+  @Test
+  void shouldForgetInvalidatedEntries() {
+    ChatPlaintextCache cache = newCache(true, 1_000_000);
+    cache.put(1L, "secret");
+
+    cache.invalidate(1L);
+
+    assertNull(cache.get(1L));
+  }
+
+  @Test
+  void shouldCacheSavedMessages_OnlyWhenThePlaintextIsKnown() {
+    ChatPlaintextCache cache = newCache(true, 1_000_000);
+
+    cache.onChatMessageSaved(new ChatMessageSavedEvent(1L, 7L, 10L, null, Instant.now(), "sent"));
+    cache.onChatMessageSaved(new ChatMessageSavedEvent(2L, 7L, 10L, null, Instant.now(), null));
+
+    assertEquals("sent", cache.get(1L));
+    assertNull(cache.get(2L));
+  }
+
+  @Test
+  void shouldForgetDeletedMessages() {
+    ChatPlaintextCache cache = newCache(true, 1_000_000);
+    cache.put(1L, "deleted");
+    cache.put(2L, "deleted too");
+    cache.put(3L, "kept");
+
+    cache.onChatMessagesDeleted(new ChatMessagesDeletedEvent(Map.of(7L, 2L), List.of(1L, 2L)));
+
+    assertNull(cache.get(1L));
+    assertNull(cache.get(2L));
+    assertEquals("kept", cache.get(3L));
+  }
+
+  @Test
+  void shouldStayWithinMemoryCeiling() {
+    // room for roughly three entries of this size
+    ChatPlaintextCache cache = newCache(true, 3 * (1_000 + 96));
+    String text = "x".repeat(1_000);
+
+    for (long id = 0; id < 20; id++) {
+      cache.put(id, text);
+    }
+
+    long cached = 0;
+    for (long id = 0; id < 20; id++) {
+      if (cache.get(id) != null) {
+        cached++;
+      }
+    }
+    assertTrue(cached <= 3, "cached " + cached + " entries");
+  }
+
+  @Test
+  void shouldDoNothingWhenDisabled() {
+    ChatPlaintextCache cache = newCache(false, 1_000_000);
+
+    cache.put(1L, "secret");
+
+    assertNull(cache.get(1L));
+    assertNull(meterRegistry.find("cache.gets").meter());
+  }
+
+  @Test
+  void shouldPublishHitAndMissMetrics() {
+    ChatPlaintextCache cache = newCache(true, 1_000_000);
+    cache.put(1L, "hello");
+
+    cache.get(1L);
+    cache.get(2L);
+
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "chat.plaintext")
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "chat.plaintext")
+            .tag("result", "miss")
+            .functionCounter()
+            .count());
+  }
+}
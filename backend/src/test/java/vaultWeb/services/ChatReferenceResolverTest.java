@@ -0,0 +1,86 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vaultWeb.models.PrivateChat;
+import vaultWeb.models.User;
+import vaultWeb.repositories.GroupRepository;
+import vaultWeb.repositories.PrivateChatRepository;
+import vaultWeb.repositories.UserRepository;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+import vaultWeb.services.ChatReferenceResolver.SenderRef;
+
+@ExtendWith(MockitoExtension.class)
+class ChatReferenceResolverTest {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private GroupRepository groupRepository;
+
+  @Mock private PrivateChatRepository privateChatRepository;
+
+  @InjectMocks private ChatReferenceResolver resolver;
+
+  private User createUser(Long id, String username) {
+    User user = new User();
+    user.setId(id);
+    user.setUsername(username);
+    return user;
+  }
+
+  @Test
+  void shouldLoadSenderOnlyOnce() {
+    when(userRepository.findById(1L)).thenReturn(Optional.of(createUser(1L, "alice")));
+
+    SenderRef first = resolver.findSenderById(1L).orElseThrow();
+    SenderRef second = resolver.findSenderById(1L).orElseThrow();
+    SenderRef byName = resolver.findSenderByUsername("alice").orElseThrow();
+
+    assertEquals(new SenderRef(1L, "alice"), first);
+    assertEquals(first, second);
+    assertEquals(first, byName);
+    verify(userRepository, times(1)).findById(1L);
+    verify(userRepository, never()).findByUsername(any());
+  }
+
+  @Test
+  void shouldNotCacheMissingSender() {
+    when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+    assertTrue(resolver.findSenderByUsername("ghost").isEmpty());
+    assertTrue(resolver.findSenderByUsername("ghost").isEmpty());
+
+    verify(userRepository, times(2)).findByUsername("ghost");
+  }
+
+  @Test
+  void shouldReloadGroupAfterEviction() {
+    when(groupRepository.existsById(10L)).thenReturn(true, false);
+
+    assertTrue(resolver.findGroup(10L).isPresent());
+    assertTrue(resolver.findGroup(10L).isPresent());
+    resolver.evictGroup(10L);
+    assertTrue(resolver.findGroup(10L).isEmpty());
+
+    verify(groupRepository, times(2)).existsById(10L);
+  }
+
+  @Test
+  void shouldResolvePrivateChatParticipants() {
+    PrivateChat chat = new PrivateChat(5L, createUser(1L, "alice"), createUser(2L, "bob"));
+    when(privateChatRepository.findById(5L)).thenReturn(Optional.of(chat));
+
+    PrivateChatRef ref = resolver.findPrivateChat(5L).orElseThrow();
+    resolver.findPrivateChat(5L);
+
+    assertEquals(new PrivateChatRef(5L, 1L, "alice", 2L, "bob"), ref);
+    verify(privateChatRepository, times(1)).findById(5L);
+  }
+}
@@ -4,13 +4,19 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import javax.crypto.spec.SecretKeySpec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import vaultWeb.dtos.ChatMessageDto;
+import vaultWeb.events.ChatMessageSavedEvent;
 import vaultWeb.exceptions.DecryptionFailedException;
 import vaultWeb.exceptions.EncryptionFailedException;
 import vaultWeb.exceptions.notfound.GroupNotFoundException;
@@ -24,10 +30,19 @@ import vaultWeb.repositories.GroupRepository;
 import vaultWeb.repositories.PrivateChatRepository;
 import vaultWeb.repositories.UserRepository;
 import vaultWeb.security.EncryptionUtil;
+import vaultWeb.security.MessagePayloadCodec;
+import vaultWeb.services.ChatReferenceResolver.GroupRef;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+import vaultWeb.services.ChatReferenceResolver.SenderRef;
+import vaultWeb.services.ConversationKeyService.Conversation;
+import vaultWeb.services.ConversationKeyService.DataKey;
 
 @ExtendWith(MockitoExtension.class)
 class ChatServiceTest {
 
+  private static final DataKey DATA_KEY =
+      new DataKey(7L, 1, new SecretKeySpec(new byte[32], "AES"));
+
   @Mock private ChatMessageRepository chatMessageRepository;
 
   @Mock private UserRepository userRepository;
@@ -38,6 +53,18 @@ class ChatServiceTest {
 
   @Mock private EncryptionUtil encryptionUtil;
 
+  @Mock private ChatReferenceResolver referenceResolver;
+
+  @Mock private ChatWriteBehindPipeline writeBehindPipeline;
+
+  @Mock private ConversationKeyService conversationKeyService;
+
+  @Mock private ConversationSummaryService summaryService;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Spy private MessagePayloadCodec payloadCodec = new MessagePayloadCodec(true, 256);
+
   @InjectMocks private ChatService chatService;
 
   private User createUser(Long id, String username) {
@@ -53,6 +80,18 @@ class ChatServiceTest {
     return group;
   }
 
+  private static byte[] utf8(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] payload(String text) {
+    return new MessagePayloadCodec(true, 256).encode(text);
+  }
+
+  private static EncryptionUtil.EncryptedBytes encrypted(String cipherText, String iv) {
+    return new EncryptionUtil.EncryptedBytes(utf8(cipherText), utf8(iv));
+  }
+
   private PrivateChat createPrivateChat(Long id) {
     PrivateChat chat = new PrivateChat();
     chat.setId(id);
@@ -68,22 +107,29 @@ class ChatServiceTest {
     dto.setGroupId(10L);
     dto.setContent("Hello World");
 
-    EncryptionUtil.EncryptResult encryptResult =
-        new EncryptionUtil.EncryptResult("encryptedText", "randomIV");
+    EncryptionUtil.EncryptedBytes encryptResult = encrypted("encryptedText", "randomIV");
 
-    when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
-    when(groupRepository.findById(10L)).thenReturn(Optional.of(group));
-    when(encryptionUtil.encrypt("Hello World")).thenReturn(encryptResult);
+    when(referenceResolver.findSenderById(1L)).thenReturn(Optional.of(new SenderRef(1L, "user1")));
+    when(userRepository.getReferenceById(1L)).thenReturn(sender);
+    when(referenceResolver.findGroup(10L)).thenReturn(Optional.of(new GroupRef(10L)));
+    when(groupRepository.getReferenceById(10L)).thenReturn(group);
+    when(conversationKeyService.activeKey(Conversation.group(10L))).thenReturn(DATA_KEY);
+    when(encryptionUtil.encrypt(DATA_KEY.key(), payload("Hello World"))).thenReturn(encryptResult);
     when(chatMessageRepository.save(any(ChatMessage.class))).thenAnswer(i -> i.getArgument(0));
 
     ChatMessage result = chatService.saveMessage(dto);
 
     assertNotNull(result);
-    assertEquals("encryptedText", result.getCipherText());
-    assertEquals("randomIV", result.getIv());
+    assertArrayEquals(utf8("encryptedText"), result.getCipherBytes());
+    assertArrayEquals(utf8("randomIV"), result.getIvBytes());
+    assertEquals(7L, result.getKeyId());
+    assertEquals(MessagePayloadCodec.VERSION, result.getPayloadVersion());
+    assertNull(result.getCipherText());
     assertEquals(sender, result.getSender());
     assertEquals(group, result.getGroup());
     verify(chatMessageRepository).save(any(ChatMessage.class));
+    verify(summaryService).recordMessages(List.of(result));
+    verify(eventPublisher).publishEvent(ChatMessageSavedEvent.of(result, "Hello World"));
   }
 
   @Test
@@ -95,12 +141,17 @@ class ChatServiceTest {
     dto.setPrivateChatId(5L);
     dto.setContent("Private message");
 
-    EncryptionUtil.EncryptResult encryptResult =
-        new EncryptionUtil.EncryptResult("encryptedPrivate", "privateIV");
-
-    when(userRepository.findByUsername("user1")).thenReturn(Optional.of(sender));
-    when(privateChatRepository.findById(5L)).thenReturn(Optional.of(privateChat));
-    when(encryptionUtil.encrypt("Private message")).thenReturn(encryptResult);
+    EncryptionUtil.EncryptedBytes encryptResult = encrypted("encryptedPrivate", "privateIV");
+
+    when(referenceResolver.findSenderByUsername("user1"))
+        .thenReturn(Optional.of(new SenderRef(1L, "user1")));
+    when(userRepository.getReferenceById(1L)).thenReturn(sender);
+    when(referenceResolver.findPrivateChat(5L))
+        .thenReturn(Optional.of(new PrivateChatRef(5L, 1L, "user1", 2L, "user2")));
+    when(privateChatRepository.getReferenceById(5L)).thenReturn(privateChat);
+    when(conversationKeyService.activeKey(Conversation.privateChat(5L))).thenReturn(DATA_KEY);
+    when(encryptionUtil.encrypt(DATA_KEY.key(), payload("Private message")))
+        .thenReturn(encryptResult);
     when(chatMessageRepository.save(any(ChatMessage.class))).thenAnswer(i -> i.getArgument(0));
 
     ChatMessage result = chatService.saveMessage(dto);
@@ -110,6 +161,34 @@ class ChatServiceTest {
     verify(chatMessageRepository).save(any(ChatMessage.class));
   }
 
+  @Test
+  void shouldQueueMessageInsteadOfSaving_WhenWriteBehindEnabled() throws Exception {
+    User sender = createUser(1L, "user1");
+    Group group = createGroup(10L);
+    ChatMessageDto dto = new ChatMessageDto();
+    dto.setSenderId(1L);
+    dto.setGroupId(10L);
+    dto.setContent("Hello World");
+
+    when(referenceResolver.findSenderById(1L)).thenReturn(Optional.of(new SenderRef(1L, "user1")));
+    when(userRepository.getReferenceById(1L)).thenReturn(sender);
+    when(referenceResolver.findGroup(10L)).thenReturn(Optional.of(new GroupRef(10L)));
+    when(groupRepository.getReferenceById(10L)).thenReturn(group);
+    when(conversationKeyService.activeKey(Conversation.group(10L))).thenReturn(DATA_KEY);
+    when(encryptionUtil.encrypt(DATA_KEY.key(), payload("Hello World")))
+        .thenReturn(encrypted("encryptedText", "randomIV"));
+    when(writeBehindPipeline.isEnabled()).thenReturn(true);
+
+    ChatMessage result = chatService.saveMessage(dto);
+
+    assertNotNull(result.getId());
+    assertArrayEquals(utf8("encryptedText"), result.getCipherBytes());
+    assertEquals(group, result.getGroup());
+    verify(writeBehindPipeline).enqueue(result);
+    verify(chatMessageRepository, never()).save(any());
+    verifyNoInteractions(summaryService, eventPublisher);
+  }
+
   @Test
   void shouldFailSaveMessage_WhenSenderNotFoundById() {
     ChatMessageDto dto = new ChatMessageDto();
@@ -117,7 +196,7 @@ class ChatServiceTest {
     dto.setGroupId(10L);
     dto.setContent("Hello");
 
-    when(userRepository.findById(999L)).thenReturn(Optional.empty());
+    when(referenceResolver.findSenderById(999L)).thenReturn(Optional.empty());
 
     assertThrows(UserNotFoundException.class, () -> chatService.saveMessage(dto));
     verify(chatMessageRepository, never()).save(any());
@@ -130,7 +209,7 @@ class ChatServiceTest {
     dto.setGroupId(10L);
     dto.setContent("Hello");
 
-    when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+    when(referenceResolver.findSenderByUsername("unknown")).thenReturn(Optional.empty());
 
     assertThrows(UserNotFoundException.class, () -> chatService.saveMessage(dto));
     verify(chatMessageRepository, never()).save(any());
@@ -154,12 +233,9 @@ class ChatServiceTest {
     dto.setGroupId(999L);
     dto.setContent("Hello");
 
-    EncryptionUtil.EncryptResult encryptResult =
-        new EncryptionUtil.EncryptResult("encrypted", "iv");
-
-    when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
-    when(encryptionUtil.encrypt("Hello")).thenReturn(encryptResult);
-    when(groupRepository.findById(999L)).thenReturn(Optional.empty());
+    when(referenceResolver.findSenderById(1L)).thenReturn(Optional.of(new SenderRef(1L, "user1")));
+    when(userRepository.getReferenceById(1L)).thenReturn(sender);
+    when(referenceResolver.findGroup(999L)).thenReturn(Optional.empty());
 
     assertThrows(GroupNotFoundException.class, () -> chatService.saveMessage(dto));
     verify(chatMessageRepository, never()).save(any());
@@ -172,11 +248,8 @@ class ChatServiceTest {
     dto.setSenderId(1L);
     dto.setContent("Hello");
 
-    EncryptionUtil.EncryptResult encryptResult =
-        new EncryptionUtil.EncryptResult("encrypted", "iv");
-
-    when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
-    when(encryptionUtil.encrypt("Hello")).thenReturn(encryptResult);
+    when(referenceResolver.findSenderById(1L)).thenReturn(Optional.of(new SenderRef(1L, "user1")));
+    when(userRepository.getReferenceById(1L)).thenReturn(sender);
 
     assertThrows(GroupNotFoundException.class, () -> chatService.saveMessage(dto));
     verify(chatMessageRepository, never()).save(any());
@@ -184,14 +257,16 @@ class ChatServiceTest {
 
   @Test
   void shouldFailSaveMessage_WhenEncryptionFails() throws Exception {
-    User sender = createUser(1L, "user1");
     ChatMessageDto dto = new ChatMessageDto();
     dto.setSenderId(1L);
     dto.setGroupId(10L);
     dto.setContent("Hello");
 
-    when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
-    when(encryptionUtil.encrypt("Hello")).thenThrow(new RuntimeException("Encryption error"));
+    when(referenceResolver.findSenderById(1L)).thenReturn(Optional.of(new SenderRef(1L, "user1")));
+    when(referenceResolver.findGroup(10L)).thenReturn(Optional.of(new GroupRef(10L)));
+    when(conversationKeyService.activeKey(Conversation.group(10L))).thenReturn(DATA_KEY);
+    when(encryptionUtil.encrypt(DATA_KEY.key(), payload("Hello")))
+        .thenThrow(new RuntimeException("Encryption error"));
 
     assertThrows(EncryptionFailedException.class, () -> chatService.saveMessage(dto));
     verify(chatMessageRepository, never()).save(any());
@@ -206,6 +281,52 @@ class ChatServiceTest {
     assertEquals("decrypted message", result);
   }
 
+  @Test
+  void shouldDecryptBinaryMessage() throws Exception {
+    ChatMessage message = new ChatMessage();
+    message.setCipherBytes(utf8("cipher"));
+    message.setIvBytes(utf8("iv"));
+    when(encryptionUtil.decrypt(utf8("cipher"), utf8("iv"))).thenReturn(utf8("Grüße"));
+
+    assertEquals("Grüße", chatService.decrypt(message));
+  }
+
+  @Test
+  void shouldDecryptMessageWithItsDataKey() throws Exception {
+    ChatMessage message = new ChatMessage();
+    message.setCipherBytes(utf8("cipher"));
+    message.setIvBytes(utf8("iv"));
+    message.setKeyId(7L);
+    when(conversationKeyService.key(7L)).thenReturn(DATA_KEY.key());
+    when(encryptionUtil.decrypt(DATA_KEY.key(), utf8("cipher"), utf8("iv")))
+        .thenReturn(utf8("keyed message"));
+
+    assertEquals("keyed message", chatService.decrypt(message));
+    verify(encryptionUtil, never()).decrypt(any(byte[].class), any(byte[].class));
+  }
+
+  @Test
+  void shouldDecryptCompressedPayload() throws Exception {
+    String longText = "2026-10-16 12:00:01 ERROR Request failed\n".repeat(50);
+    ChatMessage message = new ChatMessage();
+    message.setCipherBytes(utf8("cipher"));
+    message.setIvBytes(utf8("iv"));
+    message.setPayloadVersion(MessagePayloadCodec.VERSION);
+    when(encryptionUtil.decrypt(utf8("cipher"), utf8("iv"))).thenReturn(payload(longText));
+
+    assertEquals(longText, chatService.decrypt(message));
+  }
+
+  @Test
+  void shouldDecryptLegacyBase64Message() throws Exception {
+    ChatMessage message = new ChatMessage();
+    message.setCipherText("cipherText");
+    message.setIv("iv");
+    when(encryptionUtil.decrypt("cipherText", "iv")).thenReturn("legacy message");
+
+    assertEquals("legacy message", chatService.decrypt(message));
+  }
+
   @Test
   void shouldFailDecrypt_WhenDecryptionFails() throws Exception {
     when(encryptionUtil.decrypt("badCipher", "badIv"))
@@ -222,12 +343,9 @@ class ChatServiceTest {
     dto.setPrivateChatId(99L);
     dto.setContent("Hello");
 
-    EncryptionUtil.EncryptResult encryptResult =
-        new EncryptionUtil.EncryptResult("encrypted", "iv");
-
-    when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
-    when(privateChatRepository.findById(99L)).thenReturn(Optional.empty());
-    when(encryptionUtil.encrypt("Hello")).thenReturn(encryptResult);
+    when(referenceResolver.findSenderById(1L)).thenReturn(Optional.of(new SenderRef(1L, "user1")));
+    when(userRepository.getReferenceById(1L)).thenReturn(sender);
+    when(referenceResolver.findPrivateChat(99L)).thenReturn(Optional.empty());
 
     assertThrows(GroupNotFoundException.class, () -> chatService.saveMessage(dto));
 
@@ -0,0 +1,135 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.exceptions.ChatBackpressureException;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.User;
+import vaultWeb.models.ids.SnowflakeIdGenerator;
+
+@ExtendWith(MockitoExtension.class)
+class ChatWriteBehindPipelineTest {
+
+  @Mock private EntityManager entityManager;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @Mock private ConversationSummaryService summaryService;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @InjectMocks private ChatWriteBehindPipeline pipeline;
+
+  private final List<ChatMessage> persisted = new ArrayList<>();
+
+  private final User sender = new User();
+
+  @BeforeEach
+  void configure() {
+    ReflectionTestUtils.setField(pipeline, "entityManager", entityManager);
+    ReflectionTestUtils.setField(pipeline, "enabled", true);
+    ReflectionTestUtils.setField(pipeline, "batchSize", 50);
+    ReflectionTestUtils.setField(pipeline, "flushIntervalMs", 20L);
+    ReflectionTestUtils.setField(pipeline, "queueCapacity", 100);
+    ReflectionTestUtils.setField(pipeline, "offerTimeoutMs", 0L);
+    ReflectionTestUtils.setField(pipeline, "shutdownTimeoutMs", 5000L);
+  }
+
+  @AfterEach
+  void stop() {
+    pipeline.shutdown();
+  }
+
+  private ChatMessage createMessage() {
+    ChatMessage message = new ChatMessage();
+    message.setId(SnowflakeIdGenerator.next());
+    message.setSender(sender);
+    message.setCipherText("cipher");
+    message.setIv("iv");
+    message.setTimestamp(Instant.now());
+    return message;
+  }
+
+  private void recordSaves() {
+    doAnswer(
+            invocation -> {
+              synchronized (persisted) {
+                persisted.add(invocation.getArgument(0));
+              }
+              return null;
+            })
+        .when(entityManager)
+        .persist(any(ChatMessage.class));
+  }
+
+  @Test
+  void shouldPersistQueuedMessagesInBatches() {
+    recordSaves();
+    sender.setId(7L);
+    pipeline.start();
+
+    for (int i = 0; i < 10; i++) {
+      pipeline.enqueue(createMessage());
+    }
+
+    verify(entityManager, timeout(2000).atLeastOnce()).persist(any(ChatMessage.class));
+    pipeline.shutdown();
+    assertEquals(10, persisted.size());
+    verify(summaryService, atLeastOnce()).recordMessages(any());
+  }
+
+  @Test
+  void shouldDrainQueueOnShutdown() {
+    recordSaves();
+    pipeline.start();
+
+    for (int i = 0; i < 25; i++) {
+      pipeline.enqueue(createMessage());
+    }
+    pipeline.shutdown();
+
+    assertEquals(25, persisted.size());
+    assertEquals(0, pipeline.pendingCount());
+    assertThrows(ChatBackpressureException.class, () -> pipeline.enqueue(createMessage()));
+  }
+
+  @Test
+  void shouldRejectMessages_WhenQueueIsFull() throws Exception {
+    ReflectionTestUtils.setField(pipeline, "queueCapacity", 1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return null;
+            })
+        .when(entityManager)
+        .persist(any(ChatMessage.class));
+    pipeline.start();
+
+    pipeline.enqueue(createMessage());
+    verify(entityManager, timeout(2000)).persist(any(ChatMessage.class));
+
+    pipeline.enqueue(createMessage());
+    assertThrows(ChatBackpressureException.class, () -> pipeline.enqueue(createMessage()));
+
+    release.countDown();
+  }
+}
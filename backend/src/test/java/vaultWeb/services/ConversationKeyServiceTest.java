@@ -0,0 +1,129 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.models.ConversationKey;
+import vaultWeb.repositories.ConversationKeyRepository;
+import vaultWeb.security.EncryptionUtil;
+import vaultWeb.services.ConversationKeyService.Conversation;
+import vaultWeb.services.ConversationKeyService.DataKey;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationKeyServiceTest {
+
+  @Mock private ConversationKeyRepository keyRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private final EncryptionUtil encryptionUtil =
+      new EncryptionUtil(Base64.getEncoder().encodeToString(new byte[32]));
+
+  private ConversationKeyService keyService;
+
+  @BeforeEach
+  void setUp() {
+    keyService = new ConversationKeyService(keyRepository, encryptionUtil, transactionManager);
+  }
+
+  private static ConversationKey withId(ConversationKey key, long id) {
+    key.setId(id);
+    return key;
+  }
+
+  @Test
+  void shouldCreateFirstKeyOnceAndReuseIt() {
+    when(keyRepository.findFirstByGroupIdAndActiveTrueOrderByVersionDesc(10L))
+        .thenReturn(Optional.empty());
+    when(keyRepository.saveAndFlush(any(ConversationKey.class)))
+        .thenAnswer(i -> withId(i.getArgument(0), 1L));
+
+    DataKey first = keyService.activeKey(Conversation.group(10L));
+    DataKey second = keyService.activeKey(Conversation.group(10L));
+
+    assertEquals(1L, first.id());
+    assertEquals(1, first.version());
+    assertSame(first, second);
+    verify(keyRepository, times(1)).saveAndFlush(any());
+  }
+
+  @Test
+  void shouldStoreKeyWrappedAndUnwrapItById() throws Exception {
+    when(keyRepository.findFirstByPrivateChatIdAndActiveTrueOrderByVersionDesc(5L))
+        .thenReturn(Optional.empty());
+    ConversationKey[] stored = new ConversationKey[1];
+    when(keyRepository.saveAndFlush(any(ConversationKey.class)))
+        .thenAnswer(i -> stored[0] = withId(i.getArgument(0), 3L));
+
+    DataKey key = keyService.activeKey(Conversation.privateChat(5L));
+    EncryptionUtil.EncryptedBytes encrypted =
+        encryptionUtil.encrypt(key.key(), "hello".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(5L, stored[0].getPrivateChatId());
+    assertTrue(stored[0].isActive());
+    byte[] unwrapped = encryptionUtil.decrypt(stored[0].getWrappedKey(), stored[0].getWrapIv());
+    assertEquals(32, unwrapped.length);
+
+    // a fresh instance has nothing cached and must unwrap the stored row
+    ConversationKeyService restarted =
+        new ConversationKeyService(keyRepository, encryptionUtil, transactionManager);
+    when(keyRepository.findById(3L)).thenReturn(Optional.of(stored[0]));
+
+    byte[] plaintext =
+        encryptionUtil.decrypt(restarted.key(3L), encrypted.cipherText(), encrypted.iv());
+    assertEquals("hello", new String(plaintext, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void shouldRetireCurrentKeyOnRotation() {
+    ConversationKey current = new ConversationKey();
+    current.setId(1L);
+    current.setGroupId(10L);
+    current.setVersion(1);
+    current.setActive(true);
+    when(keyRepository.findFirstByGroupIdAndActiveTrueOrderByVersionDesc(10L))
+        .thenReturn(Optional.of(current));
+    when(keyRepository.findFirstByGroupIdOrderByVersionDesc(10L)).thenReturn(Optional.of(current));
+    when(keyRepository.save(any(ConversationKey.class)))
+        .thenAnswer(i -> i.getArgument(0) == current ? current : withId(i.getArgument(0), 2L));
+
+    DataKey rotated = keyService.rotate(Conversation.group(10L));
+
+    assertEquals(2L, rotated.id());
+    assertEquals(2, rotated.version());
+    assertFalse(current.isActive());
+    assertNotNull(current.getRetiredAt());
+  }
+
+  @Test
+  void shouldPreloadOnlyKeysThatAreNotCached() {
+    when(keyRepository.findFirstByGroupIdAndActiveTrueOrderByVersionDesc(10L))
+        .thenReturn(Optional.empty());
+    ConversationKey[] stored = new ConversationKey[1];
+    when(keyRepository.saveAndFlush(any(ConversationKey.class)))
+        .thenAnswer(i -> stored[0] = withId(i.getArgument(0), 1L));
+    keyService.activeKey(Conversation.group(10L));
+
+    ConversationKeyService restarted =
+        new ConversationKeyService(keyRepository, encryptionUtil, transactionManager);
+    when(keyRepository.findAllById(List.of(1L))).thenReturn(List.of(stored[0]));
+
+    restarted.preload(List.of(1L, 1L));
+    restarted.preload(List.of(1L));
+    restarted.key(1L);
+
+    verify(keyRepository, times(1)).findAllById(any());
+    verify(keyRepository, never()).findById(any());
+  }
+}
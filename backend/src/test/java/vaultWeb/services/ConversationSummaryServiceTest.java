@@ -0,0 +1,102 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.models.ChatMessage;
+import vaultWeb.models.ConversationSummary;
+import vaultWeb.models.Group;
+import vaultWeb.models.PrivateChat;
+import vaultWeb.repositories.ConversationSummaryRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationSummaryServiceTest {
+
+  private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+  @Mock private ConversationSummaryRepository summaryRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @InjectMocks private ConversationSummaryService summaryService;
+
+  private static ChatMessage groupMessage(Long id, Long groupId, Instant timestamp) {
+    Group group = new Group();
+    group.setId(groupId);
+    ChatMessage message = new ChatMessage();
+    message.setId(id);
+    message.setGroup(group);
+    message.setTimestamp(timestamp);
+    return message;
+  }
+
+  private static ChatMessage privateMessage(Long id, Long privateChatId, Instant timestamp) {
+    PrivateChat chat = new PrivateChat();
+    chat.setId(privateChatId);
+    ChatMessage message = new ChatMessage();
+    message.setId(id);
+    message.setPrivateChat(chat);
+    message.setTimestamp(timestamp);
+    return message;
+  }
+
+  @Test
+  void shouldAddEachConversationOnceWithItsNewestMessage() {
+    when(summaryRepository.addGroupMessages(10L, 2, 2L, T0.plusSeconds(5))).thenReturn(1);
+    when(summaryRepository.addPrivateChatMessages(5L, 1, 3L, T0)).thenReturn(1);
+
+    summaryService.recordMessages(
+        List.of(
+            groupMessage(2L, 10L, T0.plusSeconds(5)),
+            privateMessage(3L, 5L, T0),
+            groupMessage(1L, 10L, T0)));
+
+    verify(summaryRepository, never()).insertEmptyForGroup(any());
+    verify(summaryRepository, never()).insertEmptyForPrivateChat(any());
+  }
+
+  @Test
+  void shouldPickHigherIdAsNewest_WhenTimestampsAreEqual() {
+    when(summaryRepository.addPrivateChatMessages(5L, 2, 8L, T0)).thenReturn(1);
+
+    summaryService.recordMessages(List.of(privateMessage(8L, 5L, T0), privateMessage(7L, 5L, T0)));
+
+    verify(summaryRepository).addPrivateChatMessages(5L, 2, 8L, T0);
+  }
+
+  @Test
+  void shouldCreateSummary_WhenConversationHasNone() {
+    when(summaryRepository.addGroupMessages(10L, 1, 1L, T0)).thenReturn(0, 1);
+
+    summaryService.recordMessages(List.of(groupMessage(1L, 10L, T0)));
+
+    InOrder order = inOrder(summaryRepository);
+    order.verify(summaryRepository).addGroupMessages(10L, 1, 1L, T0);
+    order.verify(summaryRepository).insertEmptyForGroup(10L);
+    order.verify(summaryRepository).addGroupMessages(10L, 1, 1L, T0);
+  }
+
+  @Test
+  void shouldIndexPrivateChatSummariesById() {
+    ConversationSummary summary = new ConversationSummary();
+    summary.setPrivateChatId(5L);
+    summary.setMessageCount(4);
+    when(summaryRepository.findByPrivateChatIdIn(List.of(5L, 6L))).thenReturn(List.of(summary));
+
+    Map<Long, ConversationSummary> summaries =
+        summaryService.findPrivateChatSummaries(List.of(5L, 6L));
+
+    assertEquals(Map.of(5L, summary), summaries);
+    assertTrue(summaryService.findPrivateChatSummaries(List.of()).isEmpty());
+  }
+}
@@ -0,0 +1,256 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import vaultWeb.dtos.dashboard.DashboardSection;
+import vaultWeb.dtos.dashboard.UserDashboardDto;
+import vaultWeb.dtos.dashboard.UserDashboardDto.GroupSummary;
+import vaultWeb.dtos.dashboard.UserDashboardDto.ProfileSummary;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.GroupChangedEvent;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.models.User;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCacheTest {
+
+  @Mock private DashboardService dashboardService;
+
+  @Mock private ChatReferenceResolver referenceResolver;
+
+  @Mock private GroupMemberRepository groupMemberRepository;
+
+  @InjectMocks private DashboardCache dashboardCache;
+
+  private final User user = createUser(1L);
+
+  @BeforeEach
+  void configure() {
+    ReflectionTestUtils.setField(dashboardCache, "enabled", true);
+    ReflectionTestUtils.setField(dashboardCache, "maxUsers", 100L);
+    ReflectionTestUtils.setField(dashboardCache, "ttlSeconds", 60L);
+    dashboardCache.init();
+  }
+
+  private static User createUser(Long id) {
+    User user = new User();
+    user.setId(id);
+    user.setUsername("user" + id);
+    return user;
+  }
+
+  private static UserDashboardDto dashboard(long messagesSent, Long... groupIds) {
+    List<GroupSummary> groups =
+        Arrays.stream(groupIds)
+            .map(id -> new GroupSummary(id, "g" + id, null, "USER", true, 2, null, 0, 0, null))
+            .toList();
+    return new UserDashboardDto(
+        new ProfileSummary(1L, "user1", groups.size(), 0, messagesSent),
+        groups,
+        List.of(),
+        List.of(),
+        List.of());
+  }
+
+  private void stubFullBuild(UserDashboardDto result) {
+    when(dashboardService.buildDashboard(user, EnumSet.allOf(DashboardSection.class)))
+        .thenReturn(result);
+  }
+
+  @Test
+  void shouldServeRepeatedRequestsFromMemory() {
+    UserDashboardDto built = dashboard(3, 10L);
+    stubFullBuild(built);
+
+    assertEquals(built, dashboardCache.getDashboard(user));
+    assertEquals(built, dashboardCache.getDashboard(user));
+
+    verify(dashboardService, times(1)).buildDashboard(eq(user), any());
+  }
+
+  @Test
+  void shouldCoalesceConcurrentRequestsIntoOneBuild() throws Exception {
+    UserDashboardDto built = dashboard(3, 10L);
+    CountDownLatch building = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(dashboardService.buildDashboard(eq(user), any()))
+        .thenAnswer(
+            invocation -> {
+              building.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return built;
+            });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<UserDashboardDto> first = executor.submit(() -> dashboardCache.getDashboard(user));
+      assertTrue(building.await(5, TimeUnit.SECONDS));
+      List<Future<UserDashboardDto>> others =
+          List.of(
+              executor.submit(() -> dashboardCache.getDashboard(user)),
+              executor.submit(() -> dashboardCache.getDashboard(user)),
+              executor.submit(() -> dashboardCache.getDashboard(user)));
+      release.countDown();
+
+      assertEquals(built, first.get(5, TimeUnit.SECONDS));
+      for (Future<UserDashboardDto> other : others) {
+        assertEquals(built, other.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(dashboardService, times(1)).buildDashboard(eq(user), any());
+  }
+
+  @Test
+  void shouldRebuildOnlySectionsTouchedByAnEvent() {
+    stubFullBuild(dashboard(3, 10L));
+    dashboardCache.getDashboard(user);
+    when(dashboardService.buildDashboard(
+            user, EnumSet.of(DashboardSection.PROFILE, DashboardSection.RECENT_MESSAGES)))
+        .thenReturn(
+            new UserDashboardDto(
+                new ProfileSummary(1L, "user1", 1, 0, 4), null, null, null, List.of()));
+
+    // a message to a group the user is not a member of
+    dashboardCache.onChatMessageSaved(
+        new ChatMessageSavedEvent(99L, 1L, 11L, null, Instant.now(), null));
+    UserDashboardDto patched = dashboardCache.getDashboard(user);
+
+    assertEquals(4, patched.profile().messagesSent());
+    assertEquals(dashboard(3, 10L).groups(), patched.groups());
+  }
+
+  @Test
+  void shouldInvalidateGroupMembersThroughTheGroupIndex() {
+    stubFullBuild(dashboard(3, 10L));
+    dashboardCache.getDashboard(user);
+    UserDashboardDto withoutPolls = new UserDashboardDto(null, null, null, List.of(), null);
+    when(dashboardService.buildDashboard(user, EnumSet.of(DashboardSection.POLLS)))
+        .thenReturn(withoutPolls);
+
+    dashboardCache.onPollChanged(new PollChangedEvent(10L, 5L, PollChangedEvent.Change.VOTED));
+    dashboardCache.onPollChanged(new PollChangedEvent(11L, 6L, PollChangedEvent.Change.VOTED));
+    dashboardCache.getDashboard(user);
+
+    verify(dashboardService).buildDashboard(user, EnumSet.of(DashboardSection.POLLS));
+  }
+
+  @Test
+  void shouldInvalidateCurrentMembers_WhoseEntryDoesNotListTheGroup() {
+    Set<DashboardSection> pollsOnly = EnumSet.of(DashboardSection.POLLS);
+    when(dashboardService.buildDashboard(user, pollsOnly))
+        .thenReturn(new UserDashboardDto(null, null, null, List.of(), null));
+    dashboardCache.getDashboard(user, pollsOnly);
+    when(groupMemberRepository.findUserIdsByGroupId(10L)).thenReturn(List.of(1L));
+
+    dashboardCache.onPollChanged(new PollChangedEvent(10L, 5L, PollChangedEvent.Change.CREATED));
+    dashboardCache.getDashboard(user, pollsOnly);
+
+    verify(dashboardService, times(2)).buildDashboard(user, pollsOnly);
+  }
+
+  @Test
+  void shouldLookUpGroupMembersOnce_UntilTheGroupChanges() {
+    stubFullBuild(dashboard(3));
+    dashboardCache.getDashboard(user);
+    when(groupMemberRepository.findUserIdsByGroupId(10L)).thenReturn(List.of(1L));
+
+    dashboardCache.onChatMessageSaved(
+        new ChatMessageSavedEvent(99L, 2L, 10L, null, Instant.now(), null));
+    dashboardCache.onChatMessageSaved(
+        new ChatMessageSavedEvent(98L, 2L, 10L, null, Instant.now(), null));
+    verify(groupMemberRepository, times(1)).findUserIdsByGroupId(10L);
+
+    dashboardCache.onGroupChanged(new GroupChangedEvent(10L, 3L));
+    dashboardCache.onChatMessageSaved(
+        new ChatMessageSavedEvent(97L, 2L, 10L, null, Instant.now(), null));
+    // looked up again after the membership change, and not for the message after it
+    verify(groupMemberRepository, times(2)).findUserIdsByGroupId(10L);
+  }
+
+  @Test
+  void shouldInvalidateBothParticipantsOfAPrivateChat() {
+    stubFullBuild(dashboard(3));
+    dashboardCache.getDashboard(user);
+    when(referenceResolver.findPrivateChat(7L))
+        .thenReturn(Optional.of(new PrivateChatRef(7L, 2L, "user2", 1L, "user1")));
+    when(dashboardService.buildDashboard(
+            user,
+            EnumSet.of(
+                DashboardSection.PROFILE,
+                DashboardSection.PRIVATE_CHATS,
+                DashboardSection.RECENT_MESSAGES)))
+        .thenReturn(dashboard(3));
+
+    dashboardCache.onChatMessageSaved(
+        new ChatMessageSavedEvent(99L, 2L, null, 7L, Instant.now(), null));
+    dashboardCache.onChatMessageSaved(
+        new ChatMessageSavedEvent(98L, 1L, null, 7L, Instant.now(), null));
+    dashboardCache.getDashboard(user);
+
+    verify(dashboardService, times(2)).buildDashboard(eq(user), any());
+  }
+
+  @Test
+  void shouldNotCacheBuildThatRaced_WithAnEvent() throws Exception {
+    CountDownLatch building = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(dashboardService.buildDashboard(eq(user), any()))
+        .thenAnswer(
+            invocation -> {
+              building.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return dashboard(3, 10L);
+            })
+        .thenReturn(dashboard(4, 10L));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<UserDashboardDto> first = executor.submit(() -> dashboardCache.getDashboard(user));
+      assertTrue(building.await(5, TimeUnit.SECONDS));
+      dashboardCache.onGroupChanged(new GroupChangedEvent(10L, 1L));
+      release.countDown();
+      assertEquals(3, first.get(5, TimeUnit.SECONDS).profile().messagesSent());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(4, dashboardCache.getDashboard(user).profile().messagesSent());
+  }
+
+  @Test
+  void shouldBuildEveryTime_WhenDisabled() {
+    ReflectionTestUtils.setField(dashboardCache, "enabled", false);
+    UserDashboardDto built = dashboard(3);
+    when(dashboardService.buildDashboard(user)).thenReturn(built);
+
+    dashboardCache.getDashboard(user);
+    dashboardCache.getDashboard(user);
+
+    verify(dashboardService, times(2)).buildDashboard(user);
+  }
+}
@@ -0,0 +1,159 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto.ConversationActivity;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto.MemberCount;
+import vaultWeb.dtos.dashboard.DashboardDeltaDto.VoteTotal;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.GroupChangedEvent;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.IdCount;
+import vaultWeb.repositories.PollCounts;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.services.ChatReferenceResolver.PrivateChatRef;
+import vaultWeb.services.ChatReferenceResolver.SenderRef;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardPushServiceTest {
+
+  @Mock private SimpMessagingTemplate messagingTemplate;
+
+  @Mock private SimpUserRegistry userRegistry;
+
+  @Mock private ChatReferenceResolver referenceResolver;
+
+  @Mock private GroupMemberRepository groupMemberRepository;
+
+  @Mock private PollRepository pollRepository;
+
+  @Mock private DashboardService dashboardService;
+
+  @Mock private SimpUser connected;
+
+  @InjectMocks private DashboardPushService pushService;
+
+  @BeforeEach
+  void enable() {
+    ReflectionTestUtils.setField(pushService, "enabled", true);
+  }
+
+  private DashboardDeltaDto sentTo(String username) {
+    ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate)
+        .convertAndSendToUser(
+            eq(username), eq(DashboardPushService.DESTINATION), payload.capture());
+    return (DashboardDeltaDto) payload.getValue();
+  }
+
+  @Test
+  void shouldCoalesceMessagesOfAWindowIntoOneDelta() {
+    when(groupMemberRepository.findUsernamesByGroupId(10L)).thenReturn(List.of("alice", "bob"));
+    when(userRegistry.getUser(anyString()))
+        .thenAnswer(invocation -> "alice".equals(invocation.getArgument(0)) ? connected : null);
+    Instant first = Instant.parse("2026-01-01T10:00:00Z");
+
+    pushService.onChatMessageSaved(new ChatMessageSavedEvent(1L, 2L, 10L, null, first, null));
+    pushService.onChatMessageSaved(
+        new ChatMessageSavedEvent(2L, 2L, 10L, null, first.plusSeconds(1), null));
+    pushService.flush();
+
+    DashboardDeltaDto delta = sentTo("alice");
+    assertEquals(
+        List.of(new ConversationActivity(10L, null, 2L, first.plusSeconds(1), 2)),
+        delta.conversations());
+    assertFalse(delta.resync());
+    verify(messagingTemplate, never()).convertAndSendToUser(eq("bob"), anyString(), any());
+    verify(groupMemberRepository, times(1)).findUsernamesByGroupId(10L);
+  }
+
+  @Test
+  void shouldPushPrivateChatActivityToBothParticipants() {
+    when(referenceResolver.findPrivateChat(7L))
+        .thenReturn(Optional.of(new PrivateChatRef(7L, 1L, "alice", 2L, "bob")));
+    when(userRegistry.getUser(anyString())).thenReturn(connected);
+
+    pushService.onChatMessageSaved(
+        new ChatMessageSavedEvent(5L, 1L, null, 7L, Instant.now(), null));
+    pushService.flush();
+
+    assertEquals(1, sentTo("alice").conversations().size());
+    assertEquals(7L, sentTo("bob").conversations().getFirst().privateChatId());
+  }
+
+  @Test
+  void shouldLoadMemberCountsAndVoteTotalsOncePerWindow() {
+    when(groupMemberRepository.findUsernamesByGroupId(10L))
+        .thenReturn(List.of("alice", "bob"))
+        .thenReturn(List.of("alice", "bob", "carol"));
+    when(userRegistry.getUser(anyString())).thenReturn(connected);
+    when(referenceResolver.findSenderById(3L)).thenReturn(Optional.of(new SenderRef(3L, "carol")));
+    when(groupMemberRepository.countMembersByGroupIds(Set.of(10L)))
+        .thenReturn(List.of(new IdCount(10L, 3L)));
+    when(pollRepository.countOptionsAndVotes(Set.of(5L)))
+        .thenReturn(List.of(new PollCounts(5L, 2L, 4L)));
+
+    pushService.onGroupChanged(new GroupChangedEvent(10L, 3L));
+    pushService.onPollChanged(new PollChangedEvent(10L, 5L, PollChangedEvent.Change.VOTED));
+    pushService.onPollChanged(new PollChangedEvent(10L, 5L, PollChangedEvent.Change.VOTED));
+    pushService.flush();
+
+    DashboardDeltaDto alice = sentTo("alice");
+    assertEquals(List.of(new MemberCount(10L, 3)), alice.memberCounts());
+    assertEquals(List.of(new VoteTotal(5L, 4)), alice.voteTotals());
+    assertFalse(alice.resync());
+    // the member who joined gets a full reload instead
+    DashboardDeltaDto carol = sentTo("carol");
+    assertTrue(carol.resync());
+    assertTrue(carol.memberCounts().isEmpty());
+    verify(groupMemberRepository, times(1)).countMembersByGroupIds(any());
+    verify(pollRepository, times(1)).countOptionsAndVotes(any());
+  }
+
+  @Test
+  void shouldDropPendingVotesOfADeletedPoll() {
+    when(groupMemberRepository.findUsernamesByGroupId(10L)).thenReturn(List.of("alice"));
+    when(userRegistry.getUser("alice")).thenReturn(connected);
+
+    pushService.onPollChanged(new PollChangedEvent(10L, 5L, PollChangedEvent.Change.VOTED));
+    pushService.onPollChanged(new PollChangedEvent(10L, 5L, PollChangedEvent.Change.DELETED));
+    pushService.flush();
+
+    DashboardDeltaDto delta = sentTo("alice");
+    assertEquals(List.of(5L), delta.removedPollIds());
+    assertTrue(delta.voteTotals().isEmpty());
+    verifyNoInteractions(pollRepository);
+  }
+
+  @Test
+  void shouldSendNothing_WhenNoRecipientIsConnected() {
+    when(groupMemberRepository.findUsernamesByGroupId(10L)).thenReturn(List.of("alice"));
+
+    pushService.onChatMessageSaved(
+        new ChatMessageSavedEvent(1L, 2L, 10L, null, Instant.now(), null));
+    pushService.flush();
+
+    verifyNoInteractions(messagingTemplate);
+  }
+}
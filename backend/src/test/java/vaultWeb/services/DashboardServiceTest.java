@@ -0,0 +1,97 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.dtos.dashboard.DashboardSection;
+import vaultWeb.dtos.dashboard.UserDashboardDto;
+import vaultWeb.models.User;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.ConversationSummaryRepository;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PrivateChatRepository;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+  @Mock private GroupMemberRepository groupMemberRepository;
+
+  @Mock private PrivateChatRepository privateChatRepository;
+
+  @Mock private PollRepository pollRepository;
+
+  @Mock private ChatMessageRepository chatMessageRepository;
+
+  @Mock private ConversationSummaryRepository summaryRepository;
+
+  @Mock private ChatDecryptionStage decryptionStage;
+
+  @Mock private MessageCounterService messageCounterService;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @InjectMocks private DashboardService dashboardService;
+
+  private final User user = new User();
+
+  @BeforeEach
+  void start() {
+    user.setId(1L);
+    user.setUsername("alice");
+    ReflectionTestUtils.setField(dashboardService, "sectionTimeoutMs", 300L);
+    dashboardService.start();
+  }
+
+  @AfterEach
+  void shutdown() {
+    dashboardService.shutdown();
+  }
+
+  @Test
+  void shouldBuildOnlyRequestedSections() {
+    when(chatMessageRepository.findTop10BySenderOrderByTimestampDesc(user)).thenReturn(List.of());
+    when(decryptionStage.decryptAll(List.of())).thenReturn(List.of());
+
+    UserDashboardDto dashboard =
+        dashboardService.buildDashboard(user, EnumSet.of(DashboardSection.RECENT_MESSAGES));
+
+    assertEquals(List.of(), dashboard.recentMessages());
+    assertNull(dashboard.profile());
+    assertNull(dashboard.groups());
+    verifyNoInteractions(groupMemberRepository, privateChatRepository, pollRepository);
+  }
+
+  @Test
+  void shouldReturnOtherSections_WhenOneTimesOut() {
+    when(messageCounterService.getMessagesSent(1L)).thenReturn(5L);
+    when(chatMessageRepository.findTop10BySenderOrderByTimestampDesc(user))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(Duration.ofSeconds(10));
+              return List.of();
+            });
+
+    long started = System.nanoTime();
+    UserDashboardDto dashboard =
+        dashboardService.buildDashboard(
+            user, EnumSet.of(DashboardSection.PROFILE, DashboardSection.RECENT_MESSAGES));
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+    assertEquals(5, dashboard.profile().messagesSent());
+    assertNull(dashboard.recentMessages());
+    assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "took " + elapsed);
+  }
+}
@@ -10,7 +10,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import vaultWeb.dtos.GroupDto;
+import vaultWeb.events.GroupChangedEvent;
 import vaultWeb.exceptions.AlreadyMemberException;
 import vaultWeb.exceptions.LastAdminException;
 import vaultWeb.exceptions.notfound.GroupNotFoundException;
@@ -30,6 +32,8 @@ class GroupServiceTest {
   @Mock private GroupRepository groupRepository;
   @Mock private GroupMemberRepository groupMemberRepository;
   @Mock private UserRepository userRepository;
+  @Mock private ChatReferenceResolver chatReferenceResolver;
+  @Mock private ApplicationEventPublisher eventPublisher;
 
   @InjectMocks private GroupService groupService;
 
@@ -73,6 +77,7 @@ class GroupServiceTest {
 
     assertEquals(group, result);
     verify(groupMemberRepository, times(1)).save(any(GroupMember.class));
+    verify(eventPublisher).publishEvent(new GroupChangedEvent(10L, 2L));
   }
 
   @Test
@@ -109,6 +114,7 @@ class GroupServiceTest {
 
     assertEquals(group, result);
     verify(groupMemberRepository, times(1)).delete(member);
+    verify(eventPublisher).publishEvent(new GroupChangedEvent(10L, 2L));
   }
 
   @Test
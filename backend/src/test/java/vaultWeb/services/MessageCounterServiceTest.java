@@ -0,0 +1,112 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.events.ChatMessageSavedEvent;
+import vaultWeb.events.ChatMessagesDeletedEvent;
+import vaultWeb.repositories.UserMessageCounterRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MessageCounterServiceTest {
+
+  @Mock private UserMessageCounterRepository counterRepository;
+
+  @Mock private SchedulerLockService schedulerLockService;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @InjectMocks private MessageCounterService counterService;
+
+  private static ChatMessageSavedEvent sentBy(Long userId) {
+    return new ChatMessageSavedEvent(1L, userId, 10L, null, Instant.now(), null);
+  }
+
+  @Test
+  void shouldAddUnwrittenDeltasToStoredCount() {
+    when(counterRepository.findMessagesSent(1L)).thenReturn(Optional.of(10L));
+
+    counterService.onChatMessageSaved(sentBy(1L));
+    counterService.onChatMessageSaved(sentBy(1L));
+    counterService.onChatMessagesDeleted(new ChatMessagesDeletedEvent(Map.of(1L, 5L), List.of()));
+
+    assertEquals(7, counterService.getMessagesSent(1L));
+  }
+
+  @Test
+  void shouldWriteOneUpdatePerUser_AndCreateMissingCounters() {
+    when(counterRepository.addMessages(1L, 3L)).thenReturn(1);
+    when(counterRepository.addMessages(2L, 1L)).thenReturn(0).thenReturn(1);
+
+    for (int i = 0; i < 3; i++) {
+      counterService.onChatMessageSaved(sentBy(1L));
+    }
+    counterService.onChatMessageSaved(sentBy(2L));
+    counterService.flush();
+
+    verify(counterRepository, times(1)).addMessages(1L, 3L);
+    verify(counterRepository).insertEmpty(2L);
+    verify(counterRepository, times(2)).addMessages(2L, 1L);
+    verify(counterRepository, never()).insertEmpty(1L);
+
+    // nothing left to write
+    counterService.flush();
+    verifyNoMoreInteractions(counterRepository);
+  }
+
+  @Test
+  void shouldKeepDeltas_WhenWriteFails() {
+    when(transactionManager.getTransaction(any()))
+        .thenThrow(new CannotCreateTransactionException("database down"))
+        .thenReturn(null);
+    when(counterRepository.addMessages(1L, 2L)).thenReturn(1);
+    when(counterRepository.findMessagesSent(1L)).thenReturn(Optional.empty());
+
+    counterService.onChatMessageSaved(sentBy(1L));
+    counterService.flush();
+    assertEquals(1, counterService.getMessagesSent(1L));
+    counterService.onChatMessageSaved(sentBy(1L));
+    counterService.flush();
+
+    verify(counterRepository, times(1)).addMessages(1L, 2L);
+  }
+
+  @Test
+  void shouldCorrectDriftInOneStatement_SkippingUsersWithPendingDeltas() {
+    when(schedulerLockService.tryLock(eq("message-counter-reconcile"), any())).thenReturn(true);
+    when(transactionManager.getTransaction(any()))
+        .thenThrow(new CannotCreateTransactionException("database down"))
+        .thenReturn(null);
+    when(counterRepository.reconcile(Set.of(1L))).thenReturn(2);
+
+    // the flush fails, so the delta of user 1 is still pending
+    counterService.onChatMessageSaved(sentBy(1L));
+    counterService.reconcile();
+
+    verify(counterRepository).backfill();
+    verify(counterRepository).reconcile(Set.of(1L));
+  }
+
+  @Test
+  void shouldSkipReconciliation_WhenAnotherInstanceRunsIt() {
+    when(schedulerLockService.tryLock(eq("message-counter-reconcile"), any())).thenReturn(false);
+
+    counterService.reconcile();
+
+    verifyNoInteractions(counterRepository);
+  }
+}
@@ -0,0 +1,134 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.events.PollChangedEvent.Change;
+import vaultWeb.models.PollOption;
+import vaultWeb.models.PollResultSnapshot;
+import vaultWeb.repositories.DuePoll;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PollResultSnapshotRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PollCloseServiceTest {
+
+  @Mock private PollRepository pollRepository;
+
+  @Mock private PollOptionRepository pollOptionRepository;
+
+  @Mock private PollResultSnapshotRepository snapshotRepository;
+
+  @Mock private PollTallyService pollTallyService;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @InjectMocks private PollCloseService closeService;
+
+  @BeforeEach
+  void configure() {
+    ReflectionTestUtils.setField(closeService, "batchSize", 100);
+  }
+
+  @Test
+  void shouldFreezeCountsOfDuePolls() {
+    when(pollRepository.findDueForClosing(any(Instant.class), eq(Limit.of(100))))
+        .thenReturn(List.of(new DuePoll(5L, 10L)));
+    when(pollRepository.markClosed(eq(5L), any(Instant.class))).thenReturn(1);
+    when(pollOptionRepository.findByPollIdOrderById(5L))
+        .thenReturn(
+            List.of(
+                PollOption.builder().id(50L).text("yes").voteCount(4).build(),
+                PollOption.builder().id(51L).text("no").voteCount(2).build()));
+
+    closeService.closeDuePolls();
+
+    ArgumentCaptor<PollResultSnapshot> saved = ArgumentCaptor.forClass(PollResultSnapshot.class);
+    verify(snapshotRepository).save(saved.capture());
+    PollResultSnapshot snapshot = saved.getValue();
+    assertEquals(5L, snapshot.getPollId());
+    assertEquals(6, snapshot.getTotalVotes());
+    assertEquals(
+        List.of(50L, 51L),
+        snapshot.getOptions().stream().map(PollResultSnapshot.OptionResult::getOptionId).toList());
+    verify(eventPublisher).publishEvent(new PollChangedEvent(10L, 5L, Change.UPDATED));
+  }
+
+  @Test
+  void shouldFreezeBallotCount_OfMultipleChoicePoll() {
+    when(pollRepository.findDueForClosing(any(Instant.class), any()))
+        .thenReturn(List.of(new DuePoll(5L, 10L)));
+    when(pollRepository.markClosed(eq(5L), any(Instant.class))).thenReturn(1);
+    when(pollOptionRepository.findByPollIdOrderById(5L))
+        .thenReturn(
+            List.of(
+                PollOption.builder().id(50L).text("ham").voteCount(4).build(),
+                PollOption.builder().id(51L).text("egg").voteCount(2).build()));
+    when(pollTallyService.findBallots(List.of(5L))).thenReturn(Map.of(5L, 5L));
+
+    closeService.closeDuePolls();
+
+    ArgumentCaptor<PollResultSnapshot> saved = ArgumentCaptor.forClass(PollResultSnapshot.class);
+    verify(snapshotRepository).save(saved.capture());
+    assertEquals(5, saved.getValue().getTotalVotes());
+  }
+
+  @Test
+  void shouldSkipPollClosedByAnotherInstance() {
+    when(pollRepository.findDueForClosing(any(Instant.class), any()))
+        .thenReturn(List.of(new DuePoll(5L, 10L)));
+    when(pollRepository.markClosed(eq(5L), any(Instant.class))).thenReturn(0);
+
+    closeService.closeDuePolls();
+
+    verifyNoInteractions(
+        pollOptionRepository, pollTallyService, snapshotRepository, eventPublisher);
+  }
+
+  @Test
+  void shouldContinueWithNextPoll_WhenClosingOneFails() {
+    when(pollRepository.findDueForClosing(any(Instant.class), any()))
+        .thenReturn(List.of(new DuePoll(5L, 10L), new DuePoll(6L, 10L)));
+    when(pollRepository.markClosed(eq(5L), any(Instant.class)))
+        .thenThrow(new IllegalStateException("lock timeout"));
+    when(pollRepository.markClosed(eq(6L), any(Instant.class))).thenReturn(1);
+    when(pollOptionRepository.findByPollIdOrderById(6L)).thenReturn(List.of());
+
+    closeService.closeDuePolls();
+
+    verify(snapshotRepository, times(1)).save(any());
+    verify(eventPublisher).publishEvent(new PollChangedEvent(10L, 6L, Change.UPDATED));
+  }
+
+  @Test
+  void shouldLoadEachSnapshotOnce() {
+    PollResultSnapshot snapshot = new PollResultSnapshot(5L, Instant.now(), 0, List.of());
+    when(snapshotRepository.findById(5L)).thenReturn(Optional.of(snapshot));
+
+    assertSame(snapshot, closeService.findSnapshot(5L).orElseThrow());
+    assertSame(snapshot, closeService.findSnapshot(5L).orElseThrow());
+
+    verify(snapshotRepository, times(1)).findById(5L);
+  }
+}
@@ -0,0 +1,93 @@
+package vaultWeb.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.dtos.PollResultsDto.OptionTally;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.events.PollChangedEvent.Change;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionTally;
+
+@ExtendWith(MockitoExtension.class)
+class PollResultsPushServiceTest {
+
+  @Mock private SimpMessagingTemplate messagingTemplate;
+
+  @Mock private PollOptionRepository pollOptionRepository;
+
+  @Mock private PollTallyService pollTallyService;
+
+  @InjectMocks private PollResultsPushService pushService;
+
+  @BeforeEach
+  void enable() {
+    ReflectionTestUtils.setField(pushService, "enabled", true);
+  }
+
+  @Test
+  void shouldSendOneUpdatePerPollAndTick() {
+    when(pollOptionRepository.findTallies(Set.of(5L, 6L)))
+        .thenReturn(
+            List.of(
+                new PollOptionTally(5L, 50L, 3),
+                new PollOptionTally(5L, 51L, 1),
+                new PollOptionTally(6L, 60L, 2),
+                new PollOptionTally(6L, 61L, 1)));
+    when(pollTallyService.findBallots(Set.of(5L, 6L))).thenReturn(Map.of(6L, 2L));
+
+    for (int i = 0; i < 4; i++) {
+      pushService.onPollChanged(new PollChangedEvent(10L, 5L, Change.VOTED));
+    }
+    pushService.onPollChanged(new PollChangedEvent(11L, 6L, Change.VOTED));
+    pushService.flush();
+
+    verify(messagingTemplate)
+        .convertAndSend(
+            "/topic/group/10/polls",
+            new PollResultsDto(
+                5L, List.of(new OptionTally(50L, 3), new OptionTally(51L, 1)), 4, null, null));
+    verify(messagingTemplate)
+        .convertAndSend(
+            "/topic/group/11/polls",
+            // multiple choice: two ballots picked three options
+            new PollResultsDto(
+                6L, List.of(new OptionTally(60L, 2), new OptionTally(61L, 1)), 2, null, null));
+    verify(pollOptionRepository, times(1)).findTallies(any());
+
+    // nothing voted since
+    pushService.flush();
+    verifyNoMoreInteractions(messagingTemplate, pollOptionRepository, pollTallyService);
+  }
+
+  @Test
+  void shouldDropPendingUpdateOfADeletedPoll() {
+    pushService.onPollChanged(new PollChangedEvent(10L, 5L, Change.VOTED));
+    pushService.onPollChanged(new PollChangedEvent(10L, 5L, Change.DELETED));
+    pushService.flush();
+
+    verifyNoInteractions(pollOptionRepository, pollTallyService, messagingTemplate);
+  }
+
+  @Test
+  void shouldIgnoreEdits_AndVotesWhileDisabled() {
+    pushService.onPollChanged(new PollChangedEvent(10L, 5L, Change.UPDATED));
+    ReflectionTestUtils.setField(pushService, "enabled", false);
+    pushService.onPollChanged(new PollChangedEvent(10L, 6L, Change.VOTED));
+    pushService.flush();
+
+    verifyNoInteractions(pollOptionRepository, pollTallyService, messagingTemplate);
+  }
+}
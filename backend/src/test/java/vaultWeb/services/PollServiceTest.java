@@ -0,0 +1,563 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.dtos.PollBatchVoteRequestDto;
+import vaultWeb.dtos.PollBatchVoteResultDto;
+import vaultWeb.dtos.PollPageDto;
+import vaultWeb.dtos.PollResponseDto;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.dtos.PollVoterPageDto;
+import vaultWeb.events.PollChangedEvent;
+import vaultWeb.events.PollChangedEvent.Change;
+import vaultWeb.exceptions.AlreadyVotedException;
+import vaultWeb.exceptions.AnonymousPollException;
+import vaultWeb.exceptions.InvalidBallotException;
+import vaultWeb.exceptions.NotVotedException;
+import vaultWeb.exceptions.PollClosedException;
+import vaultWeb.exceptions.PollOptionNotFoundException;
+import vaultWeb.exceptions.notfound.NotMemberException;
+import vaultWeb.models.Group;
+import vaultWeb.models.Poll;
+import vaultWeb.models.PollOption;
+import vaultWeb.models.PollResultSnapshot;
+import vaultWeb.models.PollVote;
+import vaultWeb.models.User;
+import vaultWeb.models.enums.PollStatus;
+import vaultWeb.models.enums.PollType;
+import vaultWeb.repositories.DataMigrationRepository;
+import vaultWeb.repositories.GroupMemberRepository;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionRow;
+import vaultWeb.repositories.PollOptionTally;
+import vaultWeb.repositories.PollRepository;
+import vaultWeb.repositories.PollSummaryRow;
+import vaultWeb.repositories.PollVoteRepository;
+import vaultWeb.repositories.PollVoterRow;
+import vaultWeb.services.PollAccessCache.PollMeta;
+
+@ExtendWith(MockitoExtension.class)
+class PollServiceTest {
+
+  @Mock private PollRepository pollRepository;
+  @Mock private GroupMemberRepository groupMemberRepository;
+  @Mock private PollVoteRepository pollVoteRepository;
+  @Mock private PollOptionRepository pollOptionRepository;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private PlatformTransactionManager transactionManager;
+  @Mock private DataMigrationRepository dataMigrationRepository;
+  @Mock private PollAccessCache pollAccessCache;
+  @Mock private PollCloseService pollCloseService;
+  @Mock private PollTallyService pollTallyService;
+
+  @InjectMocks private PollService pollService;
+
+  private final Group group = Group.builder().id(10L).build();
+  private final User user = createUser(1L);
+
+  private static User createUser(Long id) {
+    User user = new User();
+    user.setId(id);
+    return user;
+  }
+
+  private Poll createPoll(boolean anonymous) {
+    Poll poll =
+        Poll.builder()
+            .id(5L)
+            .group(group)
+            .isAnonymous(anonymous)
+            .options(new ArrayList<>())
+            .build();
+    poll.getOptions().add(PollOption.builder().id(50L).poll(poll).text("yes").voteCount(3).build());
+    poll.getOptions().add(PollOption.builder().id(51L).poll(poll).text("no").build());
+    return poll;
+  }
+
+  private void stubAccess(boolean anonymous) {
+    stubAccess(anonymous, PollType.SINGLE_CHOICE);
+  }
+
+  private void stubAccess(boolean anonymous, PollType type) {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    when(pollAccessCache.findPoll(5L))
+        .thenReturn(
+            Optional.of(new PollMeta(5L, 10L, Set.of(50L, 51L), null, anonymous, null, type)));
+    lenient().when(pollRepository.lockOpen(eq(5L), any())).thenReturn(Optional.of(5L));
+    lenient().when(groupMemberRepository.lockMembership(10L, 1L)).thenReturn(Optional.of(3L));
+  }
+
+  @Test
+  void shouldInsertAndCountVote_WithoutLoadingThePoll() {
+    stubAccess(false);
+    when(pollVoteRepository.insertIfAbsent(anyLong(), eq(5L), eq(51L), eq(1L), isNull()))
+        .thenReturn(1);
+
+    pollService.vote(10L, 5L, 51L, user);
+
+    verify(pollTallyService).record(5L, PollType.SINGLE_CHOICE, List.of(51L), 1);
+    verify(eventPublisher).publishEvent(new PollChangedEvent(10L, 5L, Change.VOTED));
+    // only the locks against closing and against removing the member
+    verify(pollRepository).lockOpen(eq(5L), any());
+    verifyNoMoreInteractions(pollRepository);
+    verify(groupMemberRepository).lockMembership(10L, 1L);
+    verifyNoMoreInteractions(groupMemberRepository);
+  }
+
+  @Test
+  void shouldRejectVote_WhenMemberWasRemovedMeanwhile() {
+    stubAccess(false);
+    when(groupMemberRepository.lockMembership(10L, 1L)).thenReturn(Optional.empty());
+
+    assertThrows(NotMemberException.class, () -> pollService.vote(10L, 5L, 51L, user));
+
+    verify(pollAccessCache).evictMembership(10L, 1L);
+    verifyNoInteractions(pollVoteRepository, pollTallyService, eventPublisher);
+  }
+
+  @Test
+  void shouldRejectVote_WhenPollWasClosedMeanwhile() {
+    stubAccess(false);
+    when(pollRepository.lockOpen(eq(5L), any())).thenReturn(Optional.empty());
+
+    assertThrows(PollClosedException.class, () -> pollService.vote(10L, 5L, 51L, user));
+
+    verify(pollAccessCache).evictPoll(5L);
+    verifyNoInteractions(pollVoteRepository, pollTallyService, eventPublisher);
+  }
+
+  @Test
+  void shouldRejectSecondVote_WhenConstraintKeepsTheFirst() {
+    stubAccess(false);
+    when(pollVoteRepository.insertIfAbsent(anyLong(), eq(5L), eq(51L), eq(1L), isNull()))
+        .thenReturn(0);
+
+    assertThrows(AlreadyVotedException.class, () -> pollService.vote(10L, 5L, 51L, user));
+
+    verifyNoInteractions(pollOptionRepository, pollTallyService, eventPublisher);
+  }
+
+  @Test
+  void shouldRejectOptionOfAnotherPoll() {
+    stubAccess(false);
+
+    assertThrows(PollOptionNotFoundException.class, () -> pollService.vote(10L, 5L, 60L, user));
+    verifyNoInteractions(pollVoteRepository);
+  }
+
+  @Test
+  void shouldRejectVote_WhenNotAMember() {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(false);
+
+    assertThrows(NotMemberException.class, () -> pollService.vote(10L, 5L, 51L, user));
+    verifyNoInteractions(pollVoteRepository);
+  }
+
+  @Test
+  void shouldRejectVoteAfterDeadline_WithoutAQuery() {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    when(pollAccessCache.findPoll(5L))
+        .thenReturn(
+            Optional.of(
+                new PollMeta(
+                    5L,
+                    10L,
+                    Set.of(50L),
+                    Instant.now().minusSeconds(1),
+                    false,
+                    null,
+                    PollType.SINGLE_CHOICE)));
+
+    assertThrows(PollClosedException.class, () -> pollService.vote(10L, 5L, 50L, user));
+    verifyNoInteractions(pollVoteRepository, pollOptionRepository, pollTallyService);
+  }
+
+  @Test
+  void shouldBackfillVotes_OnlyOnFirstStart() {
+    ReflectionTestUtils.setField(pollService, "backfillOnStartup", true);
+    when(dataMigrationRepository.markCompleted(eq(PollService.VOTE_BACKFILL), any()))
+        .thenReturn(1, 0);
+
+    pollService.backfill();
+    pollService.backfill();
+
+    verify(pollVoteRepository).deleteDuplicateLegacyVotes();
+    verify(pollVoteRepository).backfillPollIds();
+    verify(pollOptionRepository).backfillVoteCounts();
+  }
+
+  @Test
+  void shouldEvictStalePoll_WhenOptionWasDeletedElsewhere() {
+    stubAccess(false);
+    when(pollVoteRepository.insertIfAbsent(anyLong(), eq(5L), eq(51L), eq(1L), isNull()))
+        .thenThrow(new DataIntegrityViolationException("fk_poll_votes_option"));
+
+    assertThrows(PollOptionNotFoundException.class, () -> pollService.vote(10L, 5L, 51L, user));
+
+    verify(pollAccessCache).evictPoll(5L);
+    verifyNoInteractions(pollTallyService, eventPublisher);
+  }
+
+  @Test
+  void shouldCastBatch_AndReportPollsAlreadyVotedIn() {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    when(pollAccessCache.findPoll(5L))
+        .thenReturn(
+            Optional.of(
+                new PollMeta(5L, 10L, Set.of(50L), null, false, null, PollType.SINGLE_CHOICE)));
+    when(pollAccessCache.findPoll(6L))
+        .thenReturn(
+            Optional.of(
+                new PollMeta(6L, 10L, Set.of(60L), null, false, null, PollType.SINGLE_CHOICE)));
+    when(pollRepository.lockOpen(anyLong(), any()))
+        .thenAnswer(invocation -> Optional.of(invocation.<Long>getArgument(0)));
+    when(groupMemberRepository.lockMembership(10L, 1L)).thenReturn(Optional.of(3L));
+    when(pollVoteRepository.insertIfAbsent(anyLong(), anyLong(), anyLong(), eq(1L), isNull()))
+        .thenAnswer(invocation -> invocation.<Long>getArgument(1) == 5L ? 1 : 0);
+
+    PollBatchVoteResultDto result =
+        pollService.voteBatch(
+            10L,
+            List.of(
+                new PollBatchVoteRequestDto.Vote(5L, 50L),
+                new PollBatchVoteRequestDto.Vote(6L, 60L)),
+            user);
+
+    assertEquals(List.of(5L), result.acceptedPollIds());
+    assertEquals(List.of(6L), result.alreadyVotedPollIds());
+    verify(pollTallyService).record(5L, PollType.SINGLE_CHOICE, List.of(50L), 1);
+    verify(pollTallyService, never()).record(eq(6L), any(), any(), anyLong());
+    verify(eventPublisher, times(1)).publishEvent(any(PollChangedEvent.class));
+  }
+
+  @Test
+  void shouldCastNothing_WhenAnyVoteOfBatchIsInvalid() {
+    stubAccess(false);
+
+    assertThrows(
+        PollOptionNotFoundException.class,
+        () ->
+            pollService.voteBatch(
+                10L,
+                List.of(
+                    new PollBatchVoteRequestDto.Vote(5L, 50L),
+                    new PollBatchVoteRequestDto.Vote(5L, 99L)),
+                user));
+    verifyNoInteractions(pollVoteRepository);
+  }
+
+  @Test
+  void shouldPagePollSummaries_WithTwoQueries() {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    Instant past = Instant.parse("2026-01-01T00:00:00Z");
+    when(pollRepository.findPage(10L, Long.MAX_VALUE, Limit.of(3)))
+        .thenReturn(
+            List.of(
+                new PollSummaryRow(
+                    9L, "Lunch?", false, PollType.SINGLE_CHOICE, "alice", past, null, null),
+                new PollSummaryRow(
+                    7L, "Venue?", true, PollType.SINGLE_CHOICE, "bob", past, past, null),
+                new PollSummaryRow(
+                    4L, "Date?", false, PollType.SINGLE_CHOICE, "bob", past, null, null)));
+    when(pollOptionRepository.findRows(List.of(9L, 7L)))
+        .thenReturn(
+            List.of(
+                new PollOptionRow(7L, 70L, "here", 5),
+                new PollOptionRow(9L, 90L, "pizza", 2),
+                new PollOptionRow(9L, 91L, "sushi", 1)));
+
+    PollPageDto page = pollService.getPollPage(10L, null, null, 2, user);
+
+    assertEquals(List.of(9L, 7L), page.polls().stream().map(PollPageDto.PollSummary::id).toList());
+    assertEquals(7L, page.nextBefore());
+    PollPageDto.PollSummary lunch = page.polls().getFirst();
+    assertEquals(3, lunch.totalVotes());
+    assertEquals(2, lunch.options().size());
+    assertFalse(lunch.closed());
+    // past its deadline, even though the close job has not run yet
+    assertTrue(page.polls().get(1).closed());
+    verifyNoInteractions(pollVoteRepository, pollTallyService);
+  }
+
+  @Test
+  void shouldCountBallotsOfMultipleChoicePolls_InPage() {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    Instant past = Instant.parse("2026-01-01T00:00:00Z");
+    when(pollRepository.findPage(10L, Long.MAX_VALUE, Limit.of(21)))
+        .thenReturn(
+            List.of(
+                new PollSummaryRow(
+                    9L, "Toppings?", false, PollType.MULTIPLE_CHOICE, "alice", past, null, null)));
+    when(pollOptionRepository.findRows(List.of(9L)))
+        .thenReturn(
+            List.of(new PollOptionRow(9L, 90L, "ham", 2), new PollOptionRow(9L, 91L, "egg", 2)));
+    when(pollTallyService.findBallots(List.of(9L))).thenReturn(Map.of(9L, 3L));
+
+    PollPageDto page = pollService.getPollPage(10L, null, null, null, user);
+
+    // three ballots picked four options
+    assertEquals(3, page.polls().getFirst().totalVotes());
+    assertEquals(PollType.MULTIPLE_CHOICE, page.polls().getFirst().type());
+  }
+
+  @Test
+  void shouldFilterByStatus_AndContinueBeforeCursor() {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    when(pollRepository.findOpenPage(eq(10L), eq(7L), any(Instant.class), eq(Limit.of(21))))
+        .thenReturn(List.of());
+
+    PollPageDto page = pollService.getPollPage(10L, PollStatus.OPEN, 7L, null, user);
+
+    assertTrue(page.polls().isEmpty());
+    assertNull(page.nextBefore());
+    verifyNoInteractions(pollOptionRepository);
+  }
+
+  @Test
+  void shouldReportCountsWithoutLoadingVotes() {
+    PollResponseDto response = pollService.toResponseDto(createPoll(false));
+
+    assertEquals(
+        List.of(
+            new PollResponseDto.OptionResultDto(50L, "yes", 3),
+            new PollResponseDto.OptionResultDto(51L, "no", 0)),
+        response.getOptions());
+    verifyNoInteractions(pollVoteRepository);
+  }
+
+  @Test
+  void shouldServeResultsOfClosedPollFromSnapshot() {
+    Instant closedAt = Instant.parse("2026-01-01T12:00:00Z");
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    when(pollAccessCache.findPoll(5L))
+        .thenReturn(
+            Optional.of(
+                new PollMeta(
+                    5L, 10L, Set.of(50L), closedAt, false, closedAt, PollType.SINGLE_CHOICE)));
+    when(pollCloseService.findSnapshot(5L))
+        .thenReturn(
+            Optional.of(
+                new PollResultSnapshot(
+                    5L, closedAt, 7, List.of(new PollResultSnapshot.OptionResult(50L, "yes", 7)))));
+
+    PollResultsDto results = pollService.getResults(10L, 5L, user);
+
+    assertEquals(
+        new PollResultsDto(5L, List.of(new PollResultsDto.OptionTally(50L, 7)), 7, closedAt, null),
+        results);
+    verifyNoInteractions(pollOptionRepository, pollVoteRepository);
+  }
+
+  @Test
+  void shouldServeLiveResultsOfOpenPoll() {
+    stubAccess(false);
+    when(pollOptionRepository.findTallies(List.of(5L)))
+        .thenReturn(List.of(new PollOptionTally(5L, 50L, 2), new PollOptionTally(5L, 51L, 1)));
+
+    PollResultsDto results = pollService.getResults(10L, 5L, user);
+
+    assertEquals(3, results.totalVotes());
+    assertNull(results.closedAt());
+    assertNull(results.runoff());
+    verifyNoInteractions(pollCloseService, pollTallyService);
+  }
+
+  @Test
+  void shouldServeBallotCount_AndRunoffOfRankedPoll() {
+    stubAccess(false, PollType.RANKED_CHOICE);
+    PollResultsDto.Runoff runoff = new PollResultsDto.Runoff(List.of(), null);
+    when(pollTallyService.getRunoff(5L)).thenReturn(runoff);
+    when(pollOptionRepository.findTallies(List.of(5L)))
+        .thenReturn(List.of(new PollOptionTally(5L, 50L, 2), new PollOptionTally(5L, 51L, 1)));
+    when(pollTallyService.findBallots(List.of(5L))).thenReturn(Map.of(5L, 3L));
+
+    PollResultsDto results = pollService.getResults(10L, 5L, user);
+
+    assertEquals(3, results.totalVotes());
+    assertSame(runoff, results.runoff());
+  }
+
+  @Test
+  void shouldStoreRankedBallot_WithItsChoicesInOrder() {
+    stubAccess(false, PollType.RANKED_CHOICE);
+    when(pollVoteRepository.insertIfAbsent(anyLong(), eq(5L), eq(51L), eq(1L), eq("51,50")))
+        .thenReturn(1);
+
+    pollService.castBallot(10L, 5L, List.of(51L, 50L), user);
+
+    verify(pollTallyService).record(5L, PollType.RANKED_CHOICE, List.of(51L, 50L), 1);
+    verify(eventPublisher).publishEvent(new PollChangedEvent(10L, 5L, Change.VOTED));
+  }
+
+  private PollVote vote(Long optionId, String choices) {
+    return PollVote.builder()
+        .id(500L)
+        .option(PollOption.builder().id(optionId).build())
+        .user(user)
+        .choices(choices)
+        .build();
+  }
+
+  @Test
+  void shouldMoveVote_AndOnlyRecordTheMove() {
+    stubAccess(false);
+    PollVote vote = vote(50L, null);
+    when(pollVoteRepository.findForUpdate(5L, 1L)).thenReturn(Optional.of(vote));
+    PollOption target = PollOption.builder().id(51L).build();
+    when(pollOptionRepository.getReferenceById(51L)).thenReturn(target);
+
+    pollService.changeBallot(10L, 5L, List.of(51L), user);
+
+    assertSame(target, vote.getOption());
+    verify(pollTallyService).move(5L, PollType.SINGLE_CHOICE, List.of(50L), List.of(51L));
+    verify(pollTallyService, never()).record(any(), any(), any(), anyLong());
+    verify(eventPublisher).publishEvent(new PollChangedEvent(10L, 5L, Change.VOTED));
+  }
+
+  @Test
+  void shouldReorderRankedBallot() {
+    stubAccess(false, PollType.RANKED_CHOICE);
+    PollVote vote = vote(50L, "50,51");
+    when(pollVoteRepository.findForUpdate(5L, 1L)).thenReturn(Optional.of(vote));
+    when(pollOptionRepository.getReferenceById(51L))
+        .thenReturn(PollOption.builder().id(51L).build());
+
+    pollService.changeBallot(10L, 5L, List.of(51L, 50L), user);
+
+    assertEquals("51,50", vote.getChoices());
+    verify(pollTallyService).move(5L, PollType.RANKED_CHOICE, List.of(50L, 51L), List.of(51L, 50L));
+  }
+
+  @Test
+  void shouldLeaveCountsAlone_WhenBallotIsUnchanged() {
+    stubAccess(false);
+    when(pollVoteRepository.findForUpdate(5L, 1L)).thenReturn(Optional.of(vote(50L, null)));
+
+    pollService.changeBallot(10L, 5L, List.of(50L), user);
+
+    verifyNoInteractions(pollTallyService, eventPublisher);
+  }
+
+  @Test
+  void shouldRejectChange_WhenUserHasNotVoted() {
+    stubAccess(false);
+    when(pollVoteRepository.findForUpdate(5L, 1L)).thenReturn(Optional.empty());
+
+    assertThrows(
+        NotVotedException.class, () -> pollService.changeBallot(10L, 5L, List.of(51L), user));
+    verifyNoInteractions(pollTallyService, eventPublisher);
+  }
+
+  @Test
+  void shouldRetractVote_AndUncountIt() {
+    stubAccess(false, PollType.MULTIPLE_CHOICE);
+    PollVote vote = vote(51L, "51,50");
+    when(pollVoteRepository.findForUpdate(5L, 1L)).thenReturn(Optional.of(vote));
+
+    pollService.retractBallot(10L, 5L, user);
+
+    verify(pollVoteRepository).delete(vote);
+    verify(pollTallyService).record(5L, PollType.MULTIPLE_CHOICE, List.of(51L, 50L), -1);
+    verify(eventPublisher).publishEvent(new PollChangedEvent(10L, 5L, Change.VOTED));
+  }
+
+  @Test
+  void shouldRejectRetraction_AfterDeadline() {
+    when(pollAccessCache.isMember(10L, 1L)).thenReturn(true);
+    when(pollAccessCache.findPoll(5L))
+        .thenReturn(
+            Optional.of(
+                new PollMeta(
+                    5L,
+                    10L,
+                    Set.of(50L),
+                    Instant.now().minusSeconds(1),
+                    false,
+                    null,
+                    PollType.SINGLE_CHOICE)));
+
+    assertThrows(PollClosedException.class, () -> pollService.retractBallot(10L, 5L, user));
+    verifyNoInteractions(pollVoteRepository, pollTallyService);
+  }
+
+  @Test
+  void shouldRejectBallotPickingAnOptionTwice() {
+    stubAccess(false, PollType.MULTIPLE_CHOICE);
+
+    assertThrows(
+        InvalidBallotException.class,
+        () -> pollService.castBallot(10L, 5L, List.of(50L, 50L), user));
+    verifyNoInteractions(pollVoteRepository, pollTallyService);
+  }
+
+  @Test
+  void shouldRejectSeveralOptions_InSingleChoicePoll() {
+    stubAccess(false);
+
+    assertThrows(
+        InvalidBallotException.class,
+        () -> pollService.castBallot(10L, 5L, List.of(50L, 51L), user));
+    verifyNoInteractions(pollVoteRepository, pollTallyService);
+  }
+
+  @Test
+  void shouldPageVoters_AndReturnCursorOfLastVoter() {
+    stubAccess(false);
+    when(pollVoteRepository.findVoters(eq(5L), isNull(), eq(100L), eq(Limit.of(3))))
+        .thenReturn(
+            List.of(
+                new PollVoterRow(101L, 50L, "alice"),
+                new PollVoterRow(102L, 51L, "bob"),
+                new PollVoterRow(103L, 50L, "carol")));
+
+    PollVoterPageDto page = pollService.getVoters(10L, 5L, null, 100L, 2, user);
+
+    assertEquals(
+        List.of(new PollVoterPageDto.Voter(50L, "alice"), new PollVoterPageDto.Voter(51L, "bob")),
+        page.voters());
+    assertEquals(102L, page.nextAfter());
+  }
+
+  @Test
+  void shouldCapPageSize_AndEndOnLastPage() {
+    stubAccess(false);
+    when(pollVoteRepository.findVoters(
+            5L, 50L, Long.MIN_VALUE, Limit.of(PollService.MAX_VOTER_PAGE_SIZE + 1)))
+        .thenReturn(List.of(new PollVoterRow(101L, 50L, "alice")));
+
+    PollVoterPageDto page = pollService.getVoters(10L, 5L, 50L, null, 10_000, user);
+
+    assertEquals(1, page.voters().size());
+    assertNull(page.nextAfter());
+  }
+
+  @Test
+  void shouldNotListVotersOfAnonymousPoll() {
+    stubAccess(true);
+
+    assertThrows(
+        AnonymousPollException.class, () -> pollService.getVoters(10L, 5L, null, null, null, user));
+    verify(pollVoteRepository, never()).findVoters(any(), any(), anyLong(), any());
+  }
+}
@@ -0,0 +1,210 @@
+package vaultWeb.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import vaultWeb.dtos.PollResultsDto;
+import vaultWeb.dtos.PollResultsDto.OptionTally;
+import vaultWeb.models.PollRankingCount;
+import vaultWeb.models.PollTally;
+import vaultWeb.models.enums.PollType;
+import vaultWeb.repositories.PollOptionRepository;
+import vaultWeb.repositories.PollOptionTally;
+import vaultWeb.repositories.PollRankingCountRepository;
+import vaultWeb.repositories.PollTallyRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PollTallyServiceTest {
+
+  @Mock private PollOptionRepository pollOptionRepository;
+
+  @Mock private PollTallyRepository tallyRepository;
+
+  @Mock private PollRankingCountRepository rankingRepository;
+
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @InjectMocks private PollTallyService tallyService;
+
+  private static PollRankingCount ranking(String ranking, long ballots) {
+    PollRankingCount count = new PollRankingCount();
+    count.setPollId(5L);
+    count.setRanking(ranking);
+    count.setBallots(ballots);
+    return count;
+  }
+
+  @Test
+  void shouldEliminateLastOption_UntilOneHasAMajority() {
+    Map<List<Long>, Long> rankings = new LinkedHashMap<>();
+    rankings.put(List.of(1L, 2L), 4L);
+    rankings.put(List.of(2L, 1L), 3L);
+    rankings.put(List.of(3L, 2L), 2L);
+
+    PollResultsDto.Runoff runoff = PollTallyService.countRunoff(List.of(1L, 2L, 3L), rankings);
+
+    assertEquals(
+        List.of(
+            new PollResultsDto.Round(
+                List.of(new OptionTally(1L, 4), new OptionTally(2L, 3), new OptionTally(3L, 2)),
+                3L),
+            new PollResultsDto.Round(
+                List.of(new OptionTally(1L, 4), new OptionTally(2L, 5)), null)),
+        runoff.rounds());
+    assertEquals(2L, runoff.winnerOptionId());
+  }
+
+  @Test
+  void shouldEliminateNewestOfTiedOptions() {
+    Map<List<Long>, Long> rankings = new LinkedHashMap<>();
+    rankings.put(List.of(1L), 1L);
+    rankings.put(List.of(2L), 1L);
+
+    PollResultsDto.Runoff runoff = PollTallyService.countRunoff(List.of(1L, 2L), rankings);
+
+    assertEquals(2L, runoff.rounds().getFirst().eliminatedOptionId());
+    assertEquals(1L, runoff.winnerOptionId());
+  }
+
+  @Test
+  void shouldEndWithoutWinner_WhenAllBallotsAreExhausted() {
+    Map<List<Long>, Long> rankings = new LinkedHashMap<>();
+    rankings.put(List.of(3L), 1L);
+
+    PollResultsDto.Runoff runoff = PollTallyService.countRunoff(List.of(1L, 2L, 3L), rankings);
+
+    // option 3 wins outright; but with it removed from the poll, no ballot continues
+    assertEquals(3L, runoff.winnerOptionId());
+    assertNull(PollTallyService.countRunoff(List.of(1L, 2L), rankings).winnerOptionId());
+  }
+
+  @Test
+  void shouldServeStoredRounds_WhenBallotsAreUnchanged() {
+    PollTally tally = new PollTally(5L, 2, 7, 7, 1L, new ArrayList<>());
+    tally.getRounds().add(new PollTally.RoundCount(0, 1L, 2, false));
+    tally.getRounds().add(new PollTally.RoundCount(0, 2L, 0, false));
+    when(tallyRepository.findById(5L)).thenReturn(Optional.of(tally));
+
+    PollResultsDto.Runoff runoff = tallyService.getRunoff(5L);
+
+    assertEquals(
+        new PollResultsDto.Runoff(
+            List.of(
+                new PollResultsDto.Round(
+                    List.of(new OptionTally(1L, 2), new OptionTally(2L, 0)), null)),
+            1L),
+        runoff);
+    verify(tallyRepository, never()).findForUpdate(anyLong());
+    verifyNoInteractions(rankingRepository, pollOptionRepository);
+  }
+
+  @Test
+  void shouldRecountAndStoreRounds_AfterBallotsChanged() {
+    PollTally stale = new PollTally(5L, 3, 8, 7, 1L, new ArrayList<>());
+    when(tallyRepository.findById(5L)).thenReturn(Optional.of(stale));
+    when(tallyRepository.findForUpdate(5L)).thenReturn(Optional.of(stale));
+    when(pollOptionRepository.findTallies(List.of(5L)))
+        .thenReturn(List.of(new PollOptionTally(5L, 1L, 1), new PollOptionTally(5L, 2L, 2)));
+    when(rankingRepository.findByPollIdAndBallotsGreaterThan(5L, 0))
+        .thenReturn(List.of(ranking("1,2", 1), ranking("2", 2)));
+
+    PollResultsDto.Runoff runoff = tallyService.getRunoff(5L);
+
+    assertEquals(2L, runoff.winnerOptionId());
+    assertEquals(8, stale.getComputedVersion());
+    assertEquals(2L, stale.getWinnerOptionId());
+    assertEquals(
+        List.of(
+            new PollTally.RoundCount(0, 1L, 1, false), new PollTally.RoundCount(0, 2L, 2, false)),
+        stale.getRounds());
+  }
+
+  @Test
+  void shouldCountRankedBallot_WithoutReadingBallots() {
+    when(tallyRepository.addBallots(5L, 1)).thenReturn(1);
+    when(rankingRepository.addBallots(5L, "2,1", 1)).thenReturn(0, 1);
+
+    tallyService.record(5L, PollType.RANKED_CHOICE, List.of(2L, 1L), 1);
+
+    InOrder inOrder = inOrder(pollOptionRepository, tallyRepository, rankingRepository);
+    inOrder.verify(pollOptionRepository).addVotes(2L, 1);
+    inOrder.verify(tallyRepository).addBallots(5L, 1);
+    // first ballot with this ranking
+    inOrder.verify(rankingRepository).insertEmpty(5L, "2,1");
+    inOrder.verify(rankingRepository).addBallots(5L, "2,1", 1);
+    verify(pollOptionRepository, never()).addVotes(1L, 1);
+  }
+
+  @Test
+  void shouldCountEveryPickOfMultipleChoiceBallot_InOptionOrder() {
+    when(tallyRepository.addBallots(5L, -1)).thenReturn(1);
+
+    tallyService.record(5L, PollType.MULTIPLE_CHOICE, List.of(3L, 1L), -1);
+
+    InOrder inOrder = inOrder(pollOptionRepository, tallyRepository);
+    inOrder.verify(pollOptionRepository).addVotes(1L, -1);
+    inOrder.verify(pollOptionRepository).addVotes(3L, -1);
+    inOrder.verify(tallyRepository).addBallots(5L, -1);
+    verifyNoInteractions(rankingRepository);
+  }
+
+  @Test
+  void shouldMoveVoteBetweenOptions_InOptionOrder() {
+    tallyService.move(5L, PollType.SINGLE_CHOICE, List.of(3L), List.of(1L));
+
+    InOrder inOrder = inOrder(pollOptionRepository);
+    inOrder.verify(pollOptionRepository).addVotes(1L, 1);
+    inOrder.verify(pollOptionRepository).addVotes(3L, -1);
+    verifyNoMoreInteractions(pollOptionRepository);
+    verifyNoInteractions(tallyRepository, rankingRepository);
+  }
+
+  @Test
+  void shouldOnlyTouchChangedPicks_WhenMultipleChoiceBallotChanges() {
+    tallyService.move(5L, PollType.MULTIPLE_CHOICE, List.of(1L, 2L), List.of(2L, 3L));
+
+    verify(pollOptionRepository).addVotes(1L, -1);
+    verify(pollOptionRepository).addVotes(3L, 1);
+    verifyNoMoreInteractions(pollOptionRepository);
+    // still one ballot
+    verifyNoInteractions(tallyRepository, rankingRepository);
+  }
+
+  @Test
+  void shouldMoveRankedBallotBetweenRankings_AndInvalidateRunoff() {
+    when(tallyRepository.addBallots(5L, 0)).thenReturn(1);
+    when(rankingRepository.addBallots(eq(5L), anyString(), anyLong())).thenReturn(1);
+
+    tallyService.move(5L, PollType.RANKED_CHOICE, List.of(1L, 2L), List.of(1L, 3L));
+
+    // the first choice keeps its vote
+    verifyNoInteractions(pollOptionRepository);
+    verify(tallyRepository).addBallots(5L, 0);
+    verify(rankingRepository).addBallots(5L, "1,2", -1);
+    verify(rankingRepository).addBallots(5L, "1,3", 1);
+  }
+
+  @Test
+  void shouldNotKeepTallyOfSingleChoicePoll() {
+    tallyService.create(5L, PollType.SINGLE_CHOICE);
+    tallyService.record(5L, PollType.SINGLE_CHOICE, List.of(1L), 1);
+
+    verify(pollOptionRepository).addVotes(1L, 1);
+    verifyNoInteractions(tallyRepository, rankingRepository);
+  }
+}
@@ -4,15 +4,25 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import vaultWeb.dtos.PrivateChatDto;
+import vaultWeb.events.ChatMessagesDeletedEvent;
+import vaultWeb.events.PrivateChatChangedEvent;
 import vaultWeb.exceptions.notfound.UserNotFoundException;
+import vaultWeb.models.ConversationSummary;
 import vaultWeb.models.PrivateChat;
 import vaultWeb.models.User;
+import vaultWeb.repositories.ChatMessageRepository;
+import vaultWeb.repositories.IdCount;
 import vaultWeb.repositories.PrivateChatRepository;
 import vaultWeb.repositories.UserRepository;
 
@@ -23,6 +33,12 @@ class PrivateChatServiceTest {
 
   @Mock private UserRepository userRepository;
 
+  @Mock private ChatMessageRepository chatMessageRepository;
+
+  @Mock private ConversationSummaryService summaryService;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private PrivateChatService privateChatService;
 
   private User createUser(Long id, String username) {
@@ -103,6 +119,7 @@ class PrivateChatServiceTest {
     assertEquals(user1, result.getUser1());
     assertEquals(user2, result.getUser2());
     verify(privateChatRepository).save(any(PrivateChat.class));
+    verify(eventPublisher).publishEvent(new PrivateChatChangedEvent(100L, 1L, 2L));
   }
 
   @Test
@@ -131,4 +148,65 @@ class PrivateChatServiceTest {
     verify(privateChatRepository, never()).findByUser1AndUser2(any(), any());
     verify(privateChatRepository, never()).save(any());
   }
+
+  @Test
+  void shouldListChatsByLastActivity() {
+    User alice = createUser(1L, "alice");
+    User bob = createUser(2L, "bob");
+    User carol = createUser(3L, "carol");
+    User dave = createUser(4L, "dave");
+    PrivateChat quiet = createPrivateChat(10L, alice, bob);
+    PrivateChat older = createPrivateChat(11L, alice, carol);
+    PrivateChat newer = createPrivateChat(12L, dave, alice);
+
+    ConversationSummary olderSummary = new ConversationSummary();
+    olderSummary.setPrivateChatId(11L);
+    olderSummary.setLastMessageId(100L);
+    olderSummary.setLastActivityAt(Instant.parse("2026-01-01T10:00:00Z"));
+    olderSummary.setMessageCount(3);
+    ConversationSummary newerSummary = new ConversationSummary();
+    newerSummary.setPrivateChatId(12L);
+    newerSummary.setLastMessageId(200L);
+    newerSummary.setLastActivityAt(Instant.parse("2026-01-02T10:00:00Z"));
+    newerSummary.setMessageCount(1);
+
+    when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+    when(privateChatRepository.findAllWithParticipantsByUser(alice))
+        .thenReturn(List.of(quiet, older, newer));
+    when(summaryService.findPrivateChatSummaries(List.of(10L, 11L, 12L)))
+        .thenReturn(Map.of(11L, olderSummary, 12L, newerSummary));
+
+    List<PrivateChatDto> chats = privateChatService.getUserPrivateChatOverviews("alice");
+
+    assertEquals(List.of(12L, 11L, 10L), chats.stream().map(PrivateChatDto::id).toList());
+    assertEquals(200L, chats.get(0).lastMessageId());
+    assertEquals(3, chats.get(1).messageCount());
+    assertNull(chats.get(2).lastActivityAt());
+    assertEquals(0, chats.get(2).messageCount());
+  }
+
+  @Test
+  void shouldPublishDeletedMessagesPerSender_WhenClearingChat() {
+    User alice = createUser(1L, "alice");
+    User bob = createUser(2L, "bob");
+    PrivateChat chat = createPrivateChat(10L, alice, bob);
+
+    when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+    when(privateChatRepository.findById(10L)).thenReturn(Optional.of(chat));
+    when(chatMessageRepository.countByPrivateChatGroupedBySender(10L))
+        .thenReturn(List.of(new IdCount(1L, 3L), new IdCount(2L, 2L)));
+    when(chatMessageRepository.findIdsByPrivateChatId(10L))
+        .thenReturn(List.of(100L, 101L, 102L, 103L, 104L));
+    when(chatMessageRepository.deleteByPrivateChat(chat)).thenReturn(5);
+
+    int deleted = privateChatService.clearMultipleChats(List.of(10L), "alice");
+
+    assertEquals(5, deleted);
+    verify(summaryService).clearPrivateChat(10L);
+    verify(eventPublisher)
+        .publishEvent(
+            new ChatMessagesDeletedEvent(
+                Map.of(1L, 3L, 2L, 2L), List.of(100L, 101L, 102L, 103L, 104L)));
+    verify(eventPublisher).publishEvent(new PrivateChatChangedEvent(10L, 1L, 2L));
+  }
 }
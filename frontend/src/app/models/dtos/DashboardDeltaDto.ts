@@ -0,0 +1,28 @@
+import { PollSummary } from './UserDashboardDto';
+
+export interface DashboardDeltaDto {
+  conversations: ConversationActivity[];
+  memberCounts: MemberCount[];
+  polls: PollSummary[];
+  voteTotals: VoteTotal[];
+  removedPollIds: number[];
+  resync: boolean;
+}
+
+export interface ConversationActivity {
+  groupId: number | null;
+  privateChatId: number | null;
+  lastMessageId: number;
+  lastActivityAt: string;
+  newMessages: number;
+}
+
+export interface MemberCount {
+  groupId: number;
+  memberCount: number;
+}
+
+export interface VoteTotal {
+  pollId: number;
+  totalVotes: number;
+}
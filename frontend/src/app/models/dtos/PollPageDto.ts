@@ -0,0 +1,25 @@
+export type PollType = 'SINGLE_CHOICE' | 'MULTIPLE_CHOICE' | 'RANKED_CHOICE';
+
+export interface PollPageDto {
+  polls: PollSummary[];
+  nextBefore: number | null;
+}
+
+export interface PollSummary {
+  id: number;
+  question: string;
+  anonymous: boolean;
+  type: PollType;
+  author: string;
+  createdAt: string;
+  deadline: string | null;
+  closed: boolean;
+  options: OptionSummary[];
+  totalVotes: number;
+}
+
+export interface OptionSummary {
+  id: number;
+  text: string;
+  voteCount: number;
+}
@@ -0,0 +1,22 @@
+export interface PollResultsDto {
+  pollId: number;
+  options: OptionTally[];
+  totalVotes: number;
+  closedAt: string | null;
+  runoff: Runoff | null;
+}
+
+export interface OptionTally {
+  optionId: number;
+  voteCount: number;
+}
+
+export interface Runoff {
+  rounds: Round[];
+  winnerOptionId: number | null;
+}
+
+export interface Round {
+  options: OptionTally[];
+  eliminatedOptionId: number | null;
+}
@@ -2,4 +2,7 @@ export interface PrivateChatDto {
   id: number;
   username1: string;
   username2: string;
+  lastMessageId: number | null;
+  lastActivityAt: string | null;
+  messageCount: number;
 }
@@ -1,9 +1,13 @@
+/**
+ * A section is null when the server could not build it in time; the other
+ * sections are still filled in.
+ */
 export interface UserDashboardDto {
-  profile: ProfileSummary;
-  groups: GroupSummary[];
-  privateChats: PrivateChatSummary[];
-  polls: PollSummary[];
-  recentMessages: MessagePreview[];
+  profile: ProfileSummary | null;
+  groups: GroupSummary[] | null;
+  privateChats: PrivateChatSummary[] | null;
+  polls: PollSummary[] | null;
+  recentMessages: MessagePreview[] | null;
 }
 
 export interface ProfileSummary {
@@ -23,6 +27,8 @@ export interface GroupSummary {
   memberCount: number;
   createdAt: string;
   pollCount: number;
+  messageCount: number;
+  lastActivityAt: string | null;
 }
 
 export interface PrivateChatSummary {
@@ -30,6 +36,7 @@ export interface PrivateChatSummary {
   participant: string;
   lastMessagePreview: string | null;
   lastMessageAt: string | null;
+  messageCount: number;
 }
 
 export interface PollSummary {
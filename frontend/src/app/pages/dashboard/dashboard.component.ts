@@ -9,9 +9,26 @@ import {
   Validators,
 } from '@angular/forms';
 import { DashboardService } from '../../services/dashboard.service';
-import { UserDashboardDto } from '../../models/dtos/UserDashboardDto';
+import {
+  GroupSummary,
+  MessagePreview,
+  PollSummary,
+  PrivateChatSummary,
+  ProfileSummary,
+  UserDashboardDto,
+} from '../../models/dtos/UserDashboardDto';
 import { AuthService } from '../../services/auth.service';
 
+/** The dashboard with every list section present; missing ones are empty. */
+interface DashboardView {
+  username: string | null;
+  profile: ProfileSummary | null;
+  groups: GroupSummary[];
+  privateChats: PrivateChatSummary[];
+  polls: PollSummary[];
+  recentMessages: MessagePreview[];
+}
+
 interface StatHighlight {
   label: string;
   value: string;
@@ -27,7 +44,8 @@ interface StatHighlight {
   styleUrl: './dashboard.component.scss',
 })
 export class DashboardComponent implements OnInit {
-  dashboard?: UserDashboardDto;
+  dashboard?: DashboardView;
+  missingSections: string[] = [];
   isLoading = true;
   error: string | null = null;
   statHighlights: StatHighlight[] = [];
@@ -112,10 +130,11 @@ export class DashboardComponent implements OnInit {
 
     this.dashboardService.getDashboard().subscribe({
       next: (data) => {
-        this.dashboard = data;
+        this.dashboard = this.toView(data);
+        this.missingSections = this.findMissingSections(data);
         this.isLoading = false;
         this.error = null;
-        this.buildHighlights(data);
+        this.buildHighlights(this.dashboard);
       },
       error: () => {
         this.isLoading = false;
@@ -124,32 +143,59 @@ export class DashboardComponent implements OnInit {
     });
   }
 
-  private buildHighlights(data: UserDashboardDto): void {
-    const messages = Intl.NumberFormat('en-US').format(
-      data.profile.messagesSent,
-    );
+  private toView(data: UserDashboardDto): DashboardView {
+    return {
+      username: data.profile?.username ?? this.authService.getUsername(),
+      profile: data.profile,
+      groups: data.groups ?? [],
+      privateChats: data.privateChats ?? [],
+      polls: data.polls ?? [],
+      recentMessages: data.recentMessages ?? [],
+    };
+  }
+
+  private findMissingSections(data: UserDashboardDto): string[] {
+    const sections: [string, unknown][] = [
+      ['profile', data.profile],
+      ['groups', data.groups],
+      ['private chats', data.privateChats],
+      ['polls', data.polls],
+      ['latest messages', data.recentMessages],
+    ];
+    return sections
+      .filter(([, section]) => section == null)
+      .map(([name]) => name);
+  }
+
+  private buildHighlights(data: DashboardView): void {
+    const profile = data.profile;
+    const unknown = '–';
     this.statHighlights = [
       {
         label: 'Groups',
-        value: data.profile.groupCount.toString(),
+        value: profile ? profile.groupCount.toString() : unknown,
         helper: 'active communities',
         accent: 'cyan',
       },
       {
         label: 'Private chats',
-        value: data.profile.privateChatCount.toString(),
+        value: profile ? profile.privateChatCount.toString() : unknown,
         helper: 'ongoing conversations',
         accent: 'amber',
       },
       {
         label: 'Messages sent',
-        value: messages,
+        value: profile
+          ? Intl.NumberFormat('en-US').format(profile.messagesSent)
+          : unknown,
         helper: 'total',
         accent: 'emerald',
       },
       {
         label: 'Open polls',
-        value: data.polls.length.toString(),
+        value: this.missingSections.includes('polls')
+          ? unknown
+          : data.polls.length.toString(),
         helper: 'need attention',
         accent: 'rose',
       },